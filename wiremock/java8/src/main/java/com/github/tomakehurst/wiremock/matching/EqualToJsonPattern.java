@@ -3,6 +3,7 @@ package com.github.tomakehurst.wiremock.matching;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.RequestCache;
 import net.javacrumbs.jsonunit.core.Configuration;
 import net.javacrumbs.jsonunit.core.Option;
 import net.javacrumbs.jsonunit.core.internal.Diff;
@@ -12,6 +13,13 @@ import net.javacrumbs.jsonunit.core.listener.DifferenceListener;
 
 public class EqualToJsonPattern extends StringValuePattern {
 
+    private static final RequestCache.Parser<JsonNode> JSON_TREE = new RequestCache.Parser<JsonNode>() {
+        @Override
+        public JsonNode parse(String source) {
+            return Json.read(source, JsonNode.class);
+        }
+    };
+
     private final JsonNode expected;
     private final Boolean ignoreArrayOrder;
     private final Boolean ignoreExtraElements;
@@ -54,7 +62,7 @@ public class EqualToJsonPattern extends StringValuePattern {
         final JsonNode actual;
         final Diff diff;
         try {
-            actual = Json.read(value, JsonNode.class);
+            actual = RequestCache.parsed("json", value, JSON_TREE);
             diff = Diff.create(
                     expected, // JsonUnit knows how to work with JsonNode
                     actual,
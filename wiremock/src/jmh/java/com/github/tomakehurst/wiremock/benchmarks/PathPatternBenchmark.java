@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.common.RequestCache;
+import com.github.tomakehurst.wiremock.common.Xml;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.MatchesJsonPathPattern;
+import com.github.tomakehurst.wiremock.matching.MatchesXPathPattern;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of evaluating JSON path and XPath body patterns against a ~10 KB body,
+ * comparing expressions interpreted on every match with the compiled expressions held by the
+ * patterns. The body is parsed once per trial inside a {@link RequestCache} scope so that only
+ * expression handling is measured.
+ *
+ * Run with: ./gradlew jmh -PjmhInclude=PathPatternBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathPatternBenchmark {
+
+    private static final int ITEM_COUNT = 100;
+
+    private static final String JSON_PATH = "$.items[?(@.id == " + (ITEM_COUNT - 1) + ")].name";
+    private static final String XPATH = "/items/item[@id='" + (ITEM_COUNT - 1) + "']/name";
+
+    private String jsonBody;
+    private String xmlBody;
+    private DocumentContext jsonDocument;
+    private Document xmlDocument;
+
+    private MatchesJsonPathPattern jsonPathPattern;
+    private MatchesXPathPattern xPathPattern;
+
+    @Setup
+    public void setup() {
+        jsonBody = jsonBody();
+        xmlBody = xmlBody();
+        jsonDocument = JsonPath.parse(jsonBody);
+        xmlDocument = Xml.read(xmlBody);
+
+        jsonPathPattern = new MatchesJsonPathPattern(JSON_PATH);
+        xPathPattern = new MatchesXPathPattern(XPATH);
+
+        RequestCache.onRequestStart();
+        jsonPathPattern.match(jsonBody);
+        xPathPattern.match(xmlBody);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestCache.onRequestEnd();
+    }
+
+    @Benchmark
+    public Object jsonPathInterpretedPerMatch() {
+        return jsonDocument.read(JsonPath.compile(JSON_PATH));
+    }
+
+    @Benchmark
+    public MatchResult jsonPathCompiledOnPattern() {
+        return jsonPathPattern.match(jsonBody);
+    }
+
+    @Benchmark
+    public NodeList xPathCompiledPerMatch() throws Exception {
+        return (NodeList) XPathFactory.newInstance().newXPath()
+            .compile(XPATH)
+            .evaluate(xmlDocument, XPathConstants.NODESET);
+    }
+
+    @Benchmark
+    public MatchResult xPathCompiledOnPattern() {
+        return xPathPattern.match(xmlBody);
+    }
+
+    private static String jsonBody() {
+        StringBuilder sb = new StringBuilder("{ \"items\": [");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{ \"id\": ").append(i)
+                .append(", \"name\": \"item-").append(i)
+                .append("\", \"description\": \"A reasonably sized description of item ").append(i)
+                .append("\" }");
+        }
+        return sb.append("] }").toString();
+    }
+
+    private static String xmlBody() {
+        StringBuilder sb = new StringBuilder("<items>");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            sb.append("<item id=\"").append(i).append("\">")
+                .append("<name>item-").append(i).append("</name>")
+                .append("<description>A reasonably sized description of item ").append(i).append("</description>")
+                .append("</item>");
+        }
+        return sb.append("</items>").toString();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.newRequestPattern;
+
+/**
+ * Scores a request against a stub with several header, query and cookie patterns, as done for
+ * every stub when calculating near misses. Run with the GC profiler to see allocation per match:
+ *
+ * ./gradlew jmh -PjmhInclude="RequestPatternMatchBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestPatternMatchBenchmark {
+
+    private RequestPattern requestPattern;
+    private Request request;
+
+    @Setup
+    public void setup() {
+        requestPattern = newRequestPattern(RequestMethod.POST, urlPathEqualTo("/things"))
+            .withHeader("Accept", equalTo("application/json"))
+            .withHeader("X-Trace", matching("[a-z0-9]+"))
+            .withQueryParam("page", equalTo("2"))
+            .withQueryParam("filter", containing("colour"))
+            .withCookie("session", equalTo("abc123"))
+            .withCookie("region", equalTo("eu"))
+            .build();
+
+        request = new LoggedRequest(
+            "/things?page=3&filter=size",
+            "http://localhost/things?page=3&filter=size",
+            RequestMethod.POST,
+            "127.0.0.1",
+            new HttpHeaders(
+                new HttpHeader("Accept", "application/xml", "text/html"),
+                new HttpHeader("X-Trace", "abc123def")
+            ),
+            ImmutableMap.of(
+                "session", new Cookie("abc124"),
+                "region", new Cookie(Arrays.asList("us", "eu"))
+            ),
+            false,
+            new Date(),
+            new byte[0],
+            Collections.<Request.Part>emptyList()
+        );
+    }
+
+    @Benchmark
+    public double scoreNearMiss() {
+        MatchResult matchResult = requestPattern.match(request);
+        return matchResult.getDistance();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.ListOrSingle;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.RequestTemplateModel;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+
+/**
+ * Throughput of rendering a small template that only refers to a path segment, for a request with
+ * a typical set of headers, a few cookies and a 4 KB body. The eager variant reads every part of
+ * the template model up front, as was done before the model became lazy, to give a before and
+ * after comparison.
+ *
+ * Run with: ./gradlew jmh -PjmhInclude=ResponseTemplateBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseTemplateBenchmark {
+
+    private ResponseTemplateTransformer lazyModelTransformer;
+    private ResponseTemplateTransformer eagerModelTransformer;
+    private Request request;
+    private ResponseDefinition responseDefinition;
+    private FileSource fileSource;
+
+    @Setup
+    public void setup() {
+        lazyModelTransformer = new ResponseTemplateTransformer(true);
+        eagerModelTransformer = new ResponseTemplateTransformer(true) {
+            @Override
+            protected Map<String, Object> addExtraModelElements(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+                materialise(RequestTemplateModel.from(request));
+                return Collections.emptyMap();
+            }
+        };
+
+        responseDefinition = ok("{ \"id\": \"{{request.path.[1]}}\" }").build();
+        fileSource = new SingleRootFileSource(".");
+
+        request = new LoggedRequest(
+            "/things/1234?page=3&filter=size&sort=name",
+            "http://localhost/things/1234?page=3&filter=size&sort=name",
+            RequestMethod.POST,
+            "127.0.0.1",
+            new HttpHeaders(
+                new HttpHeader("Accept", "application/json"),
+                new HttpHeader("Accept-Encoding", "gzip, deflate"),
+                new HttpHeader("Accept-Language", "en-GB,en;q=0.9"),
+                new HttpHeader("Authorization", "Bearer " + Strings.repeat("a", 200)),
+                new HttpHeader("Cache-Control", "no-cache"),
+                new HttpHeader("Content-Type", "application/json"),
+                new HttpHeader("Host", "localhost"),
+                new HttpHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64)"),
+                new HttpHeader("X-Request-Id", "abc123def456"),
+                new HttpHeader("X-Forwarded-For", "10.0.0.1", "10.0.0.2")
+            ),
+            ImmutableMap.of(
+                "session", new Cookie("abc124"),
+                "region", new Cookie("eu"),
+                "theme", new Cookie("dark")
+            ),
+            false,
+            new Date(),
+            Strings.repeat("{\"key\":\"value\"}", 256).getBytes(),
+            Collections.<Request.Part>emptyList()
+        );
+
+        lazyModelTransformer.transform(request, responseDefinition, fileSource, Parameters.empty());
+        eagerModelTransformer.transform(request, responseDefinition, fileSource, Parameters.empty());
+    }
+
+    @Benchmark
+    public ResponseDefinition smallTemplateWithLazyModel() {
+        return lazyModelTransformer.transform(request, responseDefinition, fileSource, Parameters.empty());
+    }
+
+    @Benchmark
+    public ResponseDefinition smallTemplateWithEagerModel() {
+        return eagerModelTransformer.transform(request, responseDefinition, fileSource, Parameters.empty());
+    }
+
+    private static void materialise(RequestTemplateModel model) {
+        for (ListOrSingle<String> values: model.getHeaders().values()) {
+            values.size();
+        }
+        for (ListOrSingle<String> values: model.getCookies().values()) {
+            values.size();
+        }
+        for (ListOrSingle<String> values: model.getRequestLine().getQuery().values()) {
+            values.size();
+        }
+        model.getRequestLine().getPathSegments();
+        model.getBody();
+    }
+}
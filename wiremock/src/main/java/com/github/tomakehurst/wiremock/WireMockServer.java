@@ -18,6 +18,7 @@ package com.github.tomakehurst.wiremock;
 import com.github.tomakehurst.wiremock.admin.model.*;
 import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.BodyFileCacheStats;
 import com.github.tomakehurst.wiremock.common.FatalStartupException;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.Notifier;
@@ -26,10 +27,13 @@ import com.github.tomakehurst.wiremock.core.Admin;
 import com.github.tomakehurst.wiremock.core.Container;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.core.WireMockApp;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.TemplateCacheStats;
 import com.github.tomakehurst.wiremock.global.GlobalSettings;
 import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
 import com.github.tomakehurst.wiremock.http.HttpServer;
 import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.ProxyConnectionPoolStats;
+import com.github.tomakehurst.wiremock.http.ProxyResponseCacheStats;
 import com.github.tomakehurst.wiremock.http.RequestListener;
 import com.github.tomakehurst.wiremock.http.StubRequestHandler;
 import com.github.tomakehurst.wiremock.junit.Stubbing;
@@ -139,6 +143,7 @@ public class WireMockServer implements Container, Stubbing, Admin {
 
     public void stop() {
         httpServer.stop();
+        wireMockApp.stop();
 	}
 
 	public void start() {
@@ -370,6 +375,16 @@ public class WireMockServer implements Container, Stubbing, Admin {
         return wireMockApp.countRequestsMatching(requestPattern);
     }
 
+    @Override
+    public void registerRequestCounter(RequestPattern requestPattern) {
+        wireMockApp.registerRequestCounter(requestPattern);
+    }
+
+    @Override
+    public void removeRequestCounter(RequestPattern requestPattern) {
+        wireMockApp.removeRequestCounter(requestPattern);
+    }
+
     @Override
     public FindRequestsResult findRequestsMatching(RequestPattern requestPattern) {
         return wireMockApp.findRequestsMatching(requestPattern);
@@ -410,6 +425,36 @@ public class WireMockServer implements Container, Stubbing, Admin {
         return wireMockApp.getAllScenarios();
     }
 
+    @Override
+    public BodyFileCacheStats getBodyFileCacheStats() {
+        return wireMockApp.getBodyFileCacheStats();
+    }
+
+    @Override
+    public void resetBodyFileCache() {
+        wireMockApp.resetBodyFileCache();
+    }
+
+    @Override
+    public ProxyConnectionPoolStats getProxyConnectionPoolStats() {
+        return wireMockApp.getProxyConnectionPoolStats();
+    }
+
+    @Override
+    public ProxyResponseCacheStats getProxyResponseCacheStats() {
+        return wireMockApp.getProxyResponseCacheStats();
+    }
+
+    @Override
+    public void resetProxyResponseCache() {
+        wireMockApp.resetProxyResponseCache();
+    }
+
+    @Override
+    public TemplateCacheStats getTemplateCacheStats() {
+        return wireMockApp.getTemplateCacheStats();
+    }
+
     @Override
     public FindNearMissesResult findTopNearMissesFor(LoggedRequest loggedRequest) {
         return wireMockApp.findTopNearMissesFor(loggedRequest);
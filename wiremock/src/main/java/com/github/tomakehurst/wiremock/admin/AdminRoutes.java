@@ -77,6 +77,14 @@ public class AdminRoutes {
         router.add(GET, "/files", GetAllStubFilesTask.class);
         router.add(PUT, "/files/{filename}", EditStubFileTask.class);
         router.add(DELETE, "/files/{filename}", DeleteStubFileTask.class);
+        router.add(GET, "/files/cache", GetBodyFileCacheStatsTask.class);
+        router.add(POST, "/files/cache/reset", ResetBodyFileCacheTask.class);
+
+        router.add(GET, "/proxy/connection-pool", GetProxyConnectionPoolStatsTask.class);
+        router.add(GET, "/proxy/cache", GetProxyResponseCacheStatsTask.class);
+        router.add(POST, "/proxy/cache/reset", ResetProxyResponseCacheTask.class);
+
+        router.add(GET, "/templates/cache", GetTemplateCacheStatsTask.class);
 
         router.add(GET, "/scenarios", GetAllScenariosTask.class);
         router.add(POST, "/scenarios/reset", ResetScenariosTask.class);
@@ -85,6 +93,8 @@ public class AdminRoutes {
         router.add(DELETE,  "/requests", ResetRequestsTask.class);
         router.add(POST, "/requests/reset", OldResetRequestsTask.class);  // Deprecated
         router.add(POST, "/requests/count", GetRequestCountTask.class);
+        router.add(POST, "/requests/counters", RegisterRequestCounterTask.class);
+        router.add(POST, "/requests/counters/remove", RemoveRequestCounterTask.class);
         router.add(POST, "/requests/find", FindRequestsTask.class);
         router.add(GET,  "/requests/unmatched", FindUnmatchedRequestsTask.class);
         router.add(GET,  "/requests/unmatched/near-misses", FindNearMissesForUnmatchedTask.class);
@@ -33,6 +33,7 @@ public class DeleteStubFileTask implements AdminTask {
         FileSource fileSource = admin.getOptions().filesRoot().child(FILES_ROOT);
         File filename = new File(fileSource.getPath(), pathParams.get("filename"));
         boolean deleted = filename.delete();
+        admin.resetBodyFileCache();
         if (deleted) {
             return ResponseDefinition.ok();
         } else {
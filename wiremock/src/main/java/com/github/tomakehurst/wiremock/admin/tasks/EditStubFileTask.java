@@ -30,6 +30,7 @@ public class EditStubFileTask implements AdminTask {
         byte[] fileContent = request.getBody();
         FileSource fileSource = admin.getOptions().filesRoot().child(FILES_ROOT);
         fileSource.writeBinaryFile(pathParams.get("filename"),  fileContent);
+        admin.resetBodyFileCache();
         return ResponseDefinition.okForJson(fileContent);
     }
 }
@@ -22,10 +22,13 @@ import com.github.tomakehurst.wiremock.common.*;
 import com.github.tomakehurst.wiremock.core.Admin;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.TemplateCacheStats;
 import com.github.tomakehurst.wiremock.global.GlobalSettings;
 import com.github.tomakehurst.wiremock.http.HttpClientFactory;
 import com.github.tomakehurst.wiremock.http.HttpHeader;
 import com.github.tomakehurst.wiremock.http.HttpStatus;
+import com.github.tomakehurst.wiremock.http.ProxyConnectionPoolStats;
+import com.github.tomakehurst.wiremock.http.ProxyResponseCacheStats;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.matching.StringValuePattern;
 import com.github.tomakehurst.wiremock.recording.RecordSpecBuilder;
@@ -223,6 +226,20 @@ public class HttpAdminClient implements Admin {
         return VerificationResult.from(body);
     }
 
+    @Override
+    public void registerRequestCounter(RequestPattern requestPattern) {
+        postJsonAssertOkAndReturnBody(
+                urlFor(RegisterRequestCounterTask.class),
+                Json.write(requestPattern));
+    }
+
+    @Override
+    public void removeRequestCounter(RequestPattern requestPattern) {
+        postJsonAssertOkAndReturnBody(
+                urlFor(RemoveRequestCounterTask.class),
+                Json.write(requestPattern));
+    }
+
     @Override
     public FindRequestsResult findRequestsMatching(RequestPattern requestPattern) {
         String body = postJsonAssertOkAndReturnBody(
@@ -277,6 +294,48 @@ public class HttpAdminClient implements Admin {
         );
     }
 
+    @Override
+    public BodyFileCacheStats getBodyFileCacheStats() {
+        return executeRequest(
+            adminRoutes.requestSpecForTask(GetBodyFileCacheStatsTask.class),
+            BodyFileCacheStats.class
+        );
+    }
+
+    @Override
+    public void resetBodyFileCache() {
+        executeRequest(adminRoutes.requestSpecForTask(ResetBodyFileCacheTask.class));
+    }
+
+    @Override
+    public ProxyConnectionPoolStats getProxyConnectionPoolStats() {
+        return executeRequest(
+            adminRoutes.requestSpecForTask(GetProxyConnectionPoolStatsTask.class),
+            ProxyConnectionPoolStats.class
+        );
+    }
+
+    @Override
+    public ProxyResponseCacheStats getProxyResponseCacheStats() {
+        return executeRequest(
+            adminRoutes.requestSpecForTask(GetProxyResponseCacheStatsTask.class),
+            ProxyResponseCacheStats.class
+        );
+    }
+
+    @Override
+    public void resetProxyResponseCache() {
+        executeRequest(adminRoutes.requestSpecForTask(ResetProxyResponseCacheTask.class));
+    }
+
+    @Override
+    public TemplateCacheStats getTemplateCacheStats() {
+        return executeRequest(
+            adminRoutes.requestSpecForTask(GetTemplateCacheStatsTask.class),
+            TemplateCacheStats.class
+        );
+    }
+
     @Override
     public FindNearMissesResult findTopNearMissesFor(LoggedRequest loggedRequest) {
         String body = postJsonAssertOkAndReturnBody(
@@ -43,6 +43,7 @@ public class ResponseDefinitionBuilder {
     protected Integer fixedDelayMilliseconds;
     protected DelayDistribution delayDistribution;
     protected ChunkedDribbleDelay chunkedDribbleDelay;
+    protected BandwidthThrottle bandwidthThrottle;
     protected String proxyBaseUrl;
     protected Fault fault;
     protected List<String> responseTransformerNames;
@@ -57,11 +58,12 @@ public class ResponseDefinitionBuilder {
         builder.binaryBody = responseDefinition.getByteBodyIfBinary();
         builder.stringBody = responseDefinition.getBody();
         builder.base64Body = responseDefinition.getBase64Body();
-        builder.jsonBody = responseDefinition.getJsonBody();
+        builder.jsonBody = responseDefinition.specifiesJsonBodyContent() ? Json.rawNode(responseDefinition.getTextBody()) : null;
         builder.bodyFileName = responseDefinition.getBodyFileName();
         builder.fixedDelayMilliseconds = responseDefinition.getFixedDelayMilliseconds();
         builder.delayDistribution = responseDefinition.getDelayDistribution();
         builder.chunkedDribbleDelay = responseDefinition.getChunkedDribbleDelay();
+        builder.bandwidthThrottle = responseDefinition.getBandwidthThrottle();
         builder.proxyBaseUrl = responseDefinition.getProxyBaseUrl();
         builder.fault = responseDefinition.getFault();
         builder.responseTransformerNames = responseDefinition.getTransformers();
@@ -135,6 +137,19 @@ public class ResponseDefinitionBuilder {
         return this;
     }
 
+    public ResponseDefinitionBuilder withBandwidthThrottle(int bytesPerSecond) {
+        return withBandwidthThrottle(new BandwidthThrottle(bytesPerSecond));
+    }
+
+    public ResponseDefinitionBuilder withBandwidthThrottle(int bytesPerSecond, double jitter, int timeToFirstByteMilliseconds) {
+        return withBandwidthThrottle(new BandwidthThrottle(bytesPerSecond, jitter, timeToFirstByteMilliseconds));
+    }
+
+    public ResponseDefinitionBuilder withBandwidthThrottle(BandwidthThrottle bandwidthThrottle) {
+        this.bandwidthThrottle = bandwidthThrottle;
+        return this;
+    }
+
     public ResponseDefinitionBuilder withTransformers(String... responseTransformerNames) {
         this.responseTransformerNames = asList(responseTransformerNames);
         return this;
@@ -200,6 +215,7 @@ public class ResponseDefinitionBuilder {
             this.fixedDelayMilliseconds = from.fixedDelayMilliseconds;
             this.delayDistribution = from.delayDistribution;
             this.chunkedDribbleDelay = from.chunkedDribbleDelay;
+            this.bandwidthThrottle = from.bandwidthThrottle;
             this.proxyBaseUrl = from.proxyBaseUrl;
             this.responseTransformerNames = from.responseTransformerNames;
             this.transformerParameters = from.transformerParameters;
@@ -249,6 +265,7 @@ public class ResponseDefinitionBuilder {
                     fixedDelayMilliseconds,
                     delayDistribution,
                     chunkedDribbleDelay,
+                    bandwidthThrottle,
                     proxyBaseUrl,
                     fault,
                     responseTransformerNames,
@@ -268,6 +285,7 @@ public class ResponseDefinitionBuilder {
                     fixedDelayMilliseconds,
                     delayDistribution,
                     chunkedDribbleDelay,
+                    bandwidthThrottle,
                     proxyBaseUrl,
                     fault,
                     responseTransformerNames,
@@ -286,6 +304,7 @@ public class ResponseDefinitionBuilder {
                     fixedDelayMilliseconds,
                     delayDistribution,
                     chunkedDribbleDelay,
+                    bandwidthThrottle,
                     proxyBaseUrl,
                     fault,
                     responseTransformerNames,
@@ -18,13 +18,17 @@ package com.github.tomakehurst.wiremock.client;
 import com.github.tomakehurst.wiremock.admin.model.ListStubMappingsResult;
 import com.github.tomakehurst.wiremock.admin.model.SingleStubMappingResult;
 import com.github.tomakehurst.wiremock.stubbing.*;
+import com.github.tomakehurst.wiremock.common.BodyFileCacheStats;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
 import com.github.tomakehurst.wiremock.core.Admin;
 import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.TemplateCacheStats;
 import com.github.tomakehurst.wiremock.global.GlobalSettings;
 import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
 import com.github.tomakehurst.wiremock.http.DelayDistribution;
+import com.github.tomakehurst.wiremock.http.ProxyConnectionPoolStats;
+import com.github.tomakehurst.wiremock.http.ProxyResponseCacheStats;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.matching.*;
@@ -276,6 +280,30 @@ public class WireMock {
         return admin.getAllScenarios().getScenarios();
     }
 
+    public BodyFileCacheStats getBodyFileCacheStats() {
+        return admin.getBodyFileCacheStats();
+    }
+
+    public void resetBodyFileCache() {
+        admin.resetBodyFileCache();
+    }
+
+    public ProxyConnectionPoolStats getProxyConnectionPoolStats() {
+        return admin.getProxyConnectionPoolStats();
+    }
+
+    public ProxyResponseCacheStats getProxyResponseCacheStats() {
+        return admin.getProxyResponseCacheStats();
+    }
+
+    public void resetProxyResponseCache() {
+        admin.resetProxyResponseCache();
+    }
+
+    public TemplateCacheStats getTemplateCacheStats() {
+        return admin.getTemplateCacheStats();
+    }
+
     public static void resetAllScenarios() {
 		defaultInstance.get().resetScenarios();
 	}
@@ -563,6 +591,26 @@ public class WireMock {
 		defaultInstance.get().verifyThat(countMatchingStrategy, requestPatternBuilder);
 	}
 
+    /**
+     * Counts requests matching the pattern as they are received, so that verifying the same pattern
+     * later doesn't need to search the request journal. Only requests received after registration are counted.
+     */
+    public void registerCounter(RequestPatternBuilder requestPatternBuilder) {
+        admin.registerRequestCounter(requestPatternBuilder.build());
+    }
+
+    public static void registerRequestCounter(RequestPatternBuilder requestPatternBuilder) {
+        defaultInstance.get().registerCounter(requestPatternBuilder);
+    }
+
+    public void removeCounter(RequestPatternBuilder requestPatternBuilder) {
+        admin.removeRequestCounter(requestPatternBuilder.build());
+    }
+
+    public static void removeRequestCounter(RequestPatternBuilder requestPatternBuilder) {
+        defaultInstance.get().removeCounter(requestPatternBuilder);
+    }
+
     public List<LoggedRequest> find(RequestPatternBuilder requestPatternBuilder) {
         FindRequestsResult result = admin.findRequestsMatching(requestPatternBuilder.build());
         result.assertRequestJournalEnabled();
@@ -20,8 +20,13 @@ import com.google.common.io.ByteStreams;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static java.nio.file.StandardOpenOption.READ;
 
 public class BinaryFile implements InputStreamSource {
 
@@ -39,6 +44,41 @@ public class BinaryFile implements InputStreamSource {
 		}
 	}
 
+	public boolean isLocalFile() {
+		return "file".equals(uri.getScheme());
+	}
+
+	/**
+	 * The length of the file in bytes, taken from file metadata where possible so that
+	 * the contents don't need to be read. Fails if the file doesn't exist.
+	 */
+	public long length() {
+		try {
+			if (isLocalFile()) {
+				return Files.size(Paths.get(uri));
+			}
+
+			URLConnection connection = uri.toURL().openConnection();
+			long length = connection.getContentLengthLong();
+			connection.getInputStream().close();
+			return length >= 0 ? length : readContents().length;
+		} catch (IOException e) {
+			return throwUnchecked(e, Long.class);
+		}
+	}
+
+	/**
+	 * Opens a channel onto a local file, allowing it to be sent without copying its
+	 * contents onto the heap.
+	 */
+	public FileChannel openChannel() {
+		try {
+			return FileChannel.open(Paths.get(uri), READ);
+		} catch (IOException e) {
+			return throwUnchecked(e, FileChannel.class);
+		}
+	}
+
 	protected URI getUri() {
 		return uri;
 	}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Holds the contents of recently served body files in direct buffers, bounded by their total size
+ * and evicting the least recently used files first. A cached file is re-read when its modification
+ * time or size on disk changes, so edits made outside WireMock are picked up.
+ */
+public class BodyFileCache {
+
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BodyFileCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Returns a read-only view of the file's contents, or null if the file doesn't exist or is too
+     * large to cache, in which case it should be read from disk as usual.
+     */
+    public ByteBuffer get(File file) {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if (lastModified == 0L || length > maxBytes) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        String key = keyFor(file);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified && entry.contents.capacity() == length) {
+                hits.incrementAndGet();
+                return entry.contents.duplicate();
+            }
+        }
+
+        misses.incrementAndGet();
+        ByteBuffer contents = read(file, length);
+        put(key, new Entry(contents, lastModified));
+        return contents.duplicate();
+    }
+
+    public synchronized void invalidate(File file) {
+        Entry removed = entries.remove(keyFor(file));
+        if (removed != null) {
+            totalBytes -= removed.contents.capacity();
+        }
+    }
+
+    public synchronized void reset() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized BodyFileCacheStats getStats() {
+        return new BodyFileCacheStats(hits.get(), misses.get(), entries.size(), totalBytes, maxBytes);
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.contents.capacity();
+        }
+        totalBytes += entry.contents.capacity();
+
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (totalBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            totalBytes -= leastRecentlyUsed.next().contents.capacity();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private static String keyFor(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
+    }
+
+    private static ByteBuffer read(File file, long length) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) length);
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+        } catch (IOException e) {
+            return throwUnchecked(e, ByteBuffer.class);
+        }
+
+        buffer.flip();
+        return buffer.slice().asReadOnlyBuffer();
+    }
+
+    private static class Entry {
+
+        final ByteBuffer contents;
+        final long lastModified;
+
+        Entry(ByteBuffer contents, long lastModified) {
+            this.contents = contents;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+/**
+ * A file whose contents are served from a {@link BodyFileCache}, falling back to reading from disk
+ * when the file can't be cached.
+ */
+public class CachedFile extends TextFile {
+
+    private final BodyFileCache cache;
+    private ByteBuffer contents;
+    private boolean looked;
+
+    public CachedFile(URI uri, BodyFileCache cache) {
+        super(uri);
+        this.cache = cache;
+    }
+
+    /**
+     * A read-only view of the cached contents, or null if the file isn't cached.
+     */
+    public ByteBuffer getContents() {
+        if (!looked) {
+            contents = cache.get(new File(getUri()));
+            looked = true;
+        }
+
+        return contents != null ? contents.duplicate() : null;
+    }
+
+    @Override
+    public byte[] readContents() {
+        ByteBuffer buffer = getContents();
+        if (buffer == null) {
+            return super.readContents();
+        }
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public InputStream getStream() {
+        ByteBuffer buffer = getContents();
+        return buffer != null ?
+            new ByteBufferBackedInputStream(buffer) :
+            super.getStream();
+    }
+
+    @Override
+    public long length() {
+        ByteBuffer buffer = getContents();
+        return buffer != null ?
+            buffer.remaining() :
+            super.length();
+    }
+}
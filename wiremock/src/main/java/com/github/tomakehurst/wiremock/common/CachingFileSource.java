@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import java.io.File;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Serves files from a {@link BodyFileCache} where they're on the local filesystem, delegating
+ * everything else to the wrapped file source. Writes and deletes made through this source
+ * invalidate the cached copy.
+ */
+public class CachingFileSource implements FileSource {
+
+    private final FileSource delegate;
+    private final BodyFileCache cache;
+
+    public CachingFileSource(FileSource delegate, BodyFileCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public BinaryFile getBinaryFileNamed(String name) {
+        BinaryFile file = delegate.getBinaryFileNamed(name);
+        return file.isLocalFile() ? new CachedFile(file.getUri(), cache) : file;
+    }
+
+    @Override
+    public TextFile getTextFileNamed(String name) {
+        TextFile file = delegate.getTextFileNamed(name);
+        return file.isLocalFile() ? new CachedFile(file.getUri(), cache) : file;
+    }
+
+    @Override
+    public void createIfNecessary() {
+        delegate.createIfNecessary();
+    }
+
+    @Override
+    public FileSource child(String subDirectoryName) {
+        return new CachingFileSource(delegate.child(subDirectoryName), cache);
+    }
+
+    @Override
+    public String getPath() {
+        return delegate.getPath();
+    }
+
+    @Override
+    public URI getUri() {
+        return delegate.getUri();
+    }
+
+    @Override
+    public List<TextFile> listFilesRecursively() {
+        return delegate.listFilesRecursively();
+    }
+
+    @Override
+    public void writeTextFile(String name, String contents) {
+        delegate.writeTextFile(name, contents);
+        invalidate(name);
+    }
+
+    @Override
+    public void writeBinaryFile(String name, byte[] contents) {
+        delegate.writeBinaryFile(name, contents);
+        invalidate(name);
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public void deleteFile(String name) {
+        delegate.deleteFile(name);
+        invalidate(name);
+    }
+
+    private void invalidate(String name) {
+        File file = new File(name);
+        cache.invalidate(file.isAbsolute() ? file : new File(getPath(), name));
+    }
+}
@@ -27,6 +27,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.POJONode;
+import com.fasterxml.jackson.databind.util.RawValue;
 
 public final class Json {
 
@@ -104,6 +106,14 @@ public final class Json {
         return read(json, JsonNode.class);
     }
 
+    /**
+     * Wraps text that is already known to be valid JSON in a node that is written out verbatim, so that it
+     * doesn't need to be parsed just to be serialised again. The node can't be navigated as a tree.
+     */
+    public static JsonNode rawNode(String json) {
+        return new POJONode(new RawValue(json));
+    }
+
     public static int maxDeepSize(JsonNode one, JsonNode two) {
         return Math.max(deepSize(one), deepSize(two));
     }
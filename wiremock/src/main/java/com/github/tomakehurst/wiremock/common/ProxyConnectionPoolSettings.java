@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+public class ProxyConnectionPoolSettings {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 1000;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 100;
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLISECONDS = 30000;
+
+    public static final ProxyConnectionPoolSettings DEFAULTS = new ProxyConnectionPoolSettings(
+        DEFAULT_MAX_CONNECTIONS,
+        DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+        DEFAULT_IDLE_TIMEOUT_MILLISECONDS
+    );
+
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int idleTimeoutMilliseconds;
+
+    public ProxyConnectionPoolSettings(int maxConnections, int maxConnectionsPerRoute, int idleTimeoutMilliseconds) {
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.idleTimeoutMilliseconds = idleTimeoutMilliseconds;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getIdleTimeoutMilliseconds() {
+        return idleTimeoutMilliseconds;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ProxyResponseCacheSettings {
+
+    public static final int DEFAULT_TTL_MILLISECONDS = 60000;
+
+    public static final ProxyResponseCacheSettings DISABLED = new ProxyResponseCacheSettings(
+        0,
+        DEFAULT_TTL_MILLISECONDS,
+        Collections.<String>emptyList()
+    );
+
+    private final long maxBytes;
+    private final int ttlMilliseconds;
+    private final List<String> keyHeaders;
+
+    public ProxyResponseCacheSettings(long maxBytes, int ttlMilliseconds, List<String> keyHeaders) {
+        this.maxBytes = maxBytes;
+        this.ttlMilliseconds = ttlMilliseconds;
+        this.keyHeaders = ImmutableList.copyOf(keyHeaders);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * The longest time a response is served from the cache before being revalidated with the target
+     */
+    public int getTtlMilliseconds() {
+        return ttlMilliseconds;
+    }
+
+    /**
+     * Names of request headers whose values form part of the cache key, in addition to the method and URL
+     */
+    public List<String> getKeyHeaders() {
+        return keyHeaders;
+    }
+}
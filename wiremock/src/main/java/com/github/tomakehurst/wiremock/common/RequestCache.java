@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import com.google.common.base.Supplier;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Memoises documents parsed from the request being served (JSON trees, JsonPath contexts, DOM documents)
+ * so that each is parsed once per request rather than once per stub that inspects it.
+ *
+ * The cache is bound to the serving thread between {@link #onRequestStart()} and {@link #onRequestEnd()}.
+ * Scopes may be nested, in which case the outermost one owns the cache. Outside of a scope nothing is
+ * cached and every lookup parses afresh, so matchers behave identically when used directly.
+ */
+public class RequestCache {
+
+    private static final ThreadLocal<RequestCache> currentCache = new ThreadLocal<>();
+
+    private final Map<Key, Object> entries = new HashMap<>();
+    private final Map<Class<?>, Object> scopedInstances = new HashMap<>();
+    private int depth;
+
+    public interface Parser<T> {
+        T parse(String source) throws Exception;
+    }
+
+    public static void onRequestStart() {
+        RequestCache cache = currentCache.get();
+        if (cache == null) {
+            cache = new RequestCache();
+            currentCache.set(cache);
+        }
+
+        cache.depth++;
+    }
+
+    public static void onRequestEnd() {
+        RequestCache cache = currentCache.get();
+        if (cache != null && --cache.depth <= 0) {
+            currentCache.remove();
+        }
+    }
+
+    public static boolean isActive() {
+        return currentCache.get() != null;
+    }
+
+    /**
+     * Returns the result of parsing {@code source} with {@code parser}, re-using an earlier result for the
+     * same kind of document and source text within the current request. Parse failures are remembered too,
+     * and the original exception is rethrown on each subsequent lookup.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T parsed(String kind, String source, Parser<T> parser) throws Exception {
+        RequestCache cache = currentCache.get();
+        if (cache == null || source == null) {
+            return parser.parse(source);
+        }
+
+        Key key = new Key(kind, source);
+        Object entry = cache.entries.get(key);
+        if (entry == null && !cache.entries.containsKey(key)) {
+            try {
+                entry = parser.parse(source);
+            } catch (Exception e) {
+                entry = new Failure(e);
+            }
+            cache.entries.put(key, entry);
+        }
+
+        if (entry instanceof Failure) {
+            throw ((Failure) entry).exception;
+        }
+
+        return (T) entry;
+    }
+
+    /**
+     * Returns the instance of {@code type} held for the current request, creating it with {@code factory} on first use.
+     * Outside of a request scope a new instance is created on every call.
+     */
+    public static <T> T scoped(Class<T> type, Supplier<T> factory) {
+        RequestCache cache = currentCache.get();
+        if (cache == null) {
+            return factory.get();
+        }
+
+        Object instance = cache.scopedInstances.get(type);
+        if (instance == null) {
+            instance = factory.get();
+            cache.scopedInstances.put(type, instance);
+        }
+
+        return type.cast(instance);
+    }
+
+    private static class Failure {
+
+        final Exception exception;
+
+        Failure(Exception exception) {
+            this.exception = exception;
+        }
+    }
+
+    private static class Key {
+
+        private final String kind;
+        private final String source;
+
+        Key(String kind, String source) {
+            this.kind = kind;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            // Matchers are normally handed the same body String instance, so this is usually an identity check
+            return kind.equals(key.kind) && (source == key.source || source.equals(key.source));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, source);
+        }
+    }
+}
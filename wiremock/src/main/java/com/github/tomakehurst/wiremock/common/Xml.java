@@ -144,6 +144,10 @@ public class Xml {
         return new SkipResolvingEntitiesDocumentBuilderFactory();
     }
 
+    public static DocumentBuilder newNamespaceAwareDocumentBuilder() {
+        return SkipResolvingEntitiesDocumentBuilderFactory.NAMESPACE_AWARE_DB_CACHE.get();
+    }
+
     private static class SkipResolvingEntitiesDocumentBuilderFactory extends DocumentBuilderFactory {
 
         private static final ThreadLocal<DocumentBuilderFactory> DBF_CACHE = new ThreadLocal<DocumentBuilderFactory>() {
@@ -179,6 +183,29 @@ public class Xml {
             }
         };
 
+        private static final ThreadLocal<DocumentBuilder> NAMESPACE_AWARE_DB_CACHE = new ThreadLocal<DocumentBuilder>() {
+            @Override
+            protected DocumentBuilder initialValue() {
+                try {
+                    DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+                    dbf.setFeature("http://xml.org/sax/features/validation", false);
+                    dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
+                    dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+                    dbf.setNamespaceAware(true);
+                    return dbf.newDocumentBuilder();
+                } catch (ParserConfigurationException e) {
+                    return throwUnchecked(e, DocumentBuilder.class);
+                }
+            }
+
+            @Override
+            public DocumentBuilder get() {
+                DocumentBuilder documentBuilder = super.get();
+                documentBuilder.setEntityResolver(new ResolveToEmptyString());
+                documentBuilder.setErrorHandler(null);
+                return documentBuilder;
+            }
+        };
         @Override
         public DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
             return DB_CACHE.get();
@@ -16,6 +16,10 @@
 package com.github.tomakehurst.wiremock.core;
 
 import com.github.tomakehurst.wiremock.admin.model.*;
+import com.github.tomakehurst.wiremock.common.BodyFileCacheStats;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.TemplateCacheStats;
+import com.github.tomakehurst.wiremock.http.ProxyConnectionPoolStats;
+import com.github.tomakehurst.wiremock.http.ProxyResponseCacheStats;
 import com.github.tomakehurst.wiremock.global.GlobalSettings;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.matching.StringValuePattern;
@@ -49,6 +53,8 @@ public interface Admin {
     GetServeEventsResult getServeEvents();
     SingleServedStubResult getServedStub(UUID id);
     VerificationResult countRequestsMatching(RequestPattern requestPattern);
+    void registerRequestCounter(RequestPattern requestPattern);
+    void removeRequestCounter(RequestPattern requestPattern);
     FindRequestsResult findRequestsMatching(RequestPattern requestPattern);
     FindRequestsResult findUnmatchedRequests();
 
@@ -62,6 +68,16 @@ public interface Admin {
 
     GetScenariosResult getAllScenarios();
 
+    BodyFileCacheStats getBodyFileCacheStats();
+    void resetBodyFileCache();
+
+    ProxyConnectionPoolStats getProxyConnectionPoolStats();
+
+    ProxyResponseCacheStats getProxyResponseCacheStats();
+    void resetProxyResponseCache();
+
+    TemplateCacheStats getTemplateCacheStats();
+
     void updateGlobalSettings(GlobalSettings settings);
 
     SnapshotRecordResult snapshotRecord();
@@ -16,6 +16,8 @@
 package com.github.tomakehurst.wiremock.core;
 
 import com.github.tomakehurst.wiremock.common.AsynchronousResponseSettings;
+import com.github.tomakehurst.wiremock.common.ProxyConnectionPoolSettings;
+import com.github.tomakehurst.wiremock.common.ProxyResponseCacheSettings;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.HttpsSettings;
 import com.github.tomakehurst.wiremock.common.JettySettings;
@@ -38,6 +40,8 @@ import java.util.Map;
 public interface Options {
 
     enum ChunkedEncodingPolicy { ALWAYS, NEVER, BODY_FILE }
+    enum StubMappingSetType { CONCURRENT, COPY_ON_WRITE }
+    enum RequestJournalType { IN_MEMORY, RING_BUFFER, MEMORY_MAPPED }
 
     int DEFAULT_PORT = 8080;
     int DYNAMIC_PORT = 0;
@@ -72,4 +76,14 @@ public interface Options {
     ChunkedEncodingPolicy getChunkedEncodingPolicy();
     boolean getGzipDisabled();
     boolean getStubRequestLoggingDisabled();
+    StubMappingSetType getStubMappingSetType();
+    RequestJournalType getRequestJournalType();
+    String getRequestJournalDirectory();
+    long getBodyFileCacheMaxBytes();
+    boolean getStaticStubResponseCachingEnabled();
+    ProxyConnectionPoolSettings getProxyConnectionPoolSettings();
+    boolean getProxiedResponseStreamingEnabled();
+    boolean getAsynchronousProxyingEnabled();
+    ProxyResponseCacheSettings getProxyResponseCacheSettings();
+    long getRequestBodySpillThresholdBytes();
 }
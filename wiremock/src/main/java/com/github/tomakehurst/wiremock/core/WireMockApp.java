@@ -18,10 +18,17 @@ package com.github.tomakehurst.wiremock.core;
 import com.github.tomakehurst.wiremock.admin.AdminRoutes;
 import com.github.tomakehurst.wiremock.admin.LimitAndOffsetPaginator;
 import com.github.tomakehurst.wiremock.admin.model.*;
+import com.github.tomakehurst.wiremock.common.BodyFileCache;
+import com.github.tomakehurst.wiremock.common.BodyFileCacheStats;
+import com.github.tomakehurst.wiremock.common.CachingFileSource;
 import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.ProxyConnectionPoolSettings;
+import com.github.tomakehurst.wiremock.common.ProxyResponseCacheSettings;
 import com.github.tomakehurst.wiremock.common.Xml;
 import com.github.tomakehurst.wiremock.extension.*;
 import com.github.tomakehurst.wiremock.extension.requestfilter.RequestFilter;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.TemplateCacheStats;
 import com.github.tomakehurst.wiremock.global.GlobalSettings;
 import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
 import com.github.tomakehurst.wiremock.http.*;
@@ -39,12 +46,19 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.common.KeyStoreSettings.NO_STORE;
 import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.github.tomakehurst.wiremock.common.ProxySettings.NO_PROXY;
 import static com.github.tomakehurst.wiremock.stubbing.ServeEvent.NOT_MATCHED;
 import static com.github.tomakehurst.wiremock.stubbing.ServeEvent.TO_LOGGED_REQUEST;
 import static com.google.common.base.MoreObjects.firstNonNull;
@@ -59,8 +73,8 @@ public class WireMockApp implements StubServer, Admin {
     public static final String MAPPINGS_ROOT = "mappings";
 
 
-    private final StubMappings stubMappings;
-    private final RequestJournal requestJournal;
+    private final InMemoryStubMappings stubMappings;
+    private final CountingRequestJournal requestJournal;
     private final GlobalSettingsHolder globalSettingsHolder;
     private final boolean browserProxyingEnabled;
     private final MappingsLoader defaultMappingsLoader;
@@ -70,6 +84,13 @@ public class WireMockApp implements StubServer, Admin {
     private final PlainTextDiffRenderer diffRenderer;
     private final Recorder recorder;
     private final List<GlobalSettingsListener> globalSettingsListeners;
+    private final BodyFileCache bodyFileCache;
+    private final FileSource fileSource;
+    private final StaticResponseCache staticResponseCache;
+    private final ProxyConnectionPool proxyConnectionPool;
+    private final AsyncProxyClient asyncProxyClient;
+    private final ProxyResponseCache proxyResponseCache;
+    private final List<ResponseTemplateTransformer> templateTransformers;
 
     private Options options;
 
@@ -80,19 +101,53 @@ public class WireMockApp implements StubServer, Admin {
     public WireMockApp(Options options, Container container) {
         this.options = options;
 
-        FileSource fileSource = options.filesRoot();
+        bodyFileCache = new BodyFileCache(options.getBodyFileCacheMaxBytes());
+        fileSource = bodyFileCache.isEnabled() ?
+            new CachingFileSource(options.filesRoot(), bodyFileCache) :
+            options.filesRoot();
+
+        proxyConnectionPool = ProxyResponseRenderer.createConnectionPool(
+            options.getProxyConnectionPoolSettings(),
+            options.proxyVia(),
+            options.httpsSettings().trustStore()
+        );
+        asyncProxyClient = options.getAsynchronousProxyingEnabled() ?
+            ProxyResponseRenderer.createAsyncProxyClient(
+                options.getProxyConnectionPoolSettings(),
+                options.proxyVia(),
+                options.httpsSettings().trustStore()
+            ) :
+            null;
+        proxyResponseCache = new ProxyResponseCache(options.getProxyResponseCacheSettings());
+        templateTransformers = templateTransformersIn(options.extensionsOfType(ResponseDefinitionTransformer.class).values());
 
         this.browserProxyingEnabled = options.browserProxyingEnabled();
         this.defaultMappingsLoader = options.mappingsLoader();
         this.mappingsSaver = options.mappingsSaver();
         globalSettingsHolder = new GlobalSettingsHolder();
-        requestJournal = options.requestJournalDisabled() ? new DisabledRequestJournal() : new InMemoryRequestJournal(options.maxRequestJournalEntries());
+        requestJournal = new CountingRequestJournal(
+            options.requestJournalDisabled() ? new DisabledRequestJournal() : createRequestJournal(options)
+        );
         Map<String, RequestMatcherExtension> customMatchers = options.extensionsOfType(RequestMatcherExtension.class);
+        ImmutableList.Builder<StubLifecycleListener> stubLifecycleListeners = ImmutableList.builder();
+        stubLifecycleListeners.addAll(options.extensionsOfType(StubLifecycleListener.class).values());
+        if (options.getStaticStubResponseCachingEnabled()) {
+            staticResponseCache = new StaticResponseCache(
+                anyAppliedGlobally(options.extensionsOfType(ResponseDefinitionTransformer.class).values()) ||
+                anyAppliedGlobally(options.extensionsOfType(ResponseTransformer.class).values())
+            );
+            stubLifecycleListeners.add(staticResponseCache);
+        } else {
+            staticResponseCache = null;
+        }
         stubMappings = new InMemoryStubMappings(
+            options.getStubMappingSetType() == Options.StubMappingSetType.COPY_ON_WRITE ?
+                new CopyOnWriteMappingSet() :
+                new SortedConcurrentMappingSet(),
             customMatchers,
             options.extensionsOfType(ResponseDefinitionTransformer.class),
             fileSource,
-            ImmutableList.copyOf(options.extensionsOfType(StubLifecycleListener.class).values())
+            stubLifecycleListeners.build()
         );
         nearMissCalculator = new NearMissCalculator(stubMappings, requestJournal);
         diffRenderer = new PlainTextDiffRenderer(customMatchers);
@@ -118,7 +173,16 @@ public class WireMockApp implements StubServer, Admin {
         this.defaultMappingsLoader = defaultMappingsLoader;
         this.mappingsSaver = mappingsSaver;
         globalSettingsHolder = new GlobalSettingsHolder();
-        requestJournal = requestJournalDisabled ? new DisabledRequestJournal() : new InMemoryRequestJournal(maxRequestJournalEntries);
+        requestJournal = new CountingRequestJournal(
+            requestJournalDisabled ? new DisabledRequestJournal() : new InMemoryRequestJournal(maxRequestJournalEntries)
+        );
+        bodyFileCache = new BodyFileCache(0);
+        fileSource = rootFileSource;
+        staticResponseCache = null;
+        proxyConnectionPool = ProxyResponseRenderer.createConnectionPool(ProxyConnectionPoolSettings.DEFAULTS, NO_PROXY, NO_STORE);
+        asyncProxyClient = null;
+        proxyResponseCache = new ProxyResponseCache(ProxyResponseCacheSettings.DISABLED);
+        templateTransformers = templateTransformersIn(transformers.values());
         stubMappings = new InMemoryStubMappings(requestMatchers, transformers, rootFileSource, Collections.<StubLifecycleListener>emptyList());
         this.container = container;
         nearMissCalculator = new NearMissCalculator(stubMappings, requestJournal);
@@ -128,6 +192,29 @@ public class WireMockApp implements StubServer, Admin {
         loadDefaultMappings();
     }
 
+    private static RequestJournal createRequestJournal(Options options) {
+        switch (options.getRequestJournalType()) {
+            case RING_BUFFER:
+                return new RingBufferRequestJournal(options.maxRequestJournalEntries());
+            case MEMORY_MAPPED:
+                return new MappedFileRequestJournal(options.maxRequestJournalEntries(), requestJournalDirectory(options));
+            default:
+                return new InMemoryRequestJournal(options.maxRequestJournalEntries());
+        }
+    }
+
+    private static File requestJournalDirectory(Options options) {
+        if (options.getRequestJournalDirectory() != null) {
+            return new File(options.getRequestJournalDirectory());
+        }
+
+        try {
+            return Files.createTempDirectory("wiremock-journal").toFile();
+        } catch (IOException e) {
+            return throwUnchecked(e, File.class);
+        }
+    }
+
     public AdminRequestHandler buildAdminRequestHandler() {
         AdminRoutes adminRoutes = AdminRoutes.defaultsPlus(
             options.extensionsOfType(AdminApiExtension.class).values(),
@@ -143,20 +230,38 @@ public class WireMockApp implements StubServer, Admin {
         );
     }
 
+    private static boolean anyAppliedGlobally(Collection<? extends AbstractTransformer<?>> transformers) {
+        for (AbstractTransformer<?> transformer: transformers) {
+            if (transformer.applyGlobally()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static List<ResponseTemplateTransformer> templateTransformersIn(Collection<ResponseDefinitionTransformer> transformers) {
+        return from(transformers).filter(ResponseTemplateTransformer.class).toList();
+    }
+
     public StubRequestHandler buildStubRequestHandler() {
         Map<String, PostServeAction> postServeActions = options.extensionsOfType(PostServeAction.class);
         return new StubRequestHandler(
             this,
             new StubResponseRenderer(
-                options.filesRoot().child(FILES_ROOT),
+                fileSource.child(FILES_ROOT),
                 getGlobalSettingsHolder(),
                 new ProxyResponseRenderer(
-                    options.proxyVia(),
-                    options.httpsSettings().trustStore(),
+                    proxyConnectionPool,
+                    asyncProxyClient,
+                    proxyResponseCache,
                     options.shouldPreserveHostHeader(),
                     options.proxyHostHeader(),
-                    globalSettingsHolder),
-                ImmutableList.copyOf(options.extensionsOfType(ResponseTransformer.class).values())
+                    globalSettingsHolder,
+                    options.getProxiedResponseStreamingEnabled(),
+                    recorder),
+                ImmutableList.copyOf(options.extensionsOfType(ResponseTransformer.class).values()),
+                staticResponseCache
             ),
             this,
             postServeActions,
@@ -197,7 +302,12 @@ public class WireMockApp implements StubServer, Admin {
     }
 
     public void loadMappingsUsing(final MappingsLoader mappingsLoader) {
-        mappingsLoader.loadMappingsInto(stubMappings);
+        stubMappings.batch(new Runnable() {
+            @Override
+            public void run() {
+                mappingsLoader.loadMappingsInto(stubMappings);
+            }
+        });
     }
 
     @Override
@@ -333,6 +443,16 @@ public class WireMockApp implements StubServer, Admin {
         }
     }
 
+    @Override
+    public void registerRequestCounter(RequestPattern requestPattern) {
+        requestJournal.registerCounter(requestPattern);
+    }
+
+    @Override
+    public void removeRequestCounter(RequestPattern requestPattern) {
+        requestJournal.removeCounter(requestPattern);
+    }
+
     @Override
     public FindRequestsResult findRequestsMatching(RequestPattern requestPattern) {
         try {
@@ -391,6 +511,38 @@ public class WireMockApp implements StubServer, Admin {
         return new FindNearMissesResult(listBuilder.build());
     }
 
+    @Override
+    public BodyFileCacheStats getBodyFileCacheStats() {
+        return bodyFileCache.getStats();
+    }
+
+    @Override
+    public void resetBodyFileCache() {
+        bodyFileCache.reset();
+    }
+
+    @Override
+    public ProxyConnectionPoolStats getProxyConnectionPoolStats() {
+        return proxyConnectionPool.getStats();
+    }
+
+    @Override
+    public ProxyResponseCacheStats getProxyResponseCacheStats() {
+        return proxyResponseCache.getStats();
+    }
+
+    @Override
+    public void resetProxyResponseCache() {
+        proxyResponseCache.reset();
+    }
+
+    @Override
+    public TemplateCacheStats getTemplateCacheStats() {
+        return templateTransformers.isEmpty() ?
+            TemplateCacheStats.NONE :
+            templateTransformers.get(0).getCacheStats();
+    }
+
     @Override
     public GetScenariosResult getAllScenarios() {
         return new GetScenariosResult(
@@ -442,6 +594,16 @@ public class WireMockApp implements StubServer, Admin {
         container.shutdown();
     }
 
+    /**
+     * Releases the threads held outside of the HTTP server, once it has stopped. Anything needed again
+     * if the server is restarted is recreated on demand.
+     */
+    public void stop() {
+        if (asyncProxyClient != null) {
+            asyncProxyClient.stop();
+        }
+    }
+
     public SnapshotRecordResult snapshotRecord() {
         return snapshotRecord(RecordSpec.DEFAULTS);
     }
@@ -494,7 +656,17 @@ public class WireMockApp implements StubServer, Admin {
     }
 
     @Override
-    public void importStubs(StubImport stubImport) {
+    public void importStubs(final StubImport stubImport) {
+        // Requests being served see the whole import at once, and with a copy-on-write mapping set it's published in one go
+        stubMappings.batch(new Runnable() {
+            @Override
+            public void run() {
+                importStubsNow(stubImport);
+            }
+        });
+    }
+
+    private void importStubsNow(StubImport stubImport) {
         List<StubMapping> mappings = stubImport.getMappings();
         StubImport.Options importOptions = firstNonNull(stubImport.getImportOptions(), StubImport.Options.DEFAULTS);
 
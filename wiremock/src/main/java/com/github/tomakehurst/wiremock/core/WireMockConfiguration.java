@@ -95,6 +95,20 @@ public class WireMockConfiguration implements Options {
     private ChunkedEncodingPolicy chunkedEncodingPolicy;
     private boolean gzipDisabled = false;
     private boolean stubLoggingDisabled = false;
+    private StubMappingSetType stubMappingSetType = StubMappingSetType.CONCURRENT;
+    private RequestJournalType requestJournalType = RequestJournalType.IN_MEMORY;
+    private String requestJournalDirectory;
+    private long bodyFileCacheMaxBytes = 0;
+    private boolean staticStubResponseCachingEnabled = false;
+    private int proxyMaxConnections = ProxyConnectionPoolSettings.DEFAULT_MAX_CONNECTIONS;
+    private int proxyMaxConnectionsPerRoute = ProxyConnectionPoolSettings.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private int proxyIdleConnectionTimeout = ProxyConnectionPoolSettings.DEFAULT_IDLE_TIMEOUT_MILLISECONDS;
+    private boolean proxiedResponseStreamingEnabled = false;
+    private boolean asynchronousProxyingEnabled = false;
+    private long proxyResponseCacheMaxBytes = 0;
+    private int proxyResponseCacheTtl = ProxyResponseCacheSettings.DEFAULT_TTL_MILLISECONDS;
+    private List<String> proxyResponseCacheKeyHeaders = emptyList();
+    private long requestBodySpillThresholdBytes = 0;
     private String permittedSystemKeys = null;
 
     private MappingsSource getMappingsSource() {
@@ -355,6 +369,76 @@ public class WireMockConfiguration implements Options {
         return this;
     }
 
+    public WireMockConfiguration stubMappingSetType(StubMappingSetType stubMappingSetType) {
+        this.stubMappingSetType = stubMappingSetType;
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalType(RequestJournalType requestJournalType) {
+        this.requestJournalType = requestJournalType;
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalDirectory(String requestJournalDirectory) {
+        this.requestJournalDirectory = requestJournalDirectory;
+        return this;
+    }
+
+    public WireMockConfiguration bodyFileCacheMaxBytes(long bodyFileCacheMaxBytes) {
+        this.bodyFileCacheMaxBytes = bodyFileCacheMaxBytes;
+        return this;
+    }
+
+    public WireMockConfiguration cacheStaticStubResponses(boolean enabled) {
+        this.staticStubResponseCachingEnabled = enabled;
+        return this;
+    }
+
+    public WireMockConfiguration proxyMaxConnections(int maxConnections) {
+        this.proxyMaxConnections = maxConnections;
+        return this;
+    }
+
+    public WireMockConfiguration proxyMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.proxyMaxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    public WireMockConfiguration proxyIdleConnectionTimeout(int idleTimeoutMilliseconds) {
+        this.proxyIdleConnectionTimeout = idleTimeoutMilliseconds;
+        return this;
+    }
+
+    public WireMockConfiguration streamProxiedResponses(boolean enabled) {
+        this.proxiedResponseStreamingEnabled = enabled;
+        return this;
+    }
+
+    public WireMockConfiguration asynchronousProxyingEnabled(boolean enabled) {
+        this.asynchronousProxyingEnabled = enabled;
+        return this;
+    }
+
+    public WireMockConfiguration proxyResponseCacheMaxBytes(long maxBytes) {
+        this.proxyResponseCacheMaxBytes = maxBytes;
+        return this;
+    }
+
+    public WireMockConfiguration proxyResponseCacheTtl(int ttlMilliseconds) {
+        this.proxyResponseCacheTtl = ttlMilliseconds;
+        return this;
+    }
+
+    public WireMockConfiguration proxyResponseCacheKeyHeaders(String... headerNames) {
+        this.proxyResponseCacheKeyHeaders = asList(headerNames);
+        return this;
+    }
+
+    public WireMockConfiguration requestBodySpillThresholdBytes(long thresholdBytes) {
+        this.requestBodySpillThresholdBytes = thresholdBytes;
+        return this;
+    }
+
     @Override
     public int portNumber() {
         return portNumber;
@@ -509,4 +593,54 @@ public class WireMockConfiguration implements Options {
     public boolean getStubRequestLoggingDisabled() {
         return stubLoggingDisabled;
     }
+
+    @Override
+    public StubMappingSetType getStubMappingSetType() {
+        return stubMappingSetType;
+    }
+
+    @Override
+    public RequestJournalType getRequestJournalType() {
+        return requestJournalType;
+    }
+
+    @Override
+    public String getRequestJournalDirectory() {
+        return requestJournalDirectory;
+    }
+
+    @Override
+    public long getBodyFileCacheMaxBytes() {
+        return bodyFileCacheMaxBytes;
+    }
+
+    @Override
+    public boolean getStaticStubResponseCachingEnabled() {
+        return staticStubResponseCachingEnabled;
+    }
+
+    @Override
+    public ProxyConnectionPoolSettings getProxyConnectionPoolSettings() {
+        return new ProxyConnectionPoolSettings(proxyMaxConnections, proxyMaxConnectionsPerRoute, proxyIdleConnectionTimeout);
+    }
+
+    @Override
+    public boolean getProxiedResponseStreamingEnabled() {
+        return proxiedResponseStreamingEnabled;
+    }
+
+    @Override
+    public boolean getAsynchronousProxyingEnabled() {
+        return asynchronousProxyingEnabled;
+    }
+
+    @Override
+    public ProxyResponseCacheSettings getProxyResponseCacheSettings() {
+        return new ProxyResponseCacheSettings(proxyResponseCacheMaxBytes, proxyResponseCacheTtl, proxyResponseCacheKeyHeaders);
+    }
+
+    @Override
+    public long getRequestBodySpillThresholdBytes() {
+        return requestBodySpillThresholdBytes;
+    }
 }
@@ -31,7 +31,7 @@ import static com.google.common.collect.Maps.newHashMap;
 import static org.apache.commons.lang3.StringUtils.countMatches;
 import static org.apache.commons.lang3.StringUtils.ordinalIndexOf;
 
-public class RequestWrapper implements Request {
+public class RequestWrapper implements SpillableRequest {
 
     private final Request delegate;
 
@@ -236,6 +236,11 @@ public class RequestWrapper implements Request {
         return encodeBase64(getBody());
     }
 
+    @Override
+    public SpilledBody getSpilledBody() {
+        return bodyTransformer == null ? SpilledBody.from(delegate) : null;
+    }
+
     @Override
     public boolean isMultipart() {
         return delegate.isMultipart();
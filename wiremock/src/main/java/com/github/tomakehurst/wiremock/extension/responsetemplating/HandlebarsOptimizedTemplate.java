@@ -16,6 +16,8 @@
 package com.github.tomakehurst.wiremock.extension.responsetemplating;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.Handlebars;
@@ -24,6 +26,15 @@ import com.github.tomakehurst.wiremock.common.Exceptions;
 
 public class HandlebarsOptimizedTemplate {
 
+	private static final int MAX_RETAINED_BUFFER_CHARS = 1024 * 1024;
+
+	private static final ThreadLocal<StringWriter> renderBuffers = new ThreadLocal<StringWriter>() {
+		@Override
+		protected StringWriter initialValue() {
+			return new StringWriter(1024);
+		}
+	};
+
 	private final Template template;
 
 	private String startContent;
@@ -57,17 +68,41 @@ public class HandlebarsOptimizedTemplate {
 		}
 	}
 
+	/**
+	 * Renders into a buffer that is reused by later renders on the same thread, unless it has grown very large.
+	 */
 	public String apply(Object contextData) throws IOException {
-		final RenderCache renderCache = new RenderCache();
+		StringWriter buffer = renderBuffers.get();
+		// A template rendered from within a helper on this thread gets a buffer of its own
+		renderBuffers.remove();
+
+		try {
+			apply(contextData, buffer);
+			return buffer.toString();
+		} finally {
+			if (buffer.getBuffer().length() <= MAX_RETAINED_BUFFER_CHARS) {
+				buffer.getBuffer().setLength(0);
+				renderBuffers.set(buffer);
+			}
+		}
+	}
+
+	public void apply(Object contextData, Writer writer) throws IOException {
+		final RenderCache renderCache = RenderCache.forCurrentRequest();
 		Context context = Context
 				.newBuilder(contextData)
 				.combine("renderCache", renderCache)
 				.build();
 
-		StringBuilder sb = new StringBuilder();
-		return sb.append(startContent)
-				 .append(template.apply(context))
-				 .append(endContent)
-				 .toString();
+		writer.write(startContent);
+		template.apply(context, writer);
+		writer.write(endContent);
+	}
+
+	/**
+	 * @return the length of the template this was compiled from, in characters
+	 */
+	public int getSourceLength() {
+		return startContent.length() + templateContent.length() + endContent.length();
 	}
 }
@@ -1,16 +1,36 @@
 package com.github.tomakehurst.wiremock.extension.responsetemplating;
 
+import com.github.tomakehurst.wiremock.common.RequestCache;
+import com.google.common.base.Supplier;
+
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 import static java.util.Arrays.asList;
 
+/**
+ * Holds values computed by template helpers, such as parsed documents and the results of path expressions,
+ * so that each is computed once for all of the templates rendered for a request.
+ */
 public class RenderCache {
 
+    private static final Supplier<RenderCache> NEW_RENDER_CACHE = new Supplier<RenderCache>() {
+        @Override
+        public RenderCache get() {
+            return new RenderCache();
+        }
+    };
+
     private final Map<Key, Object> cache = new HashMap<>();
 
+    /**
+     * @return the cache shared by everything rendered for the request being served, or a new one outside of a request
+     */
+    public static RenderCache forCurrentRequest() {
+        return RequestCache.scoped(RenderCache.class, NEW_RENDER_CACHE);
+    }
+
     public void put(Key key, Object value) {
         cache.put(key, value);
     }
@@ -20,6 +40,10 @@ public class RenderCache {
         return (T) cache.get(key);
     }
 
+    /**
+     * Compares its elements by identity, so that looking up a large body or document doesn't hash or compare its contents.
+     * Helpers are given the same instances for everything rendered from one request.
+     */
     public static class Key {
         private final Class<?> forClass;
         private final List<?> elements;
@@ -47,13 +71,27 @@ public class RenderCache {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             Key key = (Key) o;
-            return forClass.equals(key.forClass) &&
-                    elements.equals(key.elements);
+            if (!forClass.equals(key.forClass) || elements.size() != key.elements.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < elements.size(); i++) {
+                if (elements.get(i) != key.elements.get(i)) {
+                    return false;
+                }
+            }
+
+            return true;
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(forClass, elements);
+            int result = forClass.hashCode();
+            for (Object element: elements) {
+                result = 31 * result + System.identityHashCode(element);
+            }
+
+            return result;
         }
     }
 }
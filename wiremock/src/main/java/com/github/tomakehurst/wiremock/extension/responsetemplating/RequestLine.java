@@ -22,41 +22,50 @@ import com.github.tomakehurst.wiremock.http.QueryParameter;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Maps;
 
 import java.net.URI;
 import java.util.Map;
 
 public class RequestLine {
-    private final RequestMethod method;
-    private final String scheme;
-    private final String host;
-    private final int port;
-    private final Map<String, ListOrSingle<String>> query;
+    private final Request request;
     private final String path;
-
-    private RequestLine(RequestMethod method, String scheme, String host, int port, String path, Map<String, ListOrSingle<String>> query) {
-        this.method = method;
-        this.scheme = scheme;
-        this.host = host;
-        this.port = port;
-        this.path = path;
-        this.query = query;
+    private final Supplier<Map<String, ListOrSingle<String>>> query;
+    private final Supplier<UrlPath> pathSegments;
+
+    private RequestLine(Request request) {
+        this.request = request;
+        this.path = request.getUrl();
+        this.query = Suppliers.memoize(new Supplier<Map<String, ListOrSingle<String>>>() {
+            @Override
+            public Map<String, ListOrSingle<String>> get() {
+                Map<String, QueryParameter> rawQuery = Urls.splitQuery(URI.create(path));
+                return Maps.transformValues(rawQuery, TO_TEMPLATE_MODEL);
+            }
+        });
+        this.pathSegments = Suppliers.memoize(new Supplier<UrlPath>() {
+            @Override
+            public UrlPath get() {
+                return new UrlPath(path);
+            }
+        });
     }
 
+    /**
+     * The query and path segments are only parsed the first time they're used.
+     */
     public static RequestLine fromRequest(final Request request) {
-        URI url = URI.create(request.getUrl());
-        Map<String, QueryParameter> rawQuery = Urls.splitQuery(url);
-        Map<String, ListOrSingle<String>> adaptedQuery = Maps.transformValues(rawQuery, TO_TEMPLATE_MODEL);
-        return new RequestLine(request.getMethod(), request.getScheme(), request.getHost(), request.getPort(), request.getUrl(), adaptedQuery);
+        return new RequestLine(request);
     }
 
     public RequestMethod getMethod() {
-        return method;
+        return request.getMethod();
     }
 
     public UrlPath getPathSegments() {
-        return new UrlPath(path);
+        return pathSegments.get();
     }
 
     public String getPath() {
@@ -64,27 +73,29 @@ public class RequestLine {
     }
 
     public Map<String, ListOrSingle<String>> getQuery() {
-        return query;
+        return query.get();
     }
 
     public String getScheme() {
-        return scheme;
+        return request.getScheme();
     }
 
     public String getHost() {
-        return host;
+        return request.getHost();
     }
 
     public int getPort() {
-        return  port;
+        return request.getPort();
     }
 
     public String getBaseUrl() {
+        String scheme = getScheme();
+        int port = getPort();
         String portPart = isStandardPort(scheme, port) ?
             "" :
             ":" + port;
 
-        return scheme + "://" + host + portPart;
+        return scheme + "://" + getHost() + portPart;
     }
 
     private boolean isStandardPort(String scheme, int port) {
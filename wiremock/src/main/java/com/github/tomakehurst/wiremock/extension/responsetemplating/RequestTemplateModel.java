@@ -20,18 +20,33 @@ import com.github.tomakehurst.wiremock.common.Urls;
 import com.github.tomakehurst.wiremock.http.Cookie;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import java.util.Map;
 
+/**
+ * The request as seen by response templates. When created from a request, each part is only read from the request
+ * the first time a template refers to it, so a template that only uses the path doesn't pay for copying headers,
+ * cookies and the body.
+ */
 public class RequestTemplateModel {
 
     private final RequestLine requestLine;
-    private final Map<String, ListOrSingle<String>> headers;
-    private final Map<String, ListOrSingle<String>> cookies;
-    private final String body;
+    private final Supplier<Map<String, ListOrSingle<String>>> headers;
+    private final Supplier<Map<String, ListOrSingle<String>>> cookies;
+    private final Supplier<String> body;
 
 
     protected RequestTemplateModel(RequestLine requestLine, Map<String, ListOrSingle<String>> headers, Map<String, ListOrSingle<String>> cookies, String body) {
+        this(requestLine, Suppliers.ofInstance(headers), Suppliers.ofInstance(cookies), Suppliers.ofInstance(body));
+    }
+
+    private RequestTemplateModel(RequestLine requestLine,
+                                 Supplier<Map<String, ListOrSingle<String>>> headers,
+                                 Supplier<Map<String, ListOrSingle<String>>> cookies,
+                                 Supplier<String> body) {
         this.requestLine = requestLine;
         this.headers = headers;
         this.cookies = cookies;
@@ -39,25 +54,40 @@ public class RequestTemplateModel {
     }
 
     public static RequestTemplateModel from(final Request request) {
-        RequestLine requestLine = RequestLine.fromRequest(request);
-        Map<String, ListOrSingle<String>> adaptedHeaders = Maps.toMap(request.getAllHeaderKeys(), new Function<String, ListOrSingle<String>>() {
+        Supplier<Map<String, ListOrSingle<String>>> adaptedHeaders = Suppliers.memoize(new Supplier<Map<String, ListOrSingle<String>>>() {
+            @Override
+            public Map<String, ListOrSingle<String>> get() {
+                return Maps.toMap(request.getAllHeaderKeys(), new Function<String, ListOrSingle<String>>() {
+                    @Override
+                    public ListOrSingle<String> apply(String input) {
+                        return ListOrSingle.of(request.header(input).values());
+                    }
+                });
+            }
+        });
+        Supplier<Map<String, ListOrSingle<String>>> adaptedCookies = Suppliers.memoize(new Supplier<Map<String, ListOrSingle<String>>>() {
             @Override
-            public ListOrSingle<String> apply(String input) {
-                return ListOrSingle.of(request.header(input).values());
+            public Map<String, ListOrSingle<String>> get() {
+                return ImmutableMap.copyOf(Maps.transformValues(request.getCookies(), new Function<Cookie, ListOrSingle<String>>() {
+                    @Override
+                    public ListOrSingle<String> apply(Cookie cookie) {
+                        return ListOrSingle.of(cookie.getValues());
+                    }
+                }));
             }
         });
-        Map<String, ListOrSingle<String>> adaptedCookies = Maps.transformValues(request.getCookies(), new Function<Cookie, ListOrSingle<String>>() {
+        Supplier<String> body = Suppliers.memoize(new Supplier<String>() {
             @Override
-            public ListOrSingle<String> apply(Cookie cookie) {
-                return ListOrSingle.of(cookie.getValues());
+            public String get() {
+                return request.getBodyAsString();
             }
         });
 
         return new RequestTemplateModel(
-            requestLine,
+            RequestLine.fromRequest(request),
             adaptedHeaders,
             adaptedCookies,
-            request.getBodyAsString()
+            body
         );
     }
 
@@ -90,15 +120,15 @@ public class RequestTemplateModel {
     }
 
     public Map<String, ListOrSingle<String>> getHeaders() {
-        return headers;
+        return headers.get();
     }
 
     public Map<String, ListOrSingle<String>> getCookies() {
-        return cookies;
+        return cookies.get();
     }
 
     public String getBody() {
-        return body;
+        return body.get();
     }
 
 }
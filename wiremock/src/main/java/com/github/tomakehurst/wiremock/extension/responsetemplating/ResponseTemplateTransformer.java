@@ -26,6 +26,7 @@ import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.common.Exceptions;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.RequestCache;
 import com.github.tomakehurst.wiremock.common.TextFile;
 import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
@@ -41,31 +42,54 @@ import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.google.common.base.Function;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Callables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 
 public class ResponseTemplateTransformer extends ResponseDefinitionTransformer implements StubLifecycleListener {
 
     public static final String NAME = "response-template";
+    public static final long DEFAULT_MAX_CACHE_CHARS = 16L * 1024 * 1024;
+
+    private static final Weigher<TemplateCacheKey, HandlebarsOptimizedTemplate> TEMPLATE_SIZE = new Weigher<TemplateCacheKey, HandlebarsOptimizedTemplate>() {
+        @Override
+        public int weigh(TemplateCacheKey key, HandlebarsOptimizedTemplate template) {
+            return Ints.saturatedCast((long) key.getName().length() + template.getSourceLength());
+        }
+    };
 
     private final boolean global;
 
     private final Handlebars handlebars;
     private final Cache<TemplateCacheKey, HandlebarsOptimizedTemplate> cache;
     private final Long maxCacheEntries;
+    private final long maxCacheChars;
+    private final Executor precompilationExecutor;
+    private final ConcurrentMap<UUID, StubMapping> registeredStubs = new ConcurrentHashMap<>();
+    private final boolean validateRenderedJson;
 
     public static Builder builder() {
         return new Builder();
@@ -84,7 +108,26 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
     }
 
     public ResponseTemplateTransformer(boolean global, Handlebars handlebars, Map<String, Helper> helpers, Long maxCacheEntries, Set<String> permittedSystemKeys) {
+        this(global, handlebars, helpers, maxCacheEntries, permittedSystemKeys, null, true);
+    }
+
+    /**
+     * @param precompilationExecutor runs the compilation of templates in newly created and edited stubs. Defaults to a single background thread
+     *                               shared by all transformers.
+     * @param validateRenderedJson whether rendered JSON bodies are parsed and re-serialised, which fails requests whose rendered body isn't
+     *                             valid JSON. When false the rendered text is used as it is.
+     */
+    public ResponseTemplateTransformer(boolean global, Handlebars handlebars, Map<String, Helper> helpers, Long maxCacheEntries, Set<String> permittedSystemKeys, Executor precompilationExecutor, boolean validateRenderedJson) {
+        this(global, handlebars, helpers, maxCacheEntries, null, permittedSystemKeys, precompilationExecutor, validateRenderedJson);
+    }
+
+    /**
+     * @param maxCacheEntries the maximum number of compiled templates to cache. When given, this replaces the limit on their total size.
+     * @param maxCacheChars the maximum total length of the sources of the compiled templates to cache. Defaults to {@link #DEFAULT_MAX_CACHE_CHARS}.
+     */
+    public ResponseTemplateTransformer(boolean global, Handlebars handlebars, Map<String, Helper> helpers, Long maxCacheEntries, Long maxCacheChars, Set<String> permittedSystemKeys, Executor precompilationExecutor, boolean validateRenderedJson) {
         this.global = global;
+        this.validateRenderedJson = validateRenderedJson;
         this.handlebars = handlebars;
 
         for (StringHelpers helper: StringHelpers.values()) {
@@ -115,11 +158,20 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
         }
 
         this.maxCacheEntries = maxCacheEntries;
-        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        this.maxCacheChars = firstNonNull(maxCacheChars, DEFAULT_MAX_CACHE_CHARS);
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
         if (maxCacheEntries != null) {
-            cacheBuilder.maximumSize(maxCacheEntries);
+            cache = cacheBuilder.maximumSize(maxCacheEntries).build();
+        } else {
+            cache = cacheBuilder
+                .maximumWeight(this.maxCacheChars)
+                .weigher(TEMPLATE_SIZE)
+                .build();
         }
-        cache = cacheBuilder.build();
+
+        this.precompilationExecutor = precompilationExecutor != null ?
+            precompilationExecutor :
+            DefaultPrecompilationExecutor.INSTANCE;
     }
 
     @Override
@@ -133,7 +185,17 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
     }
 
     @Override
-    public ResponseDefinition transform(Request request, final ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+        // Documents parsed by helpers are shared between the body, header and proxy templates, and with request matching when serving
+        RequestCache.onRequestStart();
+        try {
+            return render(request, responseDefinition, files, parameters);
+        } finally {
+            RequestCache.onRequestEnd();
+        }
+    }
+
+    private ResponseDefinition render(Request request, final ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
         ResponseDefinitionBuilder newResponseDefBuilder = ResponseDefinitionBuilder.like(responseDefinition);
 
         final ImmutableMap<String, Object> model = ImmutableMap.<String, Object>builder()
@@ -143,20 +205,27 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
                 .build();
 
         if (responseDefinition.specifiesTextBodyContent()) {
-            boolean isJsonBody = responseDefinition.getJsonBody() != null;
+            boolean isJsonBody = responseDefinition.specifiesJsonBodyContent();
             HandlebarsOptimizedTemplate bodyTemplate = getTemplate(TemplateCacheKey.forInlineBody(responseDefinition), responseDefinition.getTextBody());
             applyTemplatedResponseBody(newResponseDefBuilder, model, bodyTemplate, isJsonBody);
         } else if (responseDefinition.specifiesBodyFile()) {
-            HandlebarsOptimizedTemplate filePathTemplate = new HandlebarsOptimizedTemplate(handlebars, responseDefinition.getBodyFileName());
-            String compiledFilePath = uncheckedApplyTemplate(filePathTemplate, model);
+            HandlebarsOptimizedTemplate filePathTemplate = getTemplate(TemplateCacheKey.forBodyFilePath(responseDefinition), responseDefinition.getBodyFileName());
+            final String compiledFilePath = uncheckedApplyTemplate(filePathTemplate, model);
 
             boolean disableBodyFileTemplating = parameters.getBoolean("disableBodyFileTemplating", false);
             if (disableBodyFileTemplating) {
                 newResponseDefBuilder.withBodyFile(compiledFilePath);
             } else {
-                TextFile file = files.getTextFileNamed(compiledFilePath);
+                final FileSource bodyFiles = files;
                 HandlebarsOptimizedTemplate bodyTemplate = getTemplate(
-                        TemplateCacheKey.forFileBody(responseDefinition, compiledFilePath), file.readContentsAsString());
+                        TemplateCacheKey.forFileBody(responseDefinition, compiledFilePath),
+                        new Callable<String>() {
+                            @Override
+                            public String call() {
+                                TextFile file = bodyFiles.getTextFileNamed(compiledFilePath);
+                                return file.readContentsAsString();
+                            }
+                        });
                 applyTemplatedResponseBody(newResponseDefBuilder, model, bodyTemplate, false);
             }
         }
@@ -191,7 +260,7 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
                         ImmutableList.Builder<String> valueListBuilder = ImmutableList.builder();
                         int index = 0;
                         for (String headerValue: header.values()) {
-                            HandlebarsOptimizedTemplate template = getTemplate(TemplateCacheKey.forHeader(responseDefinition, header.key(), index++), headerValue);
+                            HandlebarsOptimizedTemplate template = getTemplate(TemplateCacheKey.forProxyRequestHeader(responseDefinition, header.key(), index++), headerValue);
                             valueListBuilder.add(uncheckedApplyTemplate(template, model));
                         }
                         return new HttpHeader(header.key(), valueListBuilder.build());
@@ -218,7 +287,7 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
     private void applyTemplatedResponseBody(ResponseDefinitionBuilder newResponseDefBuilder, ImmutableMap<String, Object> model, HandlebarsOptimizedTemplate bodyTemplate, boolean isJsonBody) {
         String newBody = uncheckedApplyTemplate(bodyTemplate, model);
         if (isJsonBody) {
-            newResponseDefBuilder.withJsonBody(Json.read(newBody, JsonNode.class));
+            newResponseDefBuilder.withJsonBody(validateRenderedJson ? Json.read(newBody, JsonNode.class) : Json.rawNode(newBody));
         } else {
             newResponseDefBuilder.withBody(newBody);
         }
@@ -234,15 +303,19 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
     }
 
     private HandlebarsOptimizedTemplate getTemplate(final TemplateCacheKey key, final String content) {
-        if (maxCacheEntries != null && maxCacheEntries < 1) {
-            return new HandlebarsOptimizedTemplate(handlebars, content);
+        return getTemplate(key, Callables.returning(content));
+    }
+
+    private HandlebarsOptimizedTemplate getTemplate(final TemplateCacheKey key, final Callable<String> content) {
+        if (!isCacheEnabled()) {
+            return new HandlebarsOptimizedTemplate(handlebars, uncheckedCall(content));
         }
 
         try {
             return cache.get(key, new Callable<HandlebarsOptimizedTemplate>() {
                 @Override
-                public HandlebarsOptimizedTemplate call() {
-                    return new HandlebarsOptimizedTemplate(handlebars, content);
+                public HandlebarsOptimizedTemplate call() throws Exception {
+                    return new HandlebarsOptimizedTemplate(handlebars, content.call());
                 }
             });
         } catch (ExecutionException e) {
@@ -250,24 +323,125 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
         }
     }
 
+    private boolean isCacheEnabled() {
+        return maxCacheEntries != null ? maxCacheEntries > 0 : maxCacheChars > 0;
+    }
+
+    /**
+     * Removes the compiled templates of a stub's response. This looks at every cached template, which is cheap next to the
+     * compilation it saves for the templates of other stubs.
+     */
+    private void invalidateTemplates(StubMapping stub) {
+        ResponseDefinition responseDefinition = stub.getResponse();
+        if (responseDefinition == null) {
+            return;
+        }
+
+        Iterator<TemplateCacheKey> keys = cache.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().isFor(responseDefinition)) {
+                keys.remove();
+            }
+        }
+    }
+
+    private static String uncheckedCall(Callable<String> content) {
+        try {
+            return content.call();
+        } catch (Exception e) {
+            return throwUnchecked(e, String.class);
+        }
+    }
+
+    /**
+     * Compiles the templates in a stub's response ahead of its first request, so that a burst of requests after stubs are loaded
+     * only has to render them. Body files aren't compiled until first used, since their names may be templated and their contents
+     * live outside the stub.
+     */
+    private void precompileTemplates(final StubMapping stub) {
+        final ResponseDefinition responseDefinition = stub.getResponse();
+        if (!isCacheEnabled() || responseDefinition == null || !(global || responseDefinition.hasTransformer(this))) {
+            return;
+        }
+
+        precompilationExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!isRegistered(stub)) {
+                    return;
+                }
+
+                try {
+                    if (responseDefinition.specifiesTextBodyContent()) {
+                        getTemplate(TemplateCacheKey.forInlineBody(responseDefinition), responseDefinition.getTextBody());
+                    } else if (responseDefinition.specifiesBodyFile()) {
+                        getTemplate(TemplateCacheKey.forBodyFilePath(responseDefinition), responseDefinition.getBodyFileName());
+                    }
+
+                    if (responseDefinition.getHeaders() != null) {
+                        for (HttpHeader header: responseDefinition.getHeaders().all()) {
+                            int index = 0;
+                            for (String headerValue: header.values()) {
+                                getTemplate(TemplateCacheKey.forHeader(responseDefinition, header.key(), index++), headerValue);
+                            }
+                        }
+                    }
+
+                    if (responseDefinition.getProxyBaseUrl() != null) {
+                        getTemplate(TemplateCacheKey.forProxyUrl(responseDefinition), responseDefinition.getProxyBaseUrl());
+
+                        if (responseDefinition.getAdditionalProxyRequestHeaders() != null) {
+                            for (HttpHeader header: responseDefinition.getAdditionalProxyRequestHeaders().all()) {
+                                int index = 0;
+                                for (String headerValue: header.values()) {
+                                    getTemplate(TemplateCacheKey.forProxyRequestHeader(responseDefinition, header.key(), index++), headerValue);
+                                }
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // Invalid templates are left to fail when first rendered, where the error can be reported against the request
+                }
+
+                // The stub may have been removed while its templates were compiling, after its removal invalidated them
+                if (!isRegistered(stub)) {
+                    invalidateTemplates(stub);
+                }
+            }
+        });
+    }
+
+    private boolean isRegistered(StubMapping stub) {
+        return registeredStubs.get(stub.getId()) == stub;
+    }
+
     @Override
     public void beforeStubCreated(StubMapping stub) {}
 
     @Override
-    public void afterStubCreated(StubMapping stub) {}
+    public void afterStubCreated(StubMapping stub) {
+        registeredStubs.put(stub.getId(), stub);
+        precompileTemplates(stub);
+    }
 
     @Override
     public void beforeStubEdited(StubMapping oldStub, StubMapping newStub) {}
 
     @Override
-    public void afterStubEdited(StubMapping oldStub, StubMapping newStub) {}
+    public void afterStubEdited(StubMapping oldStub, StubMapping newStub) {
+        registeredStubs.remove(oldStub.getId(), oldStub);
+        invalidateTemplates(oldStub);
+        registeredStubs.put(newStub.getId(), newStub);
+        precompileTemplates(newStub);
+    }
 
     @Override
     public void beforeStubRemoved(StubMapping stub) {}
 
     @Override
     public void afterStubRemoved(StubMapping stub) {
-        cache.invalidateAll();
+        registeredStubs.remove(stub.getId(), stub);
+        invalidateTemplates(stub);
     }
 
     @Override
@@ -275,6 +449,7 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
 
     @Override
     public void afterStubsReset() {
+        registeredStubs.clear();
         cache.invalidateAll();
     }
 
@@ -286,12 +461,50 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
         return maxCacheEntries;
     }
 
+    public long getMaxCacheChars() {
+        return maxCacheChars;
+    }
+
+    public TemplateCacheStats getCacheStats() {
+        long sizeChars = 0;
+        for (Map.Entry<TemplateCacheKey, HandlebarsOptimizedTemplate> entry: cache.asMap().entrySet()) {
+            sizeChars += TEMPLATE_SIZE.weigh(entry.getKey(), entry.getValue());
+        }
+
+        CacheStats stats = cache.stats();
+        return new TemplateCacheStats(
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount(),
+            cache.size(),
+            sizeChars,
+            maxCacheEntries,
+            maxCacheEntries == null ? maxCacheChars : null
+        );
+    }
+
+    /**
+     * A single daemon thread shared by every transformer that isn't given its own executor, so that servers which are stopped
+     * don't each leave a thread behind.
+     */
+    private static class DefaultPrecompilationExecutor {
+        static final Executor INSTANCE = newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("wiremock-template-compiler-%d")
+                .setDaemon(true)
+                .build()
+        );
+    }
+
     public static class Builder {
         private boolean global = true;
         private Handlebars handlebars = new Handlebars();
         private Map<String, Helper> helpers = new HashMap<>();
         private Long maxCacheEntries = null;
+        private Long maxCacheChars = null;
         private Set<String> permittedSystemKeys = null;
+        private Executor precompilationExecutor = null;
+        private boolean validateRenderedJson = true;
 
         public Builder global(boolean global) {
             this.global = global;
@@ -318,6 +531,11 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
             return this;
         }
 
+        public Builder maxCacheChars(Long maxCacheChars) {
+            this.maxCacheChars = maxCacheChars;
+            return this;
+        }
+
         public Builder permittedSystemKeys(Set<String> keys) {
             this.permittedSystemKeys = keys;
             return this;
@@ -328,8 +546,18 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer i
             return this;
         }
 
+        public Builder precompilationExecutor(Executor precompilationExecutor) {
+            this.precompilationExecutor = precompilationExecutor;
+            return this;
+        }
+
+        public Builder validateRenderedJson(boolean validateRenderedJson) {
+            this.validateRenderedJson = validateRenderedJson;
+            return this;
+        }
+
         public ResponseTemplateTransformer build() {
-            return new ResponseTemplateTransformer(global, handlebars, helpers, maxCacheEntries, permittedSystemKeys);
+            return new ResponseTemplateTransformer(global, handlebars, helpers, maxCacheEntries, maxCacheChars, permittedSystemKeys, precompilationExecutor, validateRenderedJson);
         }
     }
 }
@@ -21,7 +21,7 @@ import java.util.Objects;
 
 public class TemplateCacheKey {
 
-    public enum ResponseElement { BODY, PROXY_URL, HEADER }
+    public enum ResponseElement { BODY, BODY_FILE_PATH, PROXY_URL, HEADER, PROXY_REQUEST_HEADER }
 
     private final ResponseDefinition responseDefinition;
     private final ResponseElement element;
@@ -36,10 +36,18 @@ public class TemplateCacheKey {
         return new TemplateCacheKey(responseDefinition, ResponseElement.BODY, filename, null);
     }
 
+    public static TemplateCacheKey forBodyFilePath(ResponseDefinition responseDefinition) {
+        return new TemplateCacheKey(responseDefinition, ResponseElement.BODY_FILE_PATH, "[bodyFilePath]", null);
+    }
+
     public static TemplateCacheKey forHeader(ResponseDefinition responseDefinition, String headerName, int valueIndex) {
         return new TemplateCacheKey(responseDefinition, ResponseElement.HEADER, headerName, valueIndex);
     }
 
+    public static TemplateCacheKey forProxyRequestHeader(ResponseDefinition responseDefinition, String headerName, int valueIndex) {
+        return new TemplateCacheKey(responseDefinition, ResponseElement.PROXY_REQUEST_HEADER, headerName, valueIndex);
+    }
+
     public static TemplateCacheKey forProxyUrl(ResponseDefinition responseDefinition) {
         return new TemplateCacheKey(responseDefinition, ResponseElement.PROXY_URL, "[proxyUrl]", null);
     }
@@ -51,6 +59,14 @@ public class TemplateCacheKey {
         this.index = index;
     }
 
+    String getName() {
+        return name;
+    }
+
+    boolean isFor(ResponseDefinition responseDefinition) {
+        return this.responseDefinition.equals(responseDefinition);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
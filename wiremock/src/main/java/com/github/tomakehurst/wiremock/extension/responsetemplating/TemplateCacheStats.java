@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.extension.responsetemplating;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class TemplateCacheStats {
+
+    public static final TemplateCacheStats NONE = new TemplateCacheStats(0, 0, 0, 0, 0, null, null);
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long entries;
+    private final long sizeChars;
+    private final Long maxEntries;
+    private final Long maxChars;
+
+    public TemplateCacheStats(@JsonProperty("hits") long hits,
+                              @JsonProperty("misses") long misses,
+                              @JsonProperty("evictions") long evictions,
+                              @JsonProperty("entries") long entries,
+                              @JsonProperty("sizeChars") long sizeChars,
+                              @JsonProperty("maxEntries") Long maxEntries,
+                              @JsonProperty("maxChars") Long maxChars) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.sizeChars = sizeChars;
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * The total length of the cached templates' sources
+     */
+    public long getSizeChars() {
+        return sizeChars;
+    }
+
+    /**
+     * The limit on the number of cached templates, if the cache is bounded by count rather than size
+     */
+    public Long getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * The limit on the total length of the cached templates' sources, if the cache is bounded by size
+     */
+    public Long getMaxChars() {
+        return maxChars;
+    }
+}
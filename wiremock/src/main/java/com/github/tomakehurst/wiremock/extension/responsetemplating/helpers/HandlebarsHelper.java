@@ -77,6 +77,7 @@ public abstract class HandlebarsHelper<T> implements Helper<T> {
     }
 
     protected static RenderCache getRenderCache(Options options) {
-        return options.get("renderCache", new RenderCache());
+        RenderCache renderCache = options.get("renderCache");
+        return renderCache != null ? renderCache : RenderCache.forCurrentRequest();
     }
 }
@@ -18,6 +18,7 @@ package com.github.tomakehurst.wiremock.extension.responsetemplating.helpers;
 import com.github.jknack.handlebars.Options;
 import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.RenderCache;
+import com.github.tomakehurst.wiremock.matching.MatchesJsonPathPattern;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.JsonPath;
@@ -30,6 +31,8 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.Map;
 
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
 public class HandlebarsJsonPathHelper extends HandlebarsHelper<Object> {
 
     @Override
@@ -70,13 +73,20 @@ public class HandlebarsJsonPathHelper extends HandlebarsHelper<Object> {
     }
 
     private DocumentContext getJsonDocument(Object json, Options options) {
+        if (json instanceof String) {
+            // Shares documents with the JSONPath matchers that have already looked at the request
+            try {
+                return MatchesJsonPathPattern.parseDocument((String) json);
+            } catch (Exception e) {
+                return throwUnchecked(e, DocumentContext.class);
+            }
+        }
+
         RenderCache renderCache = getRenderCache(options);
         RenderCache.Key cacheKey = RenderCache.Key.keyFor(DocumentContext.class, json);
         DocumentContext document = renderCache.get(cacheKey);
         if (document == null) {
-            document = json instanceof String ?
-                    JsonPath.parse((String) json) :
-                    JsonPath.parse(json);
+            document = JsonPath.parse(json);
             renderCache.put(cacheKey, document);
         }
 
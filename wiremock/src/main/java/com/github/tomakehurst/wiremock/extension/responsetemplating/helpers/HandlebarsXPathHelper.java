@@ -81,7 +81,7 @@ public class HandlebarsXPathHelper extends HandlebarsHelper<String> {
         }
 
         try {
-            Node node = getNode(getXPathPrefix() + xPathInput, doc, options);
+            Node node = getNode(xPathInput, doc, options);
 
             if (node == null) {
                 return "";
@@ -93,14 +93,15 @@ public class HandlebarsXPathHelper extends HandlebarsHelper<String> {
         }
     }
 
-    private Node getNode(String xPathExpression, Document doc, Options options) throws XPathExpressionException {
+    private Node getNode(String xPathInput, Document doc, Options options) throws XPathExpressionException {
+        // Keyed on the expression as given in the template, as the prefixed one is a new string every time
         RenderCache renderCache = getRenderCache(options);
-        RenderCache.Key cacheKey = RenderCache.Key.keyFor(Document.class, xPathExpression, doc);
+        RenderCache.Key cacheKey = RenderCache.Key.keyFor(Node.class, this, xPathInput, doc);
         Node node = renderCache.get(cacheKey);
 
         if (node == null) {
             XPath xPath = localXPath.get();
-            node = (Node) xPath.evaluate(xPathExpression, doc, NODE);
+            node = (Node) xPath.evaluate(getXPathPrefix() + xPathInput, doc, NODE);
             renderCache.put(cacheKey, node);
         }
 
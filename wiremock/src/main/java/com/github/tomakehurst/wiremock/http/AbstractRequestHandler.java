@@ -21,12 +21,19 @@ import com.github.tomakehurst.wiremock.extension.requestfilter.RequestFilterActi
 import com.github.tomakehurst.wiremock.extension.requestfilter.StopAction;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.github.tomakehurst.wiremock.common.LocalNotifier;
+import com.github.tomakehurst.wiremock.common.Notifier;
 import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.List;
 
 import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public abstract class AbstractRequestHandler implements RequestHandler, RequestEventSource {
@@ -50,7 +57,7 @@ public abstract class AbstractRequestHandler implements RequestHandler, RequestE
 
 	@Override
 	public void handle(Request request, HttpResponder httpResponder) {
-        Stopwatch stopwatch = Stopwatch.createStarted();
+        final Stopwatch stopwatch = Stopwatch.createStarted();
 
 		ServeEvent serveEvent;
 		Request originalRequest = request;
@@ -69,7 +76,71 @@ public abstract class AbstractRequestHandler implements RequestHandler, RequestE
 
 		ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
 		responseDefinition.setOriginalRequest(originalRequest);
+
+		if (canRespondAsynchronously(serveEvent, httpResponder)) {
+			respondAsynchronously(request, serveEvent, (AsynchronousHttpResponder) httpResponder, stopwatch);
+			return;
+		}
+
 		Response response = responseRenderer.render(serveEvent);
+		respond(request, serveEvent, response, httpResponder, stopwatch);
+	}
+
+	private boolean canRespondAsynchronously(ServeEvent serveEvent, HttpResponder httpResponder) {
+		return responseRenderer instanceof AsynchronousResponseRenderer &&
+			httpResponder instanceof AsynchronousHttpResponder &&
+			((AsynchronousResponseRenderer) responseRenderer).canRenderAsynchronously(serveEvent) &&
+			((AsynchronousHttpResponder) httpResponder).deferResponse();
+	}
+
+	private void respondAsynchronously(final Request request,
+									   final ServeEvent serveEvent,
+									   final AsynchronousHttpResponder httpResponder,
+									   final Stopwatch stopwatch) {
+		final Notifier notifier = notifier();
+
+		ListenableFuture<Response> futureResponse;
+		try {
+			futureResponse = ((AsynchronousResponseRenderer) responseRenderer).renderAsynchronously(serveEvent);
+		} catch (RuntimeException e) {
+			futureResponse = Futures.immediateFailedFuture(e);
+		}
+
+		Futures.addCallback(futureResponse, new FutureCallback<Response>() {
+			@Override
+			public void onSuccess(Response response) {
+				LocalNotifier.set(notifier);
+				respondOrFail(response);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				LocalNotifier.set(notifier);
+				notifier.error("Failed to render response for " + request.getMethod() + " " + request.getUrl(), t);
+				respondOrFail(serverError(t));
+			}
+
+			private void respondOrFail(Response response) {
+				try {
+					respond(request, serveEvent, response, httpResponder, stopwatch);
+				} catch (RuntimeException e) {
+					// The responder ignores this if it had already responded before the failure
+					notifier.error("Failed to respond to " + request.getMethod() + " " + request.getUrl(), e);
+					httpResponder.respond(request, serverError(e));
+				}
+			}
+		}, directExecutor());
+	}
+
+	private static Response serverError(Throwable cause) {
+		return Response.response()
+			.status(HTTP_INTERNAL_ERROR)
+			.body(cause.toString())
+			.build();
+	}
+
+	private void respond(Request request, ServeEvent serveEvent, Response response, HttpResponder httpResponder, Stopwatch stopwatch) {
+		ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
 		ServeEvent completedServeEvent = serveEvent.complete(response, (int) stopwatch.elapsed(MILLISECONDS));
 
 		if (logRequests()) {
@@ -124,7 +195,14 @@ public abstract class AbstractRequestHandler implements RequestHandler, RequestE
 		sb.append("\n\n");
 		sb.append(request.getHeaders());
 
-		if (request.getBody() != null) {
+		SpilledBody spilledBody = SpilledBody.from(request);
+		if (spilledBody != null) {
+			sb.append("[")
+					.append(spilledBody.getLength())
+					.append(" byte body stored on disk, SHA-256 ")
+					.append(spilledBody.getSha256())
+					.append("]\n");
+		} else if (request.getBody() != null) {
 			sb.append(request.getBodyAsString()).append("\n");
 		}
 
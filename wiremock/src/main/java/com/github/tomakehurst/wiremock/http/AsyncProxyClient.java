@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.KeyStoreSettings;
+import com.github.tomakehurst.wiremock.common.ProxyConnectionPoolSettings;
+import com.github.tomakehurst.wiremock.common.ProxySettings;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpProxy;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
+import org.eclipse.jetty.client.util.BytesContentProvider;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.util.HttpCookieStore;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import static com.github.tomakehurst.wiremock.common.Encoding.encodeBase64;
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.common.ProxySettings.NO_PROXY;
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.net.HttpHeaders.PROXY_AUTHORIZATION;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A non-blocking client for proxying, which waits on the target without tying up a thread.
+ *
+ * Responses are buffered in full and handed back as {@link Response}s carrying the target's
+ * status, headers and body as they were received.
+ *
+ * The number of requests in flight, and so connections in use, is capped per target and in total
+ * by the pool settings. Requests over the total are queued until one completes. The client is
+ * started when it's first used and must be {@link #stop() stopped} to release its threads.
+ */
+public class AsyncProxyClient {
+
+    private final HttpClient client;
+    private final int timeoutMilliseconds;
+    private final String proxyAuthorization;
+    private final Semaphore connections;
+    private final Queue<PendingRequest> pending = new ConcurrentLinkedQueue<>();
+
+    public AsyncProxyClient(ProxyConnectionPoolSettings poolSettings, int timeoutMilliseconds, ProxySettings proxySettings, KeyStoreSettings trustStoreSettings) {
+        this.timeoutMilliseconds = timeoutMilliseconds;
+        this.connections = new Semaphore(poolSettings.getMaxConnections());
+
+        SslContextFactory sslContextFactory = new SslContextFactory();
+        sslContextFactory.setSslContext(HttpClientFactory.buildSSLContext(trustStoreSettings));
+        sslContextFactory.setEndpointIdentificationAlgorithm(null);
+
+        QueuedThreadPool threadPool = new QueuedThreadPool();
+        threadPool.setName("wiremock-proxy");
+        threadPool.setDaemon(true);
+
+        client = new HttpClient(sslContextFactory);
+        client.setExecutor(threadPool);
+        client.setScheduler(new ScheduledExecutorScheduler("wiremock-proxy-scheduler", true));
+        client.setMaxConnectionsPerDestination(poolSettings.getMaxConnectionsPerRoute());
+        client.setIdleTimeout(poolSettings.getIdleTimeoutMilliseconds());
+        client.setFollowRedirects(false);
+        client.setCookieStore(new HttpCookieStore.Empty());
+        client.getContentDecoderFactories().clear();
+
+        if (proxySettings != NO_PROXY) {
+            client.getProxyConfiguration().getProxies().add(new HttpProxy(proxySettings.host(), proxySettings.port()));
+        }
+        proxyAuthorization = proxySettings != NO_PROXY && proxySettings.getUsername() != null ?
+            "Basic " + encodeBase64((proxySettings.getUsername() + ":" + proxySettings.getPassword()).getBytes(UTF_8)) :
+            null;
+    }
+
+    public ListenableFuture<Response> execute(RequestMethod method, String url, List<HttpHeader> headers, byte[] body) {
+        startIfNecessary();
+
+        org.eclipse.jetty.client.api.Request request = client.newRequest(url)
+            .method(method.getName())
+            .agent(null)
+            .idleTimeout(timeoutMilliseconds, MILLISECONDS);
+
+        for (HttpHeader header: headers) {
+            for (String value: header.values()) {
+                request.header(header.key(), value);
+            }
+        }
+
+        if (proxyAuthorization != null) {
+            request.header(PROXY_AUTHORIZATION, proxyAuthorization);
+        }
+
+        if (body != null) {
+            request.content(new BytesContentProvider(body));
+        }
+
+        PendingRequest pendingRequest = new PendingRequest(request);
+        pending.add(pendingRequest);
+        sendPendingRequests();
+
+        return pendingRequest.future;
+    }
+
+    /**
+     * Stops the client, failing any requests still waiting for a connection. It's started again if it's
+     * used afterwards.
+     */
+    public synchronized void stop() {
+        try {
+            client.stop();
+        } catch (Exception e) {
+            throwUnchecked(e);
+        }
+
+        for (PendingRequest pendingRequest = pending.poll(); pendingRequest != null; pendingRequest = pending.poll()) {
+            pendingRequest.future.setException(new IllegalStateException("The proxy client has been stopped"));
+        }
+    }
+
+    private void startIfNecessary() {
+        if (client.isStarted()) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!client.isStarted()) {
+                try {
+                    client.start();
+                } catch (Exception e) {
+                    throwUnchecked(e);
+                }
+            }
+        }
+    }
+
+    private void sendPendingRequests() {
+        while (!pending.isEmpty() && connections.tryAcquire()) {
+            PendingRequest pendingRequest = pending.poll();
+            if (pendingRequest == null) {
+                connections.release();
+                return;
+            }
+
+            pendingRequest.send();
+        }
+    }
+
+    private class PendingRequest {
+
+        final org.eclipse.jetty.client.api.Request request;
+        final SettableFuture<Response> future = SettableFuture.create();
+
+        PendingRequest(org.eclipse.jetty.client.api.Request request) {
+            this.request = request;
+        }
+
+        void send() {
+            try {
+                request.send(new UpstreamResponseListener(future));
+            } catch (RuntimeException e) {
+                connections.release();
+                future.setException(e);
+            }
+        }
+    }
+
+    private class UpstreamResponseListener extends BufferingResponseListener {
+
+        private final SettableFuture<Response> future;
+
+        UpstreamResponseListener(SettableFuture<Response> future) {
+            super(Integer.MAX_VALUE);
+            this.future = future;
+        }
+
+        @Override
+        public void onComplete(Result result) {
+            connections.release();
+            sendPendingRequests();
+
+            if (result.isFailed()) {
+                future.setException(result.getFailure());
+                return;
+            }
+
+            org.eclipse.jetty.client.api.Response upstreamResponse = result.getResponse();
+            List<HttpHeader> upstreamHeaders = new ArrayList<>();
+            for (HttpField field: upstreamResponse.getHeaders()) {
+                upstreamHeaders.add(new HttpHeader(field.getName(), field.getValue()));
+            }
+
+            future.set(Response.response()
+                .status(upstreamResponse.getStatus())
+                .headers(new HttpHeaders(upstreamHeaders))
+                .body(getContent())
+                .build());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+/**
+ * A responder that can release the thread handling the request and respond later, from another thread.
+ */
+public interface AsynchronousHttpResponder extends HttpResponder {
+
+    /**
+     * @return true if the response has been deferred, in which case {@link #respond(Request, Response)} must be
+     * called later, from any thread, to send it
+     */
+    boolean deferResponse();
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Streams a response body at a target rate, emulating a slow network link.
+ *
+ * The jitter is the fraction by which the time taken to send each chunk of the body may randomly
+ * vary, e.g. 0.2 for +/- 20%, and the time to first byte is an additional delay before the first
+ * byte of the body is sent.
+ */
+@JsonInclude(NON_NULL)
+public class BandwidthThrottle {
+
+    private final int bytesPerSecond;
+    private final Double jitter;
+    private final Integer timeToFirstByteMilliseconds;
+
+    @JsonCreator
+    public BandwidthThrottle(@JsonProperty("bytesPerSecond") int bytesPerSecond,
+                             @JsonProperty("jitter") Double jitter,
+                             @JsonProperty("timeToFirstByteMilliseconds") Integer timeToFirstByteMilliseconds) {
+        checkArgument(bytesPerSecond > 0, "Bandwidth must be at least one byte per second");
+        checkArgument(jitter == null || (jitter >= 0 && jitter <= 1), "Jitter must be between 0 and 1");
+        checkArgument(timeToFirstByteMilliseconds == null || timeToFirstByteMilliseconds >= 0, "Time to first byte must not be negative");
+
+        this.bytesPerSecond = bytesPerSecond;
+        this.jitter = jitter;
+        this.timeToFirstByteMilliseconds = timeToFirstByteMilliseconds;
+    }
+
+    public BandwidthThrottle(int bytesPerSecond) {
+        this(bytesPerSecond, null, null);
+    }
+
+    public int getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public Double getJitter() {
+        return jitter;
+    }
+
+    public Integer getTimeToFirstByteMilliseconds() {
+        return timeToFirstByteMilliseconds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BandwidthThrottle that = (BandwidthThrottle) o;
+        return bytesPerSecond == that.bytesPerSecond &&
+            Objects.equals(jitter, that.jitter) &&
+            Objects.equals(timeToFirstByteMilliseconds, that.timeToFirstByteMilliseconds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bytesPerSecond, jitter, timeToFirstByteMilliseconds);
+    }
+}
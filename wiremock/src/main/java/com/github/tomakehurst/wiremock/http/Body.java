@@ -122,7 +122,7 @@ public class Body {
 
     @Override
     public int hashCode() {
-        return Objects.hash(content, binary);
+        return 31 * Arrays.hashCode(content) + Objects.hashCode(binary);
     }
 
     @Override
@@ -24,8 +24,14 @@ import org.apache.http.client.AuthenticationStrategy;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.AllowAllHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLContexts;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.conn.ssl.TrustStrategy;
@@ -33,6 +39,7 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.ProxyAuthenticationStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
 import javax.net.ssl.SSLContext;
 import java.security.KeyStore;
@@ -57,17 +64,27 @@ public class HttpClientFactory {
             ProxySettings proxySettings,
             KeyStoreSettings trustStoreSettings) {
 
+        return createClientBuilder(timeoutMilliseconds, proxySettings)
+                .setMaxConnTotal(maxConnections)
+                .setDefaultRequestConfig(RequestConfig.custom().setStaleConnectionCheckEnabled(true).build())
+                .setHostnameVerifier(new AllowAllHostnameVerifier())
+                .setSslcontext(buildSSLContext(trustStoreSettings))
+                .build();
+	}
+
+    /**
+     * A builder with WireMock's standard client settings but no connection management, for use with
+     * a connection manager from {@link #createConnectionManager(int, KeyStoreSettings)}
+     */
+    public static HttpClientBuilder createClientBuilder(int timeoutMilliseconds, ProxySettings proxySettings) {
         HttpClientBuilder builder = HttpClientBuilder.create()
                 .disableAuthCaching()
                 .disableAutomaticRetries()
                 .disableCookieManagement()
                 .disableRedirectHandling()
                 .disableContentCompression()
-                .setMaxConnTotal(maxConnections)
-                .setDefaultRequestConfig(RequestConfig.custom().setStaleConnectionCheckEnabled(true).build())
                 .setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(timeoutMilliseconds).build())
-                .useSystemProperties()
-                .setHostnameVerifier(new AllowAllHostnameVerifier());
+                .useSystemProperties();
 
         if (proxySettings != NO_PROXY) {
             HttpHost proxyHost = new HttpHost(proxySettings.host(), proxySettings.port());
@@ -82,14 +99,25 @@ public class HttpClientFactory {
             }
         }
 
-        if (trustStoreSettings != NO_STORE) {
-            builder.setSslcontext(buildSSLContextWithTrustStore(trustStoreSettings));
-        } else {
-            builder.setSslcontext(buildAllowAnythingSSLContext());
-        }
+        return builder;
+    }
 
-        return builder.build();
-	}
+    public static PoolingHttpClientConnectionManager createConnectionManager(int timeoutMilliseconds, KeyStoreSettings trustStoreSettings) {
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(buildSSLContext(trustStoreSettings), NoopHostnameVerifier.INSTANCE))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(timeoutMilliseconds).build());
+        return connectionManager;
+    }
+
+    static SSLContext buildSSLContext(KeyStoreSettings trustStoreSettings) {
+        return trustStoreSettings != NO_STORE ?
+                buildSSLContextWithTrustStore(trustStoreSettings) :
+                buildAllowAnythingSSLContext();
+    }
 
     private static SSLContext buildSSLContextWithTrustStore(KeyStoreSettings trustStoreSettings) {
         try {
@@ -17,6 +17,7 @@ package com.github.tomakehurst.wiremock.http;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.common.BinaryFile;
 import com.github.tomakehurst.wiremock.common.Encoding;
 import com.github.tomakehurst.wiremock.common.Strings;
 import com.google.common.net.MediaType;
@@ -30,6 +31,7 @@ public class LoggedResponse {
     private final int status;
     private final HttpHeaders headers;
     private final byte[] body;
+    private final BinaryFile bodyFile;
     private final Fault fault;
 
     public LoggedResponse(@JsonProperty("status") int status,
@@ -40,18 +42,29 @@ public class LoggedResponse {
         this(status, headers, Encoding.decodeBase64(bodyAsBase64), fault);
     }
 
-    private LoggedResponse(int status, HttpHeaders headers, byte[] body, Fault fault) {
+    protected LoggedResponse(int status, HttpHeaders headers, byte[] body, Fault fault) {
+        this(status, headers, body, null, fault);
+    }
+
+    private LoggedResponse(int status, HttpHeaders headers, byte[] body, BinaryFile bodyFile, Fault fault) {
         this.status = status;
         this.headers = headers;
         this.body = body;
+        this.bodyFile = bodyFile;
         this.fault = fault;
     }
 
+    /**
+     * Responses served from a body file only keep a reference to the file, which is read
+     * when the body is asked for, so the file isn't copied onto the heap for every request.
+     */
     public static LoggedResponse from(Response response) {
+        BinaryFile bodyFile = response.getBodyFile();
         return new LoggedResponse(
             response.getStatus(),
             response.getHeaders() == null || response.getHeaders().all().isEmpty() ? null : response.getHeaders(),
-            response.getBody(),
+            bodyFile != null || response.isStreamingBody() ? null : response.getBody(),
+            bodyFile,
             response.getFault()
         );
     }
@@ -72,6 +85,7 @@ public class LoggedResponse {
      */
     @JsonProperty("body")
     public String getBodyAsString() {
+        byte[] body = getBody();
         if (body == null) {
             return "";
         }
@@ -93,12 +107,20 @@ public class LoggedResponse {
 
     @JsonIgnore
     public byte[] getBody() {
-        return body;
+        return bodyFile != null ? bodyFile.readContents() : body;
+    }
+
+    /**
+     * @return the file the body was served from, if it was, in which case the body is read from it on demand
+     */
+    @JsonIgnore
+    public BinaryFile getBodyFile() {
+        return bodyFile;
     }
 
     @JsonProperty("bodyAsBase64")
     public String getBodyAsBase64() {
-        return Encoding.encodeBase64(body);
+        return Encoding.encodeBase64(getBody());
     }
 
     public Fault getFault() {
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.KeyStoreSettings;
+import com.github.tomakehurst.wiremock.common.ProxyConnectionPoolSettings;
+import com.github.tomakehurst.wiremock.common.ProxySettings;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The pool of connections used to proxy requests to other hosts.
+ *
+ * Rather than checking every connection for staleness before it's used, which costs a blocking read
+ * per request, only connections that have been idle for a while are checked before they're reused.
+ * Connections are kept alive for as long as the target allows (capped at the idle timeout) and idle
+ * and expired connections are evicted as requests are made. Each target host gets its own
+ * share of the pool, so one slow upstream can't starve requests to the others.
+ */
+public class ProxyConnectionPool {
+
+    static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 1000;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final HttpClient client;
+    private final long idleTimeoutMillis;
+    private final AtomicLong lastEvictionMillis = new AtomicLong(System.currentTimeMillis());
+
+    public ProxyConnectionPool(ProxyConnectionPoolSettings settings, int timeoutMilliseconds, ProxySettings proxySettings, KeyStoreSettings trustStoreSettings) {
+        idleTimeoutMillis = settings.getIdleTimeoutMilliseconds();
+
+        connectionManager = HttpClientFactory.createConnectionManager(timeoutMilliseconds, trustStoreSettings);
+        connectionManager.setMaxTotal(settings.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+        client = HttpClientFactory.createClientBuilder(timeoutMilliseconds, proxySettings)
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy(new IdleCappedKeepAliveStrategy(idleTimeoutMillis))
+            .build();
+    }
+
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        evictIdleConnectionsIfDue();
+        return client.execute(request);
+    }
+
+    private void evictIdleConnectionsIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastEvictionMillis.get();
+        if (now - last >= Math.min(idleTimeoutMillis, 1000) && lastEvictionMillis.compareAndSet(last, now)) {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeoutMillis, MILLISECONDS);
+        }
+    }
+
+    public ProxyConnectionPoolStats getStats() {
+        Map<String, ProxyConnectionPoolStats.Connections> routes = new TreeMap<>();
+        for (HttpRoute route: connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), connectionsFrom(connectionManager.getStats(route)));
+        }
+
+        return new ProxyConnectionPoolStats(connectionsFrom(connectionManager.getTotalStats()), routes);
+    }
+
+    private static ProxyConnectionPoolStats.Connections connectionsFrom(PoolStats poolStats) {
+        return new ProxyConnectionPoolStats.Connections(
+            poolStats.getLeased(),
+            poolStats.getPending(),
+            poolStats.getAvailable(),
+            poolStats.getMax()
+        );
+    }
+
+    private static class IdleCappedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        private final long maxKeepAliveMillis;
+
+        IdleCappedKeepAliveStrategy(long maxKeepAliveMillis) {
+            this.maxKeepAliveMillis = maxKeepAliveMillis;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return requested > 0 ? Math.min(requested, maxKeepAliveMillis) : maxKeepAliveMillis;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+public class ProxyConnectionPoolStats {
+
+    private final Connections total;
+    private final Map<String, Connections> routes;
+
+    public ProxyConnectionPoolStats(@JsonProperty("total") Connections total,
+                                    @JsonProperty("routes") Map<String, Connections> routes) {
+        this.total = total;
+        this.routes = routes;
+    }
+
+    public Connections getTotal() {
+        return total;
+    }
+
+    /**
+     * Connection counts keyed by target, e.g. http://localhost:8080
+     */
+    public Map<String, Connections> getRoutes() {
+        return routes;
+    }
+
+    public static class Connections {
+
+        private final int leased;
+        private final int pending;
+        private final int available;
+        private final int max;
+
+        public Connections(@JsonProperty("leased") int leased,
+                           @JsonProperty("pending") int pending,
+                           @JsonProperty("available") int available,
+                           @JsonProperty("max") int max) {
+            this.leased = leased;
+            this.pending = pending;
+            this.available = available;
+            this.max = max;
+        }
+
+        public int getLeased() {
+            return leased;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        public int getAvailable() {
+            return available;
+        }
+
+        public int getMax() {
+            return max;
+        }
+    }
+}
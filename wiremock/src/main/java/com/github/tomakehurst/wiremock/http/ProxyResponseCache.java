@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.ProxyResponseCacheSettings;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.HEAD;
+import static com.google.common.net.HttpHeaders.AGE;
+import static com.google.common.net.HttpHeaders.AUTHORIZATION;
+import static com.google.common.net.HttpHeaders.CACHE_CONTROL;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static com.google.common.net.HttpHeaders.TRANSFER_ENCODING;
+import static com.google.common.net.HttpHeaders.VARY;
+
+/**
+ * Holds responses from proxy targets in memory, so that repeated GET and HEAD requests for the same resource
+ * needn't go to the target every time.
+ *
+ * Responses are kept for the configured TTL, or less if the target's Cache-Control header says so, and the
+ * least recently used are evicted once the total size of the cached bodies exceeds the configured maximum.
+ * Stale responses with an ETag or Last-Modified header are revalidated with a conditional request rather
+ * than being fetched again in full.
+ *
+ * Requests carrying credentials are never answered from the cache, and their responses are only stored if
+ * the target explicitly allows a shared cache to do so (RFC 7234 section 3.2).
+ */
+public class ProxyResponseCache {
+
+    private static final Set<Integer> CACHEABLE_STATUSES = ImmutableSet.of(200, 203, 204, 300, 301, 404, 405, 410, 414, 501);
+    private static final String NO_STORE = "no-store";
+    private static final String NO_CACHE = "no-cache";
+    private static final String PRIVATE = "private";
+    private static final String PUBLIC = "public";
+    private static final String MUST_REVALIDATE = "must-revalidate";
+    private static final String MAX_AGE = "max-age";
+    private static final String S_MAXAGE = "s-maxage";
+
+    private final ProxyResponseCacheSettings settings;
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ProxyResponseCache(ProxyResponseCacheSettings settings) {
+        this.settings = settings;
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Looks up the response to a request that is being proxied to the given URL.
+     *
+     * @return the result of the lookup, or null if the request's response mustn't be cached
+     */
+    public Lookup lookup(Request request, String url) {
+        if (!settings.isEnabled() || !request.getMethod().isOneOf(GET, HEAD)) {
+            return null;
+        }
+
+        Map<String, String> requestCacheControl = cacheControl(request.header(CACHE_CONTROL));
+        if (requestCacheControl.containsKey(NO_STORE)) {
+            return null;
+        }
+
+        String key = keyFor(request, url);
+        if (request.header(AUTHORIZATION).isPresent()) {
+            misses.incrementAndGet();
+            return new Lookup(key, request, null, false);
+        }
+
+        CachedResponse cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+
+        if (cached != null && cached.matchesVaryingHeadersOf(request)) {
+            if (cached.isFreshAt(System.currentTimeMillis()) && !requestCacheControl.containsKey(NO_CACHE)) {
+                hits.incrementAndGet();
+                return new Lookup(key, request, cached, true);
+            }
+
+            if (cached.hasValidators()) {
+                misses.incrementAndGet();
+                return new Lookup(key, request, cached, false);
+            }
+        }
+
+        misses.incrementAndGet();
+        return new Lookup(key, request, null, false);
+    }
+
+    public synchronized void reset() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized ProxyResponseCacheStats getStats() {
+        return new ProxyResponseCacheStats(
+            hits.get(),
+            misses.get(),
+            revalidations.get(),
+            evictions.get(),
+            entries.size(),
+            totalBytes,
+            settings.getMaxBytes()
+        );
+    }
+
+    private synchronized void put(String key, CachedResponse entry) {
+        CachedResponse previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.body.length;
+        }
+        totalBytes += entry.body.length;
+
+        Iterator<CachedResponse> leastRecentlyUsed = entries.values().iterator();
+        while (totalBytes > settings.getMaxBytes() && leastRecentlyUsed.hasNext()) {
+            totalBytes -= leastRecentlyUsed.next().body.length;
+            leastRecentlyUsed.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private String keyFor(Request request, String url) {
+        StringBuilder key = new StringBuilder(request.getMethod().getName()).append(' ').append(url);
+        for (String headerName: settings.getKeyHeaders()) {
+            key.append('\n')
+                .append(headerName.toLowerCase())
+                .append(": ")
+                .append(Joiner.on(", ").join(valuesOf(request.header(headerName))));
+        }
+
+        return key.toString();
+    }
+
+    private long freshnessLifetimeOf(HttpHeaders headers) {
+        Map<String, String> cacheControl = cacheControl(headers.getHeader(CACHE_CONTROL));
+        if (cacheControl.containsKey(NO_CACHE)) {
+            return 0;
+        }
+
+        Long maxAgeSeconds = parseSeconds(cacheControl.get(S_MAXAGE));
+        if (maxAgeSeconds == null) {
+            maxAgeSeconds = parseSeconds(cacheControl.get(MAX_AGE));
+        }
+
+        return maxAgeSeconds != null ?
+            Math.min(maxAgeSeconds * 1000, settings.getTtlMilliseconds()) :
+            settings.getTtlMilliseconds();
+    }
+
+    private static boolean isStorable(int status, HttpHeaders headers, boolean authorized) {
+        Map<String, String> cacheControl = cacheControl(headers.getHeader(CACHE_CONTROL));
+        return CACHEABLE_STATUSES.contains(status) &&
+            !cacheControl.containsKey(NO_STORE) &&
+            !cacheControl.containsKey(PRIVATE) &&
+            !valuesOf(headers.getHeader(VARY)).contains("*") &&
+            (!authorized || allowsSharingAuthorizedResponse(cacheControl));
+    }
+
+    private static boolean allowsSharingAuthorizedResponse(Map<String, String> cacheControl) {
+        return cacheControl.containsKey(PUBLIC) ||
+            cacheControl.containsKey(S_MAXAGE) ||
+            cacheControl.containsKey(MUST_REVALIDATE);
+    }
+
+    private static Long contentLengthOf(HttpHeaders headers) {
+        HttpHeader contentLength = headers.getHeader(CONTENT_LENGTH);
+        if (!contentLength.isPresent()) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(contentLength.firstValue().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> cacheControl(HttpHeader header) {
+        Map<String, String> directives = new HashMap<>();
+        for (String value: valuesOf(header)) {
+            for (String directive: value.split(",")) {
+                String[] nameAndArgument = directive.trim().split("=", 2);
+                if (!nameAndArgument[0].isEmpty()) {
+                    directives.put(
+                        nameAndArgument[0].toLowerCase(),
+                        nameAndArgument.length > 1 ? nameAndArgument[1].replace("\"", "").trim() : null
+                    );
+                }
+            }
+        }
+
+        return directives;
+    }
+
+    private static Long parseSeconds(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> valuesOf(HttpHeader header) {
+        return header.isPresent() ? header.values() : Collections.<String>emptyList();
+    }
+
+    public class Lookup {
+
+        private final String key;
+        private final Request request;
+        private final CachedResponse cached;
+        private final boolean fresh;
+
+        private Lookup(String key, Request request, CachedResponse cached, boolean fresh) {
+            this.key = key;
+            this.request = request;
+            this.cached = cached;
+            this.fresh = fresh;
+        }
+
+        /**
+         * @return the cached response if it can be served without contacting the target, otherwise null
+         */
+        public CachedResponse getFreshResponse() {
+            return fresh ? cached : null;
+        }
+
+        /**
+         * @return the conditional headers to send to the target to revalidate a stale response, if there is one
+         */
+        public List<HttpHeader> getValidators() {
+            if (fresh || cached == null) {
+                return Collections.emptyList();
+            }
+
+            List<HttpHeader> validators = new ArrayList<>();
+            HttpHeader etag = cached.headers.getHeader(ETAG);
+            if (etag.isPresent()) {
+                validators.add(new HttpHeader(IF_NONE_MATCH, etag.firstValue()));
+            }
+            HttpHeader lastModified = cached.headers.getHeader(LAST_MODIFIED);
+            if (lastModified.isPresent()) {
+                validators.add(new HttpHeader(IF_MODIFIED_SINCE, lastModified.firstValue()));
+            }
+
+            return validators;
+        }
+
+        /**
+         * @return the stale response, updated with the target's headers, if the target has confirmed it's unchanged, otherwise null
+         */
+        public CachedResponse revalidate(int status, Iterable<HttpHeader> headers) {
+            if (fresh || cached == null || status != 304) {
+                return null;
+            }
+
+            revalidations.incrementAndGet();
+            CachedResponse revalidated = cached.updatedWith(headers);
+            put(key, revalidated);
+            return revalidated;
+        }
+
+        /**
+         * @return whether a response from the target with this status and these headers may be stored, so its body should be read in full.
+         * Responses declaring a length over the cache's maximum size aren't, so they needn't be buffered.
+         */
+        public boolean isStorable(int status, Iterable<HttpHeader> headers) {
+            HttpHeaders httpHeaders = new HttpHeaders(headers);
+            Long contentLength = contentLengthOf(httpHeaders);
+            return ProxyResponseCache.isStorable(status, httpHeaders, request.header(AUTHORIZATION).isPresent()) &&
+                (contentLength == null || contentLength <= settings.getMaxBytes());
+        }
+
+        public void store(int status, Iterable<HttpHeader> headers, byte[] body) {
+            if (!isStorable(status, headers) || body.length > settings.getMaxBytes()) {
+                return;
+            }
+
+            HttpHeaders httpHeaders = new HttpHeaders(headers);
+            CachedResponse entry = new CachedResponse(status, httpHeaders, body, varyingHeadersOf(httpHeaders));
+            if (entry.freshnessLifetime > 0 || entry.hasValidators()) {
+                put(key, entry);
+            }
+        }
+
+        private Map<String, List<String>> varyingHeadersOf(HttpHeaders responseHeaders) {
+            ImmutableMap.Builder<String, List<String>> varyingHeaders = ImmutableMap.builder();
+            for (String value: valuesOf(responseHeaders.getHeader(VARY))) {
+                for (String headerName: value.split(",")) {
+                    String name = headerName.trim().toLowerCase();
+                    if (!name.isEmpty()) {
+                        varyingHeaders.put(name, valuesOf(request.header(name)));
+                    }
+                }
+            }
+
+            return varyingHeaders.build();
+        }
+    }
+
+    public class CachedResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final Map<String, List<String>> varyingHeaders;
+        private final long storedAt;
+        private final long freshnessLifetime;
+
+        private CachedResponse(int status, HttpHeaders headers, byte[] body, Map<String, List<String>> varyingHeaders) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.varyingHeaders = varyingHeaders;
+            this.storedAt = System.currentTimeMillis();
+            this.freshnessLifetime = freshnessLifetimeOf(headers);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the target's headers, with an Age header giving the number of seconds the response has been cached
+         */
+        public List<HttpHeader> getHeaders() {
+            ImmutableList.Builder<HttpHeader> headersWithAge = ImmutableList.builder();
+            for (HttpHeader header: headers.all()) {
+                if (!header.key().equalsIgnoreCase(AGE)) {
+                    headersWithAge.add(header);
+                }
+            }
+
+            long ageSeconds = (System.currentTimeMillis() - storedAt) / 1000;
+            return headersWithAge.add(new HttpHeader(AGE, String.valueOf(ageSeconds))).build();
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        private boolean isFreshAt(long time) {
+            return time - storedAt < freshnessLifetime;
+        }
+
+        private boolean hasValidators() {
+            return headers.getHeader(ETAG).isPresent() || headers.getHeader(LAST_MODIFIED).isPresent();
+        }
+
+        private boolean matchesVaryingHeadersOf(Request request) {
+            for (Map.Entry<String, List<String>> varyingHeader: varyingHeaders.entrySet()) {
+                if (!valuesOf(request.header(varyingHeader.getKey())).equals(varyingHeader.getValue())) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private CachedResponse updatedWith(Iterable<HttpHeader> notModifiedHeaders) {
+            List<HttpHeader> updates = new ArrayList<>();
+            for (HttpHeader header: notModifiedHeaders) {
+                if (!header.key().equalsIgnoreCase(CONTENT_LENGTH) && !header.key().equalsIgnoreCase(TRANSFER_ENCODING)) {
+                    updates.add(header);
+                }
+            }
+
+            HttpHeaders updatedHeaders = new HttpHeaders(updates);
+            List<HttpHeader> mergedHeaders = new ArrayList<>(updates);
+            for (HttpHeader header: headers.all()) {
+                if (!updatedHeaders.getHeader(header.key()).isPresent()) {
+                    mergedHeaders.add(header);
+                }
+            }
+
+            return new CachedResponse(status, new HttpHeaders(mergedHeaders), body, varyingHeaders);
+        }
+    }
+}
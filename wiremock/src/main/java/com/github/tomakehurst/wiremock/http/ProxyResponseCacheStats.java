@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ProxyResponseCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long revalidations;
+    private final long evictions;
+    private final int entries;
+    private final long sizeBytes;
+    private final long maxBytes;
+
+    public ProxyResponseCacheStats(@JsonProperty("hits") long hits,
+                                   @JsonProperty("misses") long misses,
+                                   @JsonProperty("revalidations") long revalidations,
+                                   @JsonProperty("evictions") long evictions,
+                                   @JsonProperty("entries") int entries,
+                                   @JsonProperty("sizeBytes") long sizeBytes,
+                                   @JsonProperty("maxBytes") long maxBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.revalidations = revalidations;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.sizeBytes = sizeBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The number of stale responses that the target confirmed were unchanged, and were then served from the cache
+     */
+    public long getRevalidations() {
+        return revalidations;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -15,13 +15,22 @@
  */
 package com.github.tomakehurst.wiremock.http;
 
+import com.github.tomakehurst.wiremock.common.Gzip;
+import com.github.tomakehurst.wiremock.common.InputStreamSource;
 import com.github.tomakehurst.wiremock.common.KeyStoreSettings;
+import com.github.tomakehurst.wiremock.common.ProxyConnectionPoolSettings;
+import com.github.tomakehurst.wiremock.common.ProxyResponseCacheSettings;
 import com.github.tomakehurst.wiremock.common.ProxySettings;
+import com.github.tomakehurst.wiremock.common.StreamSources;
 import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
+import com.github.tomakehurst.wiremock.recording.Recorder;
+import com.github.tomakehurst.wiremock.recording.RecordingStatus;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.http.*;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.ContentType;
@@ -32,6 +41,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -40,8 +51,12 @@ import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.PUT;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.PATCH;
 import static com.github.tomakehurst.wiremock.http.Response.response;
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
-public class ProxyResponseRenderer implements ResponseRenderer {
+public class ProxyResponseRenderer implements AsynchronousResponseRenderer {
 
     private static final int MINUTES = 1000 * 60;
     private static final String TRANSFER_ENCODING = "transfer-encoding";
@@ -54,52 +69,177 @@ public class ProxyResponseRenderer implements ResponseRenderer {
             "connection"
     );
 
-    private final HttpClient client;
+    private final ProxyConnectionPool connectionPool;
+    private final AsyncProxyClient asyncProxyClient;
+    private final ProxyResponseCache responseCache;
     private final boolean preserveHostHeader;
     private final String hostHeaderValue;
     private final GlobalSettingsHolder globalSettingsHolder;
+    private final boolean streamResponseBodies;
+    private final Recorder recorder;
 	
 	public ProxyResponseRenderer(ProxySettings proxySettings, KeyStoreSettings trustStoreSettings, boolean preserveHostHeader, String hostHeaderValue, GlobalSettingsHolder globalSettingsHolder) {
+        this(createConnectionPool(ProxyConnectionPoolSettings.DEFAULTS, proxySettings, trustStoreSettings), preserveHostHeader, hostHeaderValue, globalSettingsHolder);
+	}
+
+	public ProxyResponseRenderer(ProxyConnectionPool connectionPool, boolean preserveHostHeader, String hostHeaderValue, GlobalSettingsHolder globalSettingsHolder) {
+        this(connectionPool, null, new ProxyResponseCache(ProxyResponseCacheSettings.DISABLED), preserveHostHeader, hostHeaderValue, globalSettingsHolder, false, null);
+	}
+
+    /**
+     * @param asyncProxyClient if not null, used to proxy requests without blocking where the caller supports it
+     */
+	public ProxyResponseRenderer(ProxyConnectionPool connectionPool, AsyncProxyClient asyncProxyClient, ProxyResponseCache responseCache, boolean preserveHostHeader,
+                                 String hostHeaderValue, GlobalSettingsHolder globalSettingsHolder, boolean streamResponseBodies, Recorder recorder) {
         this.globalSettingsHolder = globalSettingsHolder;
-        client = HttpClientFactory.createClient(1000, 5 * MINUTES, proxySettings, trustStoreSettings);
+        this.connectionPool = connectionPool;
+        this.asyncProxyClient = asyncProxyClient;
+        this.responseCache = responseCache;
 
         this.preserveHostHeader = preserveHostHeader;
         this.hostHeaderValue = hostHeaderValue;
+        this.streamResponseBodies = streamResponseBodies;
+        this.recorder = recorder;
+	}
+
+	public static ProxyConnectionPool createConnectionPool(ProxyConnectionPoolSettings poolSettings, ProxySettings proxySettings, KeyStoreSettings trustStoreSettings) {
+        return new ProxyConnectionPool(poolSettings, 5 * MINUTES, proxySettings, trustStoreSettings);
+	}
+
+	public static AsyncProxyClient createAsyncProxyClient(ProxyConnectionPoolSettings poolSettings, ProxySettings proxySettings, KeyStoreSettings trustStoreSettings) {
+        return new AsyncProxyClient(poolSettings, 5 * MINUTES, proxySettings, trustStoreSettings);
 	}
 
 	@Override
 	public Response render(ServeEvent serveEvent) {
         ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
+        ProxyResponseCache.Lookup cacheLookup = lookUpCachedResponse(responseDefinition);
+        if (cacheLookup != null && cacheLookup.getFreshResponse() != null) {
+            return responseFor(responseDefinition, cacheLookup.getFreshResponse());
+        }
+
         HttpUriRequest httpRequest = getHttpRequestFor(responseDefinition);
-        addRequestHeaders(httpRequest, responseDefinition);
+        for (HttpHeader header: requestHeadersFor(responseDefinition, cacheLookup)) {
+            httpRequest.addHeader(header.key(), header.firstValue());
+        }
 
 		try {
 			addBodyIfPostPutOrPatch(httpRequest, responseDefinition);
-			HttpResponse httpResponse = client.execute(httpRequest);
-
-            return response()
-                    .status(httpResponse.getStatusLine().getStatusCode())
-                    .headers(headersFrom(httpResponse, responseDefinition))
-                    .body(getEntityAsByteArrayAndCloseStream(httpResponse))
-                    .fromProxy(true)
-                    .configureDelay(
-                        globalSettingsHolder.get().getFixedDelay(),
-                        globalSettingsHolder.get().getDelayDistribution(),
-                        responseDefinition.getFixedDelayMilliseconds(),
-                        responseDefinition.getDelayDistribution()
-                    )
-                    .chunkedDribbleDelay(responseDefinition.getChunkedDribbleDelay())
-                    .build();
+			HttpResponse httpResponse = connectionPool.execute(httpRequest);
+
+            int status = httpResponse.getStatusLine().getStatusCode();
+            List<HttpHeader> upstreamHeaders = new LinkedList<>();
+            for (Header header : httpResponse.getAllHeaders()) {
+                upstreamHeaders.add(new HttpHeader(header.getName(), header.getValue()));
+            }
+
+            if (cacheLookup != null) {
+                ProxyResponseCache.CachedResponse revalidated = cacheLookup.revalidate(status, upstreamHeaders);
+                if (revalidated != null) {
+                    getEntityAsByteArrayAndCloseStream(httpResponse);
+                    return responseFor(responseDefinition, revalidated);
+                }
+
+                if (cacheLookup.isStorable(status, upstreamHeaders)) {
+                    byte[] body = firstNonNull(getEntityAsByteArrayAndCloseStream(httpResponse), new byte[0]);
+                    cacheLookup.store(status, upstreamHeaders, body);
+                    return responseFor(responseDefinition, status, upstreamHeaders, StreamSources.forBytes(body));
+                }
+            }
+
+            return responseFor(responseDefinition, status, upstreamHeaders, bodyFrom(httpResponse));
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-    private HttpHeaders headersFrom(HttpResponse httpResponse, ResponseDefinition responseDefinition) {
+    @Override
+    public boolean canRenderAsynchronously(ServeEvent serveEvent) {
+        return asyncProxyClient != null &&
+            SpilledBody.from(serveEvent.getResponseDefinition().getOriginalRequest()) == null;
+    }
+
+    @Override
+    public ListenableFuture<Response> renderAsynchronously(ServeEvent serveEvent) {
+        final ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
+        final ProxyResponseCache.Lookup cacheLookup = lookUpCachedResponse(responseDefinition);
+        if (cacheLookup != null && cacheLookup.getFreshResponse() != null) {
+            return Futures.immediateFuture(responseFor(responseDefinition, cacheLookup.getFreshResponse()));
+        }
+
+        Request originalRequest = responseDefinition.getOriginalRequest();
+        byte[] body = originalRequest.getMethod().isOneOf(PUT, POST, PATCH) ?
+            applyGzipIfRequired(originalRequest, originalRequest.getBody()) :
+            null;
+
+        ListenableFuture<Response> upstreamResponse = asyncProxyClient.execute(
+            originalRequest.getMethod(),
+            responseDefinition.getProxyUrl(),
+            requestHeadersFor(responseDefinition, cacheLookup),
+            body
+        );
+
+        return Futures.transform(upstreamResponse, new Function<Response, Response>() {
+            @Override
+            public Response apply(Response upstream) {
+                if (cacheLookup != null) {
+                    ProxyResponseCache.CachedResponse revalidated = cacheLookup.revalidate(upstream.getStatus(), upstream.getHeaders().all());
+                    if (revalidated != null) {
+                        return responseFor(responseDefinition, revalidated);
+                    }
+
+                    cacheLookup.store(upstream.getStatus(), upstream.getHeaders().all(), upstream.getBody());
+                }
+
+                return responseFor(responseDefinition, upstream.getStatus(), upstream.getHeaders().all(), StreamSources.forBytes(upstream.getBody()));
+            }
+        }, directExecutor());
+    }
+
+    private ProxyResponseCache.Lookup lookUpCachedResponse(ResponseDefinition responseDefinition) {
+        return responseCache.lookup(responseDefinition.getOriginalRequest(), responseDefinition.getProxyUrl());
+    }
+
+    private Response responseFor(ResponseDefinition responseDefinition, ProxyResponseCache.CachedResponse cachedResponse) {
+        return responseFor(responseDefinition, cachedResponse.getStatus(), cachedResponse.getHeaders(), StreamSources.forBytes(cachedResponse.getBody()));
+    }
+
+    private Response responseFor(ResponseDefinition responseDefinition, int status, Iterable<HttpHeader> upstreamHeaders, InputStreamSource body) {
+        return response()
+                .status(status)
+                .headers(headersFrom(upstreamHeaders, responseDefinition))
+                .body(body)
+                .fromProxy(true)
+                .configureDelay(
+                    globalSettingsHolder.get().getFixedDelay(),
+                    globalSettingsHolder.get().getDelayDistribution(),
+                    responseDefinition.getFixedDelayMilliseconds(),
+                    responseDefinition.getDelayDistribution()
+                )
+                .chunkedDribbleDelay(responseDefinition.getChunkedDribbleDelay())
+                .bandwidthThrottle(responseDefinition.getBandwidthThrottle())
+                .build();
+    }
+
+    private InputStreamSource bodyFrom(HttpResponse httpResponse) throws IOException {
+        HttpEntity entity = httpResponse.getEntity();
+        if (entity == null || !shouldStreamResponseBody()) {
+            return StreamSources.forBytes(getEntityAsByteArrayAndCloseStream(httpResponse));
+        }
+
+        return new StreamedBody(entity.getContent(), entity.getContentLength());
+    }
+
+    private boolean shouldStreamResponseBody() {
+        // Recordings are taken from the request journal, which only gets the bodies of buffered responses
+        return streamResponseBodies && (recorder == null || recorder.getStatus() != RecordingStatus.Recording);
+    }
+
+    private HttpHeaders headersFrom(Iterable<HttpHeader> upstreamHeaders, ResponseDefinition responseDefinition) {
 	    List<HttpHeader> httpHeaders = new LinkedList<HttpHeader>();
-	    for (Header header : httpResponse.getAllHeaders()) {
-	        if (responseHeaderShouldBeTransferred(header.getName())) {
-                httpHeaders.add(new HttpHeader(header.getName(), header.getValue()));
+	    for (HttpHeader header : upstreamHeaders) {
+	        if (responseHeaderShouldBeTransferred(header.key())) {
+                httpHeaders.add(header);
             }
 	    }
 
@@ -116,20 +256,21 @@ public class ProxyResponseRenderer implements ResponseRenderer {
 		return HttpClientFactory.getHttpRequestFor(method, url);
 	}
 	
-	private void addRequestHeaders(HttpRequest httpRequest, ResponseDefinition response) {
+	private List<HttpHeader> requestHeadersFor(ResponseDefinition response, ProxyResponseCache.Lookup cacheLookup) {
+		List<HttpHeader> headers = new LinkedList<>();
 		Request originalRequest = response.getOriginalRequest(); 
 		for (String key: originalRequest.getAllHeaderKeys()) {
 			if (requestHeaderShouldBeTransferred(key)) {
                 if (!HOST_HEADER.equalsIgnoreCase(key) || preserveHostHeader) {
 					List<String> values = originalRequest.header(key).values();
 					for (String value: values) {
-						httpRequest.addHeader(key, value);
+						headers.add(new HttpHeader(key, value));
 					}
                 } else {
                     if (hostHeaderValue != null) {
-                        httpRequest.addHeader(key, hostHeaderValue);
+                        headers.add(new HttpHeader(key, hostHeaderValue));
                     } else if (response.getProxyBaseUrl() != null) {
-                        httpRequest.addHeader(key, URI.create(response.getProxyBaseUrl()).getAuthority());
+                        headers.add(new HttpHeader(key, URI.create(response.getProxyBaseUrl()).getAuthority()));
                     }
                 }
 			}
@@ -137,11 +278,30 @@ public class ProxyResponseRenderer implements ResponseRenderer {
 				
 		if (response.getAdditionalProxyRequestHeaders() != null) {
 			for (String key: response.getAdditionalProxyRequestHeaders().keys()) {
-				httpRequest.setHeader(key, response.getAdditionalProxyRequestHeaders().getHeader(key).firstValue());
+				removeHeadersNamed(key, headers);
+				headers.add(new HttpHeader(key, response.getAdditionalProxyRequestHeaders().getHeader(key).firstValue()));
 			}			
 		}
+
+		List<HttpHeader> validators = cacheLookup != null ? cacheLookup.getValidators() : Collections.<HttpHeader>emptyList();
+		if (!validators.isEmpty()) {
+			removeHeadersNamed(IF_NONE_MATCH, headers);
+			removeHeadersNamed(IF_MODIFIED_SINCE, headers);
+			headers.addAll(validators);
+		}
+
+		return headers;
 	}
 
+    private static void removeHeadersNamed(String key, List<HttpHeader> headers) {
+        Iterator<HttpHeader> iterator = headers.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().key().equalsIgnoreCase(key)) {
+                iterator.remove();
+            }
+        }
+    }
+
     private static boolean requestHeaderShouldBeTransferred(String key) {
         return !FORBIDDEN_HEADERS.contains(key.toLowerCase());
     }
@@ -163,6 +323,14 @@ public class ProxyResponseRenderer implements ResponseRenderer {
         ContentTypeHeader contentTypeHeader = originalRequest.contentTypeHeader().or("text/plain");
         ContentType contentType = ContentType.create(contentTypeHeader.mimeTypePart(), contentTypeHeader.encodingPart().or("utf-8"));
 
+        SpilledBody spilledBody = SpilledBody.from(originalRequest);
+        if (spilledBody != null) {
+            return applyGzipWrapperIfRequired(
+                originalRequest,
+                new InputStreamEntity(spilledBody.getStream(), spilledBody.getLength(), contentType)
+            );
+        }
+
         if (originalRequest.containsHeader(TRANSFER_ENCODING) &&
             originalRequest.header(TRANSFER_ENCODING).firstValue().equals("chunked")) {
             return applyGzipWrapperIfRequired(
@@ -178,12 +346,20 @@ public class ProxyResponseRenderer implements ResponseRenderer {
     }
 
     private static HttpEntity applyGzipWrapperIfRequired(Request originalRequest, HttpEntity content) {
-        if (originalRequest.containsHeader(CONTENT_ENCODING) &&
-            originalRequest.header(CONTENT_ENCODING).firstValue().contains("gzip")) {
+        if (isGzipEncoded(originalRequest)) {
             return new GzipCompressingEntity(content);
         }
 
         return content;
     }
 
+    private static byte[] applyGzipIfRequired(Request originalRequest, byte[] content) {
+        return isGzipEncoded(originalRequest) ? Gzip.gzip(content) : content;
+    }
+
+    private static boolean isGzipEncoded(Request originalRequest) {
+        return originalRequest.containsHeader(CONTENT_ENCODING) &&
+            originalRequest.header(CONTENT_ENCODING).firstValue().contains("gzip");
+    }
+
 }
@@ -40,6 +40,7 @@ public class Response {
 	private final boolean fromProxy;
 	private final long initialDelay;
     private final ChunkedDribbleDelay chunkedDribbleDelay;
+    private final BandwidthThrottle bandwidthThrottle;
 
 	public static Response notConfigured() {
         return new Response(
@@ -60,40 +61,30 @@ public class Response {
 
     public Response(int status, String statusMessage, byte[] body, HttpHeaders headers, boolean configured, Fault fault, long initialDelay,
                     ChunkedDribbleDelay chunkedDribbleDelay, boolean fromProxy) {
-        this.status = status;
-        this.statusMessage = statusMessage;
-        this.bodyStreamSource = StreamSources.forBytes(body);
-        this.headers = headers;
-        this.configured = configured;
-        this.fault = fault;
-        this.initialDelay = initialDelay;
-        this.chunkedDribbleDelay = chunkedDribbleDelay;
-        this.fromProxy = fromProxy;
+        this(status, statusMessage, StreamSources.forBytes(body), headers, configured, fault, initialDelay, chunkedDribbleDelay, null, fromProxy);
     }
 
     public Response(int status, String statusMessage, InputStreamSource streamSource, HttpHeaders headers, boolean configured, Fault fault, long initialDelay,
                     ChunkedDribbleDelay chunkedDribbleDelay, boolean fromProxy) {
-        this.status = status;
-        this.statusMessage = statusMessage;
-        this.bodyStreamSource = streamSource;
-        this.headers = headers;
-        this.configured = configured;
-        this.fault = fault;
-        this.initialDelay = initialDelay;
-        this.chunkedDribbleDelay = chunkedDribbleDelay;
-        this.fromProxy = fromProxy;
+        this(status, statusMessage, streamSource, headers, configured, fault, initialDelay, chunkedDribbleDelay, null, fromProxy);
     }
 
     public Response(int status, String statusMessage, String body, HttpHeaders headers, boolean configured, Fault fault, long initialDelay,
                     ChunkedDribbleDelay chunkedDribbleDelay, boolean fromProxy) {
+        this(status, statusMessage, StreamSources.forString(body, headers.getContentTypeHeader().charset()), headers, configured, fault, initialDelay, chunkedDribbleDelay, null, fromProxy);
+    }
+
+    private Response(int status, String statusMessage, InputStreamSource streamSource, HttpHeaders headers, boolean configured, Fault fault, long initialDelay,
+                     ChunkedDribbleDelay chunkedDribbleDelay, BandwidthThrottle bandwidthThrottle, boolean fromProxy) {
         this.status = status;
         this.statusMessage = statusMessage;
+        this.bodyStreamSource = streamSource;
         this.headers = headers;
-        this.bodyStreamSource = StreamSources.forString(body, headers.getContentTypeHeader().charset());
         this.configured = configured;
         this.fault = fault;
         this.initialDelay = initialDelay;
         this.chunkedDribbleDelay = chunkedDribbleDelay;
+        this.bandwidthThrottle = bandwidthThrottle;
         this.fromProxy = fromProxy;
     }
 
@@ -106,6 +97,10 @@ public class Response {
     }
 
     public byte[] getBody() {
+        if (bodyStreamSource instanceof StreamedBody) {
+            return ((StreamedBody) bodyStreamSource).getBytes();
+        }
+
         try (InputStream stream = bodyStreamSource == null ? null : getBodyStream()) {
             return stream == null ? null : ByteStreams.toByteArray(stream);
         } catch (IOException e) {
@@ -122,7 +117,46 @@ public class Response {
     }
 
     public boolean hasInlineBody() {
-	    return !BinaryFile.class.isAssignableFrom(bodyStreamSource.getClass());
+	    return !(bodyStreamSource instanceof BinaryFile);
+    }
+
+    public BinaryFile getBodyFile() {
+        return hasInlineBody() ? null : (BinaryFile) bodyStreamSource;
+    }
+
+    public long getBodyLength() {
+        if (!hasInlineBody()) {
+            return getBodyFile().length();
+        }
+
+        if (bodyStreamSource instanceof StreamedBody) {
+            return ((StreamedBody) bodyStreamSource).getLength();
+        }
+
+        byte[] body = getBody();
+        return body == null ? 0 : body.length;
+    }
+
+    /**
+     * @return true if the body will be passed straight through to the client, nothing having needed to read it
+     * into memory so far
+     */
+    public boolean isStreamingBody() {
+        return bodyStreamSource instanceof StreamedBody && !((StreamedBody) bodyStreamSource).isBuffered();
+    }
+
+    /**
+     * Releases a body streamed from elsewhere if it hasn't been read, so that whatever it's being
+     * streamed from is handed back. This is a no-op for any other kind of body.
+     */
+    public void releaseBody() {
+        if (bodyStreamSource instanceof StreamedBody) {
+            ((StreamedBody) bodyStreamSource).release();
+        }
+    }
+
+    boolean hasSameBodyAs(Response other) {
+        return other != null && bodyStreamSource == other.bodyStreamSource;
     }
 
 	public HttpHeaders getHeaders() {
@@ -145,6 +179,14 @@ public class Response {
         return chunkedDribbleDelay != null;
     }
 
+    public BandwidthThrottle getBandwidthThrottle() {
+        return bandwidthThrottle;
+    }
+
+    public boolean shouldThrottleBandwidth() {
+        return bandwidthThrottle != null;
+    }
+
 	public boolean wasConfigured() {
 		return configured;
 	}
@@ -174,6 +216,7 @@ public class Response {
         private boolean fromProxy;
         private long initialDelay;
         private ChunkedDribbleDelay chunkedDribbleDelay;
+        private BandwidthThrottle bandwidthThrottle;
 
         public static Builder like(Response response) {
             Builder responseBuilder = new Builder();
@@ -184,6 +227,7 @@ public class Response {
             responseBuilder.fault = response.getFault();
             responseBuilder.initialDelay = response.getInitialDelay();
             responseBuilder.chunkedDribbleDelay = response.getChunkedDribbleDelay();
+            responseBuilder.bandwidthThrottle = response.getBandwidthThrottle();
             responseBuilder.fromProxy = response.isFromProxy();
             return responseBuilder;
         }
@@ -286,21 +330,29 @@ public class Response {
             return this;
         }
 
+        public Builder bandwidthThrottle(BandwidthThrottle bandwidthThrottle) {
+            this.bandwidthThrottle = bandwidthThrottle;
+            return this;
+        }
+
         public Builder fromProxy(boolean fromProxy) {
             this.fromProxy = fromProxy;
             return this;
         }
 
         public Response build() {
+            InputStreamSource bodySource;
             if (bodyBytes != null) {
-                return new Response(status, statusMessage, bodyBytes, headers, configured, fault, initialDelay, chunkedDribbleDelay, fromProxy);
+                bodySource = StreamSources.forBytes(bodyBytes);
             } else if (bodyString != null) {
-                return new Response(status, statusMessage, bodyString, headers, configured, fault, initialDelay, chunkedDribbleDelay, fromProxy);
+                bodySource = StreamSources.forString(bodyString, headers.getContentTypeHeader().charset());
             } else if (bodyStream != null) {
-                return new Response(status, statusMessage, bodyStream, headers, configured, fault, initialDelay, chunkedDribbleDelay, fromProxy);
+                bodySource = bodyStream;
             } else {
-                return new Response(status, statusMessage, new byte[0], headers, configured, fault, initialDelay, chunkedDribbleDelay, fromProxy);
+                bodySource = StreamSources.forBytes(new byte[0]);
             }
+
+            return new Response(status, statusMessage, bodySource, headers, configured, fault, initialDelay, chunkedDribbleDelay, bandwidthThrottle, fromProxy);
         }
     }
 
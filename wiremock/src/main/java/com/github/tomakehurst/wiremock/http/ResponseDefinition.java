@@ -46,6 +46,7 @@ public class ResponseDefinition {
     private final Integer fixedDelayMilliseconds;
     private final DelayDistribution delayDistribution;
     private final ChunkedDribbleDelay chunkedDribbleDelay;
+    private final BandwidthThrottle bandwidthThrottle;
     private final String proxyBaseUrl;
     private final Fault fault;
     private final List<String> transformers;
@@ -67,12 +68,52 @@ public class ResponseDefinition {
                               @JsonProperty("fixedDelayMilliseconds") Integer fixedDelayMilliseconds,
                               @JsonProperty("delayDistribution") DelayDistribution delayDistribution,
                               @JsonProperty("chunkedDribbleDelay") ChunkedDribbleDelay chunkedDribbleDelay,
+                              @JsonProperty("bandwidthThrottle") BandwidthThrottle bandwidthThrottle,
                               @JsonProperty("proxyBaseUrl") String proxyBaseUrl,
                               @JsonProperty("fault") Fault fault,
                               @JsonProperty("transformers") List<String> transformers,
                               @JsonProperty("transformerParameters") Parameters transformerParameters,
                               @JsonProperty("fromConfiguredStub") Boolean wasConfigured) {
-        this(status, statusMessage, Body.fromOneOf(null, body, jsonBody, base64Body), bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, proxyBaseUrl, fault, transformers, transformerParameters, wasConfigured);
+        this(status, statusMessage, Body.fromOneOf(null, body, jsonBody, base64Body), bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, bandwidthThrottle, proxyBaseUrl, fault, transformers, transformerParameters, wasConfigured);
+    }
+
+    public ResponseDefinition(int status,
+                              String statusMessage,
+                              String body,
+                              JsonNode jsonBody,
+                              String base64Body,
+                              String bodyFileName,
+                              HttpHeaders headers,
+                              HttpHeaders additionalProxyRequestHeaders,
+                              Integer fixedDelayMilliseconds,
+                              DelayDistribution delayDistribution,
+                              ChunkedDribbleDelay chunkedDribbleDelay,
+                              String proxyBaseUrl,
+                              Fault fault,
+                              List<String> transformers,
+                              Parameters transformerParameters,
+                              Boolean wasConfigured) {
+        this(status, statusMessage, body, jsonBody, base64Body, bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, null, proxyBaseUrl, fault, transformers, transformerParameters, wasConfigured);
+    }
+
+    public ResponseDefinition(int status,
+                              String statusMessage,
+                              byte[] body,
+                              JsonNode jsonBody,
+                              String base64Body,
+                              String bodyFileName,
+                              HttpHeaders headers,
+                              HttpHeaders additionalProxyRequestHeaders,
+                              Integer fixedDelayMilliseconds,
+                              DelayDistribution delayDistribution,
+                              ChunkedDribbleDelay chunkedDribbleDelay,
+                              BandwidthThrottle bandwidthThrottle,
+                              String proxyBaseUrl,
+                              Fault fault,
+                              List<String> transformers,
+                              Parameters transformerParameters,
+                              Boolean wasConfigured) {
+        this(status, statusMessage, Body.fromOneOf(body, null, jsonBody, base64Body), bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, bandwidthThrottle, proxyBaseUrl, fault, transformers, transformerParameters, wasConfigured);
     }
 
     public ResponseDefinition(int status,
@@ -91,7 +132,7 @@ public class ResponseDefinition {
                               List<String> transformers,
                               Parameters transformerParameters,
                               Boolean wasConfigured) {
-        this(status, statusMessage, Body.fromOneOf(body, null, jsonBody, base64Body), bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, proxyBaseUrl, fault, transformers, transformerParameters, wasConfigured);
+        this(status, statusMessage, body, jsonBody, base64Body, bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, null, proxyBaseUrl, fault, transformers, transformerParameters, wasConfigured);
     }
 
     private ResponseDefinition(int status,
@@ -103,6 +144,7 @@ public class ResponseDefinition {
                                Integer fixedDelayMilliseconds,
                                DelayDistribution delayDistribution,
                                ChunkedDribbleDelay chunkedDribbleDelay,
+                               BandwidthThrottle bandwidthThrottle,
                                String proxyBaseUrl,
                                Fault fault,
                                List<String> transformers,
@@ -119,6 +161,7 @@ public class ResponseDefinition {
         this.fixedDelayMilliseconds = fixedDelayMilliseconds;
         this.delayDistribution = delayDistribution;
         this.chunkedDribbleDelay = chunkedDribbleDelay;
+        this.bandwidthThrottle = bandwidthThrottle;
         this.proxyBaseUrl = proxyBaseUrl;
         this.fault = fault;
         this.transformers = transformers;
@@ -127,15 +170,15 @@ public class ResponseDefinition {
     }
 
     public ResponseDefinition(final int statusCode, final String bodyContent) {
-        this(statusCode, null, Body.fromString(bodyContent), null, null, null, null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
+        this(statusCode, null, Body.fromString(bodyContent), null, null, null, null, null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
     }
 
     public ResponseDefinition(final int statusCode, final byte[] bodyContent) {
-        this(statusCode, null, Body.fromBytes(bodyContent), null, null, null, null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
+        this(statusCode, null, Body.fromBytes(bodyContent), null, null, null, null, null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
     }
 
     public ResponseDefinition() {
-        this(HTTP_OK, null, Body.none(), null, null, null, null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
+        this(HTTP_OK, null, Body.none(), null, null, null, null, null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
     }
 
     public static ResponseDefinition notFound() {
@@ -213,6 +256,7 @@ public class ResponseDefinition {
             original.fixedDelayMilliseconds,
             original.delayDistribution,
             original.chunkedDribbleDelay,
+            original.bandwidthThrottle,
             original.proxyBaseUrl,
             original.fault,
             original.transformers,
@@ -290,6 +334,10 @@ public class ResponseDefinition {
         return chunkedDribbleDelay;
     }
 
+    public BandwidthThrottle getBandwidthThrottle() {
+        return bandwidthThrottle;
+    }
+
     @JsonIgnore
     public String getProxyUrl() {
         if (browserProxyUrl != null) {
@@ -318,6 +366,11 @@ public class ResponseDefinition {
         return body.isPresent() && !body.isBinary();
     }
 
+    @JsonIgnore
+    public boolean specifiesJsonBodyContent() {
+        return body.isPresent() && body.isJson();
+    }
+
     @JsonIgnore
     public boolean specifiesBinaryBodyContent() {
         return (body.isPresent() && body.isBinary());
@@ -369,6 +422,7 @@ public class ResponseDefinition {
             Objects.equals(fixedDelayMilliseconds, that.fixedDelayMilliseconds) &&
             Objects.equals(delayDistribution, that.delayDistribution) &&
             Objects.equals(chunkedDribbleDelay, that.chunkedDribbleDelay) &&
+            Objects.equals(bandwidthThrottle, that.bandwidthThrottle) &&
             Objects.equals(proxyBaseUrl, that.proxyBaseUrl) &&
             fault == that.fault &&
             Objects.equals(transformers, that.transformers) &&
@@ -379,7 +433,7 @@ public class ResponseDefinition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(status, statusMessage, body, bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, proxyBaseUrl, fault, transformers, transformerParameters, browserProxyUrl, wasConfigured);
+        return Objects.hash(status, statusMessage, body, bodyFileName, headers, additionalProxyRequestHeaders, fixedDelayMilliseconds, delayDistribution, chunkedDribbleDelay, bandwidthThrottle, proxyBaseUrl, fault, transformers, transformerParameters, browserProxyUrl, wasConfigured);
     }
 
     @Override
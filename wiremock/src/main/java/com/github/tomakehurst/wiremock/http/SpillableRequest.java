@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+/**
+ * A request whose body may have been written to disk rather than held in memory.
+ *
+ * This is kept separate from {@link Request} so that existing implementations of that interface are unaffected.
+ * Use {@link SpilledBody#from(Request)} rather than checking for this interface directly.
+ */
+public interface SpillableRequest extends Request {
+
+    /**
+     * @return the body if it was too large to hold in memory and has been written to disk, otherwise null
+     */
+    SpilledBody getSpilledBody();
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.InputStreamSource;
+import com.google.common.io.BaseEncoding;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
+/**
+ * A request body that was too large to hold in memory, so has been written to a temporary file instead.
+ *
+ * The body's length, SHA-256 digest and first few bytes are kept in memory, so the request journal
+ * can record them without reading the file back.
+ */
+public class SpilledBody implements InputStreamSource {
+
+    public static final int PREVIEW_BYTES = 1024;
+
+    private final File file;
+    private final long length;
+    private final String sha256;
+    private final byte[] preview;
+
+    private SpilledBody(File file, long length, String sha256, byte[] preview) {
+        this.file = file;
+        this.length = length;
+        this.sha256 = sha256;
+        this.preview = preview;
+    }
+
+    /**
+     * @return the request's body if it was written to disk, otherwise null
+     */
+    public static SpilledBody from(Request request) {
+        return request instanceof SpillableRequest ? ((SpillableRequest) request).getSpilledBody() : null;
+    }
+
+    /**
+     * Writes the content to a new temporary file, which should be removed with {@link #delete()} when no longer needed.
+     */
+    public static SpilledBody spill(InputStream content) throws IOException {
+        File file = File.createTempFile("wiremock-request-body-", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteArrayOutputStream preview = new ByteArrayOutputStream(PREVIEW_BYTES);
+            long length = 0;
+
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(file)), digest)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    if (preview.size() < PREVIEW_BYTES) {
+                        preview.write(buffer, 0, Math.min(read, PREVIEW_BYTES - preview.size()));
+                    }
+                    out.write(buffer, 0, read);
+                    length += read;
+                }
+            }
+
+            return new SpilledBody(file, length, BaseEncoding.base16().lowerCase().encode(digest.digest()), preview.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            file.delete();
+            return throwUnchecked(e, SpilledBody.class);
+        }
+    }
+
+    @Override
+    public InputStream getStream() {
+        try {
+            return new FileInputStream(file);
+        } catch (IOException e) {
+            return throwUnchecked(e, InputStream.class);
+        }
+    }
+
+    /**
+     * Reads the whole body into memory, for anything that can't work with it as a stream.
+     */
+    public byte[] getBytes() {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            return throwUnchecked(e, byte[].class);
+        }
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 digest of the body
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * @return the first {@value #PREVIEW_BYTES} bytes of the body
+     */
+    public byte[] getPreview() {
+        return preview;
+    }
+
+    public void delete() {
+        file.delete();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.extension.StubLifecycleListener;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.github.tomakehurst.wiremock.http.Response.response;
+
+/**
+ * Renders the response for static stubs once, when they're created or edited, so that serving them
+ * only needs to look up the finished response. A stub is static when its response has an inline
+ * body and no transformers, proxying, faults or delays, and no transformers are applied globally.
+ */
+public class StaticResponseCache implements StubLifecycleListener {
+
+    private final boolean globalTransformersPresent;
+    private final ConcurrentMap<UUID, Entry> responses = new ConcurrentHashMap<>();
+
+    public StaticResponseCache(boolean globalTransformersPresent) {
+        this.globalTransformersPresent = globalTransformersPresent;
+    }
+
+    /**
+     * The pre-rendered response for the stub that was matched, or null if it isn't static.
+     */
+    public Response get(ServeEvent serveEvent) {
+        StubMapping stubMapping = serveEvent.getStubMapping();
+        if (!serveEvent.getWasMatched() || stubMapping == null) {
+            return null;
+        }
+
+        Entry entry = responses.get(stubMapping.getId());
+        return entry != null && entry.stubMapping == stubMapping ?
+            entry.response :
+            null;
+    }
+
+    @Override
+    public String getName() {
+        return "static-response-cache";
+    }
+
+    @Override
+    public void beforeStubCreated(StubMapping stub) {
+    }
+
+    @Override
+    public void afterStubCreated(StubMapping stub) {
+        cacheIfStatic(stub);
+    }
+
+    @Override
+    public void beforeStubEdited(StubMapping oldStub, StubMapping newStub) {
+        responses.remove(oldStub.getId());
+    }
+
+    @Override
+    public void afterStubEdited(StubMapping oldStub, StubMapping newStub) {
+        responses.remove(oldStub.getId());
+        cacheIfStatic(newStub);
+    }
+
+    @Override
+    public void beforeStubRemoved(StubMapping stub) {
+    }
+
+    @Override
+    public void afterStubRemoved(StubMapping stub) {
+        responses.remove(stub.getId());
+    }
+
+    @Override
+    public void beforeStubsReset() {
+    }
+
+    @Override
+    public void afterStubsReset() {
+        responses.clear();
+    }
+
+    private void cacheIfStatic(StubMapping stub) {
+        if (isStatic(stub.getResponse())) {
+            responses.put(stub.getId(), new Entry(stub, render(stub)));
+        }
+    }
+
+    private boolean isStatic(ResponseDefinition responseDefinition) {
+        List<String> transformers = responseDefinition.getTransformers();
+        return !globalTransformersPresent &&
+            responseDefinition.wasConfigured() &&
+            (transformers == null || transformers.isEmpty()) &&
+            !responseDefinition.isProxyResponse() &&
+            responseDefinition.getFault() == null &&
+            !responseDefinition.specifiesBodyFile() &&
+            responseDefinition.getFixedDelayMilliseconds() == null &&
+            responseDefinition.getDelayDistribution() == null;
+    }
+
+    private static Response render(StubMapping stub) {
+        ResponseDefinition responseDefinition = stub.getResponse();
+        Response.Builder responseBuilder = response()
+            .status(responseDefinition.getStatus())
+            .statusMessage(responseDefinition.getStatusMessage())
+            .headers(StubResponseRenderer.withMatchedStubHeaders(responseDefinition.getHeaders(), stub))
+            .chunkedDribbleDelay(responseDefinition.getChunkedDribbleDelay())
+            .bandwidthThrottle(responseDefinition.getBandwidthThrottle());
+
+        if (responseDefinition.specifiesBodyContent()) {
+            responseBuilder.body(responseDefinition.getByteBody());
+        }
+
+        return responseBuilder.build();
+    }
+
+    private static class Entry {
+
+        final StubMapping stubMapping;
+        final Response response;
+
+        Entry(StubMapping stubMapping, Response response) {
+            this.stubMapping = stubMapping;
+            this.response = response;
+        }
+    }
+}
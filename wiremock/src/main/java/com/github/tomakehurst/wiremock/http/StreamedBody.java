@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.InputStreamSource;
+import com.google.common.io.ByteStreams;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
+/**
+ * A body that is passed straight through from another stream, e.g. an upstream response when proxying,
+ * rather than being read into memory first.
+ *
+ * The underlying stream can only be read once, so anything that needs the whole body (a transformer,
+ * a request listener etc.) causes it to be buffered, after which it can be read any number of times.
+ * A body that ends up never being read must be {@link #release() released}, so that the connection
+ * behind it isn't leaked.
+ */
+public class StreamedBody implements InputStreamSource {
+
+    private final InputStream source;
+    private final long length;
+    private byte[] buffered;
+    private boolean streamed;
+
+    /**
+     * @param length the length of the body in bytes, or -1 if it isn't known up front
+     */
+    public StreamedBody(InputStream source, long length) {
+        this.source = source;
+        this.length = length;
+    }
+
+    @Override
+    public synchronized InputStream getStream() {
+        if (buffered != null) {
+            return new ByteArrayInputStream(buffered);
+        }
+
+        if (streamed) {
+            throw new IllegalStateException("The body has already been streamed");
+        }
+
+        streamed = true;
+        return source;
+    }
+
+    public synchronized byte[] getBytes() {
+        if (buffered == null) {
+            try (InputStream stream = getStream()) {
+                buffered = ByteStreams.toByteArray(stream);
+            } catch (IOException e) {
+                return throwUnchecked(e, byte[].class);
+            }
+        }
+
+        return buffered;
+    }
+
+    /**
+     * Releases the source if nothing has read it, e.g. because a fault was returned instead or
+     * an error occurred first. An upstream connection is aborted rather than drained, as the rest
+     * of its body isn't wanted.
+     */
+    public synchronized void release() {
+        if (streamed || buffered != null) {
+            return;
+        }
+
+        streamed = true;
+        try {
+            if (source instanceof ConnectionReleaseTrigger) {
+                ((ConnectionReleaseTrigger) source).abortConnection();
+            } else {
+                source.close();
+            }
+        } catch (IOException ignored) {
+            // well, we tried
+        }
+    }
+
+    public synchronized boolean isBuffered() {
+        return buffered != null;
+    }
+
+    /**
+     * @return the length of the body in bytes, buffering it if the length wasn't known up front
+     */
+    public long getLength() {
+        if (length >= 0) {
+            return length;
+        }
+
+        return getBytes().length;
+    }
+}
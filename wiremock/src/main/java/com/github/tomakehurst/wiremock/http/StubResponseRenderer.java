@@ -18,32 +18,46 @@ package com.github.tomakehurst.wiremock.http;
 import com.github.tomakehurst.wiremock.common.BinaryFile;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.global.GlobalSettings;
 import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
-import com.google.common.base.MoreObjects;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.List;
 
 import static com.github.tomakehurst.wiremock.core.WireMockApp.FILES_ROOT;
 import static com.github.tomakehurst.wiremock.http.Response.response;
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
-public class StubResponseRenderer implements ResponseRenderer {
+public class StubResponseRenderer implements AsynchronousResponseRenderer {
 
 	private final FileSource fileSource;
 	private final GlobalSettingsHolder globalSettingsHolder;
 	private final ProxyResponseRenderer proxyResponseRenderer;
 	private final List<ResponseTransformer> responseTransformers;
+	private final StaticResponseCache staticResponseCache;
 
     public StubResponseRenderer(FileSource fileSource,
 								GlobalSettingsHolder globalSettingsHolder,
 								ProxyResponseRenderer proxyResponseRenderer,
 								List<ResponseTransformer> responseTransformers) {
+		this(fileSource, globalSettingsHolder, proxyResponseRenderer, responseTransformers, null);
+	}
+
+    public StubResponseRenderer(FileSource fileSource,
+								GlobalSettingsHolder globalSettingsHolder,
+								ProxyResponseRenderer proxyResponseRenderer,
+								List<ResponseTransformer> responseTransformers,
+								StaticResponseCache staticResponseCache) {
         this.fileSource = fileSource;
         this.globalSettingsHolder = globalSettingsHolder;
         this.proxyResponseRenderer = proxyResponseRenderer;
 		this.responseTransformers = responseTransformers;
+		this.staticResponseCache = staticResponseCache;
 	}
 
 	@Override
@@ -53,8 +67,54 @@ public class StubResponseRenderer implements ResponseRenderer {
 			return Response.notConfigured();
 		}
 
+		Response staticResponse = findStaticResponse(serveEvent);
+		if (staticResponse != null) {
+			return staticResponse;
+		}
+
 		Response response = buildResponse(serveEvent);
-		return applyTransformations(responseDefinition.getOriginalRequest(), responseDefinition, response, responseTransformers);
+		Response transformed = null;
+		try {
+			transformed = applyTransformations(responseDefinition.getOriginalRequest(), responseDefinition, response, responseTransformers);
+			return transformed;
+		} finally {
+			// A transformer may have thrown or replaced the body without reading it
+			if (!response.hasSameBodyAs(transformed)) {
+				response.releaseBody();
+			}
+		}
+	}
+
+	@Override
+	public boolean canRenderAsynchronously(ServeEvent serveEvent) {
+		ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
+		return responseDefinition.wasConfigured() &&
+			responseDefinition.isProxyResponse() &&
+			proxyResponseRenderer.canRenderAsynchronously(serveEvent);
+	}
+
+	@Override
+	public ListenableFuture<Response> renderAsynchronously(ServeEvent serveEvent) {
+		final ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
+		return Futures.transform(proxyResponseRenderer.renderAsynchronously(serveEvent), new Function<Response, Response>() {
+			@Override
+			public Response apply(Response response) {
+				return applyTransformations(responseDefinition.getOriginalRequest(), responseDefinition, response, responseTransformers);
+			}
+		}, directExecutor());
+	}
+
+	private Response findStaticResponse(ServeEvent serveEvent) {
+		if (staticResponseCache == null) {
+			return null;
+		}
+
+		GlobalSettings globalSettings = globalSettingsHolder.get();
+		if (globalSettings.getFixedDelay() != null || globalSettings.getDelayDistribution() != null) {
+			return null;
+		}
+
+		return staticResponseCache.get(serveEvent);
 	}
 
 	private Response buildResponse(ServeEvent serveEvent) {
@@ -89,13 +149,7 @@ public class StubResponseRenderer implements ResponseRenderer {
         HttpHeaders headers = responseDefinition.getHeaders();
         StubMapping stubMapping = serveEvent.getStubMapping();
         if (serveEvent.getWasMatched() && stubMapping != null) {
-            headers =
-                firstNonNull(headers, new HttpHeaders())
-                .plus(new HttpHeader("Matched-Stub-Id", stubMapping.getId().toString()));
-
-            if (stubMapping.getName() != null) {
-                headers = headers.plus(new HttpHeader("Matched-Stub-Name", stubMapping.getName()));
-            }
+            headers = withMatchedStubHeaders(headers, stubMapping);
         }
 
         Response.Builder responseBuilder = response()
@@ -109,7 +163,8 @@ public class StubResponseRenderer implements ResponseRenderer {
 					responseDefinition.getFixedDelayMilliseconds(),
 					responseDefinition.getDelayDistribution()
 				)
-				.chunkedDribbleDelay(responseDefinition.getChunkedDribbleDelay());
+				.chunkedDribbleDelay(responseDefinition.getChunkedDribbleDelay())
+				.bandwidthThrottle(responseDefinition.getBandwidthThrottle());
 
 		if (responseDefinition.specifiesBodyFile()) {
 			BinaryFile bodyFile = fileSource.getBinaryFileNamed(responseDefinition.getBodyFileName());
@@ -124,4 +179,16 @@ public class StubResponseRenderer implements ResponseRenderer {
 
         return responseBuilder;
 	}
+
+	static HttpHeaders withMatchedStubHeaders(HttpHeaders headers, StubMapping stubMapping) {
+		HttpHeaders matchedHeaders =
+			firstNonNull(headers, new HttpHeaders())
+			.plus(new HttpHeader("Matched-Stub-Id", stubMapping.getId().toString()));
+
+		if (stubMapping.getName() != null) {
+			matchedHeaders = matchedHeaders.plus(new HttpHeader("Matched-Stub-Name", stubMapping.getName()));
+		}
+
+		return matchedHeaders;
+	}
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.jetty9;
+
+import com.github.tomakehurst.wiremock.servlet.BodyFileSender;
+import com.github.tomakehurst.wiremock.servlet.TransferringBodyFileSender;
+import org.eclipse.jetty.server.HttpOutput;
+
+import javax.servlet.ServletOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class JettyBodyFileSender implements BodyFileSender {
+
+    private final BodyFileSender fallback = new TransferringBodyFileSender();
+
+    @Override
+    public void send(FileChannel bodyFile, ServletOutputStream out) throws IOException {
+        if (out instanceof HttpOutput) {
+            ((HttpOutput) out).sendContent(bodyFile);
+        } else {
+            // e.g. when the response has been wrapped by the gzip handler
+            fallback.send(bodyFile, out);
+        }
+    }
+
+    @Override
+    public void send(ByteBuffer cachedBodyFile, ServletOutputStream out) throws IOException {
+        if (out instanceof HttpOutput) {
+            ((HttpOutput) out).sendContent(cachedBodyFile);
+        } else {
+            fallback.send(cachedBodyFile, out);
+        }
+    }
+}
@@ -115,6 +115,7 @@ public class JettyHttpServer implements HttpServer {
                 options.filesRoot(),
                 options.getAsynchronousResponseSettings(),
                 options.getChunkedEncodingPolicy(),
+                options.getRequestBodySpillThresholdBytes(),
                 notifier
         );
 
@@ -358,6 +359,7 @@ public class JettyHttpServer implements HttpServer {
             FileSource fileSource,
             AsynchronousResponseSettings asynchronousResponseSettings,
             Options.ChunkedEncodingPolicy chunkedEncodingPolicy,
+            long requestBodySpillThresholdBytes,
             Notifier notifier
     ) {
         ServletContextHandler mockServiceContext = new ServletContextHandler(jettyServer, "/");
@@ -372,6 +374,7 @@ public class JettyHttpServer implements HttpServer {
         mockServiceContext.setAttribute(StubRequestHandler.class.getName(), stubRequestHandler);
         mockServiceContext.setAttribute(Notifier.KEY, notifier);
         mockServiceContext.setAttribute(Options.ChunkedEncodingPolicy.class.getName(), chunkedEncodingPolicy);
+        mockServiceContext.setAttribute(WireMockHandlerDispatchingServlet.REQUEST_BODY_SPILL_THRESHOLD, requestBodySpillThresholdBytes);
         ServletHolder servletHolder = mockServiceContext.addServlet(WireMockHandlerDispatchingServlet.class, "/");
         servletHolder.setInitParameter(RequestHandler.HANDLER_CLASS_KEY, StubRequestHandler.class.getName());
         servletHolder.setInitParameter(FaultInjectorFactory.INJECTOR_CLASS_KEY, JettyFaultInjectorFactory.class.getName());
@@ -383,6 +386,7 @@ public class JettyHttpServer implements HttpServer {
         }
 
         mockServiceContext.setAttribute(MultipartRequestConfigurer.KEY, buildMultipartRequestConfigurer());
+        mockServiceContext.setAttribute(BodyFileSender.KEY, new JettyBodyFileSender());
 
         MimeTypes mimeTypes = new MimeTypes();
         mimeTypes.addMimeMapping("json", "application/json");
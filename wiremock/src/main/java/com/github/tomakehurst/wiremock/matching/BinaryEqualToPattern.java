@@ -18,10 +18,15 @@ package com.github.tomakehurst.wiremock.matching;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.http.SpilledBody;
 import com.google.common.io.BaseEncoding;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
 public class BinaryEqualToPattern extends ContentPattern<byte[]> {
 
     public BinaryEqualToPattern(byte[] expected) {
@@ -40,6 +45,37 @@ public class BinaryEqualToPattern extends ContentPattern<byte[]> {
         );
     }
 
+    /**
+     * Compares a body that was written to disk with the expected bytes without reading it all into memory,
+     * and without reading it at all if the lengths differ.
+     */
+    public MatchResult match(SpilledBody actual) {
+        if (actual.getLength() != expectedValue.length) {
+            return MatchResult.noMatch();
+        }
+
+        try (InputStream stream = actual.getStream()) {
+            byte[] buffer = new byte[8192];
+            int offset = 0;
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                if (offset + read > expectedValue.length) {
+                    return MatchResult.noMatch();
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != expectedValue[offset + i]) {
+                        return MatchResult.noMatch();
+                    }
+                }
+                offset += read;
+            }
+
+            return MatchResult.of(offset == expectedValue.length);
+        } catch (IOException e) {
+            return throwUnchecked(e, MatchResult.class);
+        }
+    }
+
     @Override
     @JsonIgnore
     public String getName() {
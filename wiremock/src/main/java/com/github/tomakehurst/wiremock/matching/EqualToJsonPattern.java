@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.flipkart.zjsonpatch.DiffFlags;
 import com.flipkart.zjsonpatch.JsonDiff;
 import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.RequestCache;
 import com.google.common.base.Function;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterables;
@@ -39,6 +40,13 @@ import static org.apache.commons.lang3.math.NumberUtils.isNumber;
 
 public class EqualToJsonPattern extends StringValuePattern {
 
+    private static final RequestCache.Parser<JsonNode> JSON_TREE = new RequestCache.Parser<JsonNode>() {
+        @Override
+        public JsonNode parse(String source) {
+            return Json.read(source, JsonNode.class);
+        }
+    };
+
     private final JsonNode expected;
     private final Boolean ignoreArrayOrder;
     private final Boolean ignoreExtraElements;
@@ -97,7 +105,7 @@ public class EqualToJsonPattern extends StringValuePattern {
     @Override
     public MatchResult match(String value) {
         try {
-            final JsonNode actual = Json.read(value, JsonNode.class);
+            final JsonNode actual = RequestCache.parsed("json", value, JSON_TREE);
 
             return new MatchResult() {
                 @Override
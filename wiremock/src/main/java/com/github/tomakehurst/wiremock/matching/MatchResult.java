@@ -18,28 +18,28 @@ package com.github.tomakehurst.wiremock.matching;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.collect.Lists;
 
 import java.util.List;
 
-import static com.google.common.collect.Iterables.all;
 import static java.util.Arrays.asList;
 
 public abstract class MatchResult implements Comparable<MatchResult> {
 
+    private static final MatchResult EXACT_MATCH = new EagerMatchResult(0);
+    private static final MatchResult NO_MATCH = new EagerMatchResult(1);
+
     @JsonCreator
     public static MatchResult partialMatch(@JsonProperty("distance") double distance) {
         return new EagerMatchResult(distance);
     }
 
     public static MatchResult exactMatch() {
-        return new EagerMatchResult(0);
+        return EXACT_MATCH;
     }
 
     public static MatchResult noMatch() {
-        return new EagerMatchResult(1);
+        return NO_MATCH;
     }
 
     public static MatchResult of(boolean isMatch) {
@@ -47,16 +47,21 @@ public abstract class MatchResult implements Comparable<MatchResult> {
     }
 
     public static MatchResult aggregate(MatchResult... matches) {
-        return aggregate(asList(matches));
+        WeightedAggregateMatchResult aggregate = new WeightedAggregateMatchResult(matches.length);
+        for (MatchResult matchResult: matches) {
+            aggregate.add(matchResult);
+        }
+
+        return aggregate;
     }
 
     public static MatchResult aggregate(final List<MatchResult> matchResults) {
-        return aggregateWeighted(Lists.transform(matchResults, new Function<MatchResult, WeightedMatchResult>() {
-            @Override
-            public WeightedMatchResult apply(MatchResult matchResult) {
-                return new WeightedMatchResult(matchResult);
-            }
-        }));
+        WeightedAggregateMatchResult aggregate = new WeightedAggregateMatchResult(matchResults.size());
+        for (MatchResult matchResult: matchResults) {
+            aggregate.add(matchResult);
+        }
+
+        return aggregate;
     }
 
     public static MatchResult aggregateWeighted(WeightedMatchResult... matchResults) {
@@ -64,24 +69,12 @@ public abstract class MatchResult implements Comparable<MatchResult> {
     }
 
     public static MatchResult aggregateWeighted(final List<WeightedMatchResult> matchResults) {
-        return new MatchResult() {
-            @Override
-            public boolean isExactMatch() {
-                return all(matchResults, ARE_EXACT_MATCH);
-            }
-
-            @Override
-            public double getDistance() {
-                double totalDistance = 0;
-                double sizeWithWeighting = 0;
-                for (WeightedMatchResult matchResult: matchResults) {
-                    totalDistance += matchResult.getDistance();
-                    sizeWithWeighting += matchResult.getWeighting();
-                }
-
-                return (totalDistance / sizeWithWeighting);
-            }
-        };
+        WeightedAggregateMatchResult aggregate = new WeightedAggregateMatchResult(matchResults.size());
+        for (WeightedMatchResult matchResult: matchResults) {
+            aggregate.add(matchResult.getMatchResult(), matchResult.getWeighting());
+        }
+
+        return aggregate;
     }
 
     @JsonIgnore
@@ -18,6 +18,8 @@ package com.github.tomakehurst.wiremock.matching;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.RequestCache;
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 
@@ -29,9 +31,19 @@ import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 @JsonSerialize(using = JsonPathPatternJsonSerializer.class)
 public class MatchesJsonPathPattern extends PathPattern {
 
+    private static final RequestCache.Parser<DocumentContext> JSON_DOCUMENT = new RequestCache.Parser<DocumentContext>() {
+        @Override
+        public DocumentContext parse(String source) {
+            return JsonPath.parse(source);
+        }
+    };
+
+    private final JsonPath compiledJsonPath;
+
     public MatchesJsonPathPattern(@JsonProperty("matchesJsonPath") String expectedJsonPath,
                                   StringValuePattern valuePattern) {
         super(expectedJsonPath, valuePattern);
+        compiledJsonPath = compileOrNull(expectedJsonPath);
     }
 
     public MatchesJsonPathPattern(String value) {
@@ -42,6 +54,30 @@ public class MatchesJsonPathPattern extends PathPattern {
         return expectedValue;
     }
 
+    private static JsonPath compileOrNull(String jsonPath) {
+        try {
+            return JsonPath.compile(jsonPath);
+        } catch (Exception e) {
+            // Leave invalid expressions to be reported when matching, as they always have been
+            return null;
+        }
+    }
+
+    /**
+     * Parses JSON for evaluating JSONPath expressions against, re-using the document if it has already been parsed
+     * for the request being served.
+     */
+    public static DocumentContext parseDocument(String json) throws Exception {
+        return RequestCache.parsed("jsonPath", json, JSON_DOCUMENT);
+    }
+
+    private Object read(String value) throws Exception {
+        DocumentContext document = parseDocument(value);
+        return compiledJsonPath != null ?
+            document.read(compiledJsonPath) :
+            document.read(expectedValue);
+    }
+
     protected MatchResult isSimpleMatch(String value) {
         // For performance reason, don't try to parse XML value
         if (value != null && value.trim().startsWith("<")) {
@@ -51,7 +87,7 @@ public class MatchesJsonPathPattern extends PathPattern {
             return MatchResult.noMatch();
         }
         try {
-            Object obj = JsonPath.read(value, expectedValue);
+            Object obj = read(value);
 
             boolean result;
             if (obj instanceof Collection) {
@@ -93,7 +129,7 @@ public class MatchesJsonPathPattern extends PathPattern {
         }
         Object obj = null;
         try {
-            obj = JsonPath.read(value, expectedValue);
+            obj = read(value);
         } catch (PathNotFoundException pnfe) {
         } catch (Exception e) {
             String error;
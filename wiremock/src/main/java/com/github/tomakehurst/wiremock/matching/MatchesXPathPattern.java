@@ -18,20 +18,23 @@ package com.github.tomakehurst.wiremock.matching;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.github.tomakehurst.wiremock.common.RequestCache;
 import com.github.tomakehurst.wiremock.common.SilentErrorHandler;
 import com.github.tomakehurst.wiremock.common.Xml;
 import com.google.common.collect.ImmutableMap;
-import org.custommonkey.xmlunit.NamespaceContext;
-import org.custommonkey.xmlunit.SimpleNamespaceContext;
 import org.custommonkey.xmlunit.XMLUnit;
-import org.custommonkey.xmlunit.XpathEngine;
-import org.custommonkey.xmlunit.exceptions.XpathException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
+import org.xmlunit.util.Convert;
 
 import javax.xml.parsers.DocumentBuilder;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.Collections;
@@ -46,7 +49,18 @@ import static com.google.common.collect.Sets.newTreeSet;
 @JsonSerialize(using = XPathPatternJsonSerializer.class)
 public class MatchesXPathPattern extends PathPattern {
 
+    private static final RequestCache.Parser<Document> XML_DOCUMENT = new RequestCache.Parser<Document>() {
+        @Override
+        public Document parse(String source) throws Exception {
+            // Namespace aware so that prefixed expressions can be evaluated directly against the parsed document
+            DocumentBuilder documentBuilder = Xml.newNamespaceAwareDocumentBuilder();
+            documentBuilder.setErrorHandler(new SilentErrorHandler());
+            return XMLUnit.buildDocument(documentBuilder, new StringReader(source));
+        }
+    };
+
     private final Map<String, String> xpathNamespaces;
+    private final ThreadLocal<XPathExpression> compiledXPathHolder = new ThreadLocal<>();
 
     public MatchesXPathPattern(String xpath) {
         this(xpath, null, null);
@@ -67,6 +81,21 @@ public class MatchesXPathPattern extends PathPattern {
         xpathNamespaces = namespaces == null || namespaces.isEmpty() ? null : namespaces;
     }
 
+    private XPathExpression compiledXPath() throws XPathExpressionException {
+        // XPathExpression isn't thread safe, so each serving thread compiles its own copy once
+        XPathExpression expression = compiledXPathHolder.get();
+        if (expression == null) {
+            XPath xPath = XPathFactory.newInstance().newXPath();
+            if (xpathNamespaces != null) {
+                xPath.setNamespaceContext(Convert.toNamespaceContext(xpathNamespaces));
+            }
+            expression = xPath.compile(expectedValue);
+            compiledXPathHolder.set(expression);
+        }
+
+        return expression;
+    }
+
     public MatchesXPathPattern withXPathNamespace(String name, String namespaceUri) {
         Map<String, String> namespaceMap = ImmutableMap.<String, String>builder()
             .putAll(firstNonNull(xpathNamespaces, Collections.<String, String>emptyMap()))
@@ -116,15 +145,8 @@ public class MatchesXPathPattern extends PathPattern {
             return null;
         }
         try {
-            DocumentBuilder documentBuilder = Xml.newDocumentBuilderFactory().newDocumentBuilder();
-            documentBuilder.setErrorHandler(new SilentErrorHandler());
-            Document inDocument = XMLUnit.buildDocument(documentBuilder, new StringReader(value));
-            XpathEngine simpleXpathEngine = XMLUnit.newXpathEngine();
-            if (xpathNamespaces != null) {
-                NamespaceContext namespaceContext = new SimpleNamespaceContext(xpathNamespaces);
-                simpleXpathEngine.setNamespaceContext(namespaceContext);
-            }
-            return simpleXpathEngine.getMatchingNodes(expectedValue, inDocument);
+            Document inDocument = RequestCache.parsed("xml", value, XML_DOCUMENT);
+            return (NodeList) compiledXPath().evaluate(inDocument, XPathConstants.NODESET);
         } catch (SAXException e) {
             notifier().info(String.format(
                 "Warning: failed to parse the XML document. Reason: %s\nXML: %s", e.getMessage(), value));
@@ -132,7 +154,7 @@ public class MatchesXPathPattern extends PathPattern {
         } catch (IOException e) {
             notifier().info(e.getMessage());
             return null;
-        } catch (XpathException e) {
+        } catch (XPathExpressionException e) {
             notifier().info("Warning: failed to evaluate the XPath expression " + expectedValue);
             return null;
         } catch (Exception e) {
@@ -19,15 +19,10 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.http.MultiValue;
-import com.google.common.base.Function;
 import com.google.common.base.Objects;
-import com.google.common.collect.Lists;
 
-import java.util.Comparator;
 import java.util.List;
 
-import static java.util.Collections.min;
-
 public class MultiValuePattern implements NamedValueMatcher<MultiValue> {
 
     private final StringValuePattern valuePattern;
@@ -73,18 +68,19 @@ public class MultiValuePattern implements NamedValueMatcher<MultiValue> {
         return valuePattern.expectedValue;
     }
 
-    private static MatchResult getBestMatch(final StringValuePattern valuePattern, List<String> values) {
-        List<MatchResult> allResults = Lists.transform(values, new Function<String, MatchResult>() {
-            public MatchResult apply(String input) {
-                return valuePattern.match(input);
+    static MatchResult getBestMatch(StringValuePattern valuePattern, List<String> values) {
+        MatchResult bestMatch = null;
+        double bestDistance = 0;
+        for (String value: values) {
+            MatchResult matchResult = valuePattern.match(value);
+            double distance = matchResult.getDistance();
+            if (bestMatch == null || distance < bestDistance) {
+                bestMatch = matchResult;
+                bestDistance = distance;
             }
-        });
+        }
 
-        return min(allResults, new Comparator<MatchResult>() {
-            public int compare(MatchResult o1, MatchResult o2) {
-                return new Double(o1.getDistance()).compareTo(o2.getDistance());
-            }
-        });
+        return bestMatch != null ? bestMatch : MatchResult.noMatch();
     }
 
     @Override
@@ -35,7 +35,6 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.tomakehurst.wiremock.http.Body;
 import com.github.tomakehurst.wiremock.http.Request;
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 
 import java.util.Collection;
@@ -135,28 +134,24 @@ public class MultipartValuePattern implements ValueMatcher<Request.Part> {
 
     private MatchResult matchHeaderPatterns(final Request.Part part) {
         if (headers != null && !headers.isEmpty()) {
-            return MatchResult.aggregate(
-                from(headers.entrySet())
-                    .transform(new Function<Map.Entry<String, MultiValuePattern>, MatchResult>() {
-                        public MatchResult apply(Map.Entry<String, MultiValuePattern> headerPattern) {
-                            return headerPattern.getValue().match(part.getHeader(headerPattern.getKey()));
-                        }
-                    }).toList()
-            );
+            WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(headers.size());
+            for (Map.Entry<String, MultiValuePattern> headerPattern: headers.entrySet()) {
+                matchResult.add(headerPattern.getValue().match(part.getHeader(headerPattern.getKey())));
+            }
+
+            return matchResult;
         }
 
         return MatchResult.exactMatch();
     }
 
     private MatchResult matchBodyPatterns(final Request.Part value) {
-        return MatchResult.aggregate(
-            from(bodyPatterns).transform(new Function<ContentPattern, MatchResult>() {
-                @Override
-                public MatchResult apply(ContentPattern bodyPattern) {
-                    return matchBody(value, bodyPattern);
-                }
-            }).toList()
-        );
+        WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(bodyPatterns.size());
+        for (ContentPattern<?> bodyPattern: bodyPatterns) {
+            matchResult.add(matchBody(value, bodyPattern));
+        }
+
+        return matchResult;
     }
 
     private static MatchResult matchBody(Request.Part part, ContentPattern<?> bodyPattern) {
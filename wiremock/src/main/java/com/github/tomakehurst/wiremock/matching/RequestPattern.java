@@ -24,8 +24,8 @@ import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.http.Cookie;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.SpilledBody;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
@@ -35,14 +35,15 @@ import java.util.*;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.matching.RequestMatcherExtension.NEVER;
 import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.newRequestPattern;
-import static com.github.tomakehurst.wiremock.matching.WeightedMatchResult.weight;
 import static com.google.common.base.MoreObjects.firstNonNull;
-import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.net.HttpHeaders.AUTHORIZATION;
-import static java.util.Arrays.asList;
 
 public class RequestPattern implements NamedValueMatcher<Request> {
 
+    private static final double URL_WEIGHTING = 10.0;
+    private static final double METHOD_WEIGHTING = 3.0;
+    private static final double OTHER_ELEMENTS_WEIGHTING = 5.0;
+
     private final UrlPattern url;
     private final RequestMethod method;
     private final Map<String, MultiValuePattern> headers;
@@ -53,6 +54,7 @@ public class RequestPattern implements NamedValueMatcher<Request> {
     private final List<MultipartValuePattern> multipartPatterns;
 
     private final CustomMatcherDefinition customMatcherDefinition;
+    private final ValueMatcher<Request> customMatcher;
     private final ValueMatcher<Request> matcher;
     private final boolean hasInlineCustomMatcher;
 
@@ -75,27 +77,26 @@ public class RequestPattern implements NamedValueMatcher<Request> {
         this.bodyPatterns = bodyPatterns;
         this.customMatcherDefinition = customMatcherDefinition;
         this.multipartPatterns = multiPattern;
+        this.customMatcher = customMatcher;
         this.hasInlineCustomMatcher = customMatcher != null;
 
         this.matcher = new RequestMatcher() {
             @Override
             public MatchResult match(Request request) {
-                List<WeightedMatchResult> matchResults = new ArrayList<>(asList(
-                        weight(RequestPattern.this.url.match(request.getUrl()), 10.0),
-                        weight(RequestPattern.this.method.match(request.getMethod()), 3.0),
-
-                        weight(allHeadersMatchResult(request)),
-                        weight(allQueryParamsMatch(request)),
-                        weight(allCookiesMatch(request)),
-                        weight(allBodyPatternsMatch(request)),
-                        weight(allMultipartPatternsMatch(request))
-                ));
+                WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(8)
+                    .add(RequestPattern.this.url.match(request.getUrl()), URL_WEIGHTING)
+                    .add(RequestPattern.this.method.match(request.getMethod()), METHOD_WEIGHTING)
+                    .add(allHeadersMatchResult(request))
+                    .add(allQueryParamsMatch(request))
+                    .add(allCookiesMatch(request))
+                    .add(allBodyPatternsMatch(request))
+                    .add(allMultipartPatternsMatch(request));
 
                 if (hasInlineCustomMatcher) {
-                    matchResults.add(weight(customMatcher.match(request)));
+                    matchResult.add(customMatcher.match(request));
                 }
 
-                return MatchResult.aggregateWeighted(matchResults);
+                return matchResult;
             }
 
             @Override
@@ -178,33 +179,36 @@ public class RequestPattern implements NamedValueMatcher<Request> {
         return matcher.match(request);
     }
 
+    /**
+     * A cheap lower bound on {@code match(request).getDistance()}, computed from the URL and method alone
+     * by assuming every other element of the request matches exactly.
+     */
+    public double getMinimumDistance(Request request) {
+        double urlAndMethodDistance =
+            URL_WEIGHTING * url.match(request.getUrl()).getDistance() +
+            METHOD_WEIGHTING * method.match(request.getMethod()).getDistance();
+        double totalWeighting = URL_WEIGHTING + METHOD_WEIGHTING + OTHER_ELEMENTS_WEIGHTING + (hasInlineCustomMatcher ? 1.0 : 0.0);
+        double minimumDistance = urlAndMethodDistance / totalWeighting;
+
+        // A named custom matcher's result is averaged with the standard one, and could be an exact match
+        return customMatcherDefinition != null ? minimumDistance / 2 : minimumDistance;
+    }
+
     private MatchResult allCookiesMatch(final Request request) {
         if (cookies != null && !cookies.isEmpty()) {
-            return MatchResult.aggregate(
-                from(cookies.entrySet())
-                    .transform(new Function<Map.Entry<String, StringValuePattern>, MatchResult>() {
-                        public MatchResult apply(final Map.Entry<String, StringValuePattern> cookiePattern) {
-                            Cookie cookie = request.getCookies().get(cookiePattern.getKey());
-                            if (cookie == null) {
-                                return cookiePattern.getValue().nullSafeIsAbsent() ?
-                                    MatchResult.exactMatch() :
-                                    MatchResult.noMatch();
-                            }
-
-                            return from(cookie.getValues()).transform(new Function<String, MatchResult>() {
-                                @Override
-                                public MatchResult apply(String cookieValue) {
-                                    return cookiePattern.getValue().match(cookieValue);
-                                }
-                            }).toSortedList(new Comparator<MatchResult>() {
-                                @Override
-                                public int compare(MatchResult o1, MatchResult o2) {
-                                    return o2.compareTo(o1);
-                                }
-                            }).get(0);
-                        }
-                    }).toList()
-            );
+            WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(cookies.size());
+            for (Map.Entry<String, StringValuePattern> cookiePattern: cookies.entrySet()) {
+                Cookie cookie = request.getCookies().get(cookiePattern.getKey());
+                if (cookie == null) {
+                    matchResult.add(cookiePattern.getValue().nullSafeIsAbsent() ?
+                        MatchResult.exactMatch() :
+                        MatchResult.noMatch());
+                } else {
+                    matchResult.add(MultiValuePattern.getBestMatch(cookiePattern.getValue(), cookie.getValues()));
+                }
+            }
+
+            return matchResult;
         }
 
         return MatchResult.exactMatch();
@@ -214,14 +218,12 @@ public class RequestPattern implements NamedValueMatcher<Request> {
         Map<String, MultiValuePattern> combinedHeaders = combineBasicAuthAndOtherHeaders();
 
         if (combinedHeaders != null && !combinedHeaders.isEmpty()) {
-            return MatchResult.aggregate(
-                from(combinedHeaders.entrySet())
-                    .transform(new Function<Map.Entry<String, MultiValuePattern>, MatchResult>() {
-                        public MatchResult apply(Map.Entry<String, MultiValuePattern> headerPattern) {
-                            return headerPattern.getValue().match(request.header(headerPattern.getKey()));
-                        }
-                    }).toList()
-            );
+            WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(combinedHeaders.size());
+            for (Map.Entry<String, MultiValuePattern> headerPattern: combinedHeaders.entrySet()) {
+                matchResult.add(headerPattern.getValue().match(request.header(headerPattern.getKey())));
+            }
+
+            return matchResult;
         }
 
         return MatchResult.exactMatch();
@@ -243,14 +245,12 @@ public class RequestPattern implements NamedValueMatcher<Request> {
 
     private MatchResult allQueryParamsMatch(final Request request) {
         if (queryParams != null && !queryParams.isEmpty()) {
-            return MatchResult.aggregate(
-                from(queryParams.entrySet())
-                    .transform(new Function<Map.Entry<String, MultiValuePattern>, MatchResult>() {
-                        public MatchResult apply(Map.Entry<String, MultiValuePattern> queryParamPattern) {
-                            return queryParamPattern.getValue().match(request.queryParameter(queryParamPattern.getKey()));
-                        }
-                    }).toList()
-            );
+            WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(queryParams.size());
+            for (Map.Entry<String, MultiValuePattern> queryParamPattern: queryParams.entrySet()) {
+                matchResult.add(queryParamPattern.getValue().match(request.queryParameter(queryParamPattern.getKey())));
+            }
+
+            return matchResult;
         }
 
         return MatchResult.exactMatch();
@@ -258,50 +258,164 @@ public class RequestPattern implements NamedValueMatcher<Request> {
 
     @SuppressWarnings("unchecked")
     private MatchResult allBodyPatternsMatch(final Request request) {
-        if (bodyPatterns != null && !bodyPatterns.isEmpty() && request.getBody() != null) {
-            return MatchResult.aggregate(
-                from(bodyPatterns).transform(new Function<ContentPattern, MatchResult>() {
-                    @Override
-                    public MatchResult apply(ContentPattern pattern) {
-                        if (StringValuePattern.class.isAssignableFrom(pattern.getClass())) {
-                            String body = StringUtils.isEmpty(request.getBodyAsString()) ?
-                                    null :
-                                    request.getBodyAsString();
-                            return pattern.match(body);
-                        }
-
-                        return pattern.match(request.getBody());
+        SpilledBody spilledBody = bodyPatterns != null && !bodyPatterns.isEmpty() ? SpilledBody.from(request) : null;
+        if (bodyPatterns != null && !bodyPatterns.isEmpty() && (spilledBody != null || request.getBody() != null)) {
+            WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(bodyPatterns.size());
+            String bodyAsString = null;
+            for (ContentPattern pattern: bodyPatterns) {
+                if (StringValuePattern.class.isAssignableFrom(pattern.getClass())) {
+                    if (bodyAsString == null) {
+                        bodyAsString = request.getBodyAsString();
                     }
+                    matchResult.add(pattern.match(StringUtils.isEmpty(bodyAsString) ? null : bodyAsString));
+                } else if (spilledBody != null && pattern instanceof BinaryEqualToPattern) {
+                    matchResult.add(((BinaryEqualToPattern) pattern).match(spilledBody));
+                } else {
+                    matchResult.add(pattern.match(request.getBody()));
+                }
+            }
 
-
-                }).toList()
-            );
+            return matchResult;
         }
 
         return MatchResult.exactMatch();
     }
 
-    @SuppressWarnings("unchecked")
     private MatchResult allMultipartPatternsMatch(final Request request) {
         if (multipartPatterns != null && !multipartPatterns.isEmpty()) {
             if (!request.isMultipart()) {
                 return MatchResult.noMatch();
             }
-            return MatchResult.aggregate(
-                    from(multipartPatterns)
-                            .transform(new Function<MultipartValuePattern, MatchResult>() {
-                                public MatchResult apply(MultipartValuePattern pattern) {
-                                    return pattern.match(request);
-                                }
-                            }).toList()
-            );
+
+            WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(multipartPatterns.size());
+            for (MultipartValuePattern pattern: multipartPatterns) {
+                matchResult.add(pattern.match(request));
+            }
+
+            return matchResult;
         }
 
         return MatchResult.exactMatch();
     }
 
+    /**
+     * Exact match check for request serving. Unlike {@link #match(Request, Map)}, which scores every
+     * element of the request for near miss calculations, this stops at the first element that fails
+     * to match and checks the cheapest elements first.
+     */
     public boolean isMatchedBy(Request request, Map<String, RequestMatcherExtension> customMatchers) {
-        return match(request, customMatchers).isExactMatch();
+        if (!method.match(request.getMethod()).isExactMatch() ||
+            !url.match(request.getUrl()).isExactMatch() ||
+            !allHeadersMatchExactly(request) ||
+            !allQueryParamsMatchExactly(request) ||
+            !allCookiesMatchExactly(request) ||
+            !allBodyPatternsMatchExactly(request) ||
+            !allMultipartPatternsMatch(request).isExactMatch()) {
+            return false;
+        }
+
+        if (hasInlineCustomMatcher && !customMatcher.match(request).isExactMatch()) {
+            return false;
+        }
+
+        if (customMatcherDefinition != null) {
+            RequestMatcherExtension requestMatcher =
+                firstNonNull(customMatchers.get(customMatcherDefinition.getName()), NEVER);
+            return requestMatcher.match(request, customMatcherDefinition.getParameters()).isExactMatch();
+        }
+
+        return true;
+    }
+
+    private boolean allHeadersMatchExactly(Request request) {
+        Map<String, MultiValuePattern> combinedHeaders = combineBasicAuthAndOtherHeaders();
+        if (combinedHeaders != null) {
+            for (Map.Entry<String, MultiValuePattern> headerPattern: combinedHeaders.entrySet()) {
+                if (!headerPattern.getValue().match(request.header(headerPattern.getKey())).isExactMatch()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean allQueryParamsMatchExactly(Request request) {
+        if (queryParams != null) {
+            for (Map.Entry<String, MultiValuePattern> queryParamPattern: queryParams.entrySet()) {
+                if (!queryParamPattern.getValue().match(request.queryParameter(queryParamPattern.getKey())).isExactMatch()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean allCookiesMatchExactly(Request request) {
+        if (cookies == null || cookies.isEmpty()) {
+            return true;
+        }
+
+        Map<String, Cookie> requestCookies = request.getCookies();
+        for (Map.Entry<String, StringValuePattern> cookiePattern: cookies.entrySet()) {
+            Cookie cookie = requestCookies.get(cookiePattern.getKey());
+            if (cookie == null) {
+                if (!cookiePattern.getValue().nullSafeIsAbsent()) {
+                    return false;
+                }
+                continue;
+            }
+
+            boolean anyValueMatches = false;
+            for (String cookieValue: cookie.getValues()) {
+                if (cookiePattern.getValue().match(cookieValue).isExactMatch()) {
+                    anyValueMatches = true;
+                    break;
+                }
+            }
+
+            if (!anyValueMatches) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean allBodyPatternsMatchExactly(Request request) {
+        if (bodyPatterns == null || bodyPatterns.isEmpty()) {
+            return true;
+        }
+
+        SpilledBody spilledBody = SpilledBody.from(request);
+        if (spilledBody == null && request.getBody() == null) {
+            return true;
+        }
+
+        String bodyString = null;
+        boolean bodyStringResolved = false;
+        for (ContentPattern pattern: bodyPatterns) {
+            MatchResult result;
+            if (StringValuePattern.class.isAssignableFrom(pattern.getClass())) {
+                if (!bodyStringResolved) {
+                    bodyString = StringUtils.isEmpty(request.getBodyAsString()) ? null : request.getBodyAsString();
+                    bodyStringResolved = true;
+                }
+                result = pattern.match(bodyString);
+            } else if (spilledBody != null && pattern instanceof BinaryEqualToPattern) {
+                result = ((BinaryEqualToPattern) pattern).match(spilledBody);
+            } else {
+                result = pattern.match(request.getBody());
+            }
+
+            if (!result.isExactMatch()) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     public String getUrl() {
@@ -419,7 +533,7 @@ public class RequestPattern implements NamedValueMatcher<Request> {
         return new Predicate<Request>() {
             @Override
             public boolean apply(Request request) {
-                return pattern.match(request).isExactMatch();
+                return pattern.isMatchedBy(request, Collections.<String, RequestMatcherExtension>emptyMap());
             }
         };
     }
@@ -428,7 +542,7 @@ public class RequestPattern implements NamedValueMatcher<Request> {
         return new Predicate<ServeEvent>() {
             @Override
             public boolean apply(ServeEvent serveEvent) {
-                return pattern.match(serveEvent.getRequest()).isExactMatch();
+                return pattern.isMatchedBy(serveEvent.getRequest(), Collections.<String, RequestMatcherExtension>emptyMap());
             }
         };
     }
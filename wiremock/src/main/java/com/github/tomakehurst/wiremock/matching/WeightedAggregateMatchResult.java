@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates match results one at a time into a single weighted aggregate, without wrapping each
+ * one or collecting them into intermediate lists.
+ *
+ * Like the other aggregates, evaluation is lazy: {@link #isExactMatch()} stops at the first
+ * result that isn't exact, and the weighted distance is only summed (once) when first asked for.
+ * Results shouldn't be added after the aggregate has been evaluated.
+ */
+public class WeightedAggregateMatchResult extends MatchResult {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private MatchResult[] results;
+    private double[] weightings;
+    private int size;
+
+    private boolean distanceCalculated;
+    private double distance;
+
+    public WeightedAggregateMatchResult() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public WeightedAggregateMatchResult(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        results = new MatchResult[capacity];
+        weightings = new double[capacity];
+    }
+
+    public WeightedAggregateMatchResult add(MatchResult matchResult) {
+        return add(matchResult, 1.0);
+    }
+
+    public WeightedAggregateMatchResult add(MatchResult matchResult, double weighting) {
+        if (size == results.length) {
+            results = Arrays.copyOf(results, size * 2);
+            weightings = Arrays.copyOf(weightings, size * 2);
+        }
+
+        results[size] = matchResult;
+        weightings[size] = weighting;
+        size++;
+        return this;
+    }
+
+    @Override
+    public boolean isExactMatch() {
+        for (int i = 0; i < size; i++) {
+            if (!results[i].isExactMatch()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public double getDistance() {
+        if (!distanceCalculated) {
+            double totalDistance = 0;
+            double sizeWithWeighting = 0;
+            for (int i = 0; i < size; i++) {
+                totalDistance += weightings[i] * results[i].getDistance();
+                sizeWithWeighting += weightings[i];
+            }
+
+            distance = totalDistance / sizeWithWeighting;
+            distanceCalculated = true;
+        }
+
+        return distance;
+    }
+}
@@ -37,6 +37,10 @@ public class WeightedMatchResult {
         this.weighting = weighting;
     }
 
+    public MatchResult getMatchResult() {
+        return matchResult;
+    }
+
     public boolean isExactMatch() {
         return matchResult.isExactMatch();
     }
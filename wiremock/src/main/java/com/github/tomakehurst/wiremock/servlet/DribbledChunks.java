@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import java.nio.ByteBuffer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+class DribbledChunks implements PacedChunks {
+
+    private final byte[][] chunks;
+    private final long intervalNanos;
+    private int index = -1;
+
+    DribbledChunks(byte[][] chunks, long intervalMillis) {
+        this.chunks = chunks;
+        this.intervalNanos = MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    @Override
+    public boolean next() {
+        return ++index < chunks.length;
+    }
+
+    @Override
+    public ByteBuffer chunk() {
+        return ByteBuffer.wrap(chunks[index]);
+    }
+
+    @Override
+    public long delayNanos() {
+        return intervalNanos;
+    }
+
+    @Override
+    public void close() {
+    }
+}
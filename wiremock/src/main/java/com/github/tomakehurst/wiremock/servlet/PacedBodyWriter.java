@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Writes paced chunks of a body out of an asynchronous response without holding a container thread
+ * between chunks. The shared timer only decides when each chunk is due, then dispatches to a
+ * container thread, which writes the chunk with non-blocking I/O and reads the next one. This means
+ * an arbitrary number of slow responses can be in flight at once, and a slow body source (a file or
+ * an upstream connection) never holds up the timer.
+ *
+ * Where the output stream doesn't support non-blocking writes (e.g. when it has been wrapped by the
+ * gzip handler) each chunk is instead written with blocking I/O on the dispatched thread.
+ * The async context is completed once the last chunk has been flushed.
+ */
+class PacedBodyWriter implements WriteListener {
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    private final PacedChunks chunks;
+    private final ScheduledExecutorService scheduler;
+
+    private boolean chunkDue;
+    private boolean flushPending;
+    private boolean timerPending;
+    private boolean completed;
+
+    PacedBodyWriter(AsyncContext asyncContext, ServletOutputStream out, PacedChunks chunks, ScheduledExecutorService scheduler) {
+        this.asyncContext = asyncContext;
+        this.out = out;
+        this.chunks = chunks;
+        this.scheduler = scheduler;
+    }
+
+    static void writeBlocking(ServletOutputStream out, PacedChunks chunks) throws IOException, InterruptedException {
+        try {
+            while (chunks.next()) {
+                NANOSECONDS.sleep(chunks.delayNanos());
+                write(out, chunks.chunk());
+                out.flush();
+            }
+        } finally {
+            chunks.close();
+        }
+    }
+
+    void start() throws IOException {
+        synchronized (this) {
+            timerPending = true;
+            if (!chunks.next()) {
+                complete();
+                return;
+            }
+        }
+
+        try {
+            out.setWriteListener(this);
+        } catch (UnsupportedOperationException e) {
+            scheduleBlockingWrite();
+            return;
+        }
+
+        scheduleNonBlockingWrite();
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        writeIfPossible();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        // Most likely the client going away part way through, which is a perfectly valid outcome
+        complete();
+    }
+
+    private void scheduleNonBlockingWrite() {
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (PacedBodyWriter.this) {
+                    timerPending = false;
+                    chunkDue = true;
+                }
+
+                try {
+                    writeIfPossible();
+                } catch (IOException e) {
+                    complete();
+                }
+            }
+        });
+    }
+
+    private synchronized void writeIfPossible() throws IOException {
+        while (!completed && out.isReady()) {
+            if (flushPending) {
+                flushPending = false;
+                out.flush();
+            } else if (chunkDue) {
+                chunkDue = false;
+                flushPending = true;
+                write(out, chunks.chunk());
+            } else {
+                if (timerPending) {
+                    return;
+                }
+
+                if (chunks.next()) {
+                    timerPending = true;
+                    scheduleNonBlockingWrite();
+                } else {
+                    complete();
+                }
+                return;
+            }
+        }
+    }
+
+    private void scheduleBlockingWrite() {
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                writeNextChunkBlocking();
+            }
+        });
+    }
+
+    private void writeNextChunkBlocking() {
+        try {
+            write(out, chunks.chunk());
+            out.flush();
+
+            if (chunks.next()) {
+                scheduleBlockingWrite();
+            } else {
+                complete();
+            }
+        } catch (IOException e) {
+            complete();
+        }
+    }
+
+    private void schedule(final Runnable write) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    dispatch(write);
+                }
+            }, chunks.delayNanos(), NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // The server is shutting down
+            complete();
+        }
+    }
+
+    private void dispatch(Runnable write) {
+        try {
+            asyncContext.start(write);
+        } catch (IllegalStateException e) {
+            // The response has already been completed, e.g. after a client disconnect
+            complete();
+        }
+    }
+
+    private static void write(ServletOutputStream out, ByteBuffer chunk) throws IOException {
+        out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+    }
+
+    private synchronized void complete() {
+        if (!completed) {
+            completed = true;
+            chunks.close();
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException ignored) {
+                // Already completed by the container, e.g. after a client disconnect
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A response body split into chunks, each of which should be written after a delay.
+ */
+interface PacedChunks {
+
+    /**
+     * Moves on to the next chunk.
+     *
+     * @return false once the body has been exhausted
+     */
+    boolean next() throws IOException;
+
+    ByteBuffer chunk();
+
+    /**
+     * The time to wait before writing the current chunk
+     */
+    long delayNanos();
+
+    void close();
+}
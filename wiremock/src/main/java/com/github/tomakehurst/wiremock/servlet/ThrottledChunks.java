@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import com.github.tomakehurst.wiremock.http.BandwidthThrottle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Reads a body from a channel a chunk at a time, pacing the chunks so the body is sent at the
+ * throttle's rate. Only one chunk is ever held in memory.
+ *
+ * Chunk delays are measured against the time the body started, rather than the previous chunk,
+ * so time spent writing doesn't slow the overall rate down.
+ */
+class ThrottledChunks implements PacedChunks {
+
+    static final int MAX_CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS_PER_SECOND = 20;
+
+    private final ReadableByteChannel source;
+    private final BandwidthThrottle throttle;
+    private final ByteBuffer buffer;
+
+    private long dueAtNanos = -1;
+    private boolean exhausted;
+
+    ThrottledChunks(ReadableByteChannel source, BandwidthThrottle throttle) {
+        this.source = source;
+        this.throttle = throttle;
+        this.buffer = ByteBuffer.allocate(chunkSizeFor(throttle.getBytesPerSecond()));
+    }
+
+    static int chunkSizeFor(int bytesPerSecond) {
+        return Math.max(1, Math.min(MAX_CHUNK_SIZE, bytesPerSecond / CHUNKS_PER_SECOND));
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        buffer.clear();
+        while (!exhausted && buffer.hasRemaining()) {
+            exhausted = source.read(buffer) < 0;
+        }
+        buffer.flip();
+
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+
+        if (dueAtNanos < 0) {
+            Integer timeToFirstByte = throttle.getTimeToFirstByteMilliseconds();
+            dueAtNanos = System.nanoTime() + (timeToFirstByte != null ? MILLISECONDS.toNanos(timeToFirstByte) : 0);
+        }
+        dueAtNanos += transferTimeNanos(buffer.remaining());
+
+        return true;
+    }
+
+    private long transferTimeNanos(int bytes) {
+        double nanos = (double) SECONDS.toNanos(bytes) / throttle.getBytesPerSecond();
+        Double jitter = throttle.getJitter();
+        if (jitter != null && jitter > 0) {
+            nanos *= 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        }
+
+        return (long) nanos;
+    }
+
+    @Override
+    public ByteBuffer chunk() {
+        return buffer.duplicate();
+    }
+
+    @Override
+    public long delayNanos() {
+        return Math.max(0, dueAtNanos - System.nanoTime());
+    }
+
+    @Override
+    public void close() {
+        try {
+            source.close();
+        } catch (IOException ignored) {
+            // well, we tried
+        }
+    }
+}
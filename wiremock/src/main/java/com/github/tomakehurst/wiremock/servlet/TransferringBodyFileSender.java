@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import javax.servlet.ServletOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sends body files using {@link FileChannel#transferTo}, which works with any servlet container and
+ * copies the file in small chunks rather than reading it onto the heap in one go.
+ */
+public class TransferringBodyFileSender implements BodyFileSender {
+
+    @Override
+    public void send(FileChannel bodyFile, ServletOutputStream out) throws IOException {
+        WritableByteChannel outChannel = Channels.newChannel(out);
+        long position = 0;
+        long size = bodyFile.size();
+        while (position < size) {
+            position += bodyFile.transferTo(position, size - position, outChannel);
+        }
+    }
+
+    @Override
+    public void send(ByteBuffer cachedBodyFile, ServletOutputStream out) throws IOException {
+        WritableByteChannel outChannel = Channels.newChannel(out);
+        while (cachedBodyFile.hasRemaining()) {
+            outChannel.write(cachedBodyFile);
+        }
+    }
+}
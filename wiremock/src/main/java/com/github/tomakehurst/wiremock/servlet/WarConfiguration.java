@@ -191,4 +191,54 @@ public class WarConfiguration implements Options {
     public boolean getStubRequestLoggingDisabled() {
         return false;
     }
+
+    @Override
+    public StubMappingSetType getStubMappingSetType() {
+        return StubMappingSetType.CONCURRENT;
+    }
+
+    @Override
+    public RequestJournalType getRequestJournalType() {
+        return RequestJournalType.IN_MEMORY;
+    }
+
+    @Override
+    public String getRequestJournalDirectory() {
+        return null;
+    }
+
+    @Override
+    public long getBodyFileCacheMaxBytes() {
+        return 0;
+    }
+
+    @Override
+    public boolean getStaticStubResponseCachingEnabled() {
+        return false;
+    }
+
+    @Override
+    public ProxyConnectionPoolSettings getProxyConnectionPoolSettings() {
+        return ProxyConnectionPoolSettings.DEFAULTS;
+    }
+
+    @Override
+    public boolean getProxiedResponseStreamingEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean getAsynchronousProxyingEnabled() {
+        return false;
+    }
+
+    @Override
+    public ProxyResponseCacheSettings getProxyResponseCacheSettings() {
+        return ProxyResponseCacheSettings.DISABLED;
+    }
+
+    @Override
+    public long getRequestBodySpillThresholdBytes() {
+        return 0;
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.github.tomakehurst.wiremock.servlet;
 
+import com.github.tomakehurst.wiremock.common.BinaryFile;
+import com.github.tomakehurst.wiremock.common.CachedFile;
 import com.github.tomakehurst.wiremock.common.LocalNotifier;
 import com.github.tomakehurst.wiremock.common.Notifier;
 import com.github.tomakehurst.wiremock.core.FaultInjector;
@@ -23,6 +25,7 @@ import com.github.tomakehurst.wiremock.core.WireMockApp;
 import com.github.tomakehurst.wiremock.http.*;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServlet;
@@ -30,7 +33,12 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.core.Options.ChunkedEncodingPolicy.BODY_FILE;
@@ -38,9 +46,11 @@ import static com.github.tomakehurst.wiremock.core.Options.ChunkedEncodingPolicy
 import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
 import static com.github.tomakehurst.wiremock.servlet.WireMockHttpServletRequestAdapter.ORIGINAL_REQUEST_KEY;
 import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.URLDecoder.decode;
-import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class WireMockHandlerDispatchingServlet extends HttpServlet {
@@ -48,10 +58,12 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
     public static final String SHOULD_FORWARD_TO_FILES_CONTEXT = "shouldForwardToFilesContext";
     public static final String ASYNCHRONOUS_RESPONSE_EXECUTOR = WireMockHandlerDispatchingServlet.class.getSimpleName() + ".asynchronousResponseExecutor";
     public static final String MAPPED_UNDER_KEY = "mappedUnder";
+    public static final String REQUEST_BODY_SPILL_THRESHOLD = WireMockHandlerDispatchingServlet.class.getSimpleName() + ".requestBodySpillThreshold";
 
 	private static final long serialVersionUID = -6602042274260495538L;
 
     private ScheduledExecutorService scheduledExecutorService;
+    private ScheduledExecutorService delayTimer;
 
     private RequestHandler requestHandler;
     private FaultInjectorFactory faultHandlerFactory;
@@ -61,6 +73,8 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
 	private boolean shouldForwardToFilesContext;
 	private MultipartRequestConfigurer multipartRequestConfigurer;
 	private Options.ChunkedEncodingPolicy chunkedEncodingPolicy;
+	private BodyFileSender bodyFileSender;
+	private long requestBodySpillThresholdBytes;
 
 	@Override
 	public void init(ServletConfig config) {
@@ -92,6 +106,14 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
 		chunkedEncodingPolicy = chunkedEncodingPolicyAttr != null ?
                 (Options.ChunkedEncodingPolicy) chunkedEncodingPolicyAttr :
                 Options.ChunkedEncodingPolicy.ALWAYS;
+
+		Object bodyFileSenderAttr = context.getAttribute(BodyFileSender.KEY);
+		bodyFileSender = bodyFileSenderAttr != null ?
+                (BodyFileSender) bodyFileSenderAttr :
+                new TransferringBodyFileSender();
+
+		Object requestBodySpillThresholdAttr = context.getAttribute(REQUEST_BODY_SPILL_THRESHOLD);
+		requestBodySpillThresholdBytes = requestBodySpillThresholdAttr != null ? (Long) requestBodySpillThresholdAttr : 0;
 	}
 
 	private String getNormalizedMappedUnder(ServletConfig config) {
@@ -114,40 +136,94 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
 	protected void service(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) throws ServletException, IOException {
 		LocalNotifier.set(notifier);
 
-		Request request = new WireMockHttpServletRequestAdapter(httpServletRequest, multipartRequestConfigurer, mappedUnder);
-
-		ServletHttpResponder responder = new ServletHttpResponder(httpServletRequest, httpServletResponse);
-		requestHandler.handle(request, responder);
+		WireMockHttpServletRequestAdapter request = new WireMockHttpServletRequestAdapter(
+			httpServletRequest,
+			multipartRequestConfigurer,
+			mappedUnder,
+			requestBodySpillThresholdBytes
+		);
+
+		ServletHttpResponder responder = new ServletHttpResponder(httpServletRequest, httpServletResponse, request);
+		try {
+			requestHandler.handle(request, responder);
+		} finally {
+			// Otherwise it's deleted when the asynchronous response completes
+			if (!httpServletRequest.isAsyncStarted()) {
+				request.deleteSpilledBody();
+			}
+		}
 	}
 
-	private class ServletHttpResponder implements HttpResponder {
+	private class ServletHttpResponder implements AsynchronousHttpResponder {
 
 		private final HttpServletRequest httpServletRequest;
 		private final HttpServletResponse httpServletResponse;
+		private final WireMockHttpServletRequestAdapter requestAdapter;
+		private AsyncContext deferredContext;
+		private final AtomicBoolean responded = new AtomicBoolean();
 
-		public ServletHttpResponder(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+		public ServletHttpResponder(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, WireMockHttpServletRequestAdapter requestAdapter) {
 			this.httpServletRequest = httpServletRequest;
 			this.httpServletResponse = httpServletResponse;
+			this.requestAdapter = requestAdapter;
+		}
+
+		@Override
+		public boolean deferResponse() {
+			if (!httpServletRequest.isAsyncSupported()) {
+				return false;
+			}
+
+			deferredContext = startAsync();
+			deferredContext.setTimeout(0);
+			return true;
 		}
 
 		@Override
 		public void respond(final Request request, final Response response) {
-			if (Thread.currentThread().isInterrupted()) {
+			if (!responded.compareAndSet(false, true) || Thread.currentThread().isInterrupted()) {
 				return;
 			}
 
 			httpServletRequest.setAttribute(ORIGINAL_REQUEST_KEY, LoggedRequest.createFrom(request));
 
-            if (isAsyncSupported(response, httpServletRequest)) {
-                respondAsync(request, response);
+            if (deferredContext != null) {
+                respondAsync(request, response, deferredContext);
+            } else if (isAsyncSupported(response, httpServletRequest)) {
+                respondAsync(request, response, startAsync());
             } else {
                 respondSync(request, response);
             }
         }
 
+        private AsyncContext startAsync() {
+            AsyncContext asyncContext = httpServletRequest.startAsync();
+            asyncContext.addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    requestAdapter.deleteSpilledBody();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    requestAdapter.deleteSpilledBody();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    requestAdapter.deleteSpilledBody();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {}
+            });
+
+            return asyncContext;
+        }
+
         private void respondSync(Request request, Response response) {
             delayIfRequired(response.getInitialDelay());
-            respondTo(request, response);
+            respondTo(request, response, null);
         }
 
 
@@ -160,27 +236,79 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
         }
 
         private boolean isAsyncSupported(Response response, HttpServletRequest httpServletRequest) {
-            return scheduledExecutorService != null && response.getInitialDelay() > 0 && httpServletRequest.isAsyncSupported();
+            return (response.getInitialDelay() > 0 || response.shouldAddChunkedDribbleDelay() || response.shouldThrottleBandwidth()) &&
+                httpServletRequest.isAsyncSupported();
         }
 
-        private void respondAsync(final Request request, final Response response) {
-            final AsyncContext asyncContext = httpServletRequest.startAsync();
-            scheduledExecutorService.schedule(new Runnable() {
+        private void respondAsync(final Request request, final Response response, final AsyncContext asyncContext) {
+            asyncContext.setTimeout(0);
+
+            if (response.getInitialDelay() <= 0) {
+                if (asyncContext == deferredContext) {
+                    // Don't tie up the thread that completed the deferred response writing it
+                    asyncContext.start(new Runnable() {
+                        @Override
+                        public void run() {
+                            respondAndCompleteUnlessPending(request, response, asyncContext);
+                        }
+                    });
+                } else {
+                    respondAndCompleteUnlessPending(request, response, asyncContext);
+                }
+                return;
+            }
+
+            getScheduler().schedule(new Runnable() {
                 @Override
                 public void run() {
-                    try {
-                        respondTo(request, response);
-                    } finally {
-                        asyncContext.complete();
+                    if (scheduledExecutorService != null) {
+                        respondAndCompleteUnlessPending(request, response, asyncContext);
+                    } else {
+                        // Don't tie up the timer thread writing the response
+                        asyncContext.start(new Runnable() {
+                            @Override
+                            public void run() {
+                                respondAndCompleteUnlessPending(request, response, asyncContext);
+                            }
+                        });
                     }
                 }
             }, response.getInitialDelay(), MILLISECONDS);
         }
 
-        private void respondTo(Request request, Response response) {
+        private void respondAndCompleteUnlessPending(Request request, Response response, AsyncContext asyncContext) {
+            boolean pending = false;
+            try {
+                pending = respondTo(request, response, asyncContext);
+            } catch (Exception e) {
+                // Outside the container's own dispatch nothing turns the failure into an error response,
+                // and completing the context would send whatever status had been set so far
+                notifier.error("Failed to send response", e);
+                sendServerErrorIfUncommitted();
+            } finally {
+                if (!pending) {
+                    asyncContext.complete();
+                }
+            }
+        }
+
+        private void sendServerErrorIfUncommitted() {
+            if (httpServletResponse.isCommitted()) {
+                return;
+            }
+
+            try {
+                httpServletResponse.reset();
+                httpServletResponse.sendError(HTTP_INTERNAL_ERROR);
+            } catch (IOException | IllegalStateException e) {
+                // The client has gone, or the container has already taken over the response
+            }
+        }
+
+        private boolean respondTo(Request request, Response response, AsyncContext asyncContext) {
             try {
                 if (response.wasConfigured()) {
-                    applyResponse(response, httpServletRequest, httpServletResponse);
+                    return applyResponse(response, httpServletRequest, httpServletResponse, asyncContext);
                 } else if (request.getMethod().equals(GET) && shouldForwardToFilesContext) {
                     forwardToFilesContext(httpServletRequest, httpServletResponse, request);
                 } else {
@@ -188,17 +316,31 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
                 }
             } catch (Exception e) {
                 throwUnchecked(e);
+            } finally {
+                // Anything streaming the body has taken it by now, so this only releases bodies that
+                // weren't sent, e.g. because a fault was applied instead
+                response.releaseBody();
             }
+
+            return false;
         }
     }
 
     public void applyResponse(Response response, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+        applyResponse(response, httpServletRequest, httpServletResponse, null);
+    }
+
+    /**
+     * @return true if the response is still being written asynchronously, in which case the async context
+     * will be completed once it's done
+     */
+    private boolean applyResponse(Response response, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, AsyncContext asyncContext) {
         Fault fault = response.getFault();
         if (fault != null) {
 			FaultInjector faultInjector = buildFaultInjector(httpServletRequest, httpServletResponse);
 			fault.apply(faultInjector);
             httpServletResponse.addHeader(Fault.class.getName(), fault.name());
-            return;
+            return false;
         }
 
 		if (response.getStatusMessage() == null) {
@@ -213,21 +355,63 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
             }
         }
 
-        if (chunkedEncodingPolicy == NEVER || (chunkedEncodingPolicy == BODY_FILE && response.hasInlineBody())) {
-            httpServletResponse.setContentLength(response.getBody().length);
+        boolean sendContentLength = chunkedEncodingPolicy == NEVER || (chunkedEncodingPolicy == BODY_FILE && response.hasInlineBody());
+        if (sendContentLength) {
+            setContentLength(httpServletResponse, response.getBodyLength());
         }
 
-        if (response.shouldAddChunkedDribbleDelay()) {
-			writeAndTranslateExceptionsWithChunkedDribbleDelay(httpServletResponse, response.getBodyStream(), response.getChunkedDribbleDelay());
+        BinaryFile bodyFile = response.getBodyFile();
+        if (response.shouldThrottleBandwidth() || response.shouldAddChunkedDribbleDelay()) {
+            return writePacedAndTranslateExceptions(httpServletResponse, response, asyncContext);
+		} else if (bodyFile != null && bodyFile.isLocalFile()) {
+			sendFileAndTranslateExceptions(httpServletResponse, bodyFile, sendContentLength);
+		} else if (response.isStreamingBody()) {
+			streamAndTranslateExceptions(httpServletResponse, response.getBodyStream());
 		} else {
 			writeAndTranslateExceptions(httpServletResponse, response.getBodyStream());
 		}
+
+        return false;
     }
 
 	private FaultInjector buildFaultInjector(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
 	    return faultHandlerFactory.buildFaultInjector(httpServletRequest, httpServletResponse);
 	}
 
+    private static void setContentLength(HttpServletResponse httpServletResponse, long contentLength) {
+        if (contentLength <= Integer.MAX_VALUE) {
+            httpServletResponse.setContentLength((int) contentLength);
+        } else {
+            httpServletResponse.setHeader(CONTENT_LENGTH, String.valueOf(contentLength));
+        }
+    }
+
+    private void sendFileAndTranslateExceptions(HttpServletResponse httpServletResponse, BinaryFile bodyFile, boolean contentLengthSet) {
+        ByteBuffer cachedContents = bodyFile instanceof CachedFile ?
+            ((CachedFile) bodyFile).getContents() :
+            null;
+
+        // Open the file before touching the output, so that a missing file fails the request
+        // before the status and headers are committed
+        try (FileChannel channel = cachedContents == null ? bodyFile.openChannel() : null;
+             ServletOutputStream out = httpServletResponse.getOutputStream()) {
+            if (!contentLengthSet) {
+                // Commit the headers first, otherwise the container may set a content length itself
+                // when the whole file fits in a single write
+                out.flush();
+            }
+
+            if (cachedContents != null) {
+                bodyFileSender.send(cachedContents, out);
+            } else {
+                bodyFileSender.send(channel, out);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throwUnchecked(e);
+        }
+    }
+
     private static void writeAndTranslateExceptions(HttpServletResponse httpServletResponse, InputStream content) {
         try (ServletOutputStream out = httpServletResponse.getOutputStream()) {
             ByteStreams.copy(content, out);
@@ -243,32 +427,117 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
         }
     }
 
-    private void writeAndTranslateExceptionsWithChunkedDribbleDelay(HttpServletResponse httpServletResponse, InputStream bodyStream, ChunkedDribbleDelay chunkedDribbleDelay) {
+    /**
+     * Passes the body on as it arrives, flushing whenever the source has nothing more to hand
+     * so the client isn't kept waiting for the output buffer to fill
+     */
+    private static void streamAndTranslateExceptions(HttpServletResponse httpServletResponse, InputStream content) {
+        byte[] buffer = new byte[8192];
         try (ServletOutputStream out = httpServletResponse.getOutputStream()) {
-            byte[] body = ByteStreams.toByteArray(bodyStream);
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (content.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throwUnchecked(e);
+        } finally {
+            try {
+                content.close();
+            } catch (IOException e) {
+                // well, we tried
+            }
+        }
+    }
 
-			if (body.length < 1) {
-				notifier.error("Cannot chunk dribble delay when no body set");
-				out.flush();
-				return;
-			}
+    private boolean writePacedAndTranslateExceptions(HttpServletResponse httpServletResponse, Response response, AsyncContext asyncContext) {
+        try {
+            ServletOutputStream out = httpServletResponse.getOutputStream();
+            PacedChunks chunks = response.shouldThrottleBandwidth() ?
+                throttledChunksFor(response) :
+                dribbledChunksFor(response);
 
-			byte[][] chunkedBody = BodyChunker.chunkBody(body, chunkedDribbleDelay.getNumberOfChunks());
+            if (chunks == null) {
+                out.flush();
+                return false;
+            }
 
-			int chunkInterval = chunkedDribbleDelay.getTotalDuration() / chunkedBody.length;
+            if (asyncContext != null) {
+                new PacedBodyWriter(asyncContext, out, chunks, getScheduler()).start();
+                return true;
+            }
 
-			for (byte[] bodyChunk : chunkedBody) {
-				Thread.sleep(chunkInterval);
-				out.write(bodyChunk);
-				out.flush();
-			}
+            try {
+                PacedBodyWriter.writeBlocking(out, chunks);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throwUnchecked(e);
+        } catch (InterruptedException ignored) {
+            // Ignore the interrupt quietly since it's probably the client timing out, which is a completely valid outcome
+        }
+
+        return false;
+    }
+
+    private static PacedChunks throttledChunksFor(Response response) throws IOException {
+        BinaryFile bodyFile = response.getBodyFile();
+        ReadableByteChannel source = bodyFile != null && bodyFile.isLocalFile() && !(bodyFile instanceof CachedFile) ?
+            bodyFile.openChannel() :
+            Channels.newChannel(response.getBodyStream());
 
-		} catch (IOException e) {
-			throwUnchecked(e);
-		} catch (InterruptedException ignored) {
-		    // Ignore the interrupt quietly since it's probably the client timing out, which is a completely valid outcome
+        return new ThrottledChunks(source, response.getBandwidthThrottle());
+    }
+
+    private DribbledChunks dribbledChunksFor(Response response) throws IOException {
+        ChunkedDribbleDelay chunkedDribbleDelay = response.getChunkedDribbleDelay();
+        byte[] body;
+        try (InputStream bodyStream = response.getBodyStream()) {
+            body = ByteStreams.toByteArray(bodyStream);
         }
-	}
+
+        if (body.length < 1) {
+            notifier.error("Cannot chunk dribble delay when no body set");
+            return null;
+        }
+
+        byte[][] chunkedBody = BodyChunker.chunkBody(body, chunkedDribbleDelay.getNumberOfChunks());
+        int chunkInterval = chunkedDribbleDelay.getTotalDuration() / chunkedBody.length;
+
+        return new DribbledChunks(chunkedBody, chunkInterval);
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        if (scheduledExecutorService != null) {
+            return scheduledExecutorService;
+        }
+
+        synchronized (this) {
+            if (delayTimer == null) {
+                delayTimer = newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                        .setNameFormat("wiremock-delay-timer-%d")
+                        .setDaemon(true)
+                        .build()
+                );
+            }
+            return delayTimer;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (delayTimer != null) {
+                delayTimer.shutdownNow();
+                delayTimer = null;
+            }
+        }
+    }
 
     private void forwardToFilesContext(HttpServletRequest httpServletRequest,
             HttpServletResponse httpServletResponse, Request request) throws ServletException, IOException {
@@ -23,23 +23,32 @@ import com.github.tomakehurst.wiremock.http.HttpHeaders;
 import com.github.tomakehurst.wiremock.http.QueryParameter;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.SpillableRequest;
+import com.github.tomakehurst.wiremock.http.SpilledBody;
 import com.github.tomakehurst.wiremock.http.multipart.PartParser;
 import com.github.tomakehurst.wiremock.jetty9.JettyUtils;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 
 import static com.github.tomakehurst.wiremock.common.Encoding.encodeBase64;
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.common.Strings.stringFromBytes;
 import static com.github.tomakehurst.wiremock.common.Urls.splitQuery;
 import static com.google.common.base.Charsets.UTF_8;
@@ -50,22 +59,39 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.io.ByteStreams.toByteArray;
 import static java.util.Collections.list;
 
-public class WireMockHttpServletRequestAdapter implements Request {
+public class WireMockHttpServletRequestAdapter implements SpillableRequest {
 
     public static final String ORIGINAL_REQUEST_KEY = "wiremock.ORIGINAL_REQUEST";
 
     private final HttpServletRequest request;
     private final MultipartRequestConfigurer multipartRequestConfigurer;
+    private final long bodySpillThresholdBytes;
     private byte[] cachedBody;
+    private SpilledBody spilledBody;
+    private String cachedBodyAsString;
+    private boolean loggedSpilledBodyRead;
+    private Map<String, QueryParameter> cachedQueryParams;
+    private Map<String, Cookie> cachedCookies;
     private String urlPrefixToRemove;
     private Collection<Part> cachedMultiparts;
 
     public WireMockHttpServletRequestAdapter(HttpServletRequest request,
                                              MultipartRequestConfigurer multipartRequestConfigurer,
                                              String urlPrefixToRemove) {
+        this(request, multipartRequestConfigurer, urlPrefixToRemove, 0);
+    }
+
+    /**
+     * @param bodySpillThresholdBytes bodies larger than this are written to a temporary file rather than held in memory, or 0 to always hold them in memory
+     */
+    public WireMockHttpServletRequestAdapter(HttpServletRequest request,
+                                             MultipartRequestConfigurer multipartRequestConfigurer,
+                                             String urlPrefixToRemove,
+                                             long bodySpillThresholdBytes) {
         this.request = request;
         this.multipartRequestConfigurer = multipartRequestConfigurer;
         this.urlPrefixToRemove = urlPrefixToRemove;
+        this.bodySpillThresholdBytes = bodySpillThresholdBytes;
     }
 
     @Override
@@ -123,19 +149,67 @@ public class WireMockHttpServletRequestAdapter implements Request {
         return  request.getRemoteAddr();
     }
 
+    /**
+     * A body that has been written to disk is read back in full on every call and not kept, so matchers and
+     * templates that need the whole body, rather than {@link #getSpilledBody()}, each load it onto the heap.
+     */
     @Override
     public byte[] getBody() {
-        if (cachedBody == null) {
-            try {
-                byte[] body = toByteArray(request.getInputStream());
-                boolean isGzipped = hasGzipEncoding() || Gzip.isGzipped(body);
-                cachedBody = isGzipped ? Gzip.unGzip(body) : body;
-            } catch (IOException ioe) {
-                throw new RuntimeException(ioe);
+        readBodyIfNecessary();
+        if (cachedBody != null) {
+            return cachedBody;
+        }
+
+        if (!loggedSpilledBodyRead) {
+            notifier().info("Reading " + spilledBody.getLength() + " byte request body to " + getUrl() +
+                " back into memory from disk. Only binaryEqualTo body patterns match against it without doing so.");
+            loggedSpilledBodyRead = true;
+        }
+
+        return spilledBody.getBytes();
+    }
+
+    @Override
+    public SpilledBody getSpilledBody() {
+        readBodyIfNecessary();
+        return spilledBody;
+    }
+
+    private void readBodyIfNecessary() {
+        if (cachedBody != null || spilledBody != null) {
+            return;
+        }
+
+        try {
+            InputStream content = request.getInputStream();
+            if (bodySpillThresholdBytes <= 0) {
+                cachedBody = unGzipIfRequired(toByteArray(content));
+                return;
+            }
+
+            byte[] start = toByteArray(ByteStreams.limit(content, bodySpillThresholdBytes + 1));
+            if (start.length <= bodySpillThresholdBytes) {
+                cachedBody = unGzipIfRequired(start);
+                return;
             }
+
+            InputStream wholeBody = new SequenceInputStream(new ByteArrayInputStream(start), content);
+            boolean isGzipped = hasGzipEncoding() || Gzip.isGzipped(start);
+            spilledBody = SpilledBody.spill(isGzipped ? new GZIPInputStream(wholeBody) : wholeBody);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
         }
+    }
+
+    private byte[] unGzipIfRequired(byte[] body) {
+        boolean isGzipped = hasGzipEncoding() || Gzip.isGzipped(body);
+        return isGzipped ? Gzip.unGzip(body) : body;
+    }
 
-        return cachedBody;
+    void deleteSpilledBody() {
+        if (spilledBody != null) {
+            spilledBody.delete();
+        }
     }
 
     private Charset encodingFromContentTypeHeaderOrUtf8() {
@@ -153,7 +227,16 @@ public class WireMockHttpServletRequestAdapter implements Request {
 
     @Override
     public String getBodyAsString() {
-        return stringFromBytes(getBody(), encodingFromContentTypeHeaderOrUtf8());
+        if (cachedBodyAsString != null) {
+            return cachedBodyAsString;
+        }
+
+        String bodyAsString = stringFromBytes(getBody(), encodingFromContentTypeHeaderOrUtf8());
+        if (spilledBody == null) {
+            cachedBodyAsString = bodyAsString;
+        }
+
+        return bodyAsString;
     }
 
     @Override
@@ -225,6 +308,14 @@ public class WireMockHttpServletRequestAdapter implements Request {
 
     @Override
     public Map<String, Cookie> getCookies() {
+        if (cachedCookies == null) {
+            cachedCookies = parseCookies();
+        }
+
+        return cachedCookies;
+    }
+
+    private Map<String, Cookie> parseCookies() {
         ImmutableMultimap.Builder<String, String> builder = ImmutableMultimap.builder();
 
         javax.servlet.http.Cookie[] cookies = firstNonNull(request.getCookies(), new javax.servlet.http.Cookie[0]);
@@ -232,19 +323,21 @@ public class WireMockHttpServletRequestAdapter implements Request {
             builder.put(cookie.getName(), cookie.getValue());
         }
 
-        return Maps.transformValues(builder.build().asMap(), new Function<Collection<String>, Cookie>() {
+        return ImmutableMap.copyOf(Maps.transformValues(builder.build().asMap(), new Function<Collection<String>, Cookie>() {
             @Override
             public Cookie apply(Collection<String> input) {
                 return new Cookie(null, ImmutableList.copyOf(input));
             }
-        });
+        }));
     }
 
     @Override
     public QueryParameter queryParameter(String key) {
-        return firstNonNull((splitQuery(request.getQueryString())
-                .get(key)),
-            QueryParameter.absent(key));
+        if (cachedQueryParams == null) {
+            cachedQueryParams = ImmutableMap.copyOf(splitQuery(request.getQueryString()));
+        }
+
+        return firstNonNull(cachedQueryParams.get(key), QueryParameter.absent(key));
     }
 
     @Override
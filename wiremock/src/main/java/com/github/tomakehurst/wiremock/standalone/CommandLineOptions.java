@@ -92,9 +92,24 @@ public class CommandLineOptions implements Options {
     private static final String ASYNCHRONOUS_RESPONSE_THREADS = "async-response-threads";
     private static final String USE_CHUNKED_ENCODING = "use-chunked-encoding";
     private static final String MAX_TEMPLATE_CACHE_ENTRIES = "max-template-cache-entries";
+    private static final String MAX_TEMPLATE_CACHE_CHARS = "max-template-cache-chars";
     private static final String PERMITTED_SYSTEM_KEYS = "permitted-system-keys";
     private static final String DISABLE_GZIP = "disable-gzip";
     private static final String DISABLE_REQUEST_LOGGING = "disable-request-logging";
+    private static final String STUB_MAPPING_SET = "stub-mapping-set";
+    private static final String REQUEST_JOURNAL = "request-journal";
+    private static final String REQUEST_JOURNAL_DIR = "request-journal-dir";
+    private static final String BODY_FILE_CACHE_SIZE = "body-file-cache-size";
+    private static final String CACHE_STATIC_STUB_RESPONSES = "cache-static-stub-responses";
+    private static final String PROXY_MAX_CONNECTIONS = "proxy-max-connections";
+    private static final String PROXY_MAX_CONNECTIONS_PER_ROUTE = "proxy-max-connections-per-route";
+    private static final String PROXY_IDLE_CONNECTION_TIMEOUT = "proxy-idle-connection-timeout";
+    private static final String STREAM_PROXIED_RESPONSES = "stream-proxied-responses";
+    private static final String ASYNC_PROXYING = "async-proxying";
+    private static final String PROXY_CACHE_SIZE = "proxy-cache-size";
+    private static final String PROXY_CACHE_TTL = "proxy-cache-ttl";
+    private static final String PROXY_CACHE_KEY_HEADERS = "proxy-cache-key-headers";
+    private static final String REQUEST_BODY_SPILL_THRESHOLD = "request-body-spill-threshold";
 
 
     private final OptionSet optionSet;
@@ -142,9 +157,24 @@ public class CommandLineOptions implements Options {
         optionParser.accepts(ASYNCHRONOUS_RESPONSE_THREADS, "Number of asynchronous response threads").withRequiredArg().defaultsTo("10");
         optionParser.accepts(USE_CHUNKED_ENCODING, "Whether to use Transfer-Encoding: chunked in responses. Can be set to always, never or body_file.").withRequiredArg().defaultsTo("always");
         optionParser.accepts(MAX_TEMPLATE_CACHE_ENTRIES, "The maximum number of response template fragments that can be cached. Only has any effect when templating is enabled. Defaults to no limit.").withOptionalArg();
+        optionParser.accepts(MAX_TEMPLATE_CACHE_CHARS, "The maximum total length in characters of the response template fragments that can be cached, when --max-template-cache-entries isn't specified. Defaults to 16777216.").withRequiredArg();
         optionParser.accepts(PERMITTED_SYSTEM_KEYS, "A list of case-insensitive regular expressions for names of permitted system properties and environment vars. Only has any effect when templating is enabled. Defaults to no limit.").withOptionalArg().ofType(String.class).withValuesSeparatedBy(",");
         optionParser.accepts(DISABLE_GZIP, "Disable gzipping of request and response bodies");
         optionParser.accepts(DISABLE_REQUEST_LOGGING, "Disable logging of stub requests and responses to the notifier. Useful when performance testing.");
+        optionParser.accepts(STUB_MAPPING_SET, "How stub mappings are held for matching. Can be set to concurrent or copy_on_write. The latter favours request throughput when stubs are frequently created and removed.").withRequiredArg().defaultsTo("concurrent");
+        optionParser.accepts(REQUEST_JOURNAL, "How the request journal is stored. Can be set to in_memory, ring_buffer or memory_mapped. ring_buffer is bounded by --max-request-journal-entries (10000 if not set) and indexed for fast verification. memory_mapped keeps requests in files outside the heap.").withRequiredArg().defaultsTo("in_memory");
+        optionParser.accepts(REQUEST_JOURNAL_DIR, "Directory for the segment files of the memory_mapped request journal. Defaults to a temporary directory.").withRequiredArg();
+        optionParser.accepts(BODY_FILE_CACHE_SIZE, "Maximum total size in bytes of body files to hold in memory. Cached files are re-read when they change on disk. Disabled (0) by default.").withRequiredArg().defaultsTo("0");
+        optionParser.accepts(PROXY_MAX_CONNECTIONS, "Maximum number of pooled connections used for proxying").withRequiredArg().defaultsTo(String.valueOf(ProxyConnectionPoolSettings.DEFAULT_MAX_CONNECTIONS));
+        optionParser.accepts(PROXY_MAX_CONNECTIONS_PER_ROUTE, "Maximum number of pooled connections used for proxying to each target host").withRequiredArg().defaultsTo(String.valueOf(ProxyConnectionPoolSettings.DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        optionParser.accepts(PROXY_IDLE_CONNECTION_TIMEOUT, "Time in milliseconds after which idle proxy connections are closed").withRequiredArg().defaultsTo(String.valueOf(ProxyConnectionPoolSettings.DEFAULT_IDLE_TIMEOUT_MILLISECONDS));
+        optionParser.accepts(STREAM_PROXIED_RESPONSES, "Pass proxied response bodies straight through to the client instead of reading them into memory first. Streamed bodies are not recorded in the request journal");
+        optionParser.accepts(ASYNC_PROXYING, "Proxy requests without holding a server thread while waiting for the target to respond");
+        optionParser.accepts(PROXY_CACHE_SIZE, "Cache responses to proxied GET and HEAD requests in memory, up to this total size in bytes. Disabled (0) by default.").withRequiredArg().defaultsTo("0");
+        optionParser.accepts(PROXY_CACHE_TTL, "The longest time in milliseconds that a proxied response is served from the cache before being revalidated").withRequiredArg().defaultsTo(String.valueOf(ProxyResponseCacheSettings.DEFAULT_TTL_MILLISECONDS));
+        optionParser.accepts(PROXY_CACHE_KEY_HEADERS, "A comma-separated list of request headers whose values form part of the proxy response cache key, in addition to the method and URL").withRequiredArg().ofType(String.class).withValuesSeparatedBy(",");
+        optionParser.accepts(REQUEST_BODY_SPILL_THRESHOLD, "Write request bodies larger than this many bytes to a temporary file rather than holding them in memory. Only a preview and digest of such bodies is kept in the request journal. Disabled (0) by default.").withRequiredArg().defaultsTo("0");
+        optionParser.accepts(CACHE_STATIC_STUB_RESPONSES, "Render responses for stubs without transformers, proxying, faults, delays or body files once when the stub is added, instead of on every request");
 
         optionParser.accepts(HELP, "Print this message");
 
@@ -342,6 +372,7 @@ public class CommandLineOptions implements Options {
             ResponseTemplateTransformer transformer = ResponseTemplateTransformer.builder()
                     .global(true)
                     .maxCacheEntries(getMaxTemplateCacheEntries())
+                    .maxCacheChars(getMaxTemplateCacheChars())
                     .permittedSystemKeys(getPermittedSystemKeys())
                     .build();
             builder.put(transformer.getName(), (T) transformer);
@@ -349,6 +380,7 @@ public class CommandLineOptions implements Options {
             ResponseTemplateTransformer transformer = ResponseTemplateTransformer.builder()
                     .global(false)
                     .maxCacheEntries(getMaxTemplateCacheEntries())
+                    .maxCacheChars(getMaxTemplateCacheChars())
                     .permittedSystemKeys(getPermittedSystemKeys())
                     .build();
             builder.put(transformer.getName(), (T) transformer);
@@ -553,12 +585,83 @@ public class CommandLineOptions implements Options {
         return optionSet.has(DISABLE_REQUEST_LOGGING);
     }
 
+    @Override
+    public StubMappingSetType getStubMappingSetType() {
+        return optionSet.has(STUB_MAPPING_SET) ?
+                StubMappingSetType.valueOf(optionSet.valueOf(STUB_MAPPING_SET).toString().toUpperCase()) :
+                StubMappingSetType.CONCURRENT;
+    }
+
+    @Override
+    public RequestJournalType getRequestJournalType() {
+        return optionSet.has(REQUEST_JOURNAL) ?
+                RequestJournalType.valueOf(optionSet.valueOf(REQUEST_JOURNAL).toString().toUpperCase()) :
+                RequestJournalType.IN_MEMORY;
+    }
+
+    @Override
+    public String getRequestJournalDirectory() {
+        return optionSet.has(REQUEST_JOURNAL_DIR) ?
+                (String) optionSet.valueOf(REQUEST_JOURNAL_DIR) :
+                null;
+    }
+
+    @Override
+    public long getBodyFileCacheMaxBytes() {
+        return Long.valueOf((String) optionSet.valueOf(BODY_FILE_CACHE_SIZE));
+    }
+
+    @Override
+    public boolean getStaticStubResponseCachingEnabled() {
+        return optionSet.has(CACHE_STATIC_STUB_RESPONSES);
+    }
+
+    @Override
+    public ProxyConnectionPoolSettings getProxyConnectionPoolSettings() {
+        return new ProxyConnectionPoolSettings(
+            Integer.valueOf((String) optionSet.valueOf(PROXY_MAX_CONNECTIONS)),
+            Integer.valueOf((String) optionSet.valueOf(PROXY_MAX_CONNECTIONS_PER_ROUTE)),
+            Integer.valueOf((String) optionSet.valueOf(PROXY_IDLE_CONNECTION_TIMEOUT))
+        );
+    }
+
+    @Override
+    public boolean getProxiedResponseStreamingEnabled() {
+        return optionSet.has(STREAM_PROXIED_RESPONSES);
+    }
+
+    @Override
+    public boolean getAsynchronousProxyingEnabled() {
+        return optionSet.has(ASYNC_PROXYING);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public ProxyResponseCacheSettings getProxyResponseCacheSettings() {
+        return new ProxyResponseCacheSettings(
+            Long.valueOf((String) optionSet.valueOf(PROXY_CACHE_SIZE)),
+            Integer.valueOf((String) optionSet.valueOf(PROXY_CACHE_TTL)),
+            (List<String>) optionSet.valuesOf(PROXY_CACHE_KEY_HEADERS)
+        );
+    }
+
+    @Override
+    public long getRequestBodySpillThresholdBytes() {
+        return Long.valueOf((String) optionSet.valueOf(REQUEST_BODY_SPILL_THRESHOLD));
+    }
+
     private Long getMaxTemplateCacheEntries() {
         return optionSet.has(MAX_TEMPLATE_CACHE_ENTRIES) ?
                 Long.valueOf(optionSet.valueOf(MAX_TEMPLATE_CACHE_ENTRIES).toString()) :
                 null;
     }
 
+    private Long getMaxTemplateCacheChars() {
+        return optionSet.has(MAX_TEMPLATE_CACHE_CHARS) ?
+                Long.valueOf(optionSet.valueOf(MAX_TEMPLATE_CACHE_CHARS).toString()) :
+                null;
+    }
+
     @SuppressWarnings("unchecked")
     @VisibleForTesting
     public Set<String> getPermittedSystemKeys() {
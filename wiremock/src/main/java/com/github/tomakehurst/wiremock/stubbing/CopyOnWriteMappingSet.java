@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.Urls;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.github.tomakehurst.wiremock.stubbing.SortedConcurrentMappingSet.sortedByPriorityThenReverseInsertionOrder;
+
+/**
+ * A mapping set tuned for request serving under heavy admin churn. Readers work from an immutable,
+ * pre-sorted snapshot published through a single volatile reference, so they never take a lock
+ * or contend with writers.
+ *
+ * Writers update a master sorted set under a lock and publish a new snapshot before returning, so
+ * a stub is matched as soon as it has been added. Changes made within {@link #batch(Runnable)}, such
+ * as a bulk import, are published together with a single rebuild rather than one per change.
+ */
+public class CopyOnWriteMappingSet implements StubMappingSet {
+
+    private final Comparator<StubMapping> comparator = sortedByPriorityThenReverseInsertionOrder();
+
+    private final Object lock = new Object();
+    private final TreeSet<StubMapping> master = new TreeSet<>(comparator);
+    private final ConcurrentMap<UUID, StubMapping> mappingsById = new ConcurrentHashMap<>();
+    private long insertionCount;
+    private int batchDepth;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @Override
+    public Iterator<StubMapping> iterator() {
+        return snapshot.mappings.iterator();
+    }
+
+    @Override
+    public Iterable<StubMapping> candidatesFor(Request request) {
+        Snapshot current = snapshot;
+        RequestMethod method = request.getMethod();
+        String url = request.getUrl();
+
+        Candidates candidates = new Candidates();
+        candidates.addAll(current.index.get(method), url);
+        if (!RequestMethod.ANY.equals(method)) {
+            candidates.addAll(current.index.get(RequestMethod.ANY), url);
+        }
+
+        return candidates.mergedInOrder(comparator);
+    }
+
+    @Override
+    public Optional<StubMapping> get(UUID id) {
+        return Optional.fromNullable(mappingsById.get(id));
+    }
+
+    @Override
+    public void add(StubMapping mapping) {
+        synchronized (lock) {
+            mapping.setInsertionIndex(insertionCount++);
+            master.add(mapping);
+            indexById(mapping);
+            publish();
+        }
+    }
+
+    @Override
+    public boolean remove(StubMapping mappingToRemove) {
+        synchronized (lock) {
+            boolean removed = removeWithoutPublishing(mappingToRemove);
+            if (removed) {
+                publish();
+            }
+
+            return removed;
+        }
+    }
+
+    private boolean removeWithoutPublishing(StubMapping mappingToRemove) {
+        UUID id = mappingToRemove.getUuid();
+        boolean removedById = false;
+        StubMapping existing;
+        while (id != null && (existing = mappingsById.get(id)) != null) {
+            removeExisting(existing);
+            removedById = true;
+        }
+
+        if (removedById) {
+            return true;
+        }
+
+        boolean removedByRequestPattern = false;
+        for (StubMapping mapping: new ArrayList<>(master)) {
+            if (mappingToRemove.getRequest().equals(mapping.getRequest())) {
+                removeExisting(mapping);
+                removedByRequestPattern = true;
+            }
+        }
+
+        return removedByRequestPattern;
+    }
+
+    @Override
+    public boolean replace(StubMapping existingStubMapping, StubMapping newStubMapping) {
+        synchronized (lock) {
+            if (master.contains(existingStubMapping)) {
+                removeExisting(existingStubMapping);
+                master.add(newStubMapping);
+                indexById(newStubMapping);
+                publish();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    @Override
+    public void batch(Runnable changes) {
+        synchronized (lock) {
+            batchDepth++;
+            try {
+                changes.run();
+            } finally {
+                batchDepth--;
+                publish();
+            }
+        }
+    }
+
+    private void indexById(StubMapping mapping) {
+        if (mapping.getUuid() != null) {
+            mappingsById.put(mapping.getUuid(), mapping);
+        }
+    }
+
+    private void removeExisting(StubMapping mapping) {
+        master.remove(mapping);
+
+        UUID id = mapping.getUuid();
+        if (id != null && mappingsById.remove(id, mapping) && master.size() > mappingsById.size()) {
+            // More than one stub was added with this ID, so fall back to the next one still present
+            for (StubMapping other: master) {
+                if (id.equals(other.getUuid())) {
+                    mappingsById.put(id, other);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            master.clear();
+            mappingsById.clear();
+            snapshot = Snapshot.EMPTY;
+        }
+    }
+
+    /**
+     * Must be called holding the lock. Within a batch this is left to the end of the outermost one.
+     */
+    private void publish() {
+        if (batchDepth == 0) {
+            snapshot = Snapshot.of(master);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return snapshot.mappings.toString();
+    }
+
+    /**
+     * Collects the candidate buckets for a request, only allocating a list when more than one needs merging.
+     */
+    private static class Candidates {
+
+        private ImmutableList<StubMapping> first;
+        private List<ImmutableList<StubMapping>> all;
+
+        void addAll(MethodBuckets buckets, String url) {
+            if (buckets == null) {
+                return;
+            }
+
+            if (url != null) {
+                add(buckets.byUrl.get(url));
+                add(buckets.byPath.get(Urls.getPath(url)));
+            }
+            add(buckets.unindexed);
+        }
+
+        private void add(ImmutableList<StubMapping> bucket) {
+            if (bucket == null || bucket.isEmpty()) {
+                return;
+            }
+
+            if (first == null) {
+                first = bucket;
+                return;
+            }
+
+            if (all == null) {
+                all = new ArrayList<>(6);
+                all.add(first);
+            }
+            all.add(bucket);
+        }
+
+        Iterable<StubMapping> mergedInOrder(Comparator<StubMapping> comparator) {
+            if (all != null) {
+                return StubMappingIndex.mergedInOrder(all, comparator);
+            }
+
+            return first != null ? first : ImmutableList.<StubMapping>of();
+        }
+    }
+
+    private static class MethodBuckets {
+
+        final ImmutableMap<String, ImmutableList<StubMapping>> byUrl;
+        final ImmutableMap<String, ImmutableList<StubMapping>> byPath;
+        final ImmutableList<StubMapping> unindexed;
+
+        MethodBuckets(ImmutableMap<String, ImmutableList<StubMapping>> byUrl,
+                      ImmutableMap<String, ImmutableList<StubMapping>> byPath,
+                      ImmutableList<StubMapping> unindexed) {
+            this.byUrl = byUrl;
+            this.byPath = byPath;
+            this.unindexed = unindexed;
+        }
+    }
+
+    private static class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(
+            ImmutableList.<StubMapping>of(),
+            ImmutableMap.<RequestMethod, MethodBuckets>of()
+        );
+
+        final ImmutableList<StubMapping> mappings;
+        final ImmutableMap<RequestMethod, MethodBuckets> index;
+
+        private Snapshot(ImmutableList<StubMapping> mappings, ImmutableMap<RequestMethod, MethodBuckets> index) {
+            this.mappings = mappings;
+            this.index = index;
+        }
+
+        static Snapshot of(Iterable<StubMapping> sortedMappings) {
+            ImmutableList<StubMapping> mappings = ImmutableList.copyOf(sortedMappings);
+
+            Map<RequestMethod, ListMultimap<String, StubMapping>> byUrl = new HashMap<>();
+            Map<RequestMethod, ListMultimap<String, StubMapping>> byPath = new HashMap<>();
+            Map<RequestMethod, ImmutableList.Builder<StubMapping>> unindexed = new HashMap<>();
+            for (StubMapping mapping: mappings) {
+                StubMappingIndex.Key key = StubMappingIndex.keyFor(mapping);
+                switch (key.type()) {
+                    case URL:
+                        bucketsFor(byUrl, key.method()).put(key.value(), mapping);
+                        break;
+                    case PATH:
+                        bucketsFor(byPath, key.method()).put(key.value(), mapping);
+                        break;
+                    default:
+                        ImmutableList.Builder<StubMapping> bucket = unindexed.get(key.method());
+                        if (bucket == null) {
+                            bucket = ImmutableList.builder();
+                            unindexed.put(key.method(), bucket);
+                        }
+                        bucket.add(mapping);
+                }
+            }
+
+            Set<RequestMethod> methods = new HashSet<>();
+            methods.addAll(byUrl.keySet());
+            methods.addAll(byPath.keySet());
+            methods.addAll(unindexed.keySet());
+
+            ImmutableMap.Builder<RequestMethod, MethodBuckets> index = ImmutableMap.builder();
+            for (RequestMethod method: methods) {
+                ImmutableList.Builder<StubMapping> unindexedBucket = unindexed.get(method);
+                index.put(method, new MethodBuckets(
+                    immutableBuckets(byUrl.get(method)),
+                    immutableBuckets(byPath.get(method)),
+                    unindexedBucket != null ? unindexedBucket.build() : ImmutableList.<StubMapping>of()
+                ));
+            }
+
+            return new Snapshot(mappings, index.build());
+        }
+
+        private static ListMultimap<String, StubMapping> bucketsFor(Map<RequestMethod, ListMultimap<String, StubMapping>> buckets, RequestMethod method) {
+            ListMultimap<String, StubMapping> methodBuckets = buckets.get(method);
+            if (methodBuckets == null) {
+                methodBuckets = ArrayListMultimap.create();
+                buckets.put(method, methodBuckets);
+            }
+
+            return methodBuckets;
+        }
+
+        private static ImmutableMap<String, ImmutableList<StubMapping>> immutableBuckets(ListMultimap<String, StubMapping> buckets) {
+            if (buckets == null) {
+                return ImmutableMap.of();
+            }
+
+            ImmutableMap.Builder<String, ImmutableList<StubMapping>> immutable = ImmutableMap.builder();
+            for (String key: buckets.keySet()) {
+                immutable.put(key, ImmutableList.copyOf(buckets.get(key)));
+            }
+
+            return immutable.build();
+        }
+    }
+}
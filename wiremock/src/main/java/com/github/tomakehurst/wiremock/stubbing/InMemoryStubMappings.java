@@ -17,6 +17,7 @@ package com.github.tomakehurst.wiremock.stubbing;
 
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.RequestCache;
 import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
 import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
@@ -39,25 +40,29 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.tryFind;
 
 
 public class InMemoryStubMappings implements StubMappings {
 	
-	private final SortedConcurrentMappingSet mappings = new SortedConcurrentMappingSet();
+	private final StubMappingSet mappings;
 	private final Scenarios scenarios = new Scenarios();
 	private final Map<String, RequestMatcherExtension> customMatchers;
     private final Map<String, ResponseDefinitionTransformer> transformers;
     private final FileSource rootFileSource;
     private final List<StubLifecycleListener> stubLifecycleListeners;
 
-	public InMemoryStubMappings(Map<String, RequestMatcherExtension> customMatchers, Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource, List<StubLifecycleListener> stubLifecycleListeners) {
+	public InMemoryStubMappings(StubMappingSet mappings, Map<String, RequestMatcherExtension> customMatchers, Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource, List<StubLifecycleListener> stubLifecycleListeners) {
+		this.mappings = mappings;
 		this.customMatchers = customMatchers;
         this.transformers = transformers;
         this.rootFileSource = rootFileSource;
 		this.stubLifecycleListeners = stubLifecycleListeners;
 	}
 
+	public InMemoryStubMappings(Map<String, RequestMatcherExtension> customMatchers, Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource, List<StubLifecycleListener> stubLifecycleListeners) {
+		this(new SortedConcurrentMappingSet(), customMatchers, transformers, rootFileSource, stubLifecycleListeners);
+	}
+
 	public InMemoryStubMappings() {
 		this(Collections.<String, RequestMatcherExtension>emptyMap(),
              Collections.<String, ResponseDefinitionTransformer>emptyMap(),
@@ -68,22 +73,27 @@ public class InMemoryStubMappings implements StubMappings {
 
 	@Override
 	public ServeEvent serveFor(Request request) {
-		StubMapping matchingMapping = find(
-				mappings,
-				mappingMatchingAndInCorrectScenarioState(request),
-				StubMapping.NOT_CONFIGURED);
-		
-		scenarios.onStubServed(matchingMapping);
-
-        ResponseDefinition responseDefinition = applyTransformations(request,
-            matchingMapping.getResponse(),
-            ImmutableList.copyOf(transformers.values()));
-
-		return ServeEvent.of(
-            LoggedRequest.createFrom(request),
-            copyOf(responseDefinition),
-            matchingMapping
-        );
+		RequestCache.onRequestStart();
+		try {
+			StubMapping matchingMapping = find(
+					mappings.candidatesFor(request),
+					mappingMatchingAndInCorrectScenarioState(request),
+					StubMapping.NOT_CONFIGURED);
+
+			scenarios.onStubServed(matchingMapping);
+
+			ResponseDefinition responseDefinition = applyTransformations(request,
+				matchingMapping.getResponse(),
+				ImmutableList.copyOf(transformers.values()));
+
+			return ServeEvent.of(
+				LoggedRequest.createFrom(request),
+				copyOf(responseDefinition),
+				matchingMapping
+			);
+		} finally {
+			RequestCache.onRequestEnd();
+		}
 	}
 
     private ResponseDefinition applyTransformations(Request request,
@@ -137,10 +147,7 @@ public class InMemoryStubMappings implements StubMappings {
 
 	@Override
 	public void editMapping(StubMapping stubMapping) {
-		final Optional<StubMapping> optionalExistingMapping = tryFind(
-				mappings,
-				mappingMatchingUuid(stubMapping.getUuid())
-		);
+		final Optional<StubMapping> optionalExistingMapping = mappings.get(stubMapping.getUuid());
 
 		if (!optionalExistingMapping.isPresent()) {
 			String msg = "StubMapping with UUID: " + stubMapping.getUuid() + " not found";
@@ -165,6 +172,13 @@ public class InMemoryStubMappings implements StubMappings {
 	}
 
 
+	/**
+	 * Makes a number of changes to the stubs, which requests being served may not see until all have been made.
+	 */
+	public void batch(Runnable changes) {
+		mappings.batch(changes);
+	}
+
 	@Override
 	public void reset() {
 		for (StubLifecycleListener listener: stubLifecycleListeners) {
@@ -191,12 +205,7 @@ public class InMemoryStubMappings implements StubMappings {
 
 	@Override
 	public Optional<StubMapping> get(final UUID id) {
-		return tryFind(mappings, new Predicate<StubMapping>() {
-			@Override
-			public boolean apply(StubMapping input) {
-				return input.getUuid().equals(id);
-			}
-		});
+		return mappings.get(id);
 	}
 
 	@Override
@@ -222,18 +231,9 @@ public class InMemoryStubMappings implements StubMappings {
     private Predicate<StubMapping> mappingMatchingAndInCorrectScenarioStateNew(final Request request) {
 		return new Predicate<StubMapping>() {
 			public boolean apply(StubMapping mapping) {
-				return mapping.getRequest().match(request, customMatchers).isExactMatch() &&
+				return mapping.getRequest().isMatchedBy(request, customMatchers) &&
 				(mapping.isIndependentOfScenarioState() || scenarios.mappingMatchesScenarioState(mapping));
 			}
 		};
 	}
-
-	private Predicate<StubMapping> mappingMatchingUuid(final UUID uuid) {
-		return new Predicate<StubMapping>() {
-			@Override
-			public boolean apply(StubMapping input) {
-				return input.getUuid().equals(uuid);
-			}
-		};
-	}
 }
@@ -27,6 +27,7 @@ import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 
 import java.util.Collections;
 import java.util.Map;
@@ -35,12 +36,15 @@ import java.util.concurrent.atomic.AtomicReference;
 
 public class ServeEvent {
 
+    public static final long UNSEQUENCED = -1;
+
     private final UUID id;
     private final LoggedRequest request;
     private final StubMapping stubMapping;
     private final ResponseDefinition responseDefinition;
     private final LoggedResponse response;
     private final AtomicReference<Timing> timing;
+    private volatile long sequence = UNSEQUENCED;
 
     @JsonCreator
     public ServeEvent(@JsonProperty("id") UUID id,
@@ -90,6 +94,27 @@ public class ServeEvent {
         timing.set(timing.get().withResponseSendTime(responseSendTimeMillis));
     }
 
+    /**
+     * @return the timing of this event as of when it's called, including the response send time once
+     * the response has been sent, without holding on to the rest of the event
+     */
+    public Supplier<Timing> timingSupplier() {
+        return new TimingSupplier(timing);
+    }
+
+    /**
+     * @return the position of this event in the order the request journal received events, or {@link #UNSEQUENCED}
+     * if it hasn't been given one
+     */
+    @JsonIgnore
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
     @JsonIgnore
     public boolean isNoExactMatch() {
         return !responseDefinition.wasConfigured();
@@ -143,4 +168,18 @@ public class ServeEvent {
             return serveEvent.isNoExactMatch();
         }
     };
+
+    private static class TimingSupplier implements Supplier<Timing> {
+
+        private final AtomicReference<Timing> timing;
+
+        TimingSupplier(AtomicReference<Timing> timing) {
+            this.timing = timing;
+        }
+
+        @Override
+        public Timing get() {
+            return timing.get();
+        }
+    }
 }
@@ -15,26 +15,32 @@
  */
 package com.github.tomakehurst.wiremock.stubbing;
 
+import com.github.tomakehurst.wiremock.http.Request;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
 
-import static com.google.common.collect.Iterables.removeIf;
+import static com.google.common.collect.Iterables.tryFind;
 
-public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
+public class SortedConcurrentMappingSet implements StubMappingSet {
 
 	private AtomicLong insertionCount;
 	private ConcurrentSkipListSet<StubMapping> mappingSet;
+	private StubMappingIndex index;
 	
 	public SortedConcurrentMappingSet() {
 		insertionCount = new AtomicLong();
-		mappingSet = new ConcurrentSkipListSet<StubMapping>(sortedByPriorityThenReverseInsertionOrder());
+		Comparator<StubMapping> comparator = sortedByPriorityThenReverseInsertionOrder();
+		mappingSet = new ConcurrentSkipListSet<StubMapping>(comparator);
+		index = new StubMappingIndex(comparator);
 	}
 	
-	private Comparator<StubMapping> sortedByPriorityThenReverseInsertionOrder() {
+	static Comparator<StubMapping> sortedByPriorityThenReverseInsertionOrder() {
 		return new Comparator<StubMapping>() {
 			public int compare(StubMapping one, StubMapping two) {
 				int priorityComparison = one.comparePriorityWith(two);
@@ -51,14 +57,32 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
 	public Iterator<StubMapping> iterator() {
 		return mappingSet.iterator();
 	}
+
+	@Override
+	public Iterable<StubMapping> candidatesFor(Request request) {
+		return index.candidatesFor(request);
+	}
+
+	@Override
+	public Optional<StubMapping> get(final UUID id) {
+		return tryFind(mappingSet, new Predicate<StubMapping>() {
+			@Override
+			public boolean apply(StubMapping input) {
+				return input.getUuid().equals(id);
+			}
+		});
+	}
 	
+	@Override
 	public void add(StubMapping mapping) {
 		mapping.setInsertionIndex(insertionCount.getAndIncrement());
 		mappingSet.add(mapping);
+		index.add(mapping);
 	}
 
+	@Override
 	public boolean remove(final StubMapping mappingToRemove) {
-		boolean removedByUuid = removeIf(mappingSet, new Predicate<StubMapping>() {
+		boolean removedByUuid = removeIf(new Predicate<StubMapping>() {
             @Override
             public boolean apply(StubMapping mapping) {
                 return mappingToRemove.getUuid() != null &&
@@ -67,7 +91,7 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
             }
         });
 
-        boolean removedByRequestPattern = !removedByUuid && removeIf(mappingSet, new Predicate<StubMapping>() {
+        boolean removedByRequestPattern = !removedByUuid && removeIf(new Predicate<StubMapping>() {
             @Override
             public boolean apply(StubMapping mapping) {
                 return mappingToRemove.getRequest().equals(mapping.getRequest());
@@ -77,17 +101,39 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
         return removedByUuid || removedByRequestPattern;
 	}
 
+	private boolean removeIf(Predicate<StubMapping> predicate) {
+		boolean removed = false;
+		for (StubMapping mapping: mappingSet) {
+			if (predicate.apply(mapping) && mappingSet.remove(mapping)) {
+				index.remove(mapping);
+				removed = true;
+			}
+		}
+
+		return removed;
+	}
+
+	@Override
 	public boolean replace(StubMapping existingStubMapping, StubMapping newStubMapping) {
 
 		if ( mappingSet.remove(existingStubMapping) ) {
+			index.remove(existingStubMapping);
 			mappingSet.add(newStubMapping);
+			index.add(newStubMapping);
 			return true;
 		}
 		return false;
 	}
 
+	@Override
 	public void clear() {
 		mappingSet.clear();
+		index.clear();
+	}
+
+	@Override
+	public void batch(Runnable changes) {
+		changes.run();
 	}
 	
 	@Override
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.Urls;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.EqualToPattern;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.UrlPathPattern;
+import com.github.tomakehurst.wiremock.matching.UrlPattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static com.google.common.collect.Iterators.mergeSorted;
+
+/**
+ * Buckets stub mappings by HTTP method and, where the URL matcher is a literal
+ * {@code urlEqualTo} or {@code urlPathEqualTo}, by that URL or path. Stubs whose URL
+ * matcher can't be reduced to a literal (regexes, any URL, case-insensitive, custom)
+ * are held in a per-method fallback bucket that every lookup includes.
+ *
+ * Each bucket is sorted with the same comparator as the full mapping set, so merging the
+ * candidate buckets for a request preserves the priority-then-reverse-insertion order.
+ */
+public class StubMappingIndex {
+
+    private final Comparator<StubMapping> comparator;
+    private final ConcurrentMap<Key, ConcurrentSkipListSet<StubMapping>> buckets = new ConcurrentHashMap<>();
+
+    public StubMappingIndex(Comparator<StubMapping> comparator) {
+        this.comparator = comparator;
+    }
+
+    public void add(StubMapping mapping) {
+        bucketFor(keyFor(mapping)).add(mapping);
+    }
+
+    public void remove(StubMapping mapping) {
+        Set<StubMapping> bucket = buckets.get(keyFor(mapping));
+        if (bucket != null) {
+            bucket.remove(mapping);
+        }
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    public Iterable<StubMapping> candidatesFor(Request request) {
+        final List<Set<StubMapping>> candidateBuckets = new ArrayList<>(6);
+        for (Key key: keysFor(request)) {
+            Set<StubMapping> bucket = buckets.get(key);
+            if (bucket != null && !bucket.isEmpty()) {
+                candidateBuckets.add(bucket);
+            }
+        }
+
+        return mergedInOrder(candidateBuckets, comparator);
+    }
+
+    static Iterable<StubMapping> mergedInOrder(final List<? extends Iterable<StubMapping>> buckets,
+                                               final Comparator<StubMapping> comparator) {
+        if (buckets.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (buckets.size() == 1) {
+            return buckets.get(0);
+        }
+
+        return new Iterable<StubMapping>() {
+            @Override
+            public Iterator<StubMapping> iterator() {
+                List<Iterator<StubMapping>> iterators = new ArrayList<>(buckets.size());
+                for (Iterable<StubMapping> bucket: buckets) {
+                    iterators.add(bucket.iterator());
+                }
+                return mergeSorted(iterators, comparator);
+            }
+        };
+    }
+
+    private ConcurrentSkipListSet<StubMapping> bucketFor(Key key) {
+        ConcurrentSkipListSet<StubMapping> bucket = buckets.get(key);
+        if (bucket == null) {
+            ConcurrentSkipListSet<StubMapping> newBucket = new ConcurrentSkipListSet<>(comparator);
+            bucket = buckets.putIfAbsent(key, newBucket);
+            if (bucket == null) {
+                bucket = newBucket;
+            }
+        }
+
+        return bucket;
+    }
+
+    static Key keyFor(StubMapping mapping) {
+        RequestPattern requestPattern = mapping.getRequest();
+        RequestMethod method = requestPattern.getMethod();
+        UrlPattern urlPattern = requestPattern.getUrlMatcher();
+
+        if (isLiteral(urlPattern)) {
+            boolean pathOnly = urlPattern.getClass() == UrlPathPattern.class;
+            return new Key(method, pathOnly ? KeyType.PATH : KeyType.URL, urlPattern.getExpected());
+        }
+
+        return new Key(method, KeyType.UNINDEXED, null);
+    }
+
+    static List<Key> keysFor(Request request) {
+        String url = request.getUrl();
+        List<RequestMethod> methods = RequestMethod.ANY.equals(request.getMethod()) ?
+            Collections.singletonList(RequestMethod.ANY) :
+            asMethodList(request.getMethod());
+
+        List<Key> keys = new ArrayList<>(6);
+        for (RequestMethod method: methods) {
+            if (url != null) {
+                keys.add(new Key(method, KeyType.URL, url));
+                keys.add(new Key(method, KeyType.PATH, Urls.getPath(url)));
+            }
+            keys.add(new Key(method, KeyType.UNINDEXED, null));
+        }
+
+        return keys;
+    }
+
+    private static List<RequestMethod> asMethodList(RequestMethod method) {
+        List<RequestMethod> methods = new ArrayList<>(2);
+        methods.add(method);
+        methods.add(RequestMethod.ANY);
+        return methods;
+    }
+
+    /**
+     * @return the path a literal {@code urlEqualTo} or {@code urlPathEqualTo} matcher requires,
+     * or null if the matcher can match more than one path
+     */
+    public static String literalPathOf(UrlPattern urlPattern) {
+        return urlPattern != null && isLiteral(urlPattern) ?
+            Urls.getPath(urlPattern.getExpected()) :
+            null;
+    }
+
+    private static boolean isLiteral(UrlPattern urlPattern) {
+        if (urlPattern.getClass() != UrlPattern.class && urlPattern.getClass() != UrlPathPattern.class) {
+            return false;
+        }
+
+        if (urlPattern.isRegex() || urlPattern.getPattern().getClass() != EqualToPattern.class) {
+            return false;
+        }
+
+        EqualToPattern equalToPattern = (EqualToPattern) urlPattern.getPattern();
+        return equalToPattern.getEqualTo() != null &&
+            !Boolean.TRUE.equals(equalToPattern.getCaseInsensitive());
+    }
+
+    enum KeyType { URL, PATH, UNINDEXED }
+
+    static class Key {
+
+        private final RequestMethod method;
+        private final KeyType type;
+        private final String value;
+
+        Key(RequestMethod method, KeyType type, String value) {
+            this.method = method;
+            this.type = type;
+            this.value = value;
+        }
+
+        RequestMethod method() {
+            return method;
+        }
+
+        KeyType type() {
+            return type;
+        }
+
+        String value() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return type == key.type &&
+                Objects.equals(method, key.method) &&
+                Objects.equals(value, key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, type, value);
+        }
+    }
+}
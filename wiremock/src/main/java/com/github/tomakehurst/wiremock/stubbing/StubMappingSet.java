@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.google.common.base.Optional;
+
+import java.util.UUID;
+
+public interface StubMappingSet extends Iterable<StubMapping> {
+
+    Iterable<StubMapping> candidatesFor(Request request);
+    Optional<StubMapping> get(UUID id);
+
+    void add(StubMapping mapping);
+    boolean remove(StubMapping mappingToRemove);
+    boolean replace(StubMapping existingStubMapping, StubMapping newStubMapping);
+    void clear();
+
+    /**
+     * Makes a number of changes, which readers may not see until all have been made.
+     */
+    void batch(Runnable changes);
+}
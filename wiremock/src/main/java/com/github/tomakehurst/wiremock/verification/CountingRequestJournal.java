@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.base.Optional;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a request journal with live counters for registered request patterns. Each request is
+ * matched against the registered patterns as it arrives, so counting requests matching a registered
+ * pattern is constant time and doesn't depend on the journal at all. This means counts still work
+ * when the journal is disabled or limited in size, and in the latter case include requests the
+ * journal has since discarded.
+ *
+ * Counters only count requests received after they were registered. They are zeroed when the
+ * journal is reset and decremented when matching events are removed from the journal.
+ */
+public class CountingRequestJournal implements RequestJournal {
+
+    private static final Map<String, RequestMatcherExtension> NO_CUSTOM_MATCHERS = Collections.emptyMap();
+
+    private final RequestJournal delegate;
+    private final ConcurrentMap<RequestPattern, RequestCounter> countersByPattern = new ConcurrentHashMap<>();
+    private final List<RequestCounter> counters = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public CountingRequestJournal(RequestJournal delegate) {
+        this.delegate = delegate;
+    }
+
+    public void registerCounter(RequestPattern requestPattern) {
+        RequestCounter counter = new RequestCounter(requestPattern);
+        if (countersByPattern.putIfAbsent(requestPattern, counter) == null) {
+            // Added before its sequence is taken, so that any request sequenced after the counter
+            // is sure to see it, and any request that doesn't see it is sequenced before it
+            counters.add(counter);
+            counter.registeredAt = sequence.incrementAndGet();
+        }
+    }
+
+    public void removeCounter(RequestPattern requestPattern) {
+        RequestCounter counter = countersByPattern.remove(requestPattern);
+        if (counter != null) {
+            counters.remove(counter);
+        }
+    }
+
+    public boolean hasCounterFor(RequestPattern requestPattern) {
+        return countersByPattern.containsKey(requestPattern);
+    }
+
+    @Override
+    public int countRequestsMatching(RequestPattern requestPattern) {
+        RequestCounter counter = countersByPattern.get(requestPattern);
+        return counter != null ?
+            counter.count.get() :
+            delegate.countRequestsMatching(requestPattern);
+    }
+
+    @Override
+    public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+        return delegate.getRequestsMatching(requestPattern);
+    }
+
+    @Override
+    public List<ServeEvent> getAllServeEvents() {
+        return delegate.getAllServeEvents();
+    }
+
+    @Override
+    public Optional<ServeEvent> getServeEvent(UUID id) {
+        return delegate.getServeEvent(id);
+    }
+
+    @Override
+    public void reset() {
+        delegate.reset();
+        for (RequestCounter counter: counters) {
+            counter.count.set(0);
+        }
+    }
+
+    @Override
+    public void requestReceived(ServeEvent serveEvent) {
+        serveEvent.setSequence(sequence.incrementAndGet());
+        delegate.requestReceived(serveEvent);
+        for (RequestCounter counter: counters) {
+            if (counter.wasCounted(serveEvent)) {
+                counter.count.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void removeEvent(UUID eventId) {
+        Optional<ServeEvent> serveEvent = counters.isEmpty() ?
+            Optional.<ServeEvent>absent() :
+            findServeEvent(eventId);
+
+        delegate.removeEvent(eventId);
+
+        if (serveEvent.isPresent()) {
+            discountAll(Collections.singletonList(serveEvent.get()));
+        }
+    }
+
+    @Override
+    public List<ServeEvent> removeEventsMatching(RequestPattern requestPattern) {
+        return discountAll(delegate.removeEventsMatching(requestPattern));
+    }
+
+    @Override
+    public List<ServeEvent> removeServeEventsForStubsMatchingMetadata(StringValuePattern metadataPattern) {
+        return discountAll(delegate.removeServeEventsForStubsMatchingMetadata(metadataPattern));
+    }
+
+    private Optional<ServeEvent> findServeEvent(UUID eventId) {
+        try {
+            return delegate.getServeEvent(eventId);
+        } catch (RequestJournalDisabledException e) {
+            return Optional.absent();
+        }
+    }
+
+    private List<ServeEvent> discountAll(List<ServeEvent> removed) {
+        for (RequestCounter counter: counters) {
+            for (ServeEvent serveEvent: removed) {
+                if (counter.wasCounted(serveEvent)) {
+                    counter.count.decrementAndGet();
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private static class RequestCounter {
+
+        final RequestPattern requestPattern;
+        final AtomicInteger count = new AtomicInteger();
+        volatile long registeredAt = Long.MAX_VALUE;
+
+        RequestCounter(RequestPattern requestPattern) {
+            this.requestPattern = requestPattern;
+        }
+
+        boolean matches(ServeEvent serveEvent) {
+            return requestPattern.isMatchedBy(serveEvent.getRequest(), NO_CUSTOM_MATCHERS);
+        }
+
+        /**
+         * Events that weren't sequenced by this journal, e.g. because they were added to the underlying
+         * journal directly, are taken not to have been counted
+         */
+        boolean wasCounted(ServeEvent serveEvent) {
+            return serveEvent.getSequence() > registeredAt && matches(serveEvent);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package com.github.tomakehurst.wiremock.verification;
 
 import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.matching.StringValuePattern;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
@@ -26,7 +27,9 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -37,6 +40,8 @@ import static com.google.common.collect.Iterables.*;
 
 public class InMemoryRequestJournal implements RequestJournal {
 
+	private static final Map<String, RequestMatcherExtension> NO_CUSTOM_MATCHERS = Collections.emptyMap();
+
 	private final Queue<ServeEvent> serveEvents = new ConcurrentLinkedQueue<ServeEvent>();
 
 	private final Optional<Integer> maxEntries;
@@ -50,7 +55,14 @@ public class InMemoryRequestJournal implements RequestJournal {
 
 	@Override
 	public int countRequestsMatching(RequestPattern requestPattern) {
-		return size(filter(getRequests(), thatMatch(requestPattern)));
+		int count = 0;
+		for (ServeEvent serveEvent: serveEvents) {
+			if (requestPattern.isMatchedBy(serveEvent.getRequest(), NO_CUSTOM_MATCHERS)) {
+				count++;
+			}
+		}
+
+		return count;
 	}
 
 	@Override
@@ -18,6 +18,7 @@ package com.github.tomakehurst.wiremock.verification;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.tomakehurst.wiremock.common.Dates;
 import com.github.tomakehurst.wiremock.common.Json;
@@ -36,6 +37,7 @@ import java.util.Set;
 
 import java.nio.charset.Charset;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.common.Urls.*;
 import static com.google.common.base.Charsets.UTF_8;
@@ -64,8 +66,28 @@ public class LoggedRequest implements Request {
     private final boolean isBrowserProxyRequest;
     private final Date loggedDate;
     private final Collection<Part> multiparts;
+    private final Long bodySize;
+    private final String bodySha256;
 
     public static LoggedRequest createFrom(Request request) {
+        SpilledBody spilledBody = SpilledBody.from(request);
+        if (spilledBody != null) {
+            return new LoggedRequest(
+                request.getUrl(),
+                request.getAbsoluteUrl(),
+                request.getMethod(),
+                request.getClientIp(),
+                copyOf(request.getHeaders()),
+                ImmutableMap.copyOf(request.getCookies()),
+                request.isBrowserProxyRequest(),
+                new Date(),
+                spilledBody.getPreview(),
+                null,
+                spilledBody.getLength(),
+                spilledBody.getSha256()
+            );
+        }
+
         return new LoggedRequest(
             request.getUrl(),
             request.getAbsoluteUrl(),
@@ -80,6 +102,21 @@ public class LoggedRequest implements Request {
         );
     }
 
+    public LoggedRequest(
+            String url,
+            String absoluteUrl,
+            RequestMethod method,
+            String clientIp,
+            HttpHeaders headers,
+            Map<String, Cookie> cookies,
+            boolean isBrowserProxyRequest,
+            Date loggedDate,
+            String bodyAsBase64,
+            String ignoredBodyOnlyUsedForBinding,
+            Collection<Part> multiparts) {
+        this(url, absoluteUrl, method, clientIp, headers, cookies, isBrowserProxyRequest, loggedDate, bodyAsBase64, ignoredBodyOnlyUsedForBinding, multiparts, null, null);
+    }
+
     @JsonCreator
     public LoggedRequest(
             @JsonProperty("url") String url,
@@ -92,8 +129,10 @@ public class LoggedRequest implements Request {
             @JsonProperty("loggedDate") Date loggedDate,
             @JsonProperty("bodyAsBase64") String bodyAsBase64,
             @JsonProperty("body") String ignoredBodyOnlyUsedForBinding,
-            @JsonProperty("multiparts") Collection<Part> multiparts) {
-        this(url, absoluteUrl, method, clientIp, headers, cookies, isBrowserProxyRequest, loggedDate, decodeBase64(bodyAsBase64), multiparts);
+            @JsonProperty("multiparts") Collection<Part> multiparts,
+            @JsonProperty("bodySize") Long bodySize,
+            @JsonProperty("bodySha256") String bodySha256) {
+        this(url, absoluteUrl, method, clientIp, headers, cookies, isBrowserProxyRequest, loggedDate, decodeBase64(bodyAsBase64), multiparts, bodySize, bodySha256);
     }
 
     public LoggedRequest(
@@ -107,6 +146,26 @@ public class LoggedRequest implements Request {
             Date loggedDate,
             byte[] body,
             Collection<Part> multiparts) {
+        this(url, absoluteUrl, method, clientIp, headers, cookies, isBrowserProxyRequest, loggedDate, body, multiparts, null, null);
+    }
+
+    /**
+     * @param bodySize the full size of the body when only the start of it is being logged, otherwise null
+     * @param bodySha256 the digest of the full body when only the start of it is being logged, otherwise null
+     */
+    public LoggedRequest(
+            String url,
+            String absoluteUrl,
+            RequestMethod method,
+            String clientIp,
+            HttpHeaders headers,
+            Map<String, Cookie> cookies,
+            boolean isBrowserProxyRequest,
+            Date loggedDate,
+            byte[] body,
+            Collection<Part> multiparts,
+            Long bodySize,
+            String bodySha256) {
         this.url = url;
 
         this.absoluteUrl = absoluteUrl;
@@ -130,6 +189,8 @@ public class LoggedRequest implements Request {
         this.isBrowserProxyRequest = isBrowserProxyRequest;
         this.loggedDate = loggedDate;
         this.multiparts = multiparts;
+        this.bodySize = bodySize;
+        this.bodySha256 = bodySha256;
     }
 
     @Override
@@ -217,13 +278,30 @@ public class LoggedRequest implements Request {
     @Override
     @JsonProperty("body")
     public String getBodyAsString() {
-        return stringFromBytes(body, encodingFromContentTypeHeaderOrUtf8());
+        return stringFromBytes(getBody(), encodingFromContentTypeHeaderOrUtf8());
     }
 
     @Override
     @JsonProperty("bodyAsBase64")
     public String getBodyAsBase64() {
-        return encodeBase64(body);
+        return encodeBase64(getBody());
+    }
+
+    /**
+     * @return the size of the request body if it was too large to log in full, in which case the logged body is just its
+     * first {@value SpilledBody#PREVIEW_BYTES} bytes, otherwise null
+     */
+    @JsonInclude(NON_NULL)
+    public Long getBodySize() {
+        return bodySize;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 digest of the request body if it was too large to log in full, otherwise null
+     */
+    @JsonInclude(NON_NULL)
+    public String getBodySha256() {
+        return bodySha256;
     }
 
     @Override
@@ -0,0 +1,778 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.common.BinaryFile;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.Timing;
+import com.github.tomakehurst.wiremock.common.Urls;
+import com.github.tomakehurst.wiremock.http.Body;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.LoggedResponse;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.github.tomakehurst.wiremock.common.Encoding.decodeBase64;
+import static com.github.tomakehurst.wiremock.common.Encoding.encodeBase64;
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.stubbing.StubMappingIndex.literalPathOf;
+
+/**
+ * A request journal that writes each serve event to append-only, memory-mapped segment files
+ * rather than holding it on the heap, for long running (e.g. soak) tests where the whole history
+ * is needed for verification afterwards.
+ *
+ * Each event is written as two small JSON documents - the request without its body, and
+ * the rest of the event without the response body - followed by the raw request and response
+ * bodies. Response bodies served from a body file aren't copied, the record refers to the file
+ * instead. The heap only holds a fixed-size record per event with its offsets, ID, method, path
+ * and timing, indexed by ID, which is enough to find events by ID and to rule out most events
+ * when verifying against a literal URL or a specific method without reading them. Events are read
+ * back on demand and their bodies are only copied out of the segment when asked for.
+ *
+ * Removing an event only drops its record. If a maximum number of entries is set, the oldest
+ * events are discarded and segment files are deleted once none of their events remain.
+ */
+public class MappedFileRequestJournal implements RequestJournal {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "wiremock-journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int ABSENT = -1;
+
+    private final Optional<Integer> maxEntries;
+    private final File directory;
+    private final int segmentSize;
+
+    // Records are appended under the lock and published by incrementing end,
+    // so readers can scan between start and end without locking
+    private volatile Record[][] chunks = new Record[16][];
+    private volatile long start;
+    private volatile long end;
+    private final ConcurrentMap<UUID, Record> byId = new ConcurrentHashMap<>();
+
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment currentSegment;
+    private int liveCount;
+
+    public MappedFileRequestJournal(Optional<Integer> maxEntries, File directory) {
+        this(maxEntries, directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public MappedFileRequestJournal(Optional<Integer> maxEntries, File directory, int segmentSize) {
+        if (maxEntries.isPresent() && maxEntries.get() < 0) {
+            throw new IllegalArgumentException("Maximum number of entries of journal must be greater than zero");
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Request journal directory " + directory + " could not be created");
+        }
+
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public int countRequestsMatching(RequestPattern requestPattern) {
+        int count = 0;
+        for (Record record: candidatesFor(requestPattern)) {
+            if (isMatch(record.readRequest(), requestPattern)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+        ImmutableList.Builder<LoggedRequest> builder = ImmutableList.builder();
+        for (Record record: candidatesFor(requestPattern)) {
+            LoggedRequest request = record.readRequest();
+            if (isMatch(request, requestPattern)) {
+                builder.add(request);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return the events newest first, each read from its segment only when it is retrieved from the list
+     */
+    @Override
+    public List<ServeEvent> getAllServeEvents() {
+        List<Record> records = liveRecords(null, null);
+        Collections.reverse(records);
+        return new ServeEventList(records);
+    }
+
+    @Override
+    public Optional<ServeEvent> getServeEvent(UUID id) {
+        Record record = byId.get(id);
+        return record != null ?
+            Optional.of(record.readServeEvent()) :
+            Optional.<ServeEvent>absent();
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (Segment segment: segments) {
+            segment.release();
+        }
+        segments.clear();
+        currentSegment = null;
+        liveCount = 0;
+
+        chunks = new Record[16][];
+        start = 0;
+        end = 0;
+        byId.clear();
+    }
+
+    @Override
+    public void requestReceived(ServeEvent serveEvent) {
+        if (maxEntries.isPresent() && maxEntries.get() == 0) {
+            return;
+        }
+
+        LoggedRequest request = serveEvent.getRequest();
+        LoggedResponse response = serveEvent.getResponse();
+        byte[] requestJson = Json.toByteArray(StoredRequest.from(request));
+        byte[] eventJson = Json.toByteArray(StoredEvent.from(serveEvent));
+        byte[] requestBody = request.getBody();
+        BinaryFile responseBodyFile = response != null ? response.getBodyFile() : null;
+        byte[] responseBody = response != null && responseBodyFile == null ? response.getBody() : null;
+
+        synchronized (this) {
+            Segment segment = segmentWithRoomFor(
+                requestJson.length + eventJson.length + lengthOf(requestBody) + lengthOf(responseBody)
+            );
+            int offset = segment.append(requestJson, eventJson, requestBody, responseBody);
+
+            Record record = new Record(
+                serveEvent.getId(),
+                request.getMethod(),
+                pathHashOf(request.getUrl()),
+                serveEvent.getStubMapping() != null ? serveEvent.getStubMapping().getId() : null,
+                serveEvent.getSequence(),
+                serveEvent.timingSupplier(),
+                responseBodyFile,
+                segment,
+                offset,
+                requestJson.length,
+                eventJson.length,
+                requestBody != null ? requestBody.length : ABSENT,
+                responseBody != null ? responseBody.length : ABSENT
+            );
+            append(record);
+            byId.put(record.id, record);
+            liveCount++;
+
+            removeOldEntries();
+        }
+    }
+
+    @Override
+    public synchronized void removeEvent(UUID eventId) {
+        Record record = byId.get(eventId);
+        if (record != null) {
+            remove(record);
+        }
+    }
+
+    @Override
+    public List<ServeEvent> removeEventsMatching(RequestPattern requestPattern) {
+        List<Record> toRemove = new ArrayList<>();
+        for (Record record: candidatesFor(requestPattern)) {
+            if (isMatch(record.readRequest(), requestPattern)) {
+                toRemove.add(record);
+            }
+        }
+
+        return removeAll(toRemove);
+    }
+
+    @Override
+    public List<ServeEvent> removeServeEventsForStubsMatchingMetadata(StringValuePattern metadataPattern) {
+        // Each record carries the stub as it was when the event was served, which may differ between
+        // records for the same stub ID if it was edited, so the pattern is only skipped for metadata already seen
+        Map<String, Boolean> matchesByMetadata = new HashMap<>();
+        List<Record> toRemove = new ArrayList<>();
+        for (Record record: liveRecords(null, null)) {
+            if (record.stubId == null) {
+                continue;
+            }
+
+            StubMapping stub = record.readServeEvent().getStubMapping();
+            if (stub == null) {
+                continue;
+            }
+
+            String metadataJson = Json.write(stub.getMetadata());
+            Boolean matches = matchesByMetadata.get(metadataJson);
+            if (matches == null) {
+                matches = metadataPattern.match(metadataJson).isExactMatch();
+                matchesByMetadata.put(metadataJson, matches);
+            }
+
+            if (matches) {
+                toRemove.add(record);
+            }
+        }
+
+        return removeAll(toRemove);
+    }
+
+    private List<ServeEvent> removeAll(List<Record> records) {
+        List<ServeEvent> removed = new ArrayList<>(records.size());
+        synchronized (this) {
+            for (Record record: records) {
+                if (remove(record)) {
+                    removed.add(record.readServeEvent());
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private boolean remove(Record record) {
+        if (record.removed) {
+            return false;
+        }
+
+        record.removed = true;
+        byId.remove(record.id, record);
+        liveCount--;
+        return true;
+    }
+
+    private static boolean isMatch(LoggedRequest request, RequestPattern requestPattern) {
+        return requestPattern.isMatchedBy(request, Collections.<String, RequestMatcherExtension>emptyMap());
+    }
+
+    private List<Record> candidatesFor(RequestPattern requestPattern) {
+        String path = literalPathOf(requestPattern.getUrlMatcher());
+        RequestMethod method = requestPattern.getMethod();
+        return liveRecords(
+            method != null && !RequestMethod.ANY.equals(method) ? method : null,
+            path != null ? path.hashCode() : null
+        );
+    }
+
+    /**
+     * @return the records not yet removed, oldest first, optionally only those with the given
+     * method and path hash
+     */
+    private List<Record> liveRecords(RequestMethod method, Integer pathHash) {
+        long to = end;
+        long from = start;
+        Record[][] chunks = this.chunks;
+
+        List<Record> records = new ArrayList<>((int) Math.min(to - from, Integer.MAX_VALUE));
+        for (long index = from; index < to; index++) {
+            Record record = recordAt(chunks, index);
+            if (record == null || record.removed) {
+                continue;
+            }
+
+            if ((method == null || method.equals(record.method)) &&
+                (pathHash == null || pathHash == record.pathHash)) {
+                records.add(record);
+            }
+        }
+
+        return records;
+    }
+
+    private static Record recordAt(Record[][] chunks, long index) {
+        int chunk = (int) (index >>> CHUNK_BITS);
+        if (chunk >= chunks.length || chunks[chunk] == null) {
+            return null;
+        }
+
+        return chunks[chunk][(int) (index & CHUNK_MASK)];
+    }
+
+    private void append(Record record) {
+        long index = end;
+        int chunk = (int) (index >>> CHUNK_BITS);
+        if (chunk >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Record[CHUNK_SIZE];
+        }
+
+        chunks[chunk][(int) (index & CHUNK_MASK)] = record;
+        end = index + 1;
+    }
+
+    private void removeOldEntries() {
+        if (!maxEntries.isPresent()) {
+            return;
+        }
+
+        while (liveCount > maxEntries.get()) {
+            remove(discardOldest());
+        }
+    }
+
+    private Record discardOldest() {
+        long index = start;
+        int chunk = (int) (index >>> CHUNK_BITS);
+        Record oldest = chunks[chunk][(int) (index & CHUNK_MASK)];
+        chunks[chunk][(int) (index & CHUNK_MASK)] = null;
+        start = index + 1;
+
+        if (((index + 1) & CHUNK_MASK) == 0) {
+            chunks[chunk] = null;
+        }
+
+        Record next = start < end ? recordAt(chunks, start) : null;
+        if (oldest.segment != currentSegment && (next == null || next.segment != oldest.segment)) {
+            oldest.segment.release();
+            segments.remove(oldest.segment);
+        }
+
+        return oldest;
+    }
+
+    private Segment segmentWithRoomFor(int length) {
+        if (currentSegment == null || currentSegment.remaining() < length) {
+            currentSegment = new Segment(directory, Math.max(segmentSize, length));
+            segments.add(currentSegment);
+        }
+
+        return currentSegment;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static int pathHashOf(String url) {
+        return url != null ? Urls.getPath(url).hashCode() : 0;
+    }
+
+    private static class Record {
+
+        final UUID id;
+        final RequestMethod method;
+        final int pathHash;
+        final UUID stubId;
+        final long sequence;
+        final Supplier<Timing> timing;
+        final BinaryFile responseBodyFile;
+
+        final Segment segment;
+        final int offset;
+        final int requestJsonLength;
+        final int eventJsonLength;
+        final int requestBodyLength;
+        final int responseBodyLength;
+
+        volatile boolean removed;
+
+        Record(UUID id,
+               RequestMethod method,
+               int pathHash,
+               UUID stubId,
+               long sequence,
+               Supplier<Timing> timing,
+               BinaryFile responseBodyFile,
+               Segment segment,
+               int offset,
+               int requestJsonLength,
+               int eventJsonLength,
+               int requestBodyLength,
+               int responseBodyLength) {
+            this.id = id;
+            this.method = method;
+            this.pathHash = pathHash;
+            this.stubId = stubId;
+            this.sequence = sequence;
+            this.timing = timing;
+            this.responseBodyFile = responseBodyFile;
+            this.segment = segment;
+            this.offset = offset;
+            this.requestJsonLength = requestJsonLength;
+            this.eventJsonLength = eventJsonLength;
+            this.requestBodyLength = requestBodyLength;
+            this.responseBodyLength = responseBodyLength;
+        }
+
+        LoggedRequest readRequest() {
+            StoredRequest stored = read(segment.read(offset, requestJsonLength), StoredRequest.class);
+            return new MappedLoggedRequest(stored, this);
+        }
+
+        ServeEvent readServeEvent() {
+            StoredEvent stored = read(segment.read(offset + requestJsonLength, eventJsonLength), StoredEvent.class);
+            ServeEvent serveEvent = new ServeEvent(
+                id,
+                readRequest(),
+                stored.mapping,
+                stored.responseDefinition,
+                stored.response != null ? new MappedLoggedResponse(stored.response, this) : null,
+                false,
+                timing.get()
+            );
+            serveEvent.setSequence(sequence);
+            return serveEvent;
+        }
+
+        byte[] readRequestBody() {
+            return requestBodyLength != ABSENT ?
+                segment.read(offset + requestJsonLength + eventJsonLength, requestBodyLength) :
+                null;
+        }
+
+        byte[] readResponseBody() {
+            if (responseBodyFile != null) {
+                return responseBodyFile.readContents();
+            }
+
+            return responseBodyLength != ABSENT ?
+                segment.read(offset + requestJsonLength + eventJsonLength + Math.max(requestBodyLength, 0), responseBodyLength) :
+                null;
+        }
+
+        private static <T> T read(byte[] json, Class<T> type) {
+            try {
+                return Json.getObjectMapper().readValue(json, type);
+            } catch (IOException e) {
+                return throwUnchecked(e, type);
+            }
+        }
+    }
+
+    private static class Segment {
+
+        private final File file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        Segment(File directory, int size) {
+            try {
+                file = File.createTempFile(SEGMENT_PREFIX, SEGMENT_SUFFIX, directory);
+                file.deleteOnExit();
+                channel = new RandomAccessFile(file, "rw").getChannel();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not create request journal segment in " + directory, e);
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        int append(byte[]... parts) {
+            int offset = position;
+            ByteBuffer writer = buffer.duplicate();
+            writer.position(offset);
+            for (byte[] part: parts) {
+                if (part != null) {
+                    writer.put(part);
+                }
+            }
+
+            position = writer.position();
+            return offset;
+        }
+
+        byte[] read(int offset, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer reader = buffer.duplicate();
+            reader.position(offset);
+            reader.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Closes and deletes the file. The mapping itself stays valid until it is garbage collected,
+         * so events already being read from it aren't affected.
+         */
+        void release() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            file.delete();
+        }
+    }
+
+    private static class ServeEventList extends AbstractList<ServeEvent> {
+
+        private final List<Record> records;
+
+        ServeEventList(List<Record> records) {
+            this.records = records;
+        }
+
+        @Override
+        public ServeEvent get(int index) {
+            return records.get(index).readServeEvent();
+        }
+
+        @Override
+        public int size() {
+            return records.size();
+        }
+    }
+
+    private static class MappedLoggedRequest extends LoggedRequest {
+
+        private final Record record;
+        private byte[] body;
+
+        MappedLoggedRequest(StoredRequest stored, Record record) {
+            super(
+                stored.request.getUrl(),
+                stored.request.getAbsoluteUrl(),
+                stored.request.getMethod(),
+                stored.request.getClientIp(),
+                stored.request.getHeaders(),
+                stored.request.getCookies(),
+                stored.request.isBrowserProxyRequest(),
+                stored.request.getLoggedDate(),
+                null,
+                stored.parts != null ? ImmutableList.<Request.Part>copyOf(stored.parts) : null,
+                stored.request.getBodySize(),
+                stored.request.getBodySha256()
+            );
+            this.record = record;
+        }
+
+        @Override
+        public byte[] getBody() {
+            if (body == null && record.requestBodyLength != ABSENT) {
+                body = record.readRequestBody();
+            }
+
+            return body;
+        }
+    }
+
+    private static class MappedLoggedResponse extends LoggedResponse {
+
+        private final Record record;
+        private byte[] body;
+
+        MappedLoggedResponse(LoggedResponse stored, Record record) {
+            super(stored.getStatus(), stored.getHeaders(), null, stored.getFault());
+            this.record = record;
+        }
+
+        @Override
+        public byte[] getBody() {
+            if (record.responseBodyFile != null) {
+                return record.readResponseBody();
+            }
+
+            if (body == null && record.responseBodyLength != ABSENT) {
+                body = record.readResponseBody();
+            }
+
+            return body;
+        }
+
+        @Override
+        public BinaryFile getBodyFile() {
+            return record.responseBodyFile;
+        }
+    }
+
+    static class StoredRequest {
+
+        final LoggedRequest request;
+        final List<StoredPart> parts;
+
+        @JsonCreator
+        StoredRequest(@JsonProperty("request") LoggedRequest request,
+                      @JsonProperty("parts") List<StoredPart> parts) {
+            this.request = request;
+            this.parts = parts;
+        }
+
+        static StoredRequest from(LoggedRequest request) {
+            LoggedRequest withoutBody = new LoggedRequest(
+                request.getUrl(),
+                request.getAbsoluteUrl(),
+                request.getMethod(),
+                request.getClientIp(),
+                request.getHeaders(),
+                request.getCookies(),
+                request.isBrowserProxyRequest(),
+                request.getLoggedDate(),
+                null,
+                null,
+                request.getBodySize(),
+                request.getBodySha256()
+            );
+
+            List<StoredPart> parts = null;
+            if (request.getParts() != null) {
+                parts = new ArrayList<>(request.getParts().size());
+                for (Request.Part part: request.getParts()) {
+                    parts.add(StoredPart.from(part));
+                }
+            }
+
+            return new StoredRequest(withoutBody, parts);
+        }
+
+        public LoggedRequest getRequest() {
+            return request;
+        }
+
+        public List<StoredPart> getParts() {
+            return parts;
+        }
+    }
+
+    static class StoredPart implements Request.Part {
+
+        private final String name;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        @JsonCreator
+        StoredPart(@JsonProperty("name") String name,
+                   @JsonProperty("headers") HttpHeaders headers,
+                   @JsonProperty("bodyAsBase64") String bodyAsBase64) {
+            this.name = name;
+            this.headers = headers;
+            this.body = decodeBase64(bodyAsBase64);
+        }
+
+        static StoredPart from(Request.Part part) {
+            Body body = part.getBody();
+            return new StoredPart(
+                part.getName(),
+                part.getHeaders(),
+                body != null && body.isPresent() ? encodeBase64(body.asBytes()) : null
+            );
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public HttpHeader getHeader(String name) {
+            return headers != null ? headers.getHeader(name) : HttpHeader.absent(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @JsonIgnore
+        @Override
+        public Body getBody() {
+            return body != null ? new Body(body) : Body.none();
+        }
+
+        public String getBodyAsBase64() {
+            return encodeBase64(body);
+        }
+    }
+
+    static class StoredEvent {
+
+        final StubMapping mapping;
+        final ResponseDefinition responseDefinition;
+        final LoggedResponse response;
+
+        @JsonCreator
+        StoredEvent(@JsonProperty("mapping") StubMapping mapping,
+                    @JsonProperty("responseDefinition") ResponseDefinition responseDefinition,
+                    @JsonProperty("response") LoggedResponse response) {
+            this.mapping = mapping;
+            this.responseDefinition = responseDefinition;
+            this.response = response;
+        }
+
+        static StoredEvent from(ServeEvent serveEvent) {
+            LoggedResponse response = serveEvent.getResponse();
+            LoggedResponse withoutBody = response != null ?
+                new LoggedResponse(response.getStatus(), response.getHeaders(), null, response.getFault(), null) :
+                null;
+
+            return new StoredEvent(
+                serveEvent.getStubMapping(),
+                serveEvent.getResponseDefinition(),
+                withoutBody
+            );
+        }
+
+        public StubMapping getMapping() {
+            return mapping;
+        }
+
+        public ResponseDefinition getResponseDefinition() {
+            return responseDefinition;
+        }
+
+        public LoggedResponse getResponse() {
+            return response;
+        }
+    }
+}
@@ -15,64 +15,255 @@
  */
 package com.github.tomakehurst.wiremock.verification;
 
+import com.github.tomakehurst.wiremock.common.RequestCache;
 import com.github.tomakehurst.wiremock.matching.MatchResult;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.github.tomakehurst.wiremock.stubbing.StubMappings;
-import com.google.common.base.Function;
-import com.google.common.collect.FluentIterable;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
-import static com.google.common.collect.FluentIterable.from;
-import static java.lang.Math.min;
-
+/**
+ * Finds the closest stubs to a request, or the closest logged requests to a request pattern.
+ *
+ * Only the nearest {@link #NEAR_MISS_COUNT} are kept, in a bounded heap, and once the heap is full
+ * any candidate whose URL and method alone put it further away than the current furthest near miss
+ * is skipped without being fully scored. Large stub sets and journals are split across a fork/join
+ * pool. Ties are broken by position in the stub list or journal, so the result is the same whichever
+ * way it's calculated.
+ */
 public class NearMissCalculator {
 
     public static final int NEAR_MISS_COUNT = 3;
 
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1000;
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 250;
+
     public static final Comparator<NearMiss> NEAR_MISS_ASCENDING_COMPARATOR = new Comparator<NearMiss>() {
         public int compare(NearMiss o1, NearMiss o2) {
             return o1.compareTo(o2);
         }
     };
 
+    private static ForkJoinPool forkJoinPool;
+
     private final StubMappings stubMappings;
     private final RequestJournal requestJournal;
+    private final int parallelThreshold;
 
     public NearMissCalculator(StubMappings stubMappings, RequestJournal requestJournal) {
+        this(stubMappings, requestJournal, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelThreshold the number of stubs or journal entries at and above which candidates
+     *                          are scored in parallel. {@link Integer#MAX_VALUE} disables parallel scoring.
+     */
+    public NearMissCalculator(StubMappings stubMappings, RequestJournal requestJournal, int parallelThreshold) {
         this.stubMappings = stubMappings;
         this.requestJournal = requestJournal;
+        this.parallelThreshold = parallelThreshold;
     }
 
     public List<NearMiss> findNearestTo(final LoggedRequest request) {
-        List<StubMapping> allMappings = stubMappings.getAll();
+        return findNearest(stubMappings.getAll(), new Scorer<StubMapping>() {
+            @Override
+            public double minimumDistance(StubMapping stubMapping) {
+                return stubMapping.getRequest().getMinimumDistance(request);
+            }
 
-        return sortAndTruncate(from(allMappings).transform(new Function<StubMapping, NearMiss>() {
-            public NearMiss apply(StubMapping stubMapping) {
+            @Override
+            public NearMiss score(StubMapping stubMapping) {
                 MatchResult matchResult = stubMapping.getRequest().match(request);
                 return new NearMiss(request, stubMapping, matchResult);
             }
-        }), allMappings.size());
+
+            @Override
+            public boolean isSameRequestThroughout() {
+                return true;
+            }
+        });
     }
 
     public List<NearMiss> findNearestTo(final RequestPattern requestPattern) {
-        List<ServeEvent> serveEvents = requestJournal.getAllServeEvents();
-        return sortAndTruncate(from(serveEvents).transform(new Function<ServeEvent, NearMiss>() {
-            public NearMiss apply(ServeEvent serveEvent) {
+        return findNearest(requestJournal.getAllServeEvents(), new Scorer<ServeEvent>() {
+            @Override
+            public double minimumDistance(ServeEvent serveEvent) {
+                return requestPattern.getMinimumDistance(serveEvent.getRequest());
+            }
+
+            @Override
+            public NearMiss score(ServeEvent serveEvent) {
                 MatchResult matchResult = requestPattern.match(serveEvent.getRequest());
                 return new NearMiss(serveEvent.getRequest(), requestPattern, matchResult);
             }
-        }), serveEvents.size());
+
+            @Override
+            public boolean isSameRequestThroughout() {
+                return false;
+            }
+        });
+    }
+
+    private <T> List<NearMiss> findNearest(List<T> candidates, Scorer<T> scorer) {
+        NearestMisses nearest = candidates.size() >= parallelThreshold ?
+            getForkJoinPool().invoke(new FindNearestTask<>(candidates, 0, candidates.size(), scorer)) :
+            findNearestWithinRequestScope(candidates, 0, candidates.size(), scorer);
+
+        return nearest.toSortedList();
+    }
+
+    private static <T> NearestMisses findNearestWithinRequestScope(List<T> candidates, int from, int to, Scorer<T> scorer) {
+        // When every candidate is scored against the same request its parsed body can be shared,
+        // but caching each journal entry's body would only hold on to them for no benefit
+        if (!scorer.isSameRequestThroughout()) {
+            return findNearest(candidates, from, to, scorer);
+        }
+
+        RequestCache.onRequestStart();
+        try {
+            return findNearest(candidates, from, to, scorer);
+        } finally {
+            RequestCache.onRequestEnd();
+        }
+    }
+
+    private static <T> NearestMisses findNearest(List<T> candidates, int from, int to, Scorer<T> scorer) {
+        NearestMisses nearest = new NearestMisses();
+        for (int i = from; i < to; i++) {
+            T candidate = candidates.get(i);
+            if (nearest.isFull() && scorer.minimumDistance(candidate) > nearest.furthestDistance()) {
+                continue;
+            }
+
+            nearest.offer(scorer.score(candidate), i);
+        }
+
+        return nearest;
+    }
+
+    private static synchronized ForkJoinPool getForkJoinPool() {
+        if (forkJoinPool == null) {
+            forkJoinPool = new ForkJoinPool();
+        }
+
+        return forkJoinPool;
+    }
+
+    private interface Scorer<T> {
+        double minimumDistance(T candidate);
+        NearMiss score(T candidate);
+        boolean isSameRequestThroughout();
+    }
+
+    private static class FindNearestTask<T> extends RecursiveTask<NearestMisses> {
+
+        private static final long serialVersionUID = 4852379877613595851L;
+
+        private final List<T> candidates;
+        private final int from;
+        private final int to;
+        private final Scorer<T> scorer;
+
+        FindNearestTask(List<T> candidates, int from, int to, Scorer<T> scorer) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.scorer = scorer;
+        }
+
+        @Override
+        protected NearestMisses compute() {
+            if (to - from <= MIN_PARALLEL_CHUNK_SIZE) {
+                return findNearestWithinRequestScope(candidates, from, to, scorer);
+            }
+
+            int middle = (from + to) >>> 1;
+            FindNearestTask<T> left = new FindNearestTask<>(candidates, from, middle, scorer);
+            FindNearestTask<T> right = new FindNearestTask<>(candidates, middle, to, scorer);
+            left.fork();
+            NearestMisses nearest = right.compute();
+            return nearest.mergeWith(left.join());
+        }
     }
 
-    private static List<NearMiss> sortAndTruncate(FluentIterable<NearMiss> nearMisses, int originalSize) {
-        return nearMisses
-            .toSortedList(NEAR_MISS_ASCENDING_COMPARATOR)
-            .subList(0, min(NEAR_MISS_COUNT, originalSize));
+    private static class NearestMisses {
+
+        // Furthest first, so the head is the one to evict
+        private static final Comparator<RankedNearMiss> FURTHEST_FIRST = new Comparator<RankedNearMiss>() {
+            @Override
+            public int compare(RankedNearMiss one, RankedNearMiss two) {
+                return two.compareTo(one);
+            }
+        };
+
+        private final PriorityQueue<RankedNearMiss> heap = new PriorityQueue<>(NEAR_MISS_COUNT + 1, FURTHEST_FIRST);
+
+        boolean isFull() {
+            return heap.size() >= NEAR_MISS_COUNT;
+        }
+
+        double furthestDistance() {
+            return heap.peek().distance;
+        }
+
+        void offer(NearMiss nearMiss, int position) {
+            offer(new RankedNearMiss(nearMiss, position));
+        }
+
+        private void offer(RankedNearMiss rankedNearMiss) {
+            if (!isFull()) {
+                heap.add(rankedNearMiss);
+            } else if (rankedNearMiss.compareTo(heap.peek()) < 0) {
+                heap.poll();
+                heap.add(rankedNearMiss);
+            }
+        }
+
+        NearestMisses mergeWith(NearestMisses other) {
+            for (RankedNearMiss rankedNearMiss: other.heap) {
+                offer(rankedNearMiss);
+            }
+
+            return this;
+        }
+
+        List<NearMiss> toSortedList() {
+            List<RankedNearMiss> ranked = new ArrayList<>(heap);
+            Collections.sort(ranked);
+
+            List<NearMiss> nearMisses = new ArrayList<>(ranked.size());
+            for (RankedNearMiss rankedNearMiss: ranked) {
+                nearMisses.add(rankedNearMiss.nearMiss);
+            }
+
+            return nearMisses;
+        }
     }
 
+    private static class RankedNearMiss implements Comparable<RankedNearMiss> {
+
+        final NearMiss nearMiss;
+        final double distance;
+        final int position;
 
+        RankedNearMiss(NearMiss nearMiss, int position) {
+            this.nearMiss = nearMiss;
+            this.distance = nearMiss.getMatchResult().getDistance();
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo(RankedNearMiss other) {
+            int byDistance = Double.compare(distance, other.distance);
+            return byDistance != 0 ? byDistance : Integer.compare(position, other.position);
+        }
+    }
 }
@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.Urls;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.github.tomakehurst.wiremock.stubbing.StubMappingIndex.literalPathOf;
+
+/**
+ * A request journal held in a fixed-size ring buffer. Each event claims the next sequence number
+ * and is written to the slot that number maps to, replacing (and so evicting) whatever was there
+ * in constant time, without locking.
+ *
+ * Events are also indexed by ID, by the stub that served them, by method and by URL path. Lookups by
+ * ID are constant time and verifications against a literal URL or a specific method only examine
+ * events that could match. Index entries are only trusted while their event is still in its slot,
+ * so an index briefly lagging the buffer never produces a stale result.
+ */
+public class RingBufferRequestJournal implements RequestJournal {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    private final ConcurrentMap<UUID, Entry> byId = new ConcurrentHashMap<>();
+    private final Index<UUID> byStubId = new Index<>();
+    private final Index<RequestMethod> byMethod = new Index<>();
+    private final Index<String> byPath = new Index<>();
+
+    public RingBufferRequestJournal(Optional<Integer> maxEntries) {
+        if (maxEntries.isPresent() && maxEntries.get() < 0) {
+            throw new IllegalArgumentException("Maximum number of entries of journal must be greater than zero");
+        }
+
+        this.capacity = maxEntries.or(DEFAULT_CAPACITY);
+        this.slots = new AtomicReferenceArray<>(Math.max(capacity, 1));
+    }
+
+    @Override
+    public int countRequestsMatching(RequestPattern requestPattern) {
+        int count = 0;
+        for (Entry entry: candidatesFor(requestPattern)) {
+            if (entry.matches(requestPattern)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+        ImmutableList.Builder<LoggedRequest> builder = ImmutableList.builder();
+        for (Entry entry: candidatesFor(requestPattern)) {
+            if (entry.matches(requestPattern)) {
+                builder.add(entry.serveEvent.getRequest());
+            }
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public List<ServeEvent> getAllServeEvents() {
+        List<Entry> entries = allEntries();
+        List<ServeEvent> serveEvents = new ArrayList<>(entries.size());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            serveEvents.add(entries.get(i).serveEvent);
+        }
+
+        return serveEvents;
+    }
+
+    @Override
+    public Optional<ServeEvent> getServeEvent(UUID id) {
+        Entry entry = byId.get(id);
+        return entry != null && isLive(entry) ?
+            Optional.of(entry.serveEvent) :
+            Optional.<ServeEvent>absent();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.getAndSet(i, null);
+            if (entry != null) {
+                unindex(entry);
+            }
+        }
+    }
+
+    @Override
+    public void requestReceived(ServeEvent serveEvent) {
+        if (capacity == 0) {
+            return;
+        }
+
+        Entry entry = new Entry(nextSequence.getAndIncrement(), serveEvent);
+        index(entry);
+
+        int slot = slotOf(entry.sequence);
+        while (true) {
+            Entry current = slots.get(slot);
+            if (current != null && current.sequence > entry.sequence) {
+                // A whole lap of the buffer was written while this thread was descheduled,
+                // so this entry has already been evicted
+                unindex(entry);
+                return;
+            }
+
+            if (slots.compareAndSet(slot, current, entry)) {
+                if (current != null) {
+                    unindex(current);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void removeEvent(UUID eventId) {
+        Entry entry = byId.get(eventId);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    @Override
+    public List<ServeEvent> removeEventsMatching(RequestPattern requestPattern) {
+        List<ServeEvent> removed = new ArrayList<>();
+        for (Entry entry: candidatesFor(requestPattern)) {
+            if (entry.matches(requestPattern) && remove(entry)) {
+                removed.add(entry.serveEvent);
+            }
+        }
+
+        return removed;
+    }
+
+    @Override
+    public List<ServeEvent> removeServeEventsForStubsMatchingMetadata(StringValuePattern metadataPattern) {
+        // Events served before and after a stub was edited refer to different instances of it, so each is
+        // matched on its own metadata, serialising each instance only once
+        Map<StubMapping, Boolean> matchesByStub = new IdentityHashMap<>();
+        List<Entry> toRemove = new ArrayList<>();
+        for (Collection<Entry> entriesForStub: byStubId.allBuckets()) {
+            for (Entry entry: entriesForStub) {
+                StubMapping stub = entry.serveEvent.getStubMapping();
+                Boolean matches = matchesByStub.get(stub);
+                if (matches == null) {
+                    matches = metadataPattern.match(Json.write(stub.getMetadata())).isExactMatch();
+                    matchesByStub.put(stub, matches);
+                }
+
+                if (matches) {
+                    toRemove.add(entry);
+                }
+            }
+        }
+        Collections.sort(toRemove);
+
+        List<ServeEvent> removed = new ArrayList<>(toRemove.size());
+        for (Entry entry: toRemove) {
+            if (remove(entry)) {
+                removed.add(entry.serveEvent);
+            }
+        }
+
+        return removed;
+    }
+
+    private Collection<Entry> candidatesFor(RequestPattern requestPattern) {
+        Collection<Entry> pathCandidates = null;
+        String path = literalPathOf(requestPattern.getUrlMatcher());
+        if (path != null) {
+            pathCandidates = byPath.get(path);
+        }
+
+        Collection<Entry> methodCandidates = null;
+        RequestMethod method = requestPattern.getMethod();
+        if (method != null && !RequestMethod.ANY.equals(method)) {
+            methodCandidates = byMethod.get(method);
+        }
+
+        if (pathCandidates == null && methodCandidates == null) {
+            return allEntries();
+        }
+
+        if (pathCandidates == null) {
+            return methodCandidates;
+        }
+
+        if (methodCandidates == null) {
+            return pathCandidates;
+        }
+
+        return pathCandidates.size() <= methodCandidates.size() ? pathCandidates : methodCandidates;
+    }
+
+    private List<Entry> allEntries() {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - capacity);
+        List<Entry> entries = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = slots.get(slotOf(sequence));
+            if (entry != null && entry.sequence == sequence) {
+                entries.add(entry);
+            }
+        }
+
+        return entries;
+    }
+
+    private boolean remove(Entry entry) {
+        if (slots.compareAndSet(slotOf(entry.sequence), entry, null)) {
+            unindex(entry);
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean isLive(Entry entry) {
+        return slots.get(slotOf(entry.sequence)) == entry;
+    }
+
+    private int slotOf(long sequence) {
+        return (int) (sequence % slots.length());
+    }
+
+    private void index(Entry entry) {
+        byId.put(entry.serveEvent.getId(), entry);
+        byMethod.add(entry.serveEvent.getRequest().getMethod(), entry);
+
+        String url = entry.serveEvent.getRequest().getUrl();
+        if (url != null) {
+            byPath.add(Urls.getPath(url), entry);
+        }
+
+        UUID stubId = stubIdOf(entry);
+        if (stubId != null) {
+            byStubId.add(stubId, entry);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        byId.remove(entry.serveEvent.getId(), entry);
+        byMethod.remove(entry.serveEvent.getRequest().getMethod(), entry);
+
+        String url = entry.serveEvent.getRequest().getUrl();
+        if (url != null) {
+            byPath.remove(Urls.getPath(url), entry);
+        }
+
+        UUID stubId = stubIdOf(entry);
+        if (stubId != null) {
+            byStubId.remove(stubId, entry);
+        }
+    }
+
+    private static UUID stubIdOf(Entry entry) {
+        StubMapping stub = entry.serveEvent.getStubMapping();
+        return stub != null ? stub.getId() : null;
+    }
+
+    private class Entry implements Comparable<Entry> {
+
+        final long sequence;
+        final ServeEvent serveEvent;
+
+        Entry(long sequence, ServeEvent serveEvent) {
+            this.sequence = sequence;
+            this.serveEvent = serveEvent;
+        }
+
+        boolean matches(RequestPattern requestPattern) {
+            return isLive(this) &&
+                requestPattern.isMatchedBy(serveEvent.getRequest(), Collections.<String, RequestMatcherExtension>emptyMap());
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Entries grouped by key, each group in sequence (i.e. arrival) order. Empty groups are dropped
+     * so that keys with an unbounded range, such as URL paths, don't accumulate.
+     */
+    private class Index<K> {
+
+        private final ConcurrentMap<K, Bucket> buckets = new ConcurrentHashMap<>();
+
+        void add(K key, Entry entry) {
+            while (true) {
+                Bucket bucket = buckets.get(key);
+                if (bucket == null) {
+                    Bucket newBucket = new Bucket();
+                    bucket = buckets.putIfAbsent(key, newBucket);
+                    if (bucket == null) {
+                        bucket = newBucket;
+                    }
+                }
+
+                if (bucket.addIfNotRetired(entry)) {
+                    return;
+                }
+            }
+        }
+
+        void remove(K key, Entry entry) {
+            Bucket bucket = buckets.get(key);
+            if (bucket != null && bucket.removeAndRetireIfEmpty(entry)) {
+                buckets.remove(key, bucket);
+            }
+        }
+
+        Collection<Entry> get(K key) {
+            Bucket bucket = buckets.get(key);
+            return bucket != null ? bucket : Collections.<Entry>emptyList();
+        }
+
+        List<Collection<Entry>> allBuckets() {
+            List<Collection<Entry>> all = new ArrayList<>(buckets.size());
+            for (Map.Entry<K, Bucket> bucket: buckets.entrySet()) {
+                all.add(bucket.getValue());
+            }
+
+            return all;
+        }
+    }
+
+    /**
+     * Reads are lock free. Writers synchronise only so that a bucket found empty can be
+     * retired without losing an entry being added to it at the same moment.
+     */
+    private class Bucket extends AbstractCollection<Entry> {
+
+        private final ConcurrentSkipListMap<Long, Entry> entries = new ConcurrentSkipListMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private boolean retired;
+
+        synchronized boolean addIfNotRetired(Entry entry) {
+            if (retired) {
+                return false;
+            }
+
+            if (entries.put(entry.sequence, entry) == null) {
+                size.incrementAndGet();
+            }
+            return true;
+        }
+
+        /**
+         * @return true if the bucket is now empty and has been retired
+         */
+        synchronized boolean removeAndRetireIfEmpty(Entry entry) {
+            if (entries.remove(entry.sequence, entry)) {
+                size.decrementAndGet();
+            }
+
+            if (size.get() == 0) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        @Override
+        public Iterator<Entry> iterator() {
+            return entries.values().iterator();
+        }
+
+        @Override
+        public int size() {
+            return size.get();
+        }
+    }
+}
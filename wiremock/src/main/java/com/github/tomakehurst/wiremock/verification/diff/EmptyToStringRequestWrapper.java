@@ -22,7 +22,7 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
-public class EmptyToStringRequestWrapper implements Request {
+public class EmptyToStringRequestWrapper implements SpillableRequest {
 
     private final Request target;
 
@@ -140,6 +140,11 @@ public class EmptyToStringRequestWrapper implements Request {
         return target.isBrowserProxyRequest();
     }
 
+    @Override
+    public SpilledBody getSpilledBody() {
+        return SpilledBody.from(target);
+    }
+
     @Override
     public Optional<Request> getOriginalRequest() {
         return target.getOriginalRequest();
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.extension.PostServeAction;
+import com.github.tomakehurst.wiremock.http.HttpClientFactory;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import com.google.common.base.Stopwatch;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.github.tomakehurst.wiremock.testsupport.TestHttpHeader.withHeader;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.http.entity.ContentType.APPLICATION_JSON;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class AsyncProxyAcceptanceTest {
+
+    private static final int CONCURRENT_REQUESTS = 30;
+    private static final int TARGET_DELAY_MILLISECONDS = 500;
+
+    WireMockServer target;
+    WireMockServer proxy;
+    WireMockTestClient testClient;
+    String targetBaseUrl;
+    CountingPostServeAction postServeAction = new CountingPostServeAction();
+    ExecutorService httpClientExecutor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+
+    @Before
+    public void init() {
+        target = new WireMockServer(wireMockConfig().dynamicPort());
+        target.start();
+        targetBaseUrl = "http://localhost:" + target.port();
+
+        proxy = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .jettyAcceptors(1)
+            .containerThreads(8)
+            .asynchronousProxyingEnabled(true)
+            .extensions(postServeAction, new ProxyStreamingAcceptanceTest.UpperCaseTransformer()));
+        proxy.start();
+
+        testClient = new WireMockTestClient(proxy.port());
+    }
+
+    @After
+    public void cleanup() {
+        httpClientExecutor.shutdownNow();
+        proxy.stop();
+        target.stop();
+    }
+
+    @Test
+    public void waitingOnASlowTargetDoesNotHoldContainerThreads() throws Exception {
+        target.stubFor(get("/slow").willReturn(ok("Slow response").withFixedDelay(TARGET_DELAY_MILLISECONDS)));
+        proxy.stubFor(get("/slow").willReturn(aResponse().proxiedFrom(targetBaseUrl)));
+
+        List<Callable<String>> requests = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            requests.add(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    HttpGet get = new HttpGet("http://localhost:" + proxy.port() + "/slow");
+                    try (CloseableHttpResponse response = HttpClientFactory.createClient(10000).execute(get)) {
+                        return EntityUtils.toString(response.getEntity());
+                    }
+                }
+            });
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (Future<String> response: httpClientExecutor.invokeAll(requests)) {
+            assertThat(response.get(), is("Slow response"));
+        }
+
+        // Blocking a container thread per request would take several times longer than this with so few threads
+        assertThat(stopwatch.stop().elapsed(MILLISECONDS), lessThan(TARGET_DELAY_MILLISECONDS * 4L));
+    }
+
+    @Test
+    public void limitsTheTotalNumberOfConnectionsInUse() throws Exception {
+        proxy.stop();
+        proxy = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .asynchronousProxyingEnabled(true)
+            .proxyMaxConnections(2));
+        proxy.start();
+        target.stubFor(get("/slow").willReturn(ok("Slow response").withFixedDelay(TARGET_DELAY_MILLISECONDS)));
+        proxy.stubFor(get("/slow").willReturn(aResponse().proxiedFrom(targetBaseUrl)));
+
+        List<Callable<String>> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return new WireMockTestClient(proxy.port()).get("/slow").content();
+                }
+            });
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (Future<String> response: httpClientExecutor.invokeAll(requests)) {
+            assertThat(response.get(), is("Slow response"));
+        }
+
+        // Two at a time means three rounds of waiting on the target
+        assertThat(stopwatch.stop().elapsed(MILLISECONDS), greaterThanOrEqualTo(TARGET_DELAY_MILLISECONDS * 3L));
+    }
+
+    @Test
+    public void releasesTheProxyClientThreadsWhenStoppedAndRecreatesThemOnRestart() {
+        target.stubFor(get("/things").willReturn(ok("Things")));
+        proxy.stubFor(get("/things").willReturn(aResponse().proxiedFrom(targetBaseUrl)));
+        assertThat(testClient.get("/things").content(), is("Things"));
+
+        proxy.stop();
+
+        await().atMost(5, SECONDS).until(proxyClientThreadCount(), is(0));
+
+        proxy.start();
+        assertThat(new WireMockTestClient(proxy.port()).get("/things").content(), is("Things"));
+    }
+
+    @Test
+    public void forwardsRequestHeadersAndBodies() {
+        target.stubFor(post("/things").willReturn(created().withHeader("Location", "/things/1").withBody("Created")));
+        proxy.stubFor(post("/things").willReturn(aResponse()
+            .proxiedFrom(targetBaseUrl)
+            .withAdditionalRequestHeader("X-Added", "added")));
+
+        WireMockResponse response = testClient.post("/things",
+            new StringEntity("{\"name\":\"thing\"}", APPLICATION_JSON),
+            withHeader("User-Agent", "my-agent"));
+
+        assertThat(response.statusCode(), is(201));
+        assertThat(response.firstHeader("Location"), is("/things/1"));
+        assertThat(response.content(), is("Created"));
+        target.verify(postRequestedFor(urlEqualTo("/things"))
+            .withHeader("X-Added", equalTo("added"))
+            .withHeader("User-Agent", equalTo("my-agent"))
+            .withHeader("Content-Type", containing("application/json"))
+            .withRequestBody(equalToJson("{\"name\":\"thing\"}")));
+    }
+
+    @Test
+    public void appliesDelaysTransformersAndPostServeActions() {
+        target.stubFor(get("/transform").willReturn(ok("make me shout")));
+        proxy.stubFor(get("/transform").willReturn(aResponse()
+            .proxiedFrom(targetBaseUrl)
+            .withFixedDelay(300)
+            .withTransformers("upper-case")));
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        WireMockResponse response = testClient.get("/transform");
+
+        assertThat(response.content(), is("MAKE ME SHOUT"));
+        assertThat(stopwatch.stop().elapsed(MILLISECONDS), greaterThanOrEqualTo(300L));
+        await().atMost(5, SECONDS).until(postServeActionCount(), is(1));
+        assertThat(proxy.getAllServeEvents().get(0).getResponse().getBodyAsString(), is("MAKE ME SHOUT"));
+    }
+
+    @Test
+    public void respondsWithAServerErrorWhenTheTargetCannotBeReached() {
+        int unusedPort = target.port();
+        target.stop();
+        proxy.stubFor(get("/unreachable").willReturn(aResponse().proxiedFrom("http://localhost:" + unusedPort)));
+
+        WireMockResponse response = testClient.get("/unreachable", withHeader("Accept", "text/plain"));
+
+        assertThat(response.statusCode(), is(500));
+        assertThat(response.content(), containsString("Connect"));
+    }
+
+    private static Callable<Integer> proxyClientThreadCount() {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                int count = 0;
+                for (Thread thread: Thread.getAllStackTraces().keySet()) {
+                    if (thread.isAlive() && thread.getName().startsWith("wiremock-proxy")) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+    private Callable<Integer> postServeActionCount() {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return postServeAction.count.get();
+            }
+        };
+    }
+
+    public static class CountingPostServeAction extends PostServeAction {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void doGlobalAction(ServeEvent serveEvent, Admin admin) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public String getName() {
+            return "counting";
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.http.BandwidthThrottle;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import com.google.common.base.Stopwatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class BandwidthThrottleAcceptanceTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private WireMockServer wm;
+    private WireMockTestClient testClient;
+    private byte[] fileContents;
+
+    @Before
+    public void init() throws Exception {
+        File rootDir = tempDir.newFolder("root");
+        File filesDir = new File(rootDir, "__files");
+        filesDir.mkdirs();
+        fileContents = new byte[40 * 1024];
+        new Random(1).nextBytes(fileContents);
+        Files.write(new File(filesDir, "download.bin").toPath(), fileContents);
+
+        wm = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .withRootDirectory(rootDir.getAbsolutePath()));
+        wm.start();
+        testClient = new WireMockTestClient(wm.port());
+    }
+
+    @After
+    public void cleanup() {
+        wm.stop();
+    }
+
+    @Test
+    public void streamsABodyFileAtTheThrottledRate() {
+        wm.stubFor(get("/download").willReturn(ok()
+            .withBodyFile("download.bin")
+            .withBandwidthThrottle(80 * 1024)));
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        WireMockResponse response = testClient.get("/download");
+        long elapsed = stopwatch.stop().elapsed(MILLISECONDS);
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.binaryContent(), is(fileContents));
+        assertThat(elapsed, greaterThanOrEqualTo(450L));
+        assertThat(elapsed, lessThan(1500L));
+    }
+
+    @Test
+    public void addsTheTimeToFirstByteAndToleratesJitter() {
+        wm.stubFor(get("/slow").willReturn(ok()
+            .withBody("Slowly does it")
+            .withBandwidthThrottle(20, 0.5, 300)));
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        WireMockResponse response = testClient.get("/slow");
+        long elapsed = stopwatch.stop().elapsed(MILLISECONDS);
+
+        assertThat(response.content(), is("Slowly does it"));
+        assertThat(elapsed, greaterThanOrEqualTo(600L));
+        assertThat(elapsed, lessThan(2500L));
+    }
+
+    @Test
+    public void acceptsAThrottleViaTheJsonApi() {
+        testClient.postJson("/__admin/mappings",
+            "{\n" +
+            "    \"request\": { \"method\": \"GET\", \"url\": \"/json-throttled\" },\n" +
+            "    \"response\": {\n" +
+            "        \"status\": 200,\n" +
+            "        \"body\": \"Throttled\",\n" +
+            "        \"bandwidthThrottle\": { \"bytesPerSecond\": 1000, \"timeToFirstByteMilliseconds\": 100 }\n" +
+            "    }\n" +
+            "}");
+
+        StubMapping stub = wm.getStubMappings().get(0);
+        assertThat(stub.getResponse().getBandwidthThrottle(), is(new BandwidthThrottle(1000, null, 100)));
+        assertThat(testClient.get("/json-throttled").content(), is("Throttled"));
+    }
+}
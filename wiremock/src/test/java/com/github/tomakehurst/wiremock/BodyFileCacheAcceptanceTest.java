@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.BodyFileCacheStats;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BodyFileCacheAcceptanceTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    WireMockServer wm;
+    WireMockTestClient testClient;
+    WireMock wireMock;
+
+    @Before
+    public void init() throws Exception {
+        File rootDir = tempDir.newFolder("root");
+        File filesDir = new File(rootDir, "__files");
+        filesDir.mkdirs();
+        Files.write(new File(filesDir, "cached.txt").toPath(), "Cached body".getBytes(UTF_8));
+
+        wm = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .withRootDirectory(rootDir.getAbsolutePath())
+            .bodyFileCacheMaxBytes(1024));
+        wm.start();
+
+        testClient = new WireMockTestClient(wm.port());
+        wireMock = new WireMock(wm.port());
+        wm.stubFor(get("/cached").willReturn(ok().withBodyFile("cached.txt")));
+    }
+
+    @After
+    public void cleanup() {
+        wm.stop();
+    }
+
+    @Test
+    public void servesRepeatedBodyFileRequestsFromTheCache() {
+        assertThat(testClient.get("/cached").content(), is("Cached body"));
+        assertThat(testClient.get("/cached").content(), is("Cached body"));
+        assertThat(testClient.get("/cached").content(), is("Cached body"));
+
+        BodyFileCacheStats stats = wireMock.getBodyFileCacheStats();
+        assertThat(stats.getMisses(), is(1L));
+        assertThat(stats.getHits(), is(2L));
+        assertThat(stats.getEntries(), is(1));
+        assertThat(stats.getSizeBytes(), is(11L));
+        assertThat(stats.getMaxBytes(), is(1024L));
+    }
+
+    @Test
+    public void servesNewContentAfterTheFileIsEditedViaTheAdminApi() {
+        assertThat(testClient.get("/cached").content(), is("Cached body"));
+
+        testClient.putWithBody("/__admin/files/cached.txt", "Edited body", "text/plain");
+
+        assertThat(testClient.get("/cached").content(), is("Edited body"));
+    }
+
+    @Test
+    public void resettingTheCacheDropsAllEntries() {
+        testClient.get("/cached");
+
+        wireMock.resetBodyFileCache();
+
+        assertThat(wireMock.getBodyFileCacheStats().getEntries(), is(0));
+        assertThat(testClient.get("/cached").content(), is("Cached body"));
+    }
+}
@@ -37,9 +37,9 @@ public class LogTimingAcceptanceTest extends AcceptanceTestBase {
     public void serveEventIncludesTotalAndServeDuration() {
         stubFor(get("/time-me").willReturn(ok()));
 
-        // Create some work
+        // Create some work - regex URLs can't be narrowed by the stub index so all of these get scanned
         for (int i = 0; i < 2500; i++) {
-            stubFor(get("/time-me/" + i)
+            stubFor(get(urlMatching("/time-me/" + i))
                 .willReturn(ok()));
         }
 
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.http.HttpClientFactory;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.common.base.Stopwatch;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.common.Gzip.isGzipped;
+import static com.github.tomakehurst.wiremock.common.Gzip.unGzipToString;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class NonBlockingDelayAcceptanceTest {
+
+    private static final int CONCURRENT_REQUESTS = 30;
+    private static final int DELAY_MILLISECONDS = 500;
+    private static final String BODY = "Dribbled out slowly";
+
+    private ExecutorService httpClientExecutor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig()
+        .dynamicPort()
+        .jettyAcceptors(1)
+        .containerThreads(8));
+
+    @After
+    public void cleanup() {
+        httpClientExecutor.shutdownNow();
+    }
+
+    @Test
+    public void fixedDelaysDoNotHoldContainerThreads() throws Exception {
+        stubFor(get("/delayed").willReturn(ok(BODY).withFixedDelay(DELAY_MILLISECONDS)));
+
+        assertAllServedConcurrently(new HttpGet(url("/delayed")));
+    }
+
+    @Test
+    public void randomDelaysDoNotHoldContainerThreads() throws Exception {
+        stubFor(get("/delayed").willReturn(ok(BODY).withUniformRandomDelay(DELAY_MILLISECONDS / 2, DELAY_MILLISECONDS)));
+
+        assertAllServedConcurrently(new HttpGet(url("/delayed")));
+    }
+
+    @Test
+    public void dribbledResponsesDoNotHoldContainerThreads() throws Exception {
+        stubFor(get("/dribbled").willReturn(ok(BODY).withChunkedDribbleDelay(5, DELAY_MILLISECONDS)));
+
+        assertAllServedConcurrently(new HttpGet(url("/dribbled")));
+    }
+
+    @Test
+    public void delayedAndDribbledGzippedResponsesDoNotHoldContainerThreads() throws Exception {
+        stubFor(post("/dribbled").willReturn(ok(BODY)
+            .withFixedDelay(DELAY_MILLISECONDS / 2)
+            .withChunkedDribbleDelay(5, DELAY_MILLISECONDS / 2)));
+
+        HttpPost post = new HttpPost(url("/dribbled"));
+        post.setEntity(new StringEntity("body"));
+        post.setHeader("Accept-Encoding", "gzip");
+        assertAllServedConcurrently(post);
+    }
+
+    private void assertAllServedConcurrently(final HttpUriRequest request) throws Exception {
+        List<Callable<String>> requests = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            requests.add(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    try (CloseableHttpResponse response = HttpClientFactory.createClient(10000).execute(request)) {
+                        assertThat(response.getStatusLine().getStatusCode(), is(200));
+                        byte[] body = EntityUtils.toByteArray(response.getEntity());
+                        return isGzipped(body) ? unGzipToString(body) : new String(body);
+                    }
+                }
+            });
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<Future<String>> responses = httpClientExecutor.invokeAll(requests);
+        for (Future<String> response: responses) {
+            assertThat(response.get(), is(BODY));
+        }
+
+        // Parking a container thread per request would take several times longer than this with so few threads
+        assertThat(stopwatch.stop().elapsed(MILLISECONDS), lessThan(DELAY_MILLISECONDS * 4L));
+    }
+
+    private String url(String path) {
+        return String.format("http://localhost:%d%s", wireMockRule.port(), path);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.http.ProxyConnectionPoolStats;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ProxyConnectionPoolAcceptanceTest {
+
+    WireMockServer target;
+    WireMockServer proxy;
+    WireMockTestClient testClient;
+    WireMock proxyAdmin;
+
+    @Before
+    public void init() {
+        target = new WireMockServer(wireMockConfig().dynamicPort());
+        target.start();
+        target.stubFor(get("/pooled").willReturn(ok("From the target")));
+
+        proxy = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .proxyMaxConnections(50)
+            .proxyMaxConnectionsPerRoute(5));
+        proxy.start();
+        proxy.stubFor(any(anyUrl()).willReturn(aResponse().proxiedFrom("http://localhost:" + target.port())));
+
+        testClient = new WireMockTestClient(proxy.port());
+        proxyAdmin = new WireMock(proxy.port());
+    }
+
+    @After
+    public void cleanup() {
+        proxy.stop();
+        target.stop();
+    }
+
+    @Test
+    public void reusesPooledConnectionsToTheTarget() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(testClient.get("/pooled").content(), is("From the target"));
+        }
+
+        ProxyConnectionPoolStats stats = proxyAdmin.getProxyConnectionPoolStats();
+        String route = "http://localhost:" + target.port();
+        assertThat(stats.getRoutes(), hasKey(route));
+        assertThat(stats.getRoutes().get(route).getLeased(), is(0));
+        assertThat(stats.getRoutes().get(route).getAvailable(), is(1));
+        assertThat(stats.getRoutes().get(route).getMax(), is(5));
+        assertThat(stats.getTotal().getMax(), is(50));
+    }
+
+    @Test
+    public void checksConnectionsThatHaveBeenIdleBeforeReusingThem() throws Exception {
+        assertThat(testClient.get("/pooled").content(), is("From the target"));
+
+        int targetPort = target.port();
+        target.stop();
+        target = new WireMockServer(wireMockConfig().port(targetPort));
+        target.start();
+        target.stubFor(get("/pooled").willReturn(ok("From the restarted target")));
+
+        Thread.sleep(1200);
+
+        assertThat(testClient.get("/pooled").content(), is("From the restarted target"));
+    }
+
+    @Test
+    public void reportsAnEmptyPoolBeforeAnythingIsProxied() {
+        ProxyConnectionPoolStats stats = proxyAdmin.getProxyConnectionPoolStats();
+
+        assertThat(stats.getRoutes().size(), is(0));
+        assertThat(stats.getTotal().getAvailable(), is(0));
+        assertThat(stats.getTotal().getMax(), is(50));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.http.ProxyResponseCacheStats;
+import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+public class ProxyResponseCacheAcceptanceTest {
+
+    WireMockServer target;
+    WireMockServer proxy;
+    WireMockTestClient testClient;
+    WireMock proxyAdmin;
+
+    @Before
+    public void init() {
+        target = new WireMockServer(wireMockConfig().dynamicPort());
+        target.start();
+    }
+
+    @After
+    public void cleanup() {
+        proxy.stop();
+        target.stop();
+    }
+
+    @Test
+    public void servesRepeatedGetsFromTheCache() {
+        startProxy(false);
+        target.stubFor(get("/things").willReturn(ok("Things")));
+
+        assertThat(testClient.get("/things").content(), is("Things"));
+        WireMockResponse response = testClient.get("/things");
+
+        assertThat(response.content(), is("Things"));
+        assertThat(response.firstHeader("Age"), notNullValue());
+        target.verify(1, getRequestedFor(urlEqualTo("/things")));
+        assertThat(proxy.getAllServeEvents().size(), is(2));
+
+        ProxyResponseCacheStats stats = proxyAdmin.getProxyResponseCacheStats();
+        assertThat(stats.getHits(), is(1L));
+        assertThat(stats.getMisses(), is(1L));
+        assertThat(stats.getEntries(), is(1));
+    }
+
+    @Test
+    public void servesRepeatedGetsFromTheCacheWhenProxyingAsynchronously() {
+        startProxy(true);
+        target.stubFor(get("/things").willReturn(ok("Things")));
+
+        testClient.get("/things");
+        assertThat(testClient.get("/things").content(), is("Things"));
+
+        target.verify(1, getRequestedFor(urlEqualTo("/things")));
+        assertThat(proxyAdmin.getProxyResponseCacheStats().getHits(), is(1L));
+    }
+
+    @Test
+    public void revalidatesStaleResponsesWithTheTarget() {
+        startProxy(false);
+        target.stubFor(get("/things").willReturn(ok("Things")
+            .withHeader("Cache-Control", "max-age=0")
+            .withHeader("ETag", "\"v1\"")));
+        target.stubFor(get("/things").atPriority(1)
+            .withHeader("If-None-Match", equalTo("\"v1\""))
+            .willReturn(aResponse().withStatus(304).withHeader("ETag", "\"v1\"")));
+
+        testClient.get("/things");
+        WireMockResponse response = testClient.get("/things");
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.content(), is("Things"));
+        target.verify(1, getRequestedFor(urlEqualTo("/things")).withHeader("If-None-Match", equalTo("\"v1\"")));
+        assertThat(proxyAdmin.getProxyResponseCacheStats().getRevalidations(), is(1L));
+    }
+
+    @Test
+    public void doesNotCacheResponsesTheTargetMarksAsUncacheable() {
+        startProxy(false);
+        target.stubFor(get("/things").willReturn(ok("Things").withHeader("Cache-Control", "no-store")));
+
+        testClient.get("/things");
+        testClient.get("/things");
+
+        target.verify(2, getRequestedFor(urlEqualTo("/things")));
+    }
+
+    @Test
+    public void goesToTheTargetAgainAfterTheCacheIsReset() {
+        startProxy(false);
+        target.stubFor(get("/things").willReturn(ok("Things")));
+
+        testClient.get("/things");
+        proxyAdmin.resetProxyResponseCache();
+        testClient.get("/things");
+
+        target.verify(2, getRequestedFor(urlEqualTo("/things")));
+        assertThat(proxyAdmin.getProxyResponseCacheStats().getEntries(), is(1));
+    }
+
+    private void startProxy(boolean asynchronous) {
+        proxy = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .proxyResponseCacheMaxBytes(1024 * 1024)
+            .asynchronousProxyingEnabled(asynchronous));
+        proxy.start();
+        proxy.stubFor(any(anyUrl()).willReturn(aResponse().proxiedFrom("http://localhost:" + target.port())));
+
+        testClient = new WireMockTestClient(proxy.port());
+        proxyAdmin = new WireMock(proxy.port());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.LoggedResponse;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.AcceptanceTestBase.setupTempFileRoot;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.okForContentType;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.findMappingWithUrl;
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ProxyStreamingAcceptanceTest {
+
+    WireMockServer target;
+    WireMockServer proxy;
+    WireMockTestClient testClient;
+    String targetBaseUrl;
+
+    @Before
+    public void init() {
+        target = new WireMockServer(wireMockConfig().dynamicPort());
+        target.start();
+        targetBaseUrl = "http://localhost:" + target.port();
+
+        proxy = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .withRootDirectory(setupTempFileRoot().getAbsolutePath())
+            .streamProxiedResponses(true)
+            .extensions(new UpperCaseTransformer(), new FailingTransformer(), new ReplacingTransformer()));
+        proxy.start();
+
+        testClient = new WireMockTestClient(proxy.port());
+    }
+
+    @After
+    public void cleanup() {
+        proxy.stop();
+        target.stop();
+    }
+
+    @Test
+    public void passesLargeBodiesThroughWithoutJournallingThem() {
+        byte[] body = new byte[2 * 1024 * 1024];
+        new Random(1).nextBytes(body);
+        target.stubFor(get("/large").willReturn(ok().withBody(body)));
+        proxy.stubFor(get("/large").willReturn(aResponse().proxiedFrom(targetBaseUrl)));
+
+        assertThat(testClient.get("/large").binaryContent(), is(body));
+
+        LoggedResponse loggedResponse = proxy.getAllServeEvents().get(0).getResponse();
+        assertThat(loggedResponse.getStatus(), is(200));
+        assertThat(loggedResponse.getBody(), nullValue());
+    }
+
+    @Test
+    public void sendsTheFirstBytesBeforeTheTargetHasFinishedResponding() throws Exception {
+        target.stubFor(get("/slow").willReturn(ok("0123456789abcdef").withChunkedDribbleDelay(4, 2000)));
+        proxy.stubFor(get("/slow").willReturn(aResponse().proxiedFrom(targetBaseUrl)));
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + proxy.port() + "/slow").openConnection();
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try (InputStream in = connection.getInputStream()) {
+            int firstByte = in.read();
+            long timeToFirstByte = stopwatch.elapsed(MILLISECONDS);
+
+            assertThat((char) firstByte, is('0'));
+            assertThat(timeToFirstByte, lessThan(1000L));
+            assertThat(new String(ByteStreams.toByteArray(in), UTF_8), is("123456789abcdef"));
+        }
+    }
+
+    @Test
+    public void buffersTheBodyWhenATransformerNeedsIt() {
+        target.stubFor(get("/transform").willReturn(ok("make me shout")));
+        proxy.stubFor(get("/transform").willReturn(aResponse().proxiedFrom(targetBaseUrl).withTransformers("upper-case")));
+
+        assertThat(testClient.get("/transform").content(), is("MAKE ME SHOUT"));
+        assertThat(proxy.getAllServeEvents().get(0).getResponse().getBodyAsString(), is("MAKE ME SHOUT"));
+    }
+
+    @Test
+    public void releasesTheUpstreamConnectionWhenATransformerFails() {
+        target.stubFor(get("/fail").willReturn(ok("never sent")));
+        proxy.stubFor(get("/fail").willReturn(aResponse().proxiedFrom(targetBaseUrl).withTransformers("fail")));
+
+        assertThat(testClient.get("/fail").statusCode(), is(500));
+
+        assertThat(leasedConnectionsToTarget(), is(0));
+    }
+
+    @Test
+    public void releasesTheUpstreamConnectionWhenATransformerReplacesTheBody() {
+        target.stubFor(get("/replace").willReturn(ok("replaced")));
+        proxy.stubFor(get("/replace").willReturn(aResponse().proxiedFrom(targetBaseUrl).withTransformers("replace")));
+
+        assertThat(testClient.get("/replace").content(), is("Replacement"));
+
+        assertThat(leasedConnectionsToTarget(), is(0));
+    }
+
+    @Test
+    public void buffersTheBodyWhileRecording() {
+        target.stubFor(get(urlPathMatching("/record/.*")).willReturn(okForContentType("text/plain", "Recorded body")));
+
+        proxy.startRecording(targetBaseUrl);
+        assertThat(testClient.get("/record/this").content(), is("Recorded body"));
+        proxy.stopRecording();
+
+        StubMapping mapping = findMappingWithUrl(proxy.getStubMappings(), "/record/this");
+        assertThat(mapping.getResponse().getBody(), is("Recorded body"));
+    }
+
+    private int leasedConnectionsToTarget() {
+        return proxy.getProxyConnectionPoolStats().getRoutes().get(targetBaseUrl).getLeased();
+    }
+
+    public static class UpperCaseTransformer extends ResponseTransformer {
+
+        @Override
+        public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+            return Response.Builder.like(response)
+                .but().body(response.getBodyAsString().toUpperCase())
+                .build();
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return "upper-case";
+        }
+    }
+
+    public static class FailingTransformer extends ResponseTransformer {
+
+        @Override
+        public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+            throw new IllegalStateException("Transformer failed");
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return "fail";
+        }
+    }
+
+    public static class ReplacingTransformer extends ResponseTransformer {
+
+        @Override
+        public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+            return Response.Builder.like(response)
+                .but().body("Replacement")
+                .build();
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return "replace";
+        }
+    }
+}
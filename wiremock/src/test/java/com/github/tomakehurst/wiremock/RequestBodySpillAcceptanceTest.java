@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.http.entity.ContentType.APPLICATION_OCTET_STREAM;
+import static org.apache.http.entity.ContentType.TEXT_PLAIN;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RequestBodySpillAcceptanceTest {
+
+    private static final int THRESHOLD_BYTES = 64 * 1024;
+
+    WireMockServer wm;
+    WireMockTestClient testClient;
+    byte[] largeBody;
+    int tempFilesBefore;
+
+    @Before
+    public void init() {
+        wm = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .requestBodySpillThresholdBytes(THRESHOLD_BYTES));
+        wm.start();
+        testClient = new WireMockTestClient(wm.port());
+
+        largeBody = new byte[1024 * 1024];
+        new Random(1).nextBytes(largeBody);
+        tempFilesBefore = spilledBodyFileCount();
+    }
+
+    @After
+    public void cleanup() {
+        wm.stop();
+    }
+
+    @Test
+    public void matchesALargeBodyByBinaryEquality() {
+        wm.stubFor(post("/upload").withRequestBody(binaryEqualTo(largeBody)).willReturn(ok("Matched")));
+
+        WireMockResponse response = testClient.post("/upload", new ByteArrayEntity(largeBody, APPLICATION_OCTET_STREAM));
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.content(), is("Matched"));
+    }
+
+    @Test
+    public void doesNotMatchALargeBodyThatDiffers() {
+        byte[] otherBody = largeBody.clone();
+        otherBody[otherBody.length / 2]++;
+        wm.stubFor(post("/upload").withRequestBody(binaryEqualTo(otherBody)).willReturn(ok("Matched")));
+
+        WireMockResponse response = testClient.post("/upload", new ByteArrayEntity(largeBody, APPLICATION_OCTET_STREAM));
+
+        assertThat(response.statusCode(), is(404));
+    }
+
+    @Test
+    public void matchesALargeBodyWithAPatternThatNeedsTheWholeBody() {
+        byte[] textBody = Strings.repeat("abc", 100000).concat("end").getBytes(UTF_8);
+        wm.stubFor(post("/upload").withRequestBody(containing("cend")).willReturn(ok("Matched")));
+
+        WireMockResponse response = testClient.post("/upload", new ByteArrayEntity(textBody, TEXT_PLAIN));
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.content(), is("Matched"));
+    }
+
+    @Test
+    public void journalsAPreviewSizeAndDigestOfALargeBody() {
+        wm.stubFor(post("/upload").willReturn(ok()));
+
+        testClient.post("/upload", new ByteArrayEntity(largeBody, APPLICATION_OCTET_STREAM));
+
+        List<LoggedRequest> requests = new WireMock(wm.port()).find(postRequestedFor(urlEqualTo("/upload")));
+        LoggedRequest request = requests.get(0);
+        assertThat(request.getBody(), is(Arrays.copyOf(largeBody, 1024)));
+        assertThat(request.getBodySize(), is((long) largeBody.length));
+        assertThat(request.getBodySha256(), is(Hashing.sha256().hashBytes(largeBody).toString()));
+    }
+
+    @Test
+    public void journalsSmallBodiesInFull() {
+        wm.stubFor(post("/upload").willReturn(ok()));
+
+        testClient.postWithBody("/upload", "small", "text/plain", "utf-8");
+
+        LoggedRequest request = wm.findAll(postRequestedFor(urlEqualTo("/upload"))).get(0);
+        assertThat(request.getBodyAsString(), is("small"));
+        assertThat(request.getBodySize(), nullValue());
+        assertThat(request.getBodySha256(), nullValue());
+    }
+
+    @Test
+    public void decompressesAGzippedLargeBodyBeforeMatching() {
+        wm.stubFor(post("/upload").withRequestBody(binaryEqualTo(largeBody)).willReturn(ok("Matched")));
+
+        WireMockResponse response = testClient.post("/upload",
+            new GzipCompressingEntity(new ByteArrayEntity(largeBody, APPLICATION_OCTET_STREAM)));
+
+        assertThat(response.content(), is("Matched"));
+    }
+
+    @Test
+    public void proxiesALargeBodyFromDisk() {
+        WireMockServer target = new WireMockServer(wireMockConfig().dynamicPort());
+        target.start();
+        try {
+            target.stubFor(post("/upload").withRequestBody(binaryEqualTo(largeBody)).willReturn(created()));
+            wm.stubFor(post("/upload").willReturn(aResponse().proxiedFrom("http://localhost:" + target.port())));
+
+            WireMockResponse response = testClient.post("/upload", new ByteArrayEntity(largeBody, APPLICATION_OCTET_STREAM));
+
+            assertThat(response.statusCode(), is(201));
+        } finally {
+            target.stop();
+        }
+    }
+
+    @Test
+    public void removesTheTemporaryFileOnceTheRequestIsServed() {
+        wm.stubFor(post("/upload").willReturn(ok()));
+
+        testClient.post("/upload", new ByteArrayEntity(largeBody, APPLICATION_OCTET_STREAM));
+
+        await().atMost(5, SECONDS).until(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return spilledBodyFileCount();
+            }
+        }, is(tempFilesBefore));
+    }
+
+    private static int spilledBodyFileCount() {
+        String[] names = new File(System.getProperty("java.io.tmpdir")).list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("wiremock-request-body-");
+            }
+        });
+        return names == null ? 0 : names.length;
+    }
+}
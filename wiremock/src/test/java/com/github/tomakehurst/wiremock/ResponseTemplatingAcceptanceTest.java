@@ -15,7 +15,9 @@
  */
 package com.github.tomakehurst.wiremock;
 
+import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.TemplateCacheStats;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.github.tomakehurst.wiremock.testsupport.WireMatchers;
 import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
@@ -157,6 +159,24 @@ public class ResponseTemplatingAcceptanceTest {
             assertThat(response.firstHeader("X-Value"), is("two"));
         }
 
+        @Test
+        public void reportsTemplateCacheStatistics() {
+            wm.stubFor(get(urlPathEqualTo("/templated"))
+                    .willReturn(aResponse()
+                            .withBody("{{request.path.[0]}}")));
+
+            assertThat(client.get("/templated").content(), is("templated"));
+            assertThat(client.get("/templated").content(), is("templated"));
+
+            // The stubs loaded from the test files are compiled in the background too, so only the second request's hit is certain
+            TemplateCacheStats stats = new WireMock(wm.port()).getTemplateCacheStats();
+            assertThat(stats.getHits(), greaterThan(0L));
+            assertThat(stats.getMisses(), greaterThan(0L));
+            assertThat(stats.getEntries(), greaterThan(0L));
+            assertThat(stats.getSizeChars(), greaterThanOrEqualTo((long) ("[inlineBody]".length() + "{{request.path.[0]}}".length())));
+            assertThat(stats.getMaxChars(), is(ResponseTemplateTransformer.DEFAULT_MAX_CACHE_CHARS));
+        }
+
         @Test
         public void supportsDisablingTemplatingOfBodyFilesPerStub() {
             UUID id = UUID.randomUUID();
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StaticStubResponseAcceptanceTest {
+
+    @Rule
+    public WireMockRule wm = new WireMockRule(options()
+        .dynamicPort()
+        .cacheStaticStubResponses(true),
+        false);
+
+    WireMockTestClient testClient;
+
+    @Before
+    public void init() {
+        testClient = new WireMockTestClient(wm.port());
+    }
+
+    @Test
+    public void servesTheLatestVersionOfAnEditedStub() {
+        StubMapping stub = wm.stubFor(get("/static").willReturn(ok("Original").withHeader("X-Version", "1")));
+
+        WireMockResponse response = testClient.get("/static");
+        assertThat(response.content(), is("Original"));
+        assertThat(response.firstHeader("X-Version"), is("1"));
+        assertThat(response.firstHeader("Matched-Stub-Id"), is(stub.getId().toString()));
+
+        wm.editStub(get("/static").withId(stub.getId()).willReturn(ok("Edited").withHeader("X-Version", "2")));
+
+        response = testClient.get("/static");
+        assertThat(response.content(), is("Edited"));
+        assertThat(response.firstHeader("X-Version"), is("2"));
+
+        wm.removeStub(get("/static").withId(stub.getId()));
+        assertThat(testClient.get("/static").statusCode(), is(404));
+    }
+
+    @Test
+    public void stillAppliesGlobalDelays() {
+        wm.stubFor(get("/static").willReturn(ok("Static")));
+        wm.setGlobalFixedDelay(200);
+
+        long start = System.currentTimeMillis();
+        testClient.get("/static");
+
+        assertThat(System.currentTimeMillis() - start, greaterThanOrEqualTo(200L));
+    }
+}
@@ -20,7 +20,13 @@ import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
 import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.ok;
@@ -31,6 +37,9 @@ import static org.junit.Assert.assertThat;
 
 public class TransferEncodingAcceptanceTest {
 
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
     WireMockServer wm;
     WireMockTestClient testClient;
 
@@ -107,10 +116,66 @@ public class TransferEncodingAcceptanceTest {
         assertThat(response.firstHeader("Content-Length"), is(expectedContentLength));
     }
 
+    @Test
+    public void sendsContentLengthOfBodyFileWhenTransferEncodingChunkedPolicyIsNever() {
+        startWithChunkedEncodingPolicy(Options.ChunkedEncodingPolicy.NEVER);
+
+        final String url = "/content-length-body-file";
+
+        wm.stubFor(get(url).willReturn(ok().withBodyFile("plain-example.txt")));
+
+        WireMockResponse response = testClient.get(url);
+        assertThat(response.statusCode(), is(200));
+
+        String expectedContentLength = String.valueOf(new File(filePath("test-file-root/__files/plain-example.txt")).length());
+        assertThat(response.firstHeader("Transfer-Encoding"), nullValue());
+        assertThat(response.firstHeader("Content-Length"), is(expectedContentLength));
+        assertThat(response.content(), is("Some example test from a file"));
+    }
+
+    @Test
+    public void servesLargeBodyFilesIntactWithEitherEncoding() throws Exception {
+        File rootDir = tempDir.newFolder("root");
+        File filesDir = new File(rootDir, "__files");
+        filesDir.mkdirs();
+        byte[] body = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(body);
+        Files.write(new File(filesDir, "large.bin").toPath(), body);
+
+        for (Options.ChunkedEncodingPolicy policy: new Options.ChunkedEncodingPolicy[] { Options.ChunkedEncodingPolicy.NEVER, Options.ChunkedEncodingPolicy.ALWAYS }) {
+            startWithChunkedEncodingPolicy(policy, rootDir.getAbsolutePath());
+            wm.stubFor(get("/large").willReturn(ok().withBodyFile("large.bin")));
+
+            WireMockResponse response = testClient.get("/large");
+            assertThat(response.statusCode(), is(200));
+            assertThat(response.binaryContent(), is(body));
+
+            wm.stop();
+        }
+    }
+
+    @Test
+    public void returnsAServerErrorWhenTheBodyFileIsMissingWithAnyEncoding() {
+        for (Options.ChunkedEncodingPolicy policy: Options.ChunkedEncodingPolicy.values()) {
+            startWithChunkedEncodingPolicy(policy);
+            wm.stubFor(get("/missing").willReturn(ok().withBodyFile("does-not-exist.txt")));
+            wm.stubFor(get("/missing-delayed").willReturn(ok().withBodyFile("does-not-exist.txt").withFixedDelay(10)));
+
+            assertThat(testClient.get("/missing").statusCode(), is(500));
+            assertThat(testClient.get("/missing-delayed").statusCode(), is(500));
+
+            wm.stop();
+        }
+    }
+
     private void startWithChunkedEncodingPolicy(Options.ChunkedEncodingPolicy chunkedEncodingPolicy) {
+        startWithChunkedEncodingPolicy(chunkedEncodingPolicy, filePath("test-file-root"));
+    }
+
+    private void startWithChunkedEncodingPolicy(Options.ChunkedEncodingPolicy chunkedEncodingPolicy, String rootDirectory) {
         wm = new WireMockServer(wireMockConfig()
                 .dynamicPort()
-                .withRootDirectory(filePath("test-file-root"))
+                .withRootDirectory(rootDirectory)
                 .useChunkedTransferEncoding(chunkedEncodingPolicy)
         );
         wm.start();
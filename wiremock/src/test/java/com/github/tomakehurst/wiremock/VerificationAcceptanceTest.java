@@ -17,6 +17,7 @@ package com.github.tomakehurst.wiremock;
 
 import com.github.tomakehurst.wiremock.client.VerificationException;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.http.HttpHeaders;
 import com.github.tomakehurst.wiremock.http.Request;
@@ -31,9 +32,11 @@ import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import com.github.tomakehurst.wiremock.verification.RequestJournalDisabledException;
 import com.google.common.base.Optional;
 import org.apache.http.entity.StringEntity;
+import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import java.util.List;
@@ -771,6 +774,36 @@ public class VerificationAcceptanceTest {
         }
     }
 
+    public static class LiveCounters {
+
+        @Rule
+        public WireMockRule wireMockRule = new WireMockRule(options()
+            .dynamicPort()
+            .disableRequestJournal(),
+            false);
+
+        @Test
+        public void verifiesRegisteredPatternsWithTheJournalDisabled() {
+            WireMock wireMock = new WireMock(wireMockRule.port());
+            wireMock.registerCounter(getRequestedFor(urlPathEqualTo("/counted")));
+
+            WireMockTestClient testClient = new WireMockTestClient(wireMockRule.port());
+            testClient.get("/counted?n=1");
+            testClient.get("/counted?n=2");
+            testClient.get("/not-counted");
+
+            wireMock.verifyThat(2, getRequestedFor(urlPathEqualTo("/counted")));
+
+            wireMock.removeCounter(getRequestedFor(urlPathEqualTo("/counted")));
+            try {
+                wireMock.verifyThat(2, getRequestedFor(urlPathEqualTo("/counted")));
+                fail("Expected the journal to be disabled once the counter was removed");
+            } catch (RequestJournalDisabledException e) {
+                // expected
+            }
+        }
+    }
+
     public static class JournalMaxEntriesRestricted {
         @Rule
         public WireMockRule wireMockRule = new WireMockRule(options()
@@ -789,4 +822,36 @@ public class VerificationAcceptanceTest {
             verify(1, getRequestedFor(urlEqualTo("/request3")));
         }
     }
+
+    public static class JournalMemoryMapped {
+
+        @ClassRule
+        public static TemporaryFolder journalDir = new TemporaryFolder();
+
+        @Rule
+        public WireMockRule wireMockRule = new WireMockRule(options()
+            .dynamicPort()
+            .requestJournalType(Options.RequestJournalType.MEMORY_MAPPED)
+            .requestJournalDirectory(journalDir.getRoot().getAbsolutePath()),
+            false);
+
+        @Test
+        public void verifiesAndFindsRequestsHeldOutsideTheHeap() {
+            stubFor(post(urlEqualTo("/things")).willReturn(ok("Created")));
+
+            WireMockTestClient testClient = new WireMockTestClient(wireMockRule.port());
+            testClient.postJson("/things", "{ \"name\": \"one\" }");
+            testClient.postJson("/things", "{ \"name\": \"two\" }");
+            testClient.get("/other");
+
+            verify(2, postRequestedFor(urlEqualTo("/things")));
+            verify(1, postRequestedFor(urlEqualTo("/things")).withRequestBody(matchingJsonPath("$.name", equalTo("two"))));
+
+            List<ServeEvent> serveEvents = getAllServeEvents();
+            assertThat(serveEvents.size(), is(3));
+            assertThat(serveEvents.get(1).getRequest().getBodyAsString(), is("{ \"name\": \"two\" }"));
+            assertThat(serveEvents.get(1).getResponse().getBodyAsString(), is("Created"));
+            assertThat(findUnmatchedRequests().size(), is(1));
+        }
+    }
 }
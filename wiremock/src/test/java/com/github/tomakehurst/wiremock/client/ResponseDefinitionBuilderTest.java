@@ -30,6 +30,7 @@
  */
 package com.github.tomakehurst.wiremock.client;
 
+import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import org.apache.commons.codec.binary.Base64;
@@ -79,4 +80,17 @@ public class ResponseDefinitionBuilderTest {
 
         assertThat(copiedResponseDefinition, is(originalResponseDefinition));
     }
+
+    @Test
+    public void likeShouldCopyJsonBodies() {
+        ResponseDefinition originalResponseDefinition = ResponseDefinitionBuilder.responseDefinition()
+                .withJsonBody(Json.node("{ \"things\": [1, 2, 3] }"))
+                .build();
+
+        ResponseDefinition copiedResponseDefinition = ResponseDefinitionBuilder.like(originalResponseDefinition).build();
+
+        assertThat(copiedResponseDefinition, is(originalResponseDefinition));
+        assertThat(copiedResponseDefinition.getTextBody(), is("{\"things\":[1,2,3]}"));
+        assertThat(copiedResponseDefinition.getJsonBody().get("things").size(), is(3));
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BinaryFileTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void readsLengthAndContentsOfLocalFilesThroughAChannel() throws Exception {
+        File file = tempDir.newFile("body.bin");
+        Files.write(file.toPath(), new byte[] { 1, 2, 3, 4, 5 });
+        BinaryFile binaryFile = new BinaryFile(file.toURI());
+
+        assertThat(binaryFile.isLocalFile(), is(true));
+        assertThat(binaryFile.length(), is(5L));
+
+        ByteBuffer contents = ByteBuffer.allocate(5);
+        try (FileChannel channel = binaryFile.openChannel()) {
+            channel.read(contents);
+        }
+        assertThat(contents.array(), is(new byte[] { 1, 2, 3, 4, 5 }));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void failsToReadTheLengthOfAMissingLocalFile() {
+        new BinaryFile(new File(tempDir.getRoot(), "missing.bin").toURI()).length();
+    }
+
+    @Test
+    public void readsLengthOfFilesInsideJars() throws Exception {
+        ClasspathFileSource fileSource = new ClasspathFileSource("zippeddir");
+        BinaryFile binaryFile = fileSource.getBinaryFileNamed("zippedfile.txt");
+
+        assertThat(binaryFile.isLocalFile(), is(false));
+        assertThat(binaryFile.length(), is((long) binaryFile.readContents().length));
+    }
+}
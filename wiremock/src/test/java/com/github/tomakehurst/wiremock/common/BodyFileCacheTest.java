@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class BodyFileCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private File root;
+
+    @Before
+    public void init() throws Exception {
+        root = tempDir.newFolder("files");
+    }
+
+    @Test
+    public void servesRepeatedReadsFromMemory() throws Exception {
+        BodyFileCache cache = new BodyFileCache(1024);
+        File file = write("one.txt", "one");
+
+        assertThat(contentsOf(cache.get(file)), is("one"));
+        assertThat(contentsOf(cache.get(file)), is("one"));
+        assertThat(contentsOf(cache.get(file)), is("one"));
+
+        BodyFileCacheStats stats = cache.getStats();
+        assertThat(stats.getMisses(), is(1L));
+        assertThat(stats.getHits(), is(2L));
+        assertThat(stats.getEntries(), is(1));
+        assertThat(stats.getSizeBytes(), is(3L));
+    }
+
+    @Test
+    public void rereadsFilesWhenTheyChangeOnDisk() throws Exception {
+        BodyFileCache cache = new BodyFileCache(1024);
+        File file = write("changing.txt", "before");
+        cache.get(file);
+
+        write("changing.txt", "after the change");
+        file.setLastModified(file.lastModified() + 2000);
+
+        assertThat(contentsOf(cache.get(file)), is("after the change"));
+        assertThat(cache.getStats().getMisses(), is(2L));
+        assertThat(cache.getStats().getSizeBytes(), is(16L));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFilesWhenFull() throws Exception {
+        BodyFileCache cache = new BodyFileCache(10);
+        File first = write("first.txt", "1234");
+        File second = write("second.txt", "5678");
+        File third = write("third.txt", "9012");
+
+        cache.get(first);
+        cache.get(second);
+        cache.get(first);
+        cache.get(third);
+
+        assertThat(cache.getStats().getEntries(), is(2));
+        assertThat(cache.getStats().getSizeBytes(), is(8L));
+
+        cache.get(first);
+        cache.get(second);
+        assertThat(cache.getStats().getHits(), is(2L));
+        assertThat(cache.getStats().getMisses(), is(4L));
+    }
+
+    @Test
+    public void doesNotCacheFilesLargerThanTheLimitOrMissingFiles() throws Exception {
+        BodyFileCache cache = new BodyFileCache(4);
+
+        assertThat(cache.get(write("large.txt", "too large")), nullValue());
+        assertThat(cache.get(new File(root, "missing.txt")), nullValue());
+        assertThat(cache.getStats().getEntries(), is(0));
+    }
+
+    @Test
+    public void invalidatesFilesWrittenThroughACachingFileSource() throws Exception {
+        BodyFileCache cache = new BodyFileCache(1024);
+        FileSource fileSource = new CachingFileSource(new SingleRootFileSource(root), cache);
+        fileSource.writeTextFile("edited.txt", "original");
+
+        assertThat(fileSource.getTextFileNamed("edited.txt").readContentsAsString(), is("original"));
+        assertThat(cache.getStats().getEntries(), is(1));
+
+        fileSource.writeTextFile("edited.txt", "replaced");
+
+        assertThat(cache.getStats().getEntries(), is(0));
+        assertThat(fileSource.getTextFileNamed("edited.txt").readContentsAsString(), is("replaced"));
+    }
+
+    private File write(String name, String contents) throws Exception {
+        File file = new File(root, name);
+        Files.write(file.toPath(), contents.getBytes(UTF_8));
+        return file;
+    }
+
+    private static String contentsOf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
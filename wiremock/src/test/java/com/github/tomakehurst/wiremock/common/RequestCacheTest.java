@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import com.github.tomakehurst.wiremock.matching.EqualToJsonPattern;
+import com.github.tomakehurst.wiremock.matching.MatchesJsonPathPattern;
+import com.google.common.base.Supplier;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RequestCacheTest {
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    private final RequestCache.Parser<Integer> countingParser = new RequestCache.Parser<Integer>() {
+        @Override
+        public Integer parse(String source) {
+            parseCount.incrementAndGet();
+            return Integer.valueOf(source);
+        }
+    };
+
+    @After
+    public void cleanUp() {
+        while (RequestCache.isActive()) {
+            RequestCache.onRequestEnd();
+        }
+    }
+
+    @Test
+    public void parsesEachSourceOnceWithinARequest() throws Exception {
+        RequestCache.onRequestStart();
+
+        Integer first = RequestCache.parsed("number", "1234", countingParser);
+        Integer second = RequestCache.parsed("number", new String("1234"), countingParser);
+        RequestCache.parsed("number", "5678", countingParser);
+
+        assertThat(second, sameInstance(first));
+        assertThat(parseCount.get(), is(2));
+    }
+
+    @Test
+    public void keepsDifferentKindsOfDocumentSeparate() throws Exception {
+        RequestCache.onRequestStart();
+
+        RequestCache.parsed("number", "1234", countingParser);
+        RequestCache.parsed("other-number", "1234", countingParser);
+
+        assertThat(parseCount.get(), is(2));
+    }
+
+    @Test
+    public void parsesEveryTimeOutsideOfARequest() throws Exception {
+        RequestCache.parsed("number", "1234", countingParser);
+        RequestCache.parsed("number", "1234", countingParser);
+
+        assertThat(parseCount.get(), is(2));
+    }
+
+    @Test
+    public void discardsParsedDocumentsWhenTheRequestEnds() throws Exception {
+        RequestCache.onRequestStart();
+        RequestCache.parsed("number", "1234", countingParser);
+        RequestCache.onRequestEnd();
+
+        RequestCache.onRequestStart();
+        RequestCache.parsed("number", "1234", countingParser);
+
+        assertThat(parseCount.get(), is(2));
+    }
+
+    @Test
+    public void nestedScopesShareTheOutermostCache() throws Exception {
+        RequestCache.onRequestStart();
+        RequestCache.parsed("number", "1234", countingParser);
+
+        RequestCache.onRequestStart();
+        RequestCache.parsed("number", "1234", countingParser);
+        RequestCache.onRequestEnd();
+
+        assertThat(RequestCache.isActive(), is(true));
+        RequestCache.parsed("number", "1234", countingParser);
+
+        assertThat(parseCount.get(), is(1));
+    }
+
+    @Test
+    public void remembersParseFailures() throws Exception {
+        RequestCache.onRequestStart();
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                RequestCache.parsed("number", "not a number", countingParser);
+                fail("Expected a NumberFormatException");
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+
+        assertThat(parseCount.get(), is(1));
+    }
+
+    @Test
+    public void holdsOneScopedInstanceOfEachTypePerRequest() {
+        Supplier<StringBuilder> newStringBuilder = new Supplier<StringBuilder>() {
+            @Override
+            public StringBuilder get() {
+                return new StringBuilder();
+            }
+        };
+
+        RequestCache.onRequestStart();
+        StringBuilder first = RequestCache.scoped(StringBuilder.class, newStringBuilder);
+        assertThat(RequestCache.scoped(StringBuilder.class, newStringBuilder), sameInstance(first));
+        RequestCache.onRequestEnd();
+
+        RequestCache.onRequestStart();
+        assertThat(RequestCache.scoped(StringBuilder.class, newStringBuilder), not(sameInstance(first)));
+    }
+
+    @Test
+    public void createsAScopedInstanceOnEveryCallOutsideOfARequest() {
+        Supplier<StringBuilder> newStringBuilder = new Supplier<StringBuilder>() {
+            @Override
+            public StringBuilder get() {
+                return new StringBuilder();
+            }
+        };
+
+        StringBuilder first = RequestCache.scoped(StringBuilder.class, newStringBuilder);
+        assertThat(RequestCache.scoped(StringBuilder.class, newStringBuilder), not(sameInstance(first)));
+    }
+
+    @Test
+    public void sharesJsonPathDocumentsBetweenMatchersAndTemplates() throws Exception {
+        String body = "{ \"name\": \"one\" }";
+
+        RequestCache.onRequestStart();
+        assertThat(new MatchesJsonPathPattern("$.name").match(body).isExactMatch(), is(true));
+
+        assertThat(MatchesJsonPathPattern.parseDocument(body), sameInstance(MatchesJsonPathPattern.parseDocument(body)));
+    }
+
+    @Test
+    public void bodyPatternsGiveTheSameResultsWithinARequest() {
+        String body = "{ \"things\": [ { \"name\": \"one\" }, { \"name\": \"two\" } ] }";
+        EqualToJsonPattern equalToJson = new EqualToJsonPattern("{ \"things\": [ { \"name\": \"one\" }, { \"name\": \"two\" } ] }", null, null);
+        MatchesJsonPathPattern matchesJsonPath = new MatchesJsonPathPattern("$.things[?(@.name == 'two')]");
+        MatchesJsonPathPattern doesNotMatchJsonPath = new MatchesJsonPathPattern("$.things[?(@.name == 'three')]");
+
+        RequestCache.onRequestStart();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(equalToJson.match(body).isExactMatch(), is(true));
+            assertThat(matchesJsonPath.match(body).isExactMatch(), is(true));
+            assertThat(doesNotMatchJsonPath.match(body).isExactMatch(), is(false));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.extension.responsetemplating;
+
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.MockRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.testsupport.NoFileSource.noFileSource;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RequestTemplateModelTest {
+
+    List<String> accessedParts;
+    MockRequest request;
+
+    @Before
+    public void init() {
+        accessedParts = new ArrayList<>();
+        request = new MockRequest() {
+            @Override
+            public Set<String> getAllHeaderKeys() {
+                accessedParts.add("headers");
+                return super.getAllHeaderKeys();
+            }
+
+            @Override
+            public HttpHeader header(String key) {
+                accessedParts.add("header " + key);
+                return super.header(key);
+            }
+
+            @Override
+            public Map<String, Cookie> getCookies() {
+                accessedParts.add("cookies");
+                return super.getCookies();
+            }
+
+            @Override
+            public String getBodyAsString() {
+                accessedParts.add("body");
+                return super.getBodyAsString();
+            }
+        }
+            .url("/things/123?limit=10")
+            .header("X-Request-Id", "abc")
+            .cookie("session", "s1")
+            .body("Body content");
+    }
+
+    @Test
+    public void onlyReadsThePartsOfTheRequestThatTheTemplateUses() {
+        assertThat(render("{{request.path.[1]}}"), is("123"));
+        assertThat(accessedParts, empty());
+    }
+
+    @Test
+    public void readsEachPartOnceWhenUsed() {
+        assertThat(
+            render("{{request.headers.X-Request-Id}} {{request.headers.X-Request-Id}} {{request.cookies.session}} {{request.body}} {{request.body}}"),
+            is("abc abc s1 Body content Body content"));
+        assertThat(accessedParts, contains("headers", "header X-Request-Id", "cookies", "body"));
+    }
+
+    @Test
+    public void resolvesTheRequestLineOnDemand() {
+        RequestTemplateModel model = RequestTemplateModel.from(request);
+
+        assertThat(model.getRequestLine().getQuery().get("limit").getFirst(), is("10"));
+        assertThat(model.getRequestLine().getPathSegments().get(0), is("things"));
+        assertThat(model.getRequestLine().getBaseUrl(), is("http://my.domain"));
+    }
+
+    private String render(String template) {
+        ResponseDefinition responseDefinition = new ResponseTemplateTransformer(true).transform(
+            request,
+            ok(template).build(),
+            noFileSource(),
+            Parameters.empty());
+        return responseDefinition.getBody();
+    }
+}
@@ -21,20 +21,36 @@ import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.Options;
 import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.common.ClasspathFileSource;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.JsonException;
 import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.helpers.HandlebarsHelper;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
 import static com.github.tomakehurst.wiremock.testsupport.NoFileSource.noFileSource;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
@@ -290,6 +306,49 @@ public class ResponseTemplateTransformerTest {
         assertThat(transformedResponseDef.getBody(), is("5"));
     }
     
+    @Test
+    public void sharesOneRenderCacheBetweenTheBodyAndHeadersOfAResponse() {
+        final Set<RenderCache> renderCaches = Sets.newIdentityHashSet();
+        Helper<String> helper = new HandlebarsHelper<String>() {
+            @Override
+            public Object apply(String context, Options options) {
+                renderCaches.add(getRenderCache(options));
+                return context;
+            }
+        };
+
+        transformer = ResponseTemplateTransformer.builder()
+                .global(false)
+                .helper("remember-cache", helper)
+                .build();
+
+        ResponseDefinition transformedResponseDef = transform(mockRequest()
+                .url("/things")
+                .body("fiver"),
+            aResponse()
+                .withHeader("X-Body", "{{{ remember-cache request.body }}}")
+                .withBody("{{{ remember-cache request.body }}}")
+        );
+
+        assertThat(transformedResponseDef.getBody(), is("fiver"));
+        assertThat(transformedResponseDef.getHeaders().getHeader("X-Body").firstValue(), is("fiver"));
+        assertThat(renderCaches.size(), is(1));
+    }
+
+    @Test
+    public void jsonPathHelperReadsTheSameBodyFromTheBodyAndHeaders() {
+        ResponseDefinition transformedResponseDef = transform(mockRequest()
+                .url("/things")
+                .body("{ \"name\": \"one\" }"),
+            aResponse()
+                .withHeader("X-Name", "{{jsonPath request.body '$.name'}}")
+                .withBody("Name: {{jsonPath request.body '$.name'}}")
+        );
+
+        assertThat(transformedResponseDef.getBody(), is("Name: one"));
+        assertThat(transformedResponseDef.getHeaders().getHeader("X-Name").firstValue(), is("one"));
+    }
+
     @Test
     public void areConditionalHelpersLoaded() {
 
@@ -726,13 +785,66 @@ public class ResponseTemplateTransformerTest {
     }
 
     @Test
-    public void clearsTemplateCacheWhenAnyStubRemovedReset() {
-        transform("{{now}}");
-        assertThat(transformer.getCacheSize(), greaterThan(0L));
+    public void clearsOnlyTheRemovedStubsTemplatesWhenAStubIsRemoved() {
+        StubMapping removed = get(anyUrl()).willReturn(ok("{{request.url}}").withHeader("X-Method", "{{request.path.[0]}}")).build();
+        StubMapping remaining = get(anyUrl()).willReturn(ok("{{request.path.[0]}}")).build();
+        transformer.transform(mockRequest().url("/things"), removed.getResponse(), noFileSource(), Parameters.empty());
+        transformer.transform(mockRequest().url("/things"), remaining.getResponse(), noFileSource(), Parameters.empty());
+        assertThat(transformer.getCacheSize(), is(3L));
 
-        transformer.afterStubRemoved(get(anyUrl()).build());
+        transformer.afterStubRemoved(removed);
 
-        assertThat(transformer.getCacheSize(), is(0L));
+        assertThat(transformer.getCacheSize(), is(1L));
+    }
+
+    @Test
+    public void clearsOnlyTheEditedStubsTemplatesWhenAStubIsEdited() {
+        transformer = ResponseTemplateTransformer.builder()
+                .precompilationExecutor(directExecutor())
+                .build();
+        StubMapping original = get(anyUrl()).willReturn(ok("{{request.url}}").withHeader("X-Method", "{{request.path.[0]}}")).build();
+        StubMapping edited = get(anyUrl()).willReturn(ok("{{request.path.[1]}}")).build();
+        StubMapping other = get(anyUrl()).willReturn(ok("{{request.path.[0]}}")).build();
+        transformer.afterStubCreated(original);
+        transformer.afterStubCreated(other);
+        assertThat(transformer.getCacheSize(), is(3L));
+
+        transformer.afterStubEdited(original, edited);
+
+        assertThat(transformer.getCacheSize(), is(2L));
+        assertThat(transformer.transform(mockRequest().url("/things/1"), edited.getResponse(), noFileSource(), Parameters.empty()).getBody(), is("1"));
+    }
+
+    @Test
+    public void boundsTheCacheByTheTotalLengthOfItsTemplates() {
+        transformer = ResponseTemplateTransformer.builder()
+                .maxCacheChars(1000L)
+                .build();
+
+        for (int i = 0; i < 20; i++) {
+            transform("{{now}} " + Strings.repeat("x", 100) + i);
+        }
+
+        TemplateCacheStats stats = transformer.getCacheStats();
+        assertThat(stats.getEntries(), lessThan(20L));
+        assertThat(stats.getSizeChars(), lessThanOrEqualTo(1000L));
+        assertThat(stats.getEvictions(), greaterThan(0L));
+        assertThat(stats.getMaxChars(), is(1000L));
+        assertThat(stats.getMaxEntries(), nullValue());
+    }
+
+    @Test
+    public void recordsTemplateCacheStatistics() {
+        transform("{{now}} 1");
+        transform("{{now}} 1");
+        transform("{{now}} 2");
+
+        TemplateCacheStats stats = transformer.getCacheStats();
+        assertThat(stats.getHits(), is(1L));
+        assertThat(stats.getMisses(), is(2L));
+        assertThat(stats.getEntries(), is(2L));
+        assertThat(stats.getSizeChars(), is(2L * ("[inlineBody]".length() + "{{now}} 1".length())));
+        assertThat(stats.getMaxChars(), is(ResponseTemplateTransformer.DEFAULT_MAX_CACHE_CHARS));
     }
 
     @Test
@@ -765,6 +877,184 @@ public class ResponseTemplateTransformerTest {
         assertThat(transformer.getCacheSize(), is(0L));
     }
 
+    @Test
+    public void precompilesTemplatesWhenAStubIsCreated() {
+        transformer = ResponseTemplateTransformer.builder()
+                .precompilationExecutor(directExecutor())
+                .build();
+        StubMapping stub = get(anyUrl()).willReturn(ok("{{request.url}}").withHeader("X-Method", "{{request.path.[0]}}")).build();
+
+        transformer.afterStubCreated(stub);
+        assertThat(transformer.getCacheSize(), is(2L));
+
+        ResponseDefinition transformed = transformer.transform(mockRequest().url("/things"), stub.getResponse(), noFileSource(), Parameters.empty());
+        assertThat(transformed.getBody(), is("/things"));
+        assertThat(transformed.getHeaders().getHeader("X-Method").firstValue(), is("things"));
+        assertThat(transformer.getCacheSize(), is(2L));
+    }
+
+    @Test
+    public void precompilesTemplatesWhenAStubIsEdited() {
+        transformer = ResponseTemplateTransformer.builder()
+                .precompilationExecutor(directExecutor())
+                .build();
+        StubMapping original = get(anyUrl()).willReturn(ok("{{request.url}}")).build();
+        StubMapping edited = get(anyUrl()).willReturn(ok("{{request.path.[0]}}")).build();
+
+        transformer.afterStubEdited(original, edited);
+
+        assertThat(transformer.getCacheSize(), is(1L));
+    }
+
+    @Test
+    public void precompilesTemplatesInTheBackgroundByDefault() {
+        transformer.afterStubCreated(get(anyUrl()).willReturn(ok("{{request.url}}")).build());
+
+        await().atMost(5, SECONDS).until(new Callable<Long>() {
+            @Override
+            public Long call() {
+                return transformer.getCacheSize();
+            }
+        }, is(1L));
+    }
+
+    @Test
+    public void doesNotPrecompileTemplatesForStubsRemovedBeforeTheirTurn() {
+        QueuingExecutor executor = new QueuingExecutor();
+        transformer = ResponseTemplateTransformer.builder()
+                .precompilationExecutor(executor)
+                .build();
+        StubMapping removed = get(anyUrl()).willReturn(ok("{{request.url}}")).build();
+        StubMapping original = get(anyUrl()).willReturn(ok("{{request.path.[0]}}")).build();
+        StubMapping edited = get(anyUrl()).willReturn(ok("{{request.path.[1]}}")).build();
+        edited.setId(original.getId());
+        transformer.afterStubCreated(removed);
+        transformer.afterStubCreated(original);
+        transformer.afterStubRemoved(removed);
+        transformer.afterStubEdited(original, edited);
+
+        executor.runQueued();
+
+        assertThat(transformer.getCacheSize(), is(1L));
+        assertThat(transformer.transform(mockRequest().url("/things/1"), edited.getResponse(), noFileSource(), Parameters.empty()).getBody(), is("1"));
+        assertThat(transformer.getCacheStats().getHits(), is(1L));
+    }
+
+    @Test
+    public void doesNotPrecompileTemplatesForStubsResetBeforeTheirTurn() {
+        QueuingExecutor executor = new QueuingExecutor();
+        transformer = ResponseTemplateTransformer.builder()
+                .precompilationExecutor(executor)
+                .build();
+        transformer.afterStubCreated(get(anyUrl()).willReturn(ok("{{request.url}}")).build());
+        transformer.afterStubsReset();
+
+        executor.runQueued();
+
+        assertThat(transformer.getCacheSize(), is(0L));
+    }
+
+    @Test
+    public void doesNotPrecompileTemplatesForStubsThatDoNotUseTheTransformer() {
+        transformer = ResponseTemplateTransformer.builder()
+                .global(false)
+                .precompilationExecutor(directExecutor())
+                .build();
+
+        transformer.afterStubCreated(get(anyUrl()).willReturn(ok("{{request.url}}")).build());
+        assertThat(transformer.getCacheSize(), is(0L));
+
+        transformer.afterStubCreated(get(anyUrl()).willReturn(ok("{{request.url}}").withTransformers(ResponseTemplateTransformer.NAME)).build());
+        assertThat(transformer.getCacheSize(), is(1L));
+    }
+
+    @Test
+    public void doesNotPrecompileTemplatesWhenCachingIsDisabled() {
+        transformer = ResponseTemplateTransformer.builder()
+                .maxCacheEntries(0L)
+                .precompilationExecutor(directExecutor())
+                .build();
+
+        transformer.afterStubCreated(get(anyUrl()).willReturn(ok("{{request.url}}")).build());
+
+        assertThat(transformer.getCacheSize(), is(0L));
+    }
+
+    @Test
+    public void leavesInvalidTemplatesToFailWhenRendered() {
+        transformer = ResponseTemplateTransformer.builder()
+                .precompilationExecutor(directExecutor())
+                .build();
+
+        transformer.afterStubCreated(get(anyUrl()).willReturn(ok("{{#if}}")).build());
+
+        assertThat(transformer.getCacheSize(), is(0L));
+    }
+
+    @Test
+    public void precompilesAndCachesTheBodyFilePathTemplate() {
+        transformer = ResponseTemplateTransformer.builder()
+                .precompilationExecutor(directExecutor())
+                .build();
+        StubMapping stub = get(anyUrl()).willReturn(aResponse().withBodyFile("/greet-{{request.query.name}}.txt")).build();
+
+        transformer.afterStubCreated(stub);
+        assertThat(transformer.getCacheSize(), is(1L));
+    }
+
+    @Test
+    public void keepsProxyRequestHeaderTemplatesSeparateFromResponseHeaderTemplates() {
+        ResponseDefinition transformed = transform(mockRequest().url("/things"),
+            aResponse()
+                .withHeader("X-Value", "{{request.url}}")
+                .proxiedFrom("http://localhost")
+                .withAdditionalRequestHeader("X-Value", "{{request.path.[0]}}"));
+
+        assertThat(transformed.getHeaders().getHeader("X-Value").firstValue(), is("/things"));
+        assertThat(transformed.getAdditionalProxyRequestHeaders().getHeader("X-Value").firstValue(), is("things"));
+    }
+
+    @Test
+    public void rendersJsonBodies() {
+        ResponseDefinition transformed = transform(mockRequest().url("/things"),
+            aResponse().withJsonBody(Json.node("{ \"path\": \"{{request.path.[0]}}\" }")));
+
+        assertThat(transformed.getJsonBody().get("path").textValue(), is("things"));
+    }
+
+    @Test(expected = JsonException.class)
+    public void rejectsRenderedJsonBodiesThatAreNotValidJson() {
+        transform(mockRequest().body("a\"b"),
+            aResponse().withJsonBody(Json.node("{ \"body\": \"{{{request.body}}}\" }")));
+    }
+
+    @Test
+    public void usesRenderedJsonBodiesAsTheyAreWhenValidationIsDisabled() {
+        transformer = ResponseTemplateTransformer.builder()
+                .validateRenderedJson(false)
+                .build();
+
+        ResponseDefinition transformed = transform(mockRequest().url("/things"),
+            aResponse().withJsonBody(Json.node("{ \"path\": \"{{request.path.[0]}}\" }")));
+        assertThat(transformed.getTextBody(), is("{\"path\":\"things\"}"));
+        assertThat(transformed.getJsonBody().get("path").textValue(), is("things"));
+
+        transformed = transform(mockRequest().body("a\"b"),
+            aResponse().withJsonBody(Json.node("{ \"body\": \"{{{request.body}}}\" }")));
+        assertThat(transformed.getTextBody(), is("{\"body\":\"a\"b\"}"));
+    }
+
+    @Test
+    public void rendersCorrectlyAfterALargerTemplateOnTheSameThread() {
+        String longBody = Strings.repeat("x", 10000);
+        assertThat(transform(longBody + " {{request.path.[0]}}", mockRequest().url("/one")), is(longBody + " one"));
+        assertThat(transform("{{request.path.[0]}}", mockRequest().url("/two")), is("two"));
+    }
+
+    private String transform(String responseBodyTemplate, Request request) {
+        return transform(request, aResponse().withBody(responseBodyTemplate)).getBody();
+    }
+
     private String transform(String responseBodyTemplate) {
         return transform(mockRequest(), aResponse().withBody(responseBodyTemplate)).getBody();
     }
@@ -790,4 +1080,21 @@ public class ResponseTemplateTransformerTest {
             Parameters.empty()
         );
     }
+
+    private static class QueuingExecutor implements Executor {
+
+        private final List<Runnable> queued = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queued.add(command);
+        }
+
+        void runQueued() {
+            for (Runnable command: queued) {
+                command.run();
+            }
+            queued.clear();
+        }
+    }
 }
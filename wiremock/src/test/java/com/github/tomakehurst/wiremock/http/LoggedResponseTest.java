@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.BinaryFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.http.Response.response;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class LoggedResponseTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void doesNotReadALargeBodyFileWhenLoggingTheResponse() throws Exception {
+        File file = tempDir.newFile("large.bin");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(512L * 1024 * 1024);
+        }
+        CountingBinaryFile bodyFile = new CountingBinaryFile(file);
+
+        LoggedResponse loggedResponse = LoggedResponse.from(response().status(200).body(bodyFile).build());
+
+        assertThat(bodyFile.reads.get(), is(0));
+        assertThat(loggedResponse.getBodyFile(), sameInstance((BinaryFile) bodyFile));
+    }
+
+    @Test
+    public void readsTheBodyFileWhenTheBodyIsAskedFor() throws Exception {
+        File file = tempDir.newFile("small.txt");
+        Files.write(file.toPath(), "From file".getBytes());
+        CountingBinaryFile bodyFile = new CountingBinaryFile(file);
+
+        LoggedResponse loggedResponse = LoggedResponse.from(response().status(200).body(bodyFile).build());
+
+        assertThat(loggedResponse.getBodyAsString(), is("From file"));
+        assertThat(bodyFile.reads.get(), is(1));
+    }
+
+    @Test
+    public void keepsInlineBodies() {
+        LoggedResponse loggedResponse = LoggedResponse.from(response().status(200).body("Inline").build());
+
+        assertThat(loggedResponse.getBodyAsString(), is("Inline"));
+        assertThat(loggedResponse.getBodyFile(), nullValue());
+    }
+
+    private static class CountingBinaryFile extends BinaryFile {
+
+        final AtomicInteger reads = new AtomicInteger();
+
+        CountingBinaryFile(File file) {
+            super(file.toURI());
+        }
+
+        @Override
+        public InputStream getStream() {
+            reads.incrementAndGet();
+            return super.getStream();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.ProxyResponseCacheSettings;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.http.HttpHeader.httpHeader;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ProxyResponseCacheTest {
+
+    private static final String URL = "http://target/things";
+
+    @Test
+    public void servesStoredResponsesUntilTheyExpire() throws Exception {
+        ProxyResponseCache cache = cacheWith(1024, 200);
+
+        store(cache, mockRequest().method(GET), 200, "Things", Collections.<HttpHeader>emptyList());
+        ProxyResponseCache.CachedResponse cached = cache.lookup(mockRequest().method(GET), URL).getFreshResponse();
+        assertThat(new String(cached.getBody(), UTF_8), is("Things"));
+        assertThat(cached.getStatus(), is(200));
+
+        Thread.sleep(300);
+        assertThat(cache.lookup(mockRequest().method(GET), URL).getFreshResponse(), nullValue());
+
+        ProxyResponseCacheStats stats = cache.getStats();
+        assertThat(stats.getHits(), is(1L));
+        assertThat(stats.getMisses(), is(2L));
+    }
+
+    @Test
+    public void doesNotCacheResponsesToNonIdempotentRequests() {
+        assertThat(cacheWith(1024, 60000).lookup(mockRequest().method(POST), URL), nullValue());
+    }
+
+    @Test
+    public void doesNotCacheWhenTheRequestOrResponseForbidsIt() {
+        ProxyResponseCache cache = cacheWith(1024, 60000);
+
+        assertThat(cache.lookup(mockRequest().method(GET).header("Cache-Control", "no-store"), URL), nullValue());
+
+        store(cache, mockRequest().method(GET), 200, "Private", asList(httpHeader("Cache-Control", "private, max-age=60")));
+        assertThat(cache.lookup(mockRequest().method(GET), URL).getFreshResponse(), nullValue());
+
+        store(cache, mockRequest().method(GET), 500, "Error", Collections.<HttpHeader>emptyList());
+        assertThat(cache.lookup(mockRequest().method(GET), URL).getFreshResponse(), nullValue());
+    }
+
+    @Test
+    public void usesMaxAgeWhenShorterThanTheTtl() throws Exception {
+        ProxyResponseCache cache = cacheWith(1024, 60000);
+
+        store(cache, mockRequest().method(GET), 200, "Things", asList(httpHeader("Cache-Control", "public, max-age=0")));
+
+        assertThat(cache.lookup(mockRequest().method(GET), URL).getFreshResponse(), nullValue());
+    }
+
+    @Test
+    public void revalidatesStaleResponsesThatHaveAnETag() {
+        ProxyResponseCache cache = cacheWith(1024, 60000);
+        store(cache, mockRequest().method(GET), 200, "Things", asList(
+            httpHeader("Cache-Control", "no-cache"),
+            httpHeader("ETag", "\"v1\""),
+            httpHeader("X-Version", "1")
+        ));
+
+        ProxyResponseCache.Lookup lookup = cache.lookup(mockRequest().method(GET), URL);
+        assertThat(lookup.getFreshResponse(), nullValue());
+        assertThat(lookup.getValidators(), hasItem(httpHeader("If-None-Match", "\"v1\"")));
+
+        ProxyResponseCache.CachedResponse revalidated = lookup.revalidate(304, asList(httpHeader("X-Version", "2")));
+        assertThat(new String(revalidated.getBody(), UTF_8), is("Things"));
+        assertThat(new HttpHeaders(revalidated.getHeaders()).getHeader("X-Version").firstValue(), is("2"));
+        assertThat(new HttpHeaders(revalidated.getHeaders()).getHeader("ETag").firstValue(), is("\"v1\""));
+        assertThat(cache.getStats().getRevalidations(), is(1L));
+    }
+
+    @Test
+    public void revalidatesWhenTheRequestAsksForIt() {
+        ProxyResponseCache cache = cacheWith(1024, 60000);
+        store(cache, mockRequest().method(GET), 200, "Things", asList(httpHeader("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT")));
+
+        ProxyResponseCache.Lookup lookup = cache.lookup(mockRequest().method(GET).header("Cache-Control", "no-cache"), URL);
+
+        assertThat(lookup.getFreshResponse(), nullValue());
+        assertThat(lookup.getValidators(), hasItem(httpHeader("If-Modified-Since", "Wed, 21 Oct 2015 07:28:00 GMT")));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedResponsesWhenFull() {
+        ProxyResponseCache cache = cacheWith(10, 60000);
+        storeAt(cache, "http://target/1", "12345");
+        storeAt(cache, "http://target/2", "12345");
+        cache.lookup(mockRequest().method(GET), "http://target/1");
+
+        storeAt(cache, "http://target/3", "12345");
+
+        assertThat(cache.lookup(mockRequest().method(GET), "http://target/1").getFreshResponse(), notNullValue());
+        assertThat(cache.lookup(mockRequest().method(GET), "http://target/2").getFreshResponse(), nullValue());
+        assertThat(cache.lookup(mockRequest().method(GET), "http://target/3").getFreshResponse(), notNullValue());
+
+        ProxyResponseCacheStats stats = cache.getStats();
+        assertThat(stats.getEvictions(), is(1L));
+        assertThat(stats.getEntries(), is(2));
+        assertThat(stats.getSizeBytes(), is(10L));
+    }
+
+    @Test
+    public void includesConfiguredRequestHeadersInTheKey() {
+        ProxyResponseCache cache = new ProxyResponseCache(new ProxyResponseCacheSettings(1024, 60000, asList("X-Tenant-Id")));
+        store(cache, mockRequest().method(GET).header("X-Tenant-Id", "one"), 200, "One", Collections.<HttpHeader>emptyList());
+
+        assertThat(cache.lookup(mockRequest().method(GET).header("X-Tenant-Id", "one"), URL).getFreshResponse(), notNullValue());
+        assertThat(cache.lookup(mockRequest().method(GET).header("X-Tenant-Id", "two"), URL).getFreshResponse(), nullValue());
+    }
+
+    @Test
+    public void neverServesCachedResponsesToAuthorizedRequests() {
+        ProxyResponseCache cache = cacheWith(1024, 60000);
+        store(cache, mockRequest().method(GET), 200, "Things", Collections.<HttpHeader>emptyList());
+
+        ProxyResponseCache.Lookup lookup = cache.lookup(mockRequest().method(GET).header("Authorization", "Bearer one"), URL);
+
+        assertThat(lookup.getFreshResponse(), nullValue());
+        assertThat(lookup.getValidators().isEmpty(), is(true));
+    }
+
+    @Test
+    public void onlyStoresResponsesToAuthorizedRequestsThatAreExplicitlyShareable() {
+        ProxyResponseCache cache = cacheWith(1024, 60000);
+        Request authorized = mockRequest().method(GET).header("Authorization", "Bearer one");
+
+        store(cache, authorized, 200, "Mine", asList(httpHeader("Cache-Control", "max-age=60")));
+        assertThat(cache.lookup(mockRequest().method(GET), URL).getFreshResponse(), nullValue());
+
+        assertThat(cache.lookup(authorized, URL).isStorable(200, asList(httpHeader("Cache-Control", "public, max-age=60"))), is(true));
+        assertThat(cache.lookup(authorized, URL).isStorable(200, asList(httpHeader("Cache-Control", "s-maxage=60"))), is(true));
+        assertThat(cache.lookup(authorized, URL).isStorable(200, asList(httpHeader("Cache-Control", "must-revalidate"))), is(true));
+
+        store(cache, authorized, 200, "Shared", asList(httpHeader("Cache-Control", "public, max-age=60")));
+        assertThat(new String(cache.lookup(mockRequest().method(GET), URL).getFreshResponse().getBody(), UTF_8), is("Shared"));
+    }
+
+    @Test
+    public void doesNotStoreResponsesDeclaringALengthOverTheMaximumSize() {
+        ProxyResponseCache.Lookup lookup = cacheWith(10, 60000).lookup(mockRequest().method(GET), URL);
+
+        assertThat(lookup.isStorable(200, asList(httpHeader("Content-Length", "10"))), is(true));
+        assertThat(lookup.isStorable(200, asList(httpHeader("Content-Length", "11"))), is(false));
+    }
+
+    @Test
+    public void onlyServesResponsesWhoseVaryingRequestHeadersMatch() {
+        ProxyResponseCache cache = cacheWith(1024, 60000);
+        store(cache, mockRequest().method(GET).header("Accept-Language", "en"), 200, "Hello", asList(httpHeader("Vary", "Accept-Language")));
+
+        assertThat(cache.lookup(mockRequest().method(GET).header("Accept-Language", "en"), URL).getFreshResponse(), notNullValue());
+        assertThat(cache.lookup(mockRequest().method(GET).header("Accept-Language", "fr"), URL).getFreshResponse(), nullValue());
+    }
+
+    private static ProxyResponseCache cacheWith(long maxBytes, int ttlMilliseconds) {
+        return new ProxyResponseCache(new ProxyResponseCacheSettings(maxBytes, ttlMilliseconds, Collections.<String>emptyList()));
+    }
+
+    private static void store(ProxyResponseCache cache, Request request, int status, String body, List<HttpHeader> headers) {
+        cache.lookup(request, URL).store(status, headers, body.getBytes(UTF_8));
+    }
+
+    private static void storeAt(ProxyResponseCache cache, String url, String body) {
+        cache.lookup(mockRequest().method(GET), url).store(200, Collections.<HttpHeader>emptyList(), body.getBytes(UTF_8));
+    }
+}
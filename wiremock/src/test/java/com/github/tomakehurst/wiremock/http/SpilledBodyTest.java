@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.matching.BinaryEqualToPattern;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class SpilledBodyTest {
+
+    byte[] content;
+    SpilledBody spilledBody;
+
+    @Before
+    public void init() throws Exception {
+        content = new byte[50000];
+        new Random(1).nextBytes(content);
+        spilledBody = SpilledBody.spill(new ByteArrayInputStream(content));
+    }
+
+    @After
+    public void cleanup() {
+        spilledBody.delete();
+    }
+
+    @Test
+    public void recordsTheLengthDigestAndPreviewOfTheContent() {
+        assertThat(spilledBody.getLength(), is(50000L));
+        assertThat(spilledBody.getSha256(), is(Hashing.sha256().hashBytes(content).toString()));
+        assertThat(spilledBody.getPreview(), is(Arrays.copyOf(content, SpilledBody.PREVIEW_BYTES)));
+    }
+
+    @Test
+    public void readsTheContentBackFromDisk() throws Exception {
+        assertThat(spilledBody.getBytes(), is(content));
+        try (InputStream stream = spilledBody.getStream()) {
+            assertThat(ByteStreams.toByteArray(stream), is(content));
+        }
+    }
+
+    @Test
+    public void matchesBinaryEqualityAgainstTheStoredContent() {
+        assertTrue(new BinaryEqualToPattern(content).match(spilledBody).isExactMatch());
+
+        byte[] differentLastByte = content.clone();
+        differentLastByte[differentLastByte.length - 1]++;
+        assertFalse(new BinaryEqualToPattern(differentLastByte).match(spilledBody).isExactMatch());
+        assertFalse(new BinaryEqualToPattern(Arrays.copyOf(content, 100)).match(spilledBody).isExactMatch());
+    }
+
+    @Test
+    public void isNotPresentForRequestsThatCannotSpillTheirBody() {
+        assertThat(SpilledBody.from(mockRequest().body(content)), nullValue());
+    }
+}
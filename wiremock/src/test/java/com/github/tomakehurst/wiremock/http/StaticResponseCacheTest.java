@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class StaticResponseCacheTest {
+
+    private StaticResponseCache cache;
+
+    @Before
+    public void init() {
+        cache = new StaticResponseCache(false);
+    }
+
+    @Test
+    public void rendersStaticStubsOnceWithMatchedStubHeaders() {
+        StubMapping stub = get("/static")
+            .withName("Static stub")
+            .willReturn(aResponse()
+                .withStatus(201)
+                .withStatusMessage("Made it")
+                .withHeader("Content-Type", "text/plain")
+                .withBody("Static body"))
+            .build();
+        cache.afterStubCreated(stub);
+
+        Response response = cache.get(serveEventFor(stub));
+
+        assertThat(response.getStatus(), is(201));
+        assertThat(response.getStatusMessage(), is("Made it"));
+        assertThat(response.getBodyAsString(), is("Static body"));
+        assertThat(response.getHeaders().getHeader("Content-Type").firstValue(), is("text/plain"));
+        assertThat(response.getHeaders().getHeader("Matched-Stub-Id").firstValue(), is(stub.getId().toString()));
+        assertThat(response.getHeaders().getHeader("Matched-Stub-Name").firstValue(), is("Static stub"));
+        assertThat(cache.get(serveEventFor(stub)), sameInstance(response));
+    }
+
+    @Test
+    public void doesNotCacheStubsThatNeedRenderingPerRequest() {
+        StubMapping[] dynamicStubs = {
+            get("/transformed").willReturn(ok("body").withTransformers("some-transformer")).build(),
+            get("/proxied").willReturn(aResponse().proxiedFrom("http://localhost:1234")).build(),
+            get("/fault").willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE)).build(),
+            get("/delayed").willReturn(ok("body").withFixedDelay(10)).build(),
+            get("/random-delay").willReturn(ok("body").withUniformRandomDelay(1, 10)).build(),
+            get("/body-file").willReturn(ok().withBodyFile("plain-example.txt")).build()
+        };
+
+        for (StubMapping stub: dynamicStubs) {
+            cache.afterStubCreated(stub);
+            assertThat(stub.getRequest().getUrl(), cache.get(serveEventFor(stub)), nullValue());
+        }
+    }
+
+    @Test
+    public void cachesNothingWhenTransformersAreAppliedGlobally() {
+        StaticResponseCache cache = new StaticResponseCache(true);
+        StubMapping stub = get("/static").willReturn(ok("body")).build();
+        cache.afterStubCreated(stub);
+
+        assertThat(cache.get(serveEventFor(stub)), nullValue());
+    }
+
+    @Test
+    public void dropsTheRenderedResponseWhenTheStubChanges() {
+        StubMapping original = get("/static").willReturn(ok("original")).build();
+        cache.afterStubCreated(original);
+
+        StubMapping edited = get("/static").willReturn(ok("edited")).build();
+        edited.setId(original.getId());
+        cache.beforeStubEdited(original, edited);
+
+        assertThat(cache.get(serveEventFor(original)), nullValue());
+        assertThat(cache.get(serveEventFor(edited)), nullValue());
+
+        cache.afterStubEdited(original, edited);
+        assertThat(cache.get(serveEventFor(edited)).getBodyAsString(), is("edited"));
+        assertThat(cache.get(serveEventFor(original)), nullValue());
+
+        cache.afterStubRemoved(edited);
+        assertThat(cache.get(serveEventFor(edited)), nullValue());
+
+        cache.afterStubCreated(edited);
+        cache.afterStubsReset();
+        assertThat(cache.get(serveEventFor(edited)), nullValue());
+    }
+
+    private static ServeEvent serveEventFor(StubMapping stub) {
+        return ServeEvent.of(LoggedRequest.createFrom(mockRequest().url(stub.getRequest().getUrl())), stub.getResponse(), stub);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class StreamedBodyTest {
+
+    private static final byte[] CONTENT = "Streamed content".getBytes(UTF_8);
+
+    @Test
+    public void handsOverTheSourceStreamWithoutReadingIt() {
+        InputStream source = new ByteArrayInputStream(CONTENT);
+        StreamedBody body = new StreamedBody(source, CONTENT.length);
+
+        assertThat(body.getStream(), sameInstance(source));
+        assertThat(body.isBuffered(), is(false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotBeStreamedTwice() {
+        StreamedBody body = new StreamedBody(new ByteArrayInputStream(CONTENT), CONTENT.length);
+
+        body.getStream();
+        body.getStream();
+    }
+
+    @Test
+    public void canBeReadAnyNumberOfTimesOnceBuffered() throws Exception {
+        StreamedBody body = new StreamedBody(new ByteArrayInputStream(CONTENT), -1);
+
+        assertThat(body.getBytes(), is(CONTENT));
+        assertThat(body.isBuffered(), is(true));
+        assertThat(ByteStreams.toByteArray(body.getStream()), is(CONTENT));
+        assertThat(ByteStreams.toByteArray(body.getStream()), is(CONTENT));
+    }
+
+    @Test
+    public void closesTheSourceWhenReleasedWithoutBeingRead() {
+        CloseTrackingStream source = new CloseTrackingStream();
+        StreamedBody body = new StreamedBody(source, CONTENT.length);
+
+        body.release();
+
+        assertThat(source.closed, is(true));
+    }
+
+    @Test
+    public void leavesTheSourceToWhateverIsStreamingItWhenReleased() {
+        CloseTrackingStream source = new CloseTrackingStream();
+        StreamedBody body = new StreamedBody(source, CONTENT.length);
+
+        body.getStream();
+        body.release();
+
+        assertThat(source.closed, is(false));
+    }
+
+    @Test
+    public void onlyBuffersToFindTheLengthWhenItIsNotKnown() {
+        StreamedBody knownLength = new StreamedBody(new ByteArrayInputStream(CONTENT), CONTENT.length);
+        assertThat(knownLength.getLength(), is((long) CONTENT.length));
+        assertThat(knownLength.isBuffered(), is(false));
+
+        StreamedBody unknownLength = new StreamedBody(new ByteArrayInputStream(CONTENT), -1);
+        assertThat(unknownLength.getLength(), is((long) CONTENT.length));
+        assertThat(unknownLength.isBuffered(), is(true));
+    }
+
+    private static class CloseTrackingStream extends ByteArrayInputStream {
+
+        boolean closed;
+
+        CloseTrackingStream() {
+            super(CONTENT);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -17,6 +17,8 @@ package com.github.tomakehurst.wiremock.matching;
 
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -66,6 +68,71 @@ public class MatchResultTest {
         assertThat(matchResult.isExactMatch(), is(false));
     }
 
+    @Test
+    public void accumulatesWeightedDistanceCorrectly() {
+        MatchResult matchResult = new WeightedAggregateMatchResult(1)
+            .add(MatchResult.partialMatch(0.5), 10.0)
+            .add(MatchResult.noMatch(), 3.0)
+            .add(MatchResult.exactMatch());
+
+        assertThat(matchResult.getDistance(), is(8.0 / 14.0));
+        assertThat(matchResult.isExactMatch(), is(false));
+    }
+
+    @Test
+    public void accumulatesMoreResultsThanTheExpectedSize() {
+        WeightedAggregateMatchResult matchResult = new WeightedAggregateMatchResult(2);
+        for (int i = 0; i < 20; i++) {
+            matchResult.add(MatchResult.exactMatch());
+        }
+        matchResult.add(MatchResult.noMatch(), 20.0);
+
+        assertThat(matchResult.getDistance(), is(0.5));
+    }
+
+    @Test
+    public void stopsCheckingForAnExactMatchAtTheFirstNonExactResult() {
+        MatchResult matchResult = new WeightedAggregateMatchResult()
+            .add(MatchResult.noMatch())
+            .add(new MatchResult() {
+                @Override
+                public boolean isExactMatch() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public double getDistance() {
+                    throw new UnsupportedOperationException();
+                }
+            });
+
+        assertThat(matchResult.isExactMatch(), is(false));
+    }
+
+    @Test
+    public void calculatesTheAggregateDistanceOnlyOnce() {
+        final AtomicInteger distanceCalculations = new AtomicInteger();
+        MatchResult matchResult = new WeightedAggregateMatchResult()
+            .add(new MatchResult() {
+                @Override
+                public boolean isExactMatch() {
+                    return false;
+                }
+
+                @Override
+                public double getDistance() {
+                    distanceCalculations.incrementAndGet();
+                    return 0.25;
+                }
+            });
+
+        matchResult.getDistance();
+        matchResult.getDistance();
+
+        assertThat(matchResult.getDistance(), is(0.25));
+        assertThat(distanceCalculations.get(), is(1));
+    }
+
     public static class ExceptionThrowingMatchResult extends MatchResult {
 
         @Override
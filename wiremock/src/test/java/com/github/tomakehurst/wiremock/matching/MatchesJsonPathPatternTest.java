@@ -129,6 +129,21 @@ public class MatchesJsonPathPatternTest {
         assertFalse(match.isExactMatch());
     }
 
+    @Test
+    public void doesNotMatchWhenTheJsonPathExpressionIsInvalid() {
+        StringValuePattern pattern = WireMock.matchingJsonPath("$.things[");
+        assertFalse(pattern.match("{ \"things\": [] }").isExactMatch());
+    }
+
+    @Test
+    public void evaluatesTheSameExpressionAgainstDifferentDocuments() {
+        StringValuePattern pattern = WireMock.matchingJsonPath("$.things[?(@.name == 'two')]");
+
+        assertTrue(pattern.match("{ \"things\": [ { \"name\": \"one\" }, { \"name\": \"two\" } ] }").isExactMatch());
+        assertFalse(pattern.match("{ \"things\": [ { \"name\": \"one\" } ] }").isExactMatch());
+        assertTrue(pattern.match("{ \"things\": [ { \"name\": \"two\" } ] }").isExactMatch());
+    }
+
     @Test
     public void noMatchOnNullValue() {
         assertThat(WireMock.matchingJsonPath("$..*").match(null).isExactMatch(), is(false));
@@ -23,7 +23,13 @@ import org.json.JSONException;
 import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.equalToJson;
@@ -99,6 +105,34 @@ public class MatchesXPathPatternTest {
         assertTrue(match.isExactMatch());
     }
 
+    @Test
+    public void matchesNamespacedXmlFromSeveralThreads() throws Exception {
+        final StringValuePattern pattern = WireMock.matchingXPath(
+            "//s:subThing[.='The stuff']",
+            ImmutableMap.of("s", "http://subthings"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final String stuff = i % 2 == 0 ? "The stuff" : "Other stuff";
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        String xml = "<t:thing xmlns:t='http://things' xmlns:s='http://subthings'><s:subThing>" + stuff + "</s:subThing></t:thing>";
+                        return pattern.match(xml).isExactMatch();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get(), is(i % 2 == 0));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void matchesAgainstValuePatternWhenSingleElementReturnedFromXPath() {
         String xml =
@@ -16,13 +16,20 @@
 package com.github.tomakehurst.wiremock.matching;
 
 import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.google.common.collect.ImmutableMap;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.*;
@@ -501,6 +508,82 @@ public class RequestPatternTest {
         JSONAssert.assertEquals(ALL_BODY_PATTERNS_EXAMPLE, json, true);
     }
 
+    @Test
+    public void isMatchedByAgreesWithFullMatchForAllRequestElements() {
+        RequestPattern requestPattern = newRequestPattern(POST, urlPathEqualTo("/things"))
+            .withHeader("X-One", equalTo("one"))
+            .withQueryParam("q", matching("[a-z]+"))
+            .withCookie("session", equalTo("abc"))
+            .withRequestBody(matchingJsonPath("$.id"))
+            .build();
+
+        MockRequest matching = mockRequest()
+            .method(POST)
+            .url("/things?q=stuff")
+            .header("X-One", "one")
+            .cookie("session", "xyz", "abc")
+            .body("{ \"id\": 1 }");
+
+        assertTrue(requestPattern.match(matching).isExactMatch());
+        assertTrue(requestPattern.isMatchedBy(matching, Collections.<String, RequestMatcherExtension>emptyMap()));
+
+        MockRequest wrongBody = mockRequest()
+            .method(POST)
+            .url("/things?q=stuff")
+            .header("X-One", "one")
+            .cookie("session", "abc")
+            .body("{ \"name\": 1 }");
+
+        assertFalse(requestPattern.match(wrongBody).isExactMatch());
+        assertFalse(requestPattern.isMatchedBy(wrongBody, Collections.<String, RequestMatcherExtension>emptyMap()));
+    }
+
+    @Test
+    public void isMatchedByDoesNotEvaluateBodyPatternsWhenMethodDoesNotMatch() {
+        RequestPattern requestPattern = newRequestPattern(POST, urlPathEqualTo("/things"))
+            .withRequestBody(equalTo("body"))
+            .build();
+
+        final AtomicInteger bodyReads = new AtomicInteger();
+        MockRequest request = new MockRequest() {
+            @Override
+            public String getBodyAsString() {
+                bodyReads.incrementAndGet();
+                return super.getBodyAsString();
+            }
+        }.method(GET).url("/things").body("body");
+
+        assertFalse(requestPattern.isMatchedBy(request, Collections.<String, RequestMatcherExtension>emptyMap()));
+        assertThat(bodyReads.get(), is(0));
+
+        assertFalse(requestPattern.match(request).isExactMatch());
+        assertThat(bodyReads.get(), greaterThan(0));
+    }
+
+    @Test
+    public void isMatchedByAppliesInlineAndNamedCustomMatchers() {
+        RequestPattern inline = new RequestPattern(new RequestMatcher() {
+            @Override
+            public MatchResult match(Request request) {
+                return MatchResult.of(request.getUrl().contains("yes"));
+            }
+
+            @Override
+            public String getName() {
+                return "inline";
+            }
+        });
+
+        assertTrue(inline.isMatchedBy(mockRequest().url("/yes"), Collections.<String, RequestMatcherExtension>emptyMap()));
+        assertFalse(inline.isMatchedBy(mockRequest().url("/no"), Collections.<String, RequestMatcherExtension>emptyMap()));
+
+        RequestPattern named = new RequestPattern(new CustomMatcherDefinition("always", Parameters.empty()));
+        Map<String, RequestMatcherExtension> customMatchers = ImmutableMap.<String, RequestMatcherExtension>of("always", RequestMatcherExtension.ALWAYS);
+
+        assertTrue(named.isMatchedBy(mockRequest().url("/anything"), customMatchers));
+        assertFalse(named.isMatchedBy(mockRequest().url("/anything"), Collections.<String, RequestMatcherExtension>emptyMap()));
+    }
+
     static Matcher<ContentPattern<?>> valuePattern(final Class<? extends StringValuePattern> patternClass, final String expectedValue) {
         return new TypeSafeDiagnosingMatcher<ContentPattern<?>>() {
             @Override
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class PacedBodyWriterTest {
+
+    private ScheduledExecutorService timer;
+    private ExecutorService containerThreads;
+    private CountDownLatch completed;
+
+    @Before
+    public void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("timer-%d").build());
+        containerThreads = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("container-%d").build());
+        completed = new CountDownLatch(1);
+    }
+
+    @After
+    public void cleanup() {
+        timer.shutdownNow();
+        containerThreads.shutdownNow();
+    }
+
+    @Test
+    public void readsChunksOffTheTimerThreadWhenWritingWithoutBlocking() throws Exception {
+        RecordingChunks chunks = new RecordingChunks("one", "two", "three");
+        TestOutputStream out = new TestOutputStream(true);
+
+        new PacedBodyWriter(asyncContext(), out, chunks, timer).start();
+
+        assertThat(completed.await(5, SECONDS), is(true));
+        assertThat(out.written.toString(), is("onetwothree"));
+        assertThat(chunks.readingThreads, everyItem(not(startsWith("timer"))));
+    }
+
+    @Test
+    public void readsChunksOffTheTimerThreadWhenWritingWithBlocking() throws Exception {
+        RecordingChunks chunks = new RecordingChunks("one", "two", "three");
+        TestOutputStream out = new TestOutputStream(false);
+
+        new PacedBodyWriter(asyncContext(), out, chunks, timer).start();
+
+        assertThat(completed.await(5, SECONDS), is(true));
+        assertThat(out.written.toString(), is("onetwothree"));
+        assertThat(chunks.readingThreads, everyItem(not(startsWith("timer"))));
+    }
+
+    private AsyncContext asyncContext() {
+        return (AsyncContext) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] { AsyncContext.class },
+            new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("start")) {
+                        containerThreads.execute((Runnable) args[0]);
+                    } else if (method.getName().equals("complete")) {
+                        completed.countDown();
+                    }
+                    return null;
+                }
+            }
+        );
+    }
+
+    private static class RecordingChunks implements PacedChunks {
+
+        final List<String> readingThreads = new CopyOnWriteArrayList<>();
+        private final String[] chunks;
+        private int index = -1;
+
+        RecordingChunks(String... chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public boolean next() {
+            readingThreads.add(Thread.currentThread().getName());
+            return ++index < chunks.length;
+        }
+
+        @Override
+        public ByteBuffer chunk() {
+            return ByteBuffer.wrap(chunks[index].getBytes());
+        }
+
+        @Override
+        public long delayNanos() {
+            return 1000000;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class TestOutputStream extends ServletOutputStream {
+
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private final boolean nonBlocking;
+
+        TestOutputStream(boolean nonBlocking) {
+            this.nonBlocking = nonBlocking;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (!nonBlocking) {
+                throw new UnsupportedOperationException();
+            }
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            written.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            written.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import com.github.tomakehurst.wiremock.http.BandwidthThrottle;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ThrottledChunksTest {
+
+    @Test
+    public void sizesChunksToTheRateWithinBounds() {
+        assertThat(ThrottledChunks.chunkSizeFor(1), is(1));
+        assertThat(ThrottledChunks.chunkSizeFor(2000), is(100));
+        assertThat(ThrottledChunks.chunkSizeFor(100 * 1024 * 1024), is(ThrottledChunks.MAX_CHUNK_SIZE));
+    }
+
+    @Test
+    public void readsTheWholeBodyInChunksWithoutBufferingIt() throws Exception {
+        ThrottledChunks chunks = chunksFor("0123456789", new BandwidthThrottle(80));
+
+        StringBuilder readBack = new StringBuilder();
+        int chunkCount = 0;
+        while (chunks.next()) {
+            ByteBuffer chunk = chunks.chunk();
+            assertThat(chunk.remaining(), lessThanOrEqualTo(4));
+            readBack.append(new String(chunk.array(), chunk.position(), chunk.remaining()));
+            chunkCount++;
+        }
+
+        assertThat(readBack.toString(), is("0123456789"));
+        assertThat(chunkCount, is(3));
+    }
+
+    @Test
+    public void delaysEachChunkByItsTransferTimePlusTheTimeToFirstByte() throws Exception {
+        ThrottledChunks chunks = chunksFor("0123456789", new BandwidthThrottle(100, null, 200));
+
+        chunks.next();
+
+        assertThat((double) NANOSECONDS.toMillis(chunks.delayNanos()), closeTo(250, 10));
+    }
+
+    @Test
+    public void keepsToTheOverallRateWhenJittered() throws Exception {
+        ThrottledChunks chunks = chunksFor(new String(new byte[1000]), new BandwidthThrottle(1000, 0.5, null));
+
+        long lastDelay = 0;
+        while (chunks.next()) {
+            lastDelay = chunks.delayNanos();
+        }
+
+        // 20 chunks of 50ms +/- 50% should average out to around a second
+        assertThat((double) NANOSECONDS.toMillis(lastDelay), closeTo(1000, 250));
+    }
+
+    private static ThrottledChunks chunksFor(String body, BandwidthThrottle throttle) {
+        return new ThrottledChunks(Channels.newChannel(new ByteArrayInputStream(body.getBytes())), throttle);
+    }
+}
@@ -17,6 +17,8 @@ package com.github.tomakehurst.wiremock.standalone;
 
 import com.github.tomakehurst.wiremock.client.BasicCredentials;
 import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.ProxyConnectionPoolSettings;
+import com.github.tomakehurst.wiremock.common.ProxyResponseCacheSettings;
 import com.github.tomakehurst.wiremock.common.ProxySettings;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.extension.Parameters;
@@ -421,6 +423,24 @@ public class CommandLineOptionsTest {
         assertThat(transformer.getMaxCacheEntries(), nullValue());
     }
 
+    @Test
+    public void configuresMaxTemplateCacheCharsIfSpecified() {
+        CommandLineOptions options = new CommandLineOptions("--global-response-templating", "--max-template-cache-chars", "4096");
+        Map<String, ResponseTemplateTransformer> extensions = options.extensionsOfType(ResponseTemplateTransformer.class);
+        ResponseTemplateTransformer transformer = extensions.get(ResponseTemplateTransformer.NAME);
+
+        assertThat(transformer.getMaxCacheChars(), is(4096L));
+    }
+
+    @Test
+    public void configuresMaxTemplateCacheCharsToTheDefaultIfNotSpecified() {
+        CommandLineOptions options = new CommandLineOptions("--local-response-templating");
+        Map<String, ResponseTemplateTransformer> extensions = options.extensionsOfType(ResponseTemplateTransformer.class);
+        ResponseTemplateTransformer transformer = extensions.get(ResponseTemplateTransformer.NAME);
+
+        assertThat(transformer.getMaxCacheChars(), is(ResponseTemplateTransformer.DEFAULT_MAX_CACHE_CHARS));
+    }
+
     @Test
     public void configuresPermittedSystemKeysIfSpecified() {
         CommandLineOptions options = new CommandLineOptions("--global-response-templating", "--permitted-system-keys", "java*,path*");
@@ -457,6 +477,118 @@ public class CommandLineOptionsTest {
         assertThat(options.getStubRequestLoggingDisabled(), is(false));
     }
 
+    @Test
+    public void configuresCopyOnWriteStubMappingSet() {
+        CommandLineOptions options = new CommandLineOptions("--stub-mapping-set", "copy_on_write");
+        assertThat(options.getStubMappingSetType(), is(Options.StubMappingSetType.COPY_ON_WRITE));
+    }
+
+    @Test
+    public void defaultsToConcurrentStubMappingSet() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.getStubMappingSetType(), is(Options.StubMappingSetType.CONCURRENT));
+    }
+
+    @Test
+    public void configuresRingBufferRequestJournal() {
+        CommandLineOptions options = new CommandLineOptions("--request-journal", "ring_buffer", "--max-request-journal-entries", "500");
+        assertThat(options.getRequestJournalType(), is(Options.RequestJournalType.RING_BUFFER));
+        assertThat(options.maxRequestJournalEntries().get(), is(500));
+    }
+
+    @Test
+    public void configuresMemoryMappedRequestJournalWithDirectory() {
+        CommandLineOptions options = new CommandLineOptions("--request-journal", "memory_mapped", "--request-journal-dir", "/tmp/journal");
+        assertThat(options.getRequestJournalType(), is(Options.RequestJournalType.MEMORY_MAPPED));
+        assertThat(options.getRequestJournalDirectory(), is("/tmp/journal"));
+    }
+
+    @Test
+    public void configuresBodyFileCacheSize() {
+        CommandLineOptions options = new CommandLineOptions("--body-file-cache-size", "1048576");
+        assertThat(options.getBodyFileCacheMaxBytes(), is(1048576L));
+    }
+
+    @Test
+    public void enablesStaticStubResponseCaching() {
+        assertThat(new CommandLineOptions("--cache-static-stub-responses").getStaticStubResponseCachingEnabled(), is(true));
+        assertThat(new CommandLineOptions().getStaticStubResponseCachingEnabled(), is(false));
+    }
+
+    @Test
+    public void bodyFileCacheIsDisabledByDefault() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.getBodyFileCacheMaxBytes(), is(0L));
+    }
+
+    @Test
+    public void configuresProxyConnectionPool() {
+        CommandLineOptions options = new CommandLineOptions(
+            "--proxy-max-connections", "200",
+            "--proxy-max-connections-per-route", "20",
+            "--proxy-idle-connection-timeout", "5000"
+        );
+
+        ProxyConnectionPoolSettings settings = options.getProxyConnectionPoolSettings();
+        assertThat(settings.getMaxConnections(), is(200));
+        assertThat(settings.getMaxConnectionsPerRoute(), is(20));
+        assertThat(settings.getIdleTimeoutMilliseconds(), is(5000));
+    }
+
+    @Test
+    public void usesDefaultProxyConnectionPoolSettingsWhenNoneSpecified() {
+        ProxyConnectionPoolSettings settings = new CommandLineOptions().getProxyConnectionPoolSettings();
+        assertThat(settings.getMaxConnections(), is(ProxyConnectionPoolSettings.DEFAULT_MAX_CONNECTIONS));
+        assertThat(settings.getMaxConnectionsPerRoute(), is(ProxyConnectionPoolSettings.DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        assertThat(settings.getIdleTimeoutMilliseconds(), is(ProxyConnectionPoolSettings.DEFAULT_IDLE_TIMEOUT_MILLISECONDS));
+    }
+
+    @Test
+    public void enablesProxiedResponseStreaming() {
+        assertThat(new CommandLineOptions("--stream-proxied-responses").getProxiedResponseStreamingEnabled(), is(true));
+        assertThat(new CommandLineOptions().getProxiedResponseStreamingEnabled(), is(false));
+    }
+
+    @Test
+    public void enablesAsynchronousProxying() {
+        assertThat(new CommandLineOptions("--async-proxying").getAsynchronousProxyingEnabled(), is(true));
+        assertThat(new CommandLineOptions().getAsynchronousProxyingEnabled(), is(false));
+    }
+
+    @Test
+    public void configuresProxyResponseCache() {
+        CommandLineOptions options = new CommandLineOptions(
+            "--proxy-cache-size", "1048576",
+            "--proxy-cache-ttl", "5000",
+            "--proxy-cache-key-headers", "Authorization,Accept");
+
+        ProxyResponseCacheSettings settings = options.getProxyResponseCacheSettings();
+        assertThat(settings.isEnabled(), is(true));
+        assertThat(settings.getMaxBytes(), is(1048576L));
+        assertThat(settings.getTtlMilliseconds(), is(5000));
+        assertThat(settings.getKeyHeaders(), contains("Authorization", "Accept"));
+    }
+
+    @Test
+    public void disablesProxyResponseCacheByDefault() {
+        ProxyResponseCacheSettings settings = new CommandLineOptions().getProxyResponseCacheSettings();
+        assertThat(settings.isEnabled(), is(false));
+        assertThat(settings.getTtlMilliseconds(), is(ProxyResponseCacheSettings.DEFAULT_TTL_MILLISECONDS));
+        assertThat(settings.getKeyHeaders().isEmpty(), is(true));
+    }
+
+    @Test
+    public void setsTheRequestBodySpillThreshold() {
+        assertThat(new CommandLineOptions("--request-body-spill-threshold", "65536").getRequestBodySpillThresholdBytes(), is(65536L));
+        assertThat(new CommandLineOptions().getRequestBodySpillThresholdBytes(), is(0L));
+    }
+
+    @Test
+    public void defaultsToInMemoryRequestJournal() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.getRequestJournalType(), is(Options.RequestJournalType.IN_MEMORY));
+    }
+
     @Test
     public void printsTheActualPortOnlyWhenHttpsDisabled() {
 	    CommandLineOptions options = new CommandLineOptions();
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
+import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.newRequestPattern;
+import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.hasExactly;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CopyOnWriteMappingSetTest {
+
+    private CopyOnWriteMappingSet mappingSet;
+
+    @Before
+    public void init() {
+        mappingSet = new CopyOnWriteMappingSet();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void returnsMappingsInPriorityThenInsertionOrder() {
+        mappingSet.add(aMapping(3, "/priority3/1"));
+        mappingSet.add(aMapping(3, "/priority3/2"));
+        mappingSet.add(aMapping(6, "/priority6/1"));
+        mappingSet.add(aMapping(1, "/priority1/1"));
+        mappingSet.add(aMapping(null, "/default/1"));
+        mappingSet.add(aMapping(1, "/priority1/2"));
+
+        assertThat(mappingSet, hasExactly(
+            requestUrlIs("/priority1/2"),
+            requestUrlIs("/priority1/1"),
+            requestUrlIs("/priority3/2"),
+            requestUrlIs("/priority3/1"),
+            requestUrlIs("/default/1"),
+            requestUrlIs("/priority6/1")));
+    }
+
+    @Test
+    public void publishesChangesToReadersAfterEachWrite() {
+        StubMapping first = aMapping(1, "/first");
+        mappingSet.add(first);
+        assertThat(mappingSet.iterator().next(), is(first));
+
+        StubMapping second = aMapping(1, "/second");
+        mappingSet.add(second);
+        assertThat(mappingSet.iterator().next(), is(second));
+
+        mappingSet.remove(second);
+        mappingSet.remove(first);
+        assertThat(mappingSet.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void publishesChangesMadeInABatchTogether() {
+        final StubMapping first = aMapping(1, "/first");
+        final StubMapping second = aMapping(1, "/second");
+
+        mappingSet.batch(new Runnable() {
+            @Override
+            public void run() {
+                mappingSet.add(first);
+                mappingSet.add(second);
+                assertThat(mappingSet.iterator().hasNext(), is(false));
+                assertThat(mappingSet.get(first.getUuid()).get(), is(first));
+            }
+        });
+
+        assertThat(mappingSet.iterator().next(), is(second));
+        assertThat(mappingSet.candidatesFor(mockRequest().method(GET).url("/first")).iterator().next(), is(first));
+    }
+
+    @Test
+    public void snapshotBeingIteratedIsUnaffectedByLaterWrites() {
+        mappingSet.add(aMapping(1, "/one"));
+        Iterator<StubMapping> it = mappingSet.iterator();
+
+        mappingSet.add(aMapping(1, "/two"));
+        mappingSet.clear();
+
+        assertThat(it.next().getRequest().getUrl(), is("/one"));
+        assertThat(it.hasNext(), is(false));
+    }
+
+    @Test
+    public void findsMappingsById() {
+        StubMapping mapping = aMapping(1, "/things");
+        mappingSet.add(mapping);
+
+        assertThat(mappingSet.get(mapping.getUuid()).get(), is(mapping));
+        assertThat(mappingSet.get(UUID.randomUUID()).isPresent(), is(false));
+    }
+
+    @Test
+    public void removesByIdAndFallsBackToRequestPattern() {
+        StubMapping byId = aMapping(1, "/by-id");
+        StubMapping byPattern = aMapping(1, "/by-pattern");
+        mappingSet.add(byId);
+        mappingSet.add(byPattern);
+
+        assertThat(mappingSet.remove(byId), is(true));
+        assertThat(mappingSet.get(byId.getUuid()).isPresent(), is(false));
+
+        StubMapping samePattern = aMapping(1, "/by-pattern");
+        assertThat(mappingSet.remove(samePattern), is(true));
+        assertThat(mappingSet.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void removesAllMappingsSharingAnId() {
+        StubMapping one = aMapping(1, "/one");
+        StubMapping two = aMapping(1, "/two");
+        two.setUuid(one.getUuid());
+        mappingSet.add(one);
+        mappingSet.add(two);
+
+        assertThat(mappingSet.remove(one), is(true));
+        assertThat(mappingSet.iterator().hasNext(), is(false));
+        assertThat(mappingSet.get(one.getUuid()).isPresent(), is(false));
+    }
+
+    @Test
+    public void testReplace() {
+        StubMapping existingMapping = aMapping(1, "/priority1/1");
+        mappingSet.add(existingMapping);
+
+        StubMapping newMapping = aMapping(2, "/priority2/1");
+        boolean result = mappingSet.replace(existingMapping, newMapping);
+
+        Iterator<StubMapping> it = mappingSet.iterator();
+
+        assertThat(result, is(true));
+        assertThat(it.next(), is(newMapping));
+        assertThat(it.hasNext(), is(false));
+        assertThat(mappingSet.get(existingMapping.getUuid()).isPresent(), is(false));
+        assertThat(mappingSet.get(newMapping.getUuid()).get(), is(newMapping));
+    }
+
+    @Test
+    public void testReplaceNotExists() {
+        StubMapping existingMapping = aMapping(1, "/priority1/1");
+        mappingSet.add(existingMapping);
+
+        boolean result = mappingSet.replace(aMapping(2, "/priority2/2"), aMapping(2, "/priority2/1"));
+
+        Iterator<StubMapping> it = mappingSet.iterator();
+
+        assertThat(result, is(false));
+        assertThat(it.next(), is(existingMapping));
+        assertThat(it.hasNext(), is(false));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void returnsCandidatesForLiteralAndUnindexedStubsInOrder() {
+        mappingSet.add(aMapping(5, "/things"));
+        mappingSet.add(aMapping(5, "/other"));
+        StubMapping regex = new StubMapping(newRequestPattern(GET, urlMatching("/th.*")).build(), new ResponseDefinition());
+        mappingSet.add(regex);
+
+        Iterable<StubMapping> candidates = mappingSet.candidatesFor(mockRequest().method(GET).url("/things"));
+
+        assertThat(candidates, hasExactly(
+            requestUrlPatternIs("/th.*"),
+            requestUrlIs("/things")));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void returnsCandidatesForTheRequestMethodAndAnyMethod() {
+        mappingSet.add(new StubMapping(newRequestPattern(GET, urlPathEqualTo("/things")).build(), new ResponseDefinition()));
+        mappingSet.add(new StubMapping(newRequestPattern(POST, urlEqualTo("/things")).build(), new ResponseDefinition()));
+        mappingSet.add(aMapping(5, "/things?a=1"));
+
+        Iterable<StubMapping> candidates = mappingSet.candidatesFor(mockRequest().method(GET).url("/things?a=1"));
+
+        assertThat(candidates, hasExactly(
+            requestUrlIs("/things?a=1"),
+            requestUrlPathIs("/things")));
+    }
+
+    private StubMapping aMapping(Integer priority, String url) {
+        RequestPattern requestPattern = newRequestPattern(ANY, urlEqualTo(url)).build();
+        StubMapping mapping = new StubMapping(requestPattern, new ResponseDefinition());
+        mapping.setPriority(priority);
+        return mapping;
+    }
+
+    private Matcher<StubMapping> requestUrlIs(final String expectedUrl) {
+        return new TypeSafeMatcher<StubMapping>() {
+
+            @Override
+            public void describeTo(Description desc) {
+                desc.appendText("a stub with URL " + expectedUrl);
+            }
+
+            @Override
+            public boolean matchesSafely(StubMapping actualMapping) {
+                return expectedUrl.equals(actualMapping.getRequest().getUrl());
+            }
+        };
+    }
+
+    private Matcher<StubMapping> requestUrlPatternIs(final String expectedUrlPattern) {
+        return new TypeSafeMatcher<StubMapping>() {
+
+            @Override
+            public void describeTo(Description desc) {
+                desc.appendText("a stub with URL pattern " + expectedUrlPattern);
+            }
+
+            @Override
+            public boolean matchesSafely(StubMapping actualMapping) {
+                return expectedUrlPattern.equals(actualMapping.getRequest().getUrlPattern());
+            }
+        };
+    }
+
+    private Matcher<StubMapping> requestUrlPathIs(final String expectedUrlPath) {
+        return new TypeSafeMatcher<StubMapping>() {
+
+            @Override
+            public void describeTo(Description desc) {
+                desc.appendText("a stub with URL path " + expectedUrlPath);
+            }
+
+            @Override
+            public boolean matchesSafely(StubMapping actualMapping) {
+                return expectedUrlPath.equals(actualMapping.getRequest().getUrlPath());
+            }
+        };
+    }
+}
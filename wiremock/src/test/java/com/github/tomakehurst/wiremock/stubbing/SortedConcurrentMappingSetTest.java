@@ -15,8 +15,10 @@
  */
 package com.github.tomakehurst.wiremock.stubbing;
 
+import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.UrlPattern;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
@@ -26,7 +28,12 @@ import org.junit.Test;
 import java.util.Iterator;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
 import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.newRequestPattern;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.hasExactly;
 import static org.hamcrest.Matchers.is;
@@ -135,6 +142,63 @@ public class SortedConcurrentMappingSetTest {
 		assertThat(it.hasNext(), is(false));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void returnsCandidatesForLiteralUrlPathAndUnindexedStubsInPriorityThenInsertionOrder() {
+		mappingSet.add(aMapping(5, GET, urlEqualTo("/things?a=1"), "literal-url"));
+		mappingSet.add(aMapping(1, GET, urlPathEqualTo("/things"), "literal-path"));
+		mappingSet.add(aMapping(5, ANY, urlMatching("/th.*"), "regex"));
+		mappingSet.add(aMapping(5, GET, urlEqualTo("/other"), "other-url"));
+		mappingSet.add(aMapping(5, POST, urlEqualTo("/things?a=1"), "other-method"));
+		mappingSet.add(aMapping(3, ANY, UrlPattern.ANY, "any-url"));
+
+		Iterable<StubMapping> candidates = mappingSet.candidatesFor(mockRequest().method(GET).url("/things?a=1"));
+
+		assertThat(candidates, hasExactly(
+				nameIs("literal-path"),
+				nameIs("any-url"),
+				nameIs("regex"),
+				nameIs("literal-url")));
+	}
+
+	@Test
+	public void doesNotReturnRemovedOrReplacedMappingsAsCandidates() {
+		StubMapping removed = aMapping(5, GET, urlEqualTo("/things"), "removed");
+		StubMapping replaced = aMapping(5, GET, urlEqualTo("/things"), "replaced");
+		mappingSet.add(removed);
+		mappingSet.add(replaced);
+
+		mappingSet.remove(removed);
+		StubMapping replacement = aMapping(5, GET, urlEqualTo("/elsewhere"), "replacement");
+		replacement.setInsertionIndex(replaced.getInsertionIndex());
+		mappingSet.replace(replaced, replacement);
+
+		assertThat(mappingSet.candidatesFor(mockRequest().method(GET).url("/things")).iterator().hasNext(), is(false));
+		assertThat(mappingSet.candidatesFor(mockRequest().method(GET).url("/elsewhere")).iterator().next(), is(replacement));
+	}
+
+	private StubMapping aMapping(Integer priority, RequestMethod method, UrlPattern urlPattern, String name) {
+		StubMapping mapping = new StubMapping(newRequestPattern(method, urlPattern).build(), new ResponseDefinition());
+		mapping.setPriority(priority);
+		mapping.setName(name);
+		return mapping;
+	}
+
+	private Matcher<StubMapping> nameIs(final String expectedName) {
+		return new TypeSafeMatcher<StubMapping>() {
+
+			@Override
+			public void describeTo(Description desc) {
+				desc.appendText("a stub named " + expectedName);
+			}
+
+			@Override
+			public boolean matchesSafely(StubMapping actualMapping) {
+				return expectedName.equals(actualMapping.getName());
+			}
+		};
+	}
+
 	private StubMapping aMapping(Integer priority, String url) {
 		RequestPattern requestPattern = newRequestPattern(ANY, urlEqualTo(url)).build();
 		StubMapping mapping = new StubMapping(requestPattern, new ResponseDefinition());
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder;
+import com.google.common.base.Optional;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.verification.LoggedRequest.createFrom;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CountingRequestJournalTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Mockery context;
+    private int requestCount;
+
+    @Before
+    public void init() {
+        context = new Mockery();
+    }
+
+    @Test
+    public void countsRegisteredPatternsAsRequestsArrive() {
+        CountingRequestJournal journal = new CountingRequestJournal(new InMemoryRequestJournal(Optional.<Integer>absent()));
+        RequestPattern counted = getRequestedFor(urlEqualTo("/counted")).build();
+
+        journal.requestReceived(serveEvent("/counted"));
+        journal.registerCounter(counted);
+        journal.requestReceived(serveEvent("/counted"));
+        journal.requestReceived(serveEvent("/counted"));
+        journal.requestReceived(serveEvent("/other"));
+
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/counted")).build()), is(2));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlMatching("/.*")).build()), is(4));
+    }
+
+    @Test
+    public void keepsCountingWhenTheJournalIsDisabledOrDiscardsEntries() {
+        CountingRequestJournal disabled = new CountingRequestJournal(new DisabledRequestJournal());
+        CountingRequestJournal limited = new CountingRequestJournal(new InMemoryRequestJournal(Optional.of(1)));
+        RequestPattern counted = getRequestedFor(urlEqualTo("/counted")).build();
+        disabled.registerCounter(counted);
+        limited.registerCounter(counted);
+
+        for (int i = 0; i < 3; i++) {
+            disabled.requestReceived(serveEvent("/counted"));
+            limited.requestReceived(serveEvent("/counted"));
+        }
+
+        assertThat(disabled.countRequestsMatching(counted), is(3));
+        assertThat(limited.countRequestsMatching(counted), is(3));
+    }
+
+    @Test
+    public void discountsRemovedEventsAndZeroesOnReset() {
+        CountingRequestJournal journal = new CountingRequestJournal(new InMemoryRequestJournal(Optional.<Integer>absent()));
+        RequestPattern counted = getRequestedFor(urlEqualTo("/counted")).build();
+        journal.registerCounter(counted);
+
+        ServeEvent first = serveEvent("/counted");
+        journal.requestReceived(first);
+        journal.requestReceived(serveEvent("/counted"));
+        journal.requestReceived(serveEvent("/counted"));
+
+        journal.removeEvent(first.getId());
+        assertThat(journal.countRequestsMatching(counted), is(2));
+
+        journal.removeEventsMatching(getRequestedFor(urlMatching("/count.*")).build());
+        assertThat(journal.countRequestsMatching(counted), is(0));
+
+        journal.requestReceived(serveEvent("/counted"));
+        journal.reset();
+        assertThat(journal.countRequestsMatching(counted), is(0));
+
+        journal.requestReceived(serveEvent("/counted"));
+        assertThat(journal.countRequestsMatching(counted), is(1));
+    }
+
+    @Test
+    public void discountsOnlyEventsReceivedAfterRegistrationWhenEventsAroundItAreRemoved() throws Exception {
+        RequestJournal[] delegates = {
+            new InMemoryRequestJournal(Optional.<Integer>absent()),
+            new MappedFileRequestJournal(Optional.<Integer>absent(), tempDir.newFolder())
+        };
+
+        for (RequestJournal delegate: delegates) {
+            CountingRequestJournal journal = new CountingRequestJournal(delegate);
+            RequestPattern counted = getRequestedFor(urlEqualTo("/counted")).build();
+
+            ServeEvent receivedBefore = serveEvent("/counted");
+            ServeEvent loggedBeforeButReceivedAfter = serveEvent("/counted");
+            journal.requestReceived(receivedBefore);
+            Thread.sleep(5);
+            journal.registerCounter(counted);
+            journal.requestReceived(loggedBeforeButReceivedAfter);
+            journal.requestReceived(serveEvent("/counted"));
+            assertThat(journal.countRequestsMatching(counted), is(2));
+
+            journal.removeEvent(receivedBefore.getId());
+            assertThat(journal.countRequestsMatching(counted), is(2));
+
+            journal.removeEvent(loggedBeforeButReceivedAfter.getId());
+            assertThat(journal.countRequestsMatching(counted), is(1));
+
+            journal.removeEventsMatching(counted);
+            assertThat(journal.countRequestsMatching(counted), is(0));
+        }
+    }
+
+    @Test
+    public void fallsBackToTheJournalOnceACounterIsRemoved() {
+        CountingRequestJournal journal = new CountingRequestJournal(new InMemoryRequestJournal(Optional.<Integer>absent()));
+        RequestPattern counted = getRequestedFor(urlEqualTo("/counted")).build();
+
+        journal.requestReceived(serveEvent("/counted"));
+        journal.registerCounter(counted);
+        assertThat(journal.hasCounterFor(counted), is(true));
+        assertThat(journal.countRequestsMatching(counted), is(0));
+
+        journal.removeCounter(counted);
+        assertThat(journal.hasCounterFor(counted), is(false));
+        assertThat(journal.countRequestsMatching(counted), is(1));
+    }
+
+    private ServeEvent serveEvent(String url) {
+        return ServeEvent.of(createFrom(MockRequestBuilder.aRequest(context, "request" + requestCount++).withUrl(url).build()), null);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder;
+import com.google.common.base.Optional;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.common.Metadata.metadata;
+import static com.github.tomakehurst.wiremock.http.HttpHeader.httpHeader;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.http.Response.response;
+import static com.github.tomakehurst.wiremock.matching.RequestPattern.everything;
+import static com.github.tomakehurst.wiremock.verification.LoggedRequest.createFrom;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class MappedFileRequestJournalTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Mockery context;
+    private int requestCount;
+    private File journalDir;
+
+    @Before
+    public void init() throws Exception {
+        context = new Mockery();
+        journalDir = tempDir.newFolder("journal");
+    }
+
+    @Test
+    public void countsAndFindsRequestsMatchingAPattern() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.<Integer>absent(), journalDir);
+
+        journal.requestReceived(serveEvent(aRequest().withUrl("/things/1")));
+        journal.requestReceived(serveEvent(aRequest().withUrl("/things/1?page=2")));
+        journal.requestReceived(serveEvent(aRequest().withUrl("/things/2").withMethod(POST).withBody("{\"name\": \"two\"}")));
+
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/things/1")).build()), is(1));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlPathEqualTo("/things/1")).build()), is(2));
+        assertThat(journal.countRequestsMatching(anyRequestedFor(urlMatching("/things/.*")).build()), is(3));
+        assertThat(journal.countRequestsMatching(postRequestedFor(urlEqualTo("/things/2"))
+            .withRequestBody(matchingJsonPath("$.name", equalTo("two"))).build()), is(1));
+
+        List<LoggedRequest> posts = journal.getRequestsMatching(postRequestedFor(anyUrl()).build());
+        assertThat(posts.size(), is(1));
+        assertThat(posts.get(0).getBodyAsString(), is("{\"name\": \"two\"}"));
+    }
+
+    @Test
+    public void readsBackServeEventsWithStubAndResponse() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.<Integer>absent(), journalDir);
+
+        StubMapping stub = get(urlEqualTo("/served")).willReturn(aResponse().withBody("Served")).build();
+        Response response = response()
+            .status(200)
+            .headers(new HttpHeaders(httpHeader("Content-Type", "text/plain")))
+            .body("Served")
+            .build();
+        ServeEvent original = ServeEvent.of(createFrom(aRequest().withUrl("/served").build()), stub.getResponse(), stub)
+            .complete(response, 12);
+        journal.requestReceived(original);
+        original.afterSend(5);
+        journal.requestReceived(ServeEvent.forUnmatchedRequest(createFrom(aRequest().withUrl("/unmatched").build())));
+
+        List<ServeEvent> serveEvents = journal.getAllServeEvents();
+        assertThat(serveEvents.size(), is(2));
+        assertThat(serveEvents.get(0).getRequest().getUrl(), is("/unmatched"));
+        assertThat(serveEvents.get(0).getWasMatched(), is(false));
+
+        ServeEvent readBack = journal.getServeEvent(original.getId()).get();
+        assertThat(readBack.getId(), is(original.getId()));
+        assertThat(readBack.getWasMatched(), is(true));
+        assertThat(readBack.getStubMapping().getId(), is(stub.getId()));
+        assertThat(readBack.getResponse().getStatus(), is(200));
+        assertThat(readBack.getResponse().getBodyAsString(), is("Served"));
+        assertThat(readBack.getResponse().getHeaders().getHeader("Content-Type").firstValue(), is("text/plain"));
+        assertThat(readBack.getTiming().getProcessTime(), is(12));
+        assertThat(readBack.getTiming().getResponseSendTime(), is(5));
+        assertThat(readBack.getTiming().getTotalTime(), is(17));
+    }
+
+    @Test
+    public void removesEventsByIdPatternAndStubMetadata() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.<Integer>absent(), journalDir);
+
+        StubMapping tagged = get(urlEqualTo("/tagged")).withMetadata(metadata().attr("tag", "remove-me")).build();
+        ServeEvent first = serveEvent(aRequest().withUrl("/first"));
+        ServeEvent second = serveEvent(aRequest().withUrl("/second"));
+        ServeEvent third = ServeEvent.of(createFrom(aRequest().withUrl("/tagged").build()), ResponseDefinition.ok(), tagged);
+        journal.requestReceived(first);
+        journal.requestReceived(second);
+        journal.requestReceived(third);
+
+        journal.removeEvent(first.getId());
+        assertThat(journal.getServeEvent(first.getId()).isPresent(), is(false));
+
+        List<ServeEvent> removedByPattern = journal.removeEventsMatching(getRequestedFor(urlEqualTo("/second")).build());
+        assertThat(removedByPattern.size(), is(1));
+        assertThat(removedByPattern.get(0).getId(), is(second.getId()));
+
+        List<ServeEvent> removedByMetadata = journal.removeServeEventsForStubsMatchingMetadata(containing("remove-me"));
+        assertThat(removedByMetadata.size(), is(1));
+        assertThat(removedByMetadata.get(0).getId(), is(third.getId()));
+
+        assertThat(journal.countRequestsMatching(everything()), is(0));
+    }
+
+    @Test
+    public void matchesMetadataOfTheStubAsItWasWhenEachEventWasServed() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.<Integer>absent(), journalDir);
+
+        StubMapping original = get(urlEqualTo("/tagged")).withMetadata(metadata().attr("tag", "keep-me")).build();
+        StubMapping edited = get(urlEqualTo("/tagged")).withMetadata(metadata().attr("tag", "remove-me")).build();
+        edited.setId(original.getId());
+        ServeEvent beforeEdit = ServeEvent.of(createFrom(aRequest().withUrl("/tagged").build()), ResponseDefinition.ok(), original);
+        ServeEvent afterEdit = ServeEvent.of(createFrom(aRequest().withUrl("/tagged").build()), ResponseDefinition.ok(), edited);
+        journal.requestReceived(beforeEdit);
+        journal.requestReceived(afterEdit);
+
+        List<ServeEvent> removed = journal.removeServeEventsForStubsMatchingMetadata(containing("remove-me"));
+
+        assertThat(removed.size(), is(1));
+        assertThat(removed.get(0).getId(), is(afterEdit.getId()));
+        assertThat(journal.getServeEvent(beforeEdit.getId()).isPresent(), is(true));
+    }
+
+    @Test
+    public void discardsOldEntriesAndDeletesUnusedSegmentsWhenSizeIsLimited() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.of(3), journalDir, 1024);
+
+        for (int i = 0; i < 50; i++) {
+            journal.requestReceived(serveEvent(aRequest().withUrl("/request/" + i)));
+        }
+
+        assertThat(journal.countRequestsMatching(everything()), is(3));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/request/46")).build()), is(0));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/request/47")).build()), is(1));
+        assertThat(journal.getAllServeEvents().get(0).getRequest().getUrl(), is("/request/49"));
+        assertThat(journalDir.list().length, lessThan(5));
+    }
+
+    @Test
+    public void doesNotFindDiscardedOrResetEventsById() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.of(1), journalDir);
+        ServeEvent first = serveEvent(aRequest().withUrl("/first"));
+        ServeEvent second = serveEvent(aRequest().withUrl("/second"));
+        journal.requestReceived(first);
+        journal.requestReceived(second);
+
+        assertThat(journal.getServeEvent(first.getId()).isPresent(), is(false));
+        assertThat(journal.getServeEvent(second.getId()).get().getRequest().getUrl(), is("/second"));
+
+        journal.reset();
+
+        assertThat(journal.getServeEvent(second.getId()).isPresent(), is(false));
+    }
+
+    @Test
+    public void spansSegmentsAndStoresEventsLargerThanASegment() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.<Integer>absent(), journalDir, 1024);
+
+        StringBuilder largeBody = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            largeBody.append("body-").append(i).append(' ');
+        }
+
+        for (int i = 0; i < 20; i++) {
+            journal.requestReceived(serveEvent(aRequest().withUrl("/small/" + i)));
+        }
+        journal.requestReceived(serveEvent(aRequest().withUrl("/large").withMethod(POST).withBody(largeBody.toString())));
+
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlMatching("/small/.*")).build()), is(20));
+        assertThat(journal.getRequestsMatching(postRequestedFor(urlEqualTo("/large")).build()).get(0).getBodyAsString(),
+            is(largeBody.toString()));
+    }
+
+    @Test
+    public void keepsAbsentBodiesAbsent() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.<Integer>absent(), journalDir);
+        LoggedRequest request = new LoggedRequest(
+            "/no-body",
+            "http://localhost/no-body",
+            GET,
+            "127.0.0.1",
+            new HttpHeaders(),
+            Collections.<String, Cookie>emptyMap(),
+            false,
+            new Date(),
+            null,
+            null
+        );
+        journal.requestReceived(ServeEvent.of(request, null));
+
+        assertThat(journal.getAllServeEvents().get(0).getRequest().getBody(), nullValue());
+        assertThat(journal.getAllServeEvents().get(0).getResponse(), nullValue());
+    }
+
+    @Test
+    public void resettingTheJournalClearsAllEntriesAndSegments() {
+        RequestJournal journal = new MappedFileRequestJournal(Optional.<Integer>absent(), journalDir, 1024);
+        for (int i = 0; i < 20; i++) {
+            journal.requestReceived(serveEvent(aRequest().withUrl("/request/" + i)));
+        }
+
+        journal.reset();
+
+        assertThat(journal.countRequestsMatching(everything()), is(0));
+        assertThat(journalDir.list().length, is(0));
+
+        journal.requestReceived(serveEvent(aRequest().withUrl("/after-reset")));
+        assertThat(journal.countRequestsMatching(everything()), is(1));
+    }
+
+    private MockRequestBuilder aRequest() {
+        return MockRequestBuilder.aRequest(context, "request" + requestCount++);
+    }
+
+    private static ServeEvent serveEvent(MockRequestBuilder requestBuilder) {
+        return ServeEvent.of(createFrom(requestBuilder.build()), null)
+            .complete(response().status(200).body("OK").build(), 1);
+    }
+}
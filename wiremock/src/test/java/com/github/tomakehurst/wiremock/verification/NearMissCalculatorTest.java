@@ -21,6 +21,7 @@ import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.EqualToPattern;
 import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.matching.WeightedMatchResult;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
@@ -31,6 +32,7 @@ import org.jmock.Mockery;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
@@ -162,6 +164,65 @@ public class NearMissCalculatorTest {
         assertThat(nearestForIncorrectMethodAndUrl.get(0).getStubMapping().getName(), is("Correct"));
     }
 
+    @Test
+    public void findsTheSameNearestStubsWhenScoringInParallel() {
+        List<MappingBuilder> mappingBuilders = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            mappingBuilders.add(get(urlEqualTo("/things/" + i)).willReturn(aResponse()));
+        }
+        mappingBuilders.add(get(urlEqualTo("/thing")).willReturn(aResponse()));
+        givenStubMappings(mappingBuilders.toArray(new MappingBuilder[0]));
+
+        NearMissCalculator parallelNearMissCalculator = new NearMissCalculator(stubMappings, requestJournal, 1);
+        NearMissCalculator sequentialNearMissCalculator = new NearMissCalculator(stubMappings, requestJournal, Integer.MAX_VALUE);
+        LoggedRequest request = mockRequest().url("/things/10").asLoggedRequest();
+
+        List<NearMiss> parallel = parallelNearMissCalculator.findNearestTo(request);
+        List<NearMiss> sequential = sequentialNearMissCalculator.findNearestTo(request);
+
+        assertThat(parallel.size(), is(NEAR_MISS_COUNT));
+        assertThat(parallel.get(0).getStubMapping().getRequest().getUrl(), is("/things/10"));
+        for (int i = 0; i < NEAR_MISS_COUNT; i++) {
+            assertThat(parallel.get(i).getStubMapping(), is(sequential.get(i).getStubMapping()));
+        }
+    }
+
+    @Test
+    public void findsTheSameNearestRequestsWhenScoringInParallel() {
+        Request[] requests = new Request[1500];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = mockRequest().method(i % 2 == 0 ? GET : DELETE).url("/things/" + (i % 100));
+        }
+        givenRequests(requests);
+
+        RequestPattern requestPattern = newRequestPattern(DELETE, urlEqualTo("/things/7")).build();
+        List<NearMiss> parallel = new NearMissCalculator(stubMappings, requestJournal, 1).findNearestTo(requestPattern);
+        List<NearMiss> sequential = new NearMissCalculator(stubMappings, requestJournal, Integer.MAX_VALUE).findNearestTo(requestPattern);
+
+        assertThat(parallel.size(), is(NEAR_MISS_COUNT));
+        for (int i = 0; i < NEAR_MISS_COUNT; i++) {
+            assertThat(parallel.get(i).getRequest(), is(sequential.get(i).getRequest()));
+            assertThat(parallel.get(i).getRequest().getUrl(), is("/things/7"));
+            assertThat(parallel.get(i).getRequest().getMethod(), is(DELETE));
+        }
+    }
+
+    @Test
+    public void ranksEquallyNearStubsInTheOrderTheyAreServed() {
+        givenStubMappings(
+            get(urlEqualTo("/one")).withName("First").willReturn(aResponse()),
+            get(urlEqualTo("/two")).withName("Second").willReturn(aResponse()),
+            get(urlEqualTo("/six")).withName("Third").willReturn(aResponse()),
+            get(urlEqualTo("/ten")).withName("Fourth").willReturn(aResponse())
+        );
+
+        List<NearMiss> nearest = nearMissCalculator.findNearestTo(mockRequest().url("/abc").asLoggedRequest());
+
+        assertThat(nearest.get(0).getStubMapping().getName(), is("First"));
+        assertThat(nearest.get(1).getStubMapping().getName(), is("Second"));
+        assertThat(nearest.get(2).getStubMapping().getName(), is("Third"));
+    }
+
     private void givenStubMappings(final MappingBuilder... mappingBuilders) {
         final List<StubMapping> mappings = from(mappingBuilders).transform(new Function<MappingBuilder, StubMapping>() {
             @Override
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder;
+import com.google.common.base.Optional;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.common.Metadata.metadata;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.RequestPattern.everything;
+import static com.github.tomakehurst.wiremock.verification.LoggedRequest.createFrom;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RingBufferRequestJournalTest {
+
+    private Mockery context;
+    private int requestCount;
+    private ServeEvent serveEvent1, serveEvent2, serveEvent3;
+
+    @Before
+    public void createTestRequests() {
+        context = new Mockery();
+        serveEvent1 = serveEvent("/logging1");
+        serveEvent2 = serveEvent("/logging2");
+        serveEvent3 = serveEvent("/logging3");
+    }
+
+    @Test
+    public void countsRequestsMatchingLiteralAndNonLiteralUrls() {
+        RequestJournal journal = new RingBufferRequestJournal(Optional.<Integer>absent());
+
+        journal.requestReceived(serveEvent1);
+        journal.requestReceived(serveEvent("/logging1?q=1"));
+        journal.requestReceived(serveEvent2);
+
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging1")).build()), is(1));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlPathEqualTo("/logging1")).build()), is(2));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlMatching("/logging.*")).build()), is(3));
+        assertThat(journal.countRequestsMatching(postRequestedFor(urlMatching("/logging.*")).build()), is(0));
+        assertThat(journal.countRequestsMatching(everything()), is(3));
+    }
+
+    @Test
+    public void discardsOldestRequestsWhenFull() {
+        RequestJournal journal = new RingBufferRequestJournal(Optional.of(2));
+
+        journal.requestReceived(serveEvent1);
+        journal.requestReceived(serveEvent2);
+        journal.requestReceived(serveEvent3);
+
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging1")).build()), is(0));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging2")).build()), is(1));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging3")).build()), is(1));
+        assertThat(journal.getServeEvent(serveEvent1.getId()), is(Optional.<ServeEvent>absent()));
+        assertThat(journal.getAllServeEvents(), contains(serveEvent3, serveEvent2));
+    }
+
+    @Test
+    public void returnsMatchingRequestsOldestFirst() {
+        RequestJournal journal = new RingBufferRequestJournal(Optional.of(3));
+
+        ServeEvent post = serveEvent(aRequest().withUrl("/logging1").withMethod(POST));
+        journal.requestReceived(serveEvent1);
+        journal.requestReceived(post);
+        journal.requestReceived(serveEvent2);
+        journal.requestReceived(serveEvent("/logging1"));
+
+        List<String> urls = new ArrayList<>();
+        for (LoggedRequest request: journal.getRequestsMatching(anyRequestedFor(urlPathMatching("/logging.*")).build())) {
+            urls.add(request.getMethod() + " " + request.getUrl());
+        }
+        assertThat(urls, contains("POST /logging1", "GET /logging2", "GET /logging1"));
+    }
+
+    @Test
+    public void findsAndRemovesEventsById() {
+        RequestJournal journal = new RingBufferRequestJournal(Optional.<Integer>absent());
+        journal.requestReceived(serveEvent1);
+        journal.requestReceived(serveEvent2);
+
+        assertThat(journal.getServeEvent(serveEvent2.getId()).get(), is(serveEvent2));
+
+        journal.removeEvent(serveEvent2.getId());
+
+        assertThat(journal.getServeEvent(serveEvent2.getId()), is(Optional.<ServeEvent>absent()));
+        assertThat(journal.getAllServeEvents(), contains(serveEvent1));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging2")).build()), is(0));
+    }
+
+    @Test
+    public void removesEventsMatchingAPattern() {
+        RequestJournal journal = new RingBufferRequestJournal(Optional.<Integer>absent());
+        journal.requestReceived(serveEvent1);
+        journal.requestReceived(serveEvent2);
+        journal.requestReceived(serveEvent3);
+
+        List<ServeEvent> removed = journal.removeEventsMatching(getRequestedFor(urlEqualTo("/logging2")).build());
+
+        assertThat(removed, contains(serveEvent2));
+        assertThat(journal.getAllServeEvents(), contains(serveEvent3, serveEvent1));
+    }
+
+    @Test
+    public void removesEventsForStubsWithMatchingMetadata() {
+        StubMapping toRemove = get(urlEqualTo("/logging1")).withMetadata(metadata().attr("tag", "remove-me")).build();
+        StubMapping toKeep = get(urlEqualTo("/logging2")).withMetadata(metadata().attr("tag", "keep-me")).build();
+        ServeEvent first = ServeEvent.of(createFrom(aRequest().withUrl("/logging1").build()), null, toRemove);
+        ServeEvent second = ServeEvent.of(createFrom(aRequest().withUrl("/logging2").build()), null, toKeep);
+        ServeEvent third = ServeEvent.of(createFrom(aRequest().withUrl("/logging1").build()), null, toRemove);
+
+        RequestJournal journal = new RingBufferRequestJournal(Optional.<Integer>absent());
+        journal.requestReceived(first);
+        journal.requestReceived(second);
+        journal.requestReceived(third);
+        journal.requestReceived(serveEvent3);
+
+        List<ServeEvent> removed = journal.removeServeEventsForStubsMatchingMetadata(containing("remove-me"));
+
+        assertThat(removed, contains(first, third));
+        assertThat(journal.getAllServeEvents(), contains(serveEvent3, second));
+    }
+
+    @Test
+    public void matchesMetadataOfTheStubAsItWasWhenEachEventWasServed() {
+        StubMapping original = get(urlEqualTo("/logging1")).withMetadata(metadata().attr("tag", "keep-me")).build();
+        StubMapping edited = get(urlEqualTo("/logging1")).withMetadata(metadata().attr("tag", "remove-me")).build();
+        edited.setId(original.getId());
+        ServeEvent beforeEdit = ServeEvent.of(createFrom(aRequest().withUrl("/logging1").build()), null, original);
+        ServeEvent afterEdit = ServeEvent.of(createFrom(aRequest().withUrl("/logging1").build()), null, edited);
+
+        RequestJournal journal = new RingBufferRequestJournal(Optional.<Integer>absent());
+        journal.requestReceived(beforeEdit);
+        journal.requestReceived(afterEdit);
+
+        List<ServeEvent> removed = journal.removeServeEventsForStubsMatchingMetadata(containing("remove-me"));
+
+        assertThat(removed, contains(afterEdit));
+        assertThat(journal.getAllServeEvents(), contains(beforeEdit));
+    }
+
+    @Test
+    public void resettingTheJournalClearsAllEntries() {
+        RequestJournal journal = new RingBufferRequestJournal(Optional.of(1));
+        journal.requestReceived(serveEvent1);
+        assertThat(journal.countRequestsMatching(everything()), is(1));
+
+        journal.reset();
+
+        assertThat(journal.countRequestsMatching(everything()), is(0));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging1")).build()), is(0));
+        assertThat(journal.getServeEvent(serveEvent1.getId()), is(Optional.<ServeEvent>absent()));
+    }
+
+    @Test
+    public void recordsNothingWhenCapacityIsZero() {
+        RequestJournal journal = new RingBufferRequestJournal(Optional.of(0));
+        journal.requestReceived(serveEvent1);
+
+        assertThat(journal.countRequestsMatching(everything()), is(0));
+        assertThat(journal.getAllServeEvents().size(), is(0));
+    }
+
+    @Test
+    public void indexesStayConsistentWithConcurrentWriters() throws Exception {
+        final int capacity = 100;
+        final RequestJournal journal = new RingBufferRequestJournal(Optional.of(capacity));
+        final List<ServeEvent> serveEvents = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            serveEvents.add(serveEvent("/concurrent/" + (i % 10)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < 8; thread++) {
+            final int offset = thread;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = offset; i < serveEvents.size(); i += 8) {
+                        journal.requestReceived(serveEvents.get(i));
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+
+        assertThat(journal.getAllServeEvents().size(), is(capacity));
+        assertThat(journal.countRequestsMatching(everything()), is(capacity));
+
+        int totalByPath = 0;
+        for (int i = 0; i < 10; i++) {
+            totalByPath += journal.countRequestsMatching(getRequestedFor(urlEqualTo("/concurrent/" + i)).build());
+        }
+        assertThat(totalByPath, is(capacity));
+
+        for (ServeEvent serveEvent: journal.getAllServeEvents()) {
+            assertThat(journal.getServeEvent(serveEvent.getId()).get(), is(serveEvent));
+        }
+    }
+
+    private MockRequestBuilder aRequest() {
+        return MockRequestBuilder.aRequest(context, "request" + requestCount++);
+    }
+
+    private ServeEvent serveEvent(String url) {
+        return serveEvent(aRequest().withUrl(url));
+    }
+
+    private static ServeEvent serveEvent(MockRequestBuilder requestBuilder) {
+        return ServeEvent.of(createFrom(requestBuilder.build()), null);
+    }
+}